@@ -0,0 +1,83 @@
+package minijava.lang;
+
+/**
+ * Large MiniJava programs for the benchmarks, made of numbered copies of one class.
+ */
+public class GeneratedSources {
+
+   private static final String CLASS = """
+      // Sorts and searches an array of %1$d numbers.
+      class Numbers%1$d {
+         int[] number;
+         int size;
+
+         public int Init(int sz) {
+            int j;
+            size = sz;
+            number = new int[sz];
+            j = 0;
+            while (j < size) {
+               number[j] = (sz - j) * 7 + 3 - 2 * (j + 1);
+               j = j + 1;
+            }
+            return 0;
+         }
+
+         public int Sort() {
+            int i;
+            int j;
+            int t;
+            i = size - 1;
+            while (0 < i) {
+               j = 0;
+               while (j < i) {
+                  if (number[j + 1] < number[j] && !(number[j] < 0)) {
+                     t = number[j];
+                     number[j] = number[j + 1];
+                     number[j + 1] = t;
+                  } else {
+                     t = 0;
+                  }
+                  j = j + 1;
+               }
+               i = i - 1;
+            }
+            return this.Search(number.length, new Numbers%1$d().Init(size));
+         }
+
+         public int Search(int value, int ignored) {
+            int left;
+            int right;
+            boolean found;
+            left = 0;
+            right = size - 1;
+            found = false;
+            while (left < right && !found) {
+               if (number[left] < value) left = left + 1; else found = true;
+            }
+            return left;
+         }
+      }
+
+      """;
+
+   private GeneratedSources() {}
+
+   /**
+    * @return A program of about one kilobyte per class
+    */
+   public static String program(int classes) {
+      StringBuilder source = new StringBuilder("""
+         class Main {
+            public static void main(String[] a) {
+               System.out.println(new Numbers0().Init(10));
+            }
+         }
+
+         """);
+      for (int index = 0; index < classes; index++) {
+         source.append(String.format(CLASS, index));
+      }
+      return source.toString();
+   }
+}
@@ -0,0 +1,70 @@
+package minijava.lang.parser;
+
+import java.util.concurrent.TimeUnit;
+import minijava.lang.GeneratedSources;
+import org.antlr.v4.runtime.CharStream;
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.TokenSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares the ANTLR lexer with the {@link DfaLexer}, tokenizing alone and followed by the parser.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LexerBenchmark {
+
+   /**
+    * About one kilobyte per class.
+    */
+   @Param({"100", "4000"})
+   public int classes;
+
+   @Param({"ANTLR", "DFA"})
+   public Parser.Lexer lexer;
+
+   private String source;
+
+   @Setup
+   public void setUp() {
+      source = GeneratedSources.program(classes);
+   }
+
+   @Benchmark
+   public int tokenize() {
+      CharStream charStream = CharStreams.fromString(source);
+      TokenSource tokenSource = Parser.tokenSource(charStream, lexer);
+      int tokens = 0;
+      while (tokenSource.nextToken().getType() != Token.EOF) {
+         tokens++;
+      }
+      return tokens;
+   }
+
+   @Benchmark
+   public Object parse() {
+      return Parser.parse(source, lexer);
+   }
+
+   public static void main(String[] args) throws RunnerException {
+      new Runner(new OptionsBuilder().include(LexerBenchmark.class.getSimpleName()).build()).run();
+   }
+}
@@ -0,0 +1,95 @@
+package minijava.lang.typechecker;
+
+import java.util.concurrent.TimeUnit;
+import minijava.lang.GeneratedSources;
+import minijava.lang.parser.AST.Program;
+import minijava.lang.parser.FlatAst;
+import minijava.lang.parser.Parser;
+import minijava.lang.parser.SymbolTable;
+import minijava.lang.parser.SymbolTableFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Type checks a generated program and builds its {@link minijava.lang.parser.AST}, run with {@code -prof gc} for the
+ * bytes allocated per build. {@link #main} first prints the heap the {@link minijava.lang.parser.AST} keeps alive per
+ * node, counted as the nodes of its {@link FlatAst}, to compare the representations of the {@link
+ * minijava.lang.parser.AST} across versions.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TypeCheckerBenchmark {
+
+   /**
+    * About one kilobyte per class.
+    */
+   @Param({"100", "1000"})
+   public int classes;
+
+   private String source;
+
+   private Program program;
+
+   private SymbolTable<?> symbolTable;
+
+   @Setup
+   public void setUp() {
+      source = GeneratedSources.program(classes);
+      program = Parser.program(source, Parser.Lexer.DFA, Parser.Mode.RECURSIVE_DESCENT);
+      symbolTable = new SymbolTableFactory(program).newTable().populate().build();
+   }
+
+   @Benchmark
+   public SymbolTable<?> typeCheck() {
+      TypeChecker.visitAndCheck(symbolTable, program);
+      return symbolTable;
+   }
+
+   @Benchmark
+   public Program buildAst() {
+      return Parser.program(source, Parser.Lexer.DFA, Parser.Mode.RECURSIVE_DESCENT);
+   }
+
+   /**
+    * @return The bytes of heap kept alive per node by the {@link Program}s of a source
+    */
+   static double heapPerNode(int classes) {
+      String source = GeneratedSources.program(classes);
+      Program[] programs = new Program[16];
+      long before = usedHeap();
+      for (int index = 0; index < programs.length; index++) {
+         programs[index] = Parser.program(source, Parser.Lexer.DFA, Parser.Mode.RECURSIVE_DESCENT);
+      }
+      long after = usedHeap();
+      return (double) (after - before) / programs.length / FlatAst.of(programs[0]).size();
+   }
+
+   private static long usedHeap() {
+      Runtime runtime = Runtime.getRuntime();
+      for (int index = 0; index < 4; index++) {
+         System.gc();
+      }
+      return runtime.totalMemory() - runtime.freeMemory();
+   }
+
+   public static void main(String[] args) throws RunnerException {
+      System.out.printf("Heap per node: %.1f bytes%n", heapPerNode(1000));
+      new Runner(new OptionsBuilder().include(TypeCheckerBenchmark.class.getSimpleName()).build()).run();
+   }
+}
@@ -15,6 +15,8 @@ package antlr4;
 
 program: mainClass (classDeclaration)* EOF;
 
+compilationUnit: (mainClass)? (classDeclaration)* EOF;
+
 mainClass:  'class' Identifier '{' 'public' 'static' 'void' 'main' '(' 'String' '[' ']' Identifier ')' '{' statement '}' '}';
 
 classDeclaration: 'class' Identifier ('extends' Identifier)? '{' (varDeclaration)* (methodDeclaration)* '}';
@@ -39,7 +41,15 @@ statement:
     |   Identifier  '[' expression ']' '=' expression ';'                                                       # arrayAssign
     ;
 
-expression:
+expression:     comparison ('&&' comparison)*;
+
+comparison:     sum ('<' sum)*;
+
+sum:            product (('+' | '-') product)*;
+
+product:        term ('*' term)*;
+
+term:
         IntegerLiteral expression2                      # exprNumber
     |   'true' expression2                              # exprTrue
     |   'false' expression2                             # exprFalse
@@ -47,7 +57,7 @@ expression:
     |   'this' expression2                              # exprThis
     |   'new' 'int' '[' expression ']' expression2      # newIntArray
     |   'new' Identifier '(' ')' expression2            # newObject
-    |   '!' expression expression2                      # exprNot
+    |   '!' term                                        # exprNot
     |   '(' expression ')' expression2                  # exprParenthesis
     ;
 
@@ -55,7 +65,6 @@ expression2:
         '.' Identifier '(' (expression(',' expression)*)? ')' expression2   # exprClassMember
     |   '.'  'length' expression2                                           # exprLength
     |   '[' expression ']' expression2                                      # exprArray
-    |   ('&&' | '<' | '+' | '-' | '*') expression expression2               # exprOp
     |   /* epsilon */                                                       # epilson
     ;
 
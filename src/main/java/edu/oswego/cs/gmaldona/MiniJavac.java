@@ -2,32 +2,63 @@ package edu.oswego.cs.gmaldona;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
-import antlr4.MiniJavaParser.ProgramContext;
-import antlr4.MiniJavaVisitor;
 import minijava.lang.MiniJava;
+import minijava.lang.codegen.CodeGenerator;
+import minijava.lang.codegen.ProgramClassLoader;
+import minijava.lang.interpreter.Interpreter;
+import minijava.lang.optimizer.ArrayBounds;
+import minijava.lang.optimizer.CallSites;
+import minijava.lang.optimizer.ConstantFolder;
+import minijava.lang.optimizer.Inliner;
+import minijava.lang.optimizer.LoopInvariantMotion;
+import minijava.lang.optimizer.ScalarReplacement;
+import minijava.lang.optimizer.TailCallElimination;
 import minijava.lang.parser.AST.ASTNode;
-import minijava.lang.parser.MiniJavaVisitorImpl;
+import minijava.lang.parser.AST.ClassDecl;
+import minijava.lang.parser.AST.CompilationUnit;
+import minijava.lang.parser.AST.Program;
+import minijava.lang.parser.ClassSignatures;
 import minijava.lang.parser.Parser;
+import minijava.lang.parser.ProgramMerger;
+import minijava.lang.parser.SourcePositions;
 import minijava.lang.parser.SymbolTable;
 import minijava.lang.parser.SymbolTableFactory;
+import minijava.lang.typechecker.ClassCheckScheduler;
 import minijava.lang.typechecker.SyntacticChecker;
+import minijava.lang.typechecker.TypeCheckException;
 import minijava.lang.typechecker.TypeChecker;
 
 public class MiniJavac implements MiniJava {
 
    enum Flags {
       PARALLELIZED,
-      DEBUG
+      DEBUG,
+      SIGNATURES,
+      WHOLE_PROGRAM,
+      CLASSES,
+      JAR,
+      EXEC,
+      RUN,
+      OPTIMIZE,
+      DFA_LEXER,
+      FAST_PARSE,
+      NO_PARSE_TREE,
+      STREAMING
    }
 
    private static final Logger LOG = Logger.getLogger(MiniJavac.class.getName());
@@ -36,8 +67,11 @@ public class MiniJavac implements MiniJava {
 
    private List<MiniJavac.Flags> flags;
 
+   private List<ClassDecl> summaries;
+
    private MiniJavac() {
       this.flags = new ArrayList<>();
+      this.summaries = new ArrayList<>();
    }
 
    protected MiniJavac setFlags(MiniJavac.Flags flag0, MiniJavac.Flags ... flagsN) {
@@ -60,6 +94,40 @@ public class MiniJavac implements MiniJava {
       return flags;
    }
 
+   /**
+    * Sets the precompiled class summaries that are loaded into every compiled program, see {@link ClassSignatures}
+    */
+   protected MiniJavac setSummaries(List<ClassDecl> summaries) {
+      this.summaries = summaries;
+      return this;
+   }
+
+   /**
+    * With {@link Flags#DFA_LEXER} the sources are tokenized by the table-driven lexer.
+    */
+   protected Parser.Lexer lexer() {
+      return flags.contains(Flags.DFA_LEXER) ? Parser.Lexer.DFA : Parser.Lexer.ANTLR;
+   }
+
+   /**
+    * With {@link Flags#FAST_PARSE} the AST is built by the {@link minijava.lang.parser.RecursiveDescentParser}, with
+    * {@link Flags#NO_PARSE_TREE} without keeping the parse tree and with {@link Flags#STREAMING} over bounded
+    * buffers, see {@link Parser.Mode}. Otherwise with {@link Flags#PARALLELIZED} the classes of a source are parsed
+    * in parallel.
+    */
+   protected Parser.Mode mode() {
+      if (flags.contains(Flags.FAST_PARSE)) {
+         return Parser.Mode.RECURSIVE_DESCENT;
+      }
+      if (flags.contains(Flags.STREAMING)) {
+         return Parser.Mode.STREAMING;
+      }
+      if (flags.contains(Flags.NO_PARSE_TREE)) {
+         return Parser.Mode.NO_PARSE_TREE;
+      }
+      return flags.contains(Flags.PARALLELIZED) ? Parser.Mode.PARALLEL : Parser.Mode.PARSE_TREE;
+   }
+
    protected static List<Flags> getFlagsFromArgs(List<String> args) {
       List<String> definedFlags = Arrays.stream(Flags.values())
          .map(Flags::name)
@@ -71,21 +139,10 @@ public class MiniJavac implements MiniJava {
          .toList();
    }
 
-   protected static void compile(InputStream inputStream) {
-      ProgramContext parseTree;
+   protected void compile(InputStream inputStream) {
       try {
-         parseTree = Parser.parse(inputStream);
-
-         MiniJavaVisitor<ASTNode> visitor = new MiniJavaVisitorImpl();
-         ASTNode ast                      = visitor.visit(parseTree);
-
-         SymbolTable<?> symbolTable = new SymbolTableFactory(ast)
-            .newTable()
-            .populate()
-            .build();
-
-         TypeChecker.visitAndCheck(symbolTable, ast);
-         SyntacticChecker.circularDependencyChecker(symbolTable);
+         SourcePositions positions = new SourcePositions();
+         build(Parser.program(inputStream, lexer(), mode(), positions), List.of(positions));
 
       } catch (IOException e) {
          LOG.warning(() -> "Could not load input stream.");
@@ -103,17 +160,157 @@ public class MiniJavac implements MiniJava {
    }
 
    protected void compile(String input) {
-      ProgramContext         parseTree = Parser.parse(input);
-      MiniJavaVisitor<ASTNode> visitor = new MiniJavaVisitorImpl();
-      ASTNode                      ast = visitor.visit(parseTree);
+      SourcePositions positions = new SourcePositions();
+      build(Parser.program(input, lexer(), mode(), positions), List.of(positions));
+   }
+
+   /**
+    * Checks the given {@link ASTNode} and generates its class files when a backend flag is set.
+    * With {@link Flags#OPTIMIZE} the checked program is optimized before it is generated or run and its array accesses
+    * are analyzed by {@link ArrayBounds}.
+    * With {@link Flags#RUN} the checked program is executed by the {@link Interpreter}, which resolves the call sites
+    * {@link CallSites} proves monomorphic to direct calls.
+    */
+   protected void build(ASTNode ast) {
+      build(ast, List.of());
+   }
+
+   /**
+    * @param positions The positions of the nodes of every source, to locate the errors of the checks
+    */
+   protected void build(ASTNode ast, List<SourcePositions> positions) {
+      SymbolTable<?> symbolTable = check(ast, positions);
+      if (ast instanceof Program checkedProgram) {
+         Program program = checkedProgram;
+         if (flags.contains(Flags.OPTIMIZE)) {
+            program = optimize(program);
+            symbolTable = symbolTable(program);
+         }
+         if (flags.contains(Flags.OPTIMIZE)) {
+            ArrayBounds arrayBounds = ArrayBounds.analyze(program);
+            LOG.info(() -> "Array accesses proven in bounds: " + arrayBounds.inBounds() + " of " + arrayBounds.accesses());
+         }
+         generate(symbolTable, program);
+         if (flags.contains(Flags.RUN)) {
+            CallSites callSites = CallSites.analyze(symbolTable, program);
+            LOG.info(() -> "Call sites: " + callSites.histogram());
+            Interpreter.Report report = new Interpreter(symbolTable, program, callSites).run(System.out);
+            String mainClass = program.mainClass().className().id();
+            LOG.info(() -> "Interpreted " + mainClass + ": " + report);
+         }
+      }
+   }
+
+   /**
+    * Builds the {@link SymbolTable} of the given {@link ASTNode} with the loaded class summaries and checks it.
+    * With {@link Flags#PARALLELIZED} the classes are checked in parallel in superclass order.
+    * With {@link Flags#SIGNATURES} a summary of every checked class is written to the working directory.
+    */
+   protected SymbolTable<?> check(ASTNode ast) {
+      return check(ast, List.of());
+   }
+
+   /**
+    * @param positions The positions of the nodes of every source, an error of the checks is prefixed by the location
+    *                  of the innermost node being checked that has one
+    */
+   protected SymbolTable<?> check(ASTNode ast, List<SourcePositions> positions) {
+      SymbolTable<?> symbolTable = symbolTable(ast);
+
+      try {
+         if (flags.contains(Flags.PARALLELIZED) && ast instanceof Program program) {
+            ClassCheckScheduler.visitAndCheck(symbolTable, program);
+         } else {
+            TypeChecker.visitAndCheck(symbolTable, ast);
+         }
+      } catch (TypeCheckException e) {
+         throw located(e, positions);
+      }
+      SyntacticChecker.circularDependencyChecker(symbolTable);
+
+      if (flags.contains(Flags.SIGNATURES) && ast instanceof Program program) {
+         writeSignatures(program, Paths.get(""));
+      }
+      return symbolTable;
+   }
+
+   private static IllegalStateException located(TypeCheckException e, List<SourcePositions> positions) {
+      Optional<String> location = e.nodes().stream()
+         .flatMap((node) -> positions.stream().flatMap((sourcePositions) -> sourcePositions.location(node).stream()))
+         .findFirst();
+      return location.isPresent() ? new IllegalStateException(location.get() + " " + e.getMessage(), e) : e;
+   }
+
+   /**
+    * With {@link Flags#CLASSES} the class files are written to {@link MiniJava#ClassOutputDirectory}, with
+    * {@link Flags#JAR} into an executable jar named after the main class and with {@link Flags#EXEC} the program is
+    * run in-process.
+    */
+   protected void generate(SymbolTable<?> symbolTable, Program program) {
+      if (! flags.contains(Flags.CLASSES) && ! flags.contains(Flags.JAR) && ! flags.contains(Flags.EXEC)) {
+         return;
+      }
+      Map<String, byte[]> classFiles = CodeGenerator.generate(symbolTable, program);
+      String mainClass = program.mainClass().className().id();
+      try {
+         if (flags.contains(Flags.CLASSES)) {
+            CodeGenerator.writeClasses(classFiles, Paths.get(MiniJava.ClassOutputDirectory))
+               .forEach((classFile) -> LOG.info(() -> "Wrote class file: " + classFile));
+         }
+         if (flags.contains(Flags.JAR)) {
+            Path jar = CodeGenerator.writeJar(classFiles, mainClass, Paths.get(mainClass + MiniJava.JarExt));
+            LOG.info(() -> "Wrote jar: " + jar);
+         }
+      } catch (IOException e) {
+         throw new UncheckedIOException(e);
+      }
+      if (flags.contains(Flags.EXEC)) {
+         try {
+            new ProgramClassLoader(classFiles).run(mainClass);
+         } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Could not run " + mainClass + ".", e);
+         }
+      }
+   }
 
-      SymbolTable<?> symbolTable = new SymbolTableFactory(ast)
+   /**
+    * Builds the {@link SymbolTable} of the given {@link ASTNode} with the loaded class summaries.
+    */
+   protected SymbolTable<?> symbolTable(ASTNode ast) {
+      return new SymbolTableFactory(ast)
          .newTable()
          .populate()
+         .load(summaries)
          .build();
+   }
 
-      TypeChecker.visitAndCheck(symbolTable, ast);
-      SyntacticChecker.circularDependencyChecker(symbolTable);
+   /**
+    * Runs the optimization passes over a checked program and logs what each pass changed.
+    */
+   protected Program optimize(Program program) {
+      ConstantFolder.Result folding = ConstantFolder.fold(program);
+      LOG.info(() -> "Constant folding removed " + folding.nodesRemoved() + " of " + folding.nodesBefore() + " nodes.");
+      TailCallElimination.Result tailCalls = TailCallElimination.eliminate(symbolTable(folding.program()), folding.program());
+      LOG.info(() -> "Eliminated " + tailCalls.callSites() + " tail calls: " + tailCalls.eliminated());
+      Inliner.Result inlining = Inliner.inline(symbolTable(tailCalls.program()), tailCalls.program());
+      LOG.info(() -> "Inlined " + inlining.callSites() + " call sites: " + inlining.inlined());
+      ScalarReplacement.Result replacement = ScalarReplacement.replace(symbolTable(inlining.program()), inlining.program());
+      LOG.info(() -> "Allocation sites by escape: " + replacement.escapes() + ", scalar replacement removed "
+         + replacement.allocationsRemoved() + " of " + replacement.allocationsBefore() + ".");
+      LoopInvariantMotion.Result motion = LoopInvariantMotion.hoist(replacement.program());
+      LOG.info(() -> "Hoisted " + motion.hoisted() + " loop-invariant expressions.");
+      return motion.program();
+   }
+
+   private void writeSignatures(Program program, Path directory) {
+      for (ClassDecl classDecl : program.classDecls()) {
+         try {
+            Path signatureFile = ClassSignatures.write(classDecl, directory);
+            LOG.info(() -> "Wrote class signature: " + signatureFile);
+         } catch (IOException e) {
+            LOG.warning(() -> "Could not write class signature for " + classDecl.className() + ".");
+         }
+      }
    }
 
    protected void compile(List<Path> paths) {
@@ -133,7 +330,50 @@ public class MiniJavac implements MiniJava {
 
    protected void compile(Stream<InputStream> inputStreams) {
       inputStreams
-         .forEach(MiniJavac::compile);
+         .forEach(this::compile);
+   }
+
+   /**
+    * Compiles the files as one program: classes of one file can extend and call classes of the other files.
+    */
+   protected void compileWholeProgram(List<Path> paths) {
+      try {
+         List<SourcePositions> positions = paths.stream()
+            .map((path) -> new SourcePositions(path.toString()))
+            .toList();
+         build(linkProgram(paths, lexer(), mode(), positions), positions);
+      } catch (Exception e) {
+         LOG.log(Level.WARNING, "[{0}] Could not compile. {1}", new Object[]{paths, e.getMessage()});
+         e.printStackTrace();
+      }
+   }
+
+   /**
+    * Parses and builds the AST of every file in parallel and merges them into a single {@link Program}.
+    */
+   protected static Program linkProgram(List<Path> paths) {
+      return linkProgram(paths, Parser.Lexer.ANTLR, Parser.Mode.PARSE_TREE);
+   }
+
+   protected static Program linkProgram(List<Path> paths, Parser.Lexer lexer, Parser.Mode mode) {
+      return linkProgram(paths, lexer, mode, Collections.nCopies(paths.size(), SourcePositions.NONE));
+   }
+
+   /**
+    * @param positions Records the positions of the nodes of each file, by the index of the file
+    */
+   protected static Program linkProgram(List<Path> paths, Parser.Lexer lexer, Parser.Mode mode,
+                                        List<SourcePositions> positions) {
+      List<CompilationUnit> compilationUnits = IntStream.range(0, paths.size()).parallel()
+         .mapToObj(index -> {
+            try (InputStream inputStream = Files.newInputStream(paths.get(index))) {
+               return Parser.compilationUnit(inputStream, lexer, mode, positions.get(index));
+            } catch (IOException e) {
+               throw new UncheckedIOException(e);
+            }
+         })
+         .toList();
+      return ProgramMerger.merge(compilationUnits);
    }
 
    protected void parallelizedCompile(Stream<InputStream> inputStreamStream) throws InterruptedException {
@@ -161,7 +401,7 @@ public class MiniJavac implements MiniJava {
       List<MiniJavac.Flags> flags = getFlagsFromArgs(
          Args.stream()
             .filter(arg -> arg.startsWith("--") || arg.startsWith("-"))
-            .map(arg -> arg.replace("-", ""))
+            .map(arg -> arg.replaceFirst("^-+", "").replace('-', '_'))
             .map(String::toLowerCase)
             .toList()
       );
@@ -171,22 +411,33 @@ public class MiniJavac implements MiniJava {
             .map(Paths::get)
          .filter(Files::exists)
          .toList();
+      List<Path> signaturePaths = Args.stream()
+         .filter(arg -> arg.endsWith(MiniJava.SignatureExt))
+         .map(Paths::get)
+         .filter(Files::exists)
+         .toList();
+      filePaths.forEach(filePath -> LOG.info(() -> "Found path: " + filePath));
+
+      MiniJavac compiler = MiniJavac.getInstance()
+         .setFlags(flags)
+         .setSummaries(ClassSignatures.readAll(signaturePaths));
+
+      if (flags.contains(Flags.WHOLE_PROGRAM)) {
+         compiler.compileWholeProgram(filePaths);
+         return;
+      }
+
       List<InputStream> inputStreams = new ArrayList<>();
 
       for (Path filePath : filePaths) {
-         LOG.info(() -> "Found path: " + filePath);
          InputStream inputStream = Files.newInputStream(filePath);
          inputStreams.add(inputStream);
       }
 
       if (flags.contains(Flags.PARALLELIZED)) {
-         MiniJavac.getInstance()
-            .setFlags(flags)
-            .parallelizedCompile(inputStreams.stream());
+         compiler.parallelizedCompile(inputStreams.stream());
       } else {
-         MiniJavac.getInstance()
-            .setFlags(flags)
-            .compile(inputStreams.stream());
+         compiler.compile(inputStreams.stream());
       }
    }
 
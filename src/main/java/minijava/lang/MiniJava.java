@@ -6,6 +6,12 @@ public interface MiniJava {
 
    String JavaExt     = ".java";
 
+   String SignatureExt = ".mjsig";
+
+   String JarExt       = ".jar";
+
+   String ClassOutputDirectory = "out";
+
    static String HelloMiniJava() {
       return """
                                     ::                                                                   \s
@@ -0,0 +1,140 @@
+package minijava.lang.codegen;
+
+import java.util.HashSet;
+import java.util.Set;
+import minijava.lang.parser.AST.ClassDecl;
+import minijava.lang.parser.AST.Identifier;
+import minijava.lang.parser.AST.MainClass;
+import minijava.lang.parser.AST.MethodDecl;
+import minijava.lang.parser.AST.MethodParam;
+import minijava.lang.parser.AST.VarDecl;
+import minijava.lang.typechecker.ClassHierarchy;
+import minijava.lang.typechecker.VirtualMethodTable;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+
+/**
+ * Generates the class file of a single class. Stack map frames are computed by ASM, the common superclass of two
+ * MiniJava classes is answered from the {@link ClassHierarchy} instead of loading the classes.
+ */
+class ClassGenerator {
+
+   private static final String OBJECT = "java/lang/Object";
+
+   private final ClassHierarchy classHierarchy;
+
+   private final VirtualMethodTable virtualMethodTable;
+
+   ClassGenerator(ClassHierarchy classHierarchy, VirtualMethodTable virtualMethodTable) {
+      this.classHierarchy = classHierarchy;
+      this.virtualMethodTable = virtualMethodTable;
+   }
+
+   byte[] generate(MainClass mainClass) {
+      ClassWriter classWriter = new HierarchyClassWriter();
+      String className = mainClass.className().id();
+      classWriter.visit(Opcodes.V17, Opcodes.ACC_PUBLIC | Opcodes.ACC_SUPER, className, null, OBJECT, null);
+      constructor(classWriter, OBJECT);
+
+      MethodVisitor methodVisitor = classWriter.visitMethod(
+         Opcodes.ACC_PUBLIC | Opcodes.ACC_STATIC, "main", "([Ljava/lang/String;)V", null, null);
+      methodVisitor.visitCode();
+      new MethodGenerator(methodVisitor, classHierarchy, virtualMethodTable, className)
+         .main(mainClass);
+      methodVisitor.visitMaxs(0, 0);
+      methodVisitor.visitEnd();
+
+      classWriter.visitEnd();
+      return classWriter.toByteArray();
+   }
+
+   byte[] generate(ClassDecl classDecl) {
+      ClassWriter classWriter = new HierarchyClassWriter();
+      String className = classDecl.className().id();
+      String superClass = classDecl.superClass()
+         .map(Identifier::id)
+         .orElse(OBJECT);
+      classWriter.visit(Opcodes.V17, Opcodes.ACC_PUBLIC | Opcodes.ACC_SUPER, className, null, superClass, null);
+      constructor(classWriter, superClass);
+
+      for (VarDecl varDecl : classDecl.varDecls()) {
+         classWriter.visitField(0, varDecl.varName().id(), CodeGenerator.descriptor(varDecl.varType()), null, null)
+            .visitEnd();
+      }
+      for (MethodDecl methodDecl : classDecl.methodDecls()) {
+         MethodVisitor methodVisitor = classWriter.visitMethod(
+            Opcodes.ACC_PUBLIC, methodDecl.methodName().id(), CodeGenerator.descriptor(methodDecl), null, null);
+         methodVisitor.visitCode();
+         new MethodGenerator(methodVisitor, classHierarchy, virtualMethodTable, className)
+            .method(methodDecl);
+         methodVisitor.visitMaxs(0, 0);
+         methodVisitor.visitEnd();
+         classDecl.superClass()
+            .flatMap((superClassName) -> virtualMethodTable.resolve(superClassName.id(), methodDecl.methodName().id()))
+            .filter((overridden) -> ! CodeGenerator.descriptor(overridden).equals(CodeGenerator.descriptor(methodDecl)))
+            .ifPresent((overridden) -> bridge(classWriter, className, methodDecl, overridden));
+      }
+
+      classWriter.visitEnd();
+      return classWriter.toByteArray();
+   }
+
+   /**
+    * A method returning a subclass of the type the overridden method returns has another descriptor, so the JVM
+    * would not dispatch calls through the overridden descriptor to it. The bridge takes the overridden descriptor
+    * and forwards to the method, like the bridges {@code javac} generates for covariant returns.
+    */
+   private static void bridge(ClassWriter classWriter, String className, MethodDecl methodDecl, MethodDecl overridden) {
+      MethodVisitor methodVisitor = classWriter.visitMethod(Opcodes.ACC_PUBLIC | Opcodes.ACC_SYNTHETIC
+         | Opcodes.ACC_BRIDGE, methodDecl.methodName().id(), CodeGenerator.descriptor(overridden), null, null);
+      methodVisitor.visitCode();
+      methodVisitor.visitVarInsn(Opcodes.ALOAD, 0);
+      int slot = 1;
+      for (MethodParam methodParam : methodDecl.methodParams()) {
+         int opcode = MethodGenerator.isReference(methodParam.type()) ? Opcodes.ALOAD : Opcodes.ILOAD;
+         methodVisitor.visitVarInsn(opcode, slot++);
+      }
+      methodVisitor.visitMethodInsn(Opcodes.INVOKEVIRTUAL, className, methodDecl.methodName().id(),
+         CodeGenerator.descriptor(methodDecl), false);
+      methodVisitor.visitInsn(Opcodes.ARETURN);
+      methodVisitor.visitMaxs(0, 0);
+      methodVisitor.visitEnd();
+   }
+
+   private static void constructor(ClassWriter classWriter, String superClass) {
+      MethodVisitor methodVisitor = classWriter.visitMethod(Opcodes.ACC_PUBLIC, "<init>", "()V", null, null);
+      methodVisitor.visitCode();
+      methodVisitor.visitVarInsn(Opcodes.ALOAD, 0);
+      methodVisitor.visitMethodInsn(Opcodes.INVOKESPECIAL, superClass, "<init>", "()V", false);
+      methodVisitor.visitInsn(Opcodes.RETURN);
+      methodVisitor.visitMaxs(0, 0);
+      methodVisitor.visitEnd();
+   }
+
+   private class HierarchyClassWriter extends ClassWriter {
+
+      HierarchyClassWriter() {
+         super(ClassWriter.COMPUTE_FRAMES);
+      }
+
+      @Override
+      protected String getCommonSuperClass(String type, String otherType) {
+         if (! classHierarchy.contains(type) || ! classHierarchy.contains(otherType)) {
+            return OBJECT;
+         }
+         Set<String> ancestors = new HashSet<>();
+         ancestors.add(type);
+         CodeGenerator.superClasses(classHierarchy, type)
+            .forEach((superClass) -> ancestors.add(superClass.className().id()));
+         if (ancestors.contains(otherType)) {
+            return otherType;
+         }
+         return CodeGenerator.superClasses(classHierarchy, otherType)
+            .map((superClass) -> superClass.className().id())
+            .filter(ancestors::contains)
+            .findFirst()
+            .orElse(OBJECT);
+      }
+   }
+}
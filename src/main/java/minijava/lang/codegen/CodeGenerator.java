@@ -0,0 +1,122 @@
+package minijava.lang.codegen;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Optional;
+import java.util.jar.Attributes;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import minijava.lang.parser.AST.Bool;
+import minijava.lang.parser.AST.ClassDecl;
+import minijava.lang.parser.AST.ClassType;
+import minijava.lang.parser.AST.Int;
+import minijava.lang.parser.AST.IntArray;
+import minijava.lang.parser.AST.MethodDecl;
+import minijava.lang.parser.AST.MethodParam;
+import minijava.lang.parser.AST.Program;
+import minijava.lang.parser.AST.Type;
+import minijava.lang.parser.SymbolTable;
+import minijava.lang.typechecker.ClassHierarchy;
+import minijava.lang.typechecker.VirtualMethodTable;
+
+/**
+ * Lowers a type checked {@link Program} to JVM bytecode, one class file per {@link ClassDecl} and one for the
+ * {@link minijava.lang.parser.AST.MainClass}. Classes are generated independently of each other and in parallel.
+ *
+ * MiniJava classes become public classes of the unnamed package with a public no-argument constructor, fields become
+ * package-private fields and methods public instance methods. {@code int}, {@code boolean} and {@code int[]} map to
+ * their JVM counterparts.
+ */
+public class CodeGenerator {
+
+   private CodeGenerator() {}
+
+   /**
+    * @return The class files of the program by class name, the main class first
+    */
+   public static Map<String, byte[]> generate(SymbolTable<?> symbolTable, Program program) {
+      ClassHierarchy classHierarchy = ClassHierarchy.of(symbolTable);
+      VirtualMethodTable virtualMethodTable = VirtualMethodTable.of(symbolTable);
+
+      Map<String, byte[]> classFiles = new LinkedHashMap<>();
+      classFiles.put(
+         program.mainClass().className().id(),
+         new ClassGenerator(classHierarchy, virtualMethodTable).generate(program.mainClass())
+      );
+      List<byte[]> classDeclFiles = program.classDecls().parallelStream()
+         .map((classDecl) -> new ClassGenerator(classHierarchy, virtualMethodTable).generate(classDecl))
+         .toList();
+      for (int index = 0; index < classDeclFiles.size(); index++) {
+         if (classFiles.put(program.classDecls().get(index).className().id(), classDeclFiles.get(index)) != null) {
+            throw new IllegalStateException("Duplicate classes.");
+         }
+      }
+      return classFiles;
+   }
+
+   /**
+    * Writes every class file as {@code <ClassName>.class} into the directory.
+    */
+   public static List<Path> writeClasses(Map<String, byte[]> classFiles, Path directory) throws IOException {
+      Files.createDirectories(directory);
+      List<Path> paths = new ArrayList<>();
+      for (Entry<String, byte[]> classFile : classFiles.entrySet()) {
+         paths.add(Files.write(directory.resolve(classFile.getKey() + ".class"), classFile.getValue()));
+      }
+      return paths;
+   }
+
+   /**
+    * Writes every class file into an executable jar that runs the main class.
+    */
+   public static Path writeJar(Map<String, byte[]> classFiles, String mainClass, Path jar) throws IOException {
+      Manifest manifest = new Manifest();
+      manifest.getMainAttributes().put(Attributes.Name.MANIFEST_VERSION, "1.0");
+      manifest.getMainAttributes().put(Attributes.Name.MAIN_CLASS, mainClass);
+      try (OutputStream outputStream = Files.newOutputStream(jar);
+           JarOutputStream jarOutputStream = new JarOutputStream(outputStream, manifest)) {
+         for (Entry<String, byte[]> classFile : classFiles.entrySet()) {
+            jarOutputStream.putNextEntry(new JarEntry(classFile.getKey() + ".class"));
+            jarOutputStream.write(classFile.getValue());
+            jarOutputStream.closeEntry();
+         }
+      }
+      return jar;
+   }
+
+   static String descriptor(Type type) {
+      return switch (type) {
+         case Int             integer -> "I";
+         case Bool            bool    -> "Z";
+         case IntArray        array   -> "[I";
+         case ClassType    classType  -> "L" + classType.identifier().id() + ";";
+         default -> throw new IllegalStateException("Unexpected type: " + type);
+      };
+   }
+
+   static String descriptor(MethodDecl methodDecl) {
+      return methodDecl.methodParams().stream()
+         .map(MethodParam::type)
+         .map(CodeGenerator::descriptor)
+         .collect(Collectors.joining("", "(", ")"))
+         + descriptor(methodDecl.methodType());
+   }
+
+   static Stream<ClassDecl> superClasses(ClassHierarchy classHierarchy, String className) {
+      return Stream.iterate(
+         classHierarchy.superClass(className),
+         (superClass) -> superClass.isPresent(),
+         (superClass) -> classHierarchy.superClass(superClass.get().className().id())
+      ).map(Optional::get);
+   }
+}
@@ -0,0 +1,319 @@
+package minijava.lang.codegen;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import minijava.lang.parser.AST.Addition;
+import minijava.lang.parser.AST.And;
+import minijava.lang.parser.AST.ArrayAssignStatement;
+import minijava.lang.parser.AST.ArrayLength;
+import minijava.lang.parser.AST.AssignStatement;
+import minijava.lang.parser.AST.Bool;
+import minijava.lang.parser.AST.ClassDecl;
+import minijava.lang.parser.AST.ClassType;
+import minijava.lang.parser.AST.ExprArray;
+import minijava.lang.parser.AST.ExprClassMember;
+import minijava.lang.parser.AST.ExprFalse;
+import minijava.lang.parser.AST.ExprId;
+import minijava.lang.parser.AST.ExprNot;
+import minijava.lang.parser.AST.ExprNumber;
+import minijava.lang.parser.AST.ExprParenthesis;
+import minijava.lang.parser.AST.ExprThis;
+import minijava.lang.parser.AST.ExprTrue;
+import minijava.lang.parser.AST.Expression;
+import minijava.lang.parser.AST.Expression2;
+import minijava.lang.parser.AST.Identifier;
+import minijava.lang.parser.AST.IfStatement;
+import minijava.lang.parser.AST.Int;
+import minijava.lang.parser.AST.IntArray;
+import minijava.lang.parser.AST.LessThan;
+import minijava.lang.parser.AST.MainClass;
+import minijava.lang.parser.AST.MethodDecl;
+import minijava.lang.parser.AST.MethodParam;
+import minijava.lang.parser.AST.Multiplication;
+import minijava.lang.parser.AST.NewClassDecl;
+import minijava.lang.parser.AST.NewIntArrayDecl;
+import minijava.lang.parser.AST.PrintStatement;
+import minijava.lang.parser.AST.Statement;
+import minijava.lang.parser.AST.StatementBlock;
+import minijava.lang.parser.AST.Subtraction;
+import minijava.lang.parser.AST.Type;
+import minijava.lang.parser.AST.VarDecl;
+import minijava.lang.parser.AST.WhileLoop;
+import minijava.lang.typechecker.ClassHierarchy;
+import minijava.lang.typechecker.VirtualMethodTable;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+
+/**
+ * Emits the bytecode of a method body. Expressions are generated left to right, every {@link Expression2} continues
+ * on the value the preceding expression left on the operand stack.
+ */
+class MethodGenerator {
+
+   private record Local(int slot, Type type) {}
+
+   private final MethodVisitor methodVisitor;
+
+   private final ClassHierarchy classHierarchy;
+
+   private final VirtualMethodTable virtualMethodTable;
+
+   private final String className;
+
+   private final Map<Identifier, Local> locals = new HashMap<>();
+
+   private int nextSlot = 1;
+
+   MethodGenerator(MethodVisitor methodVisitor,
+                   ClassHierarchy classHierarchy,
+                   VirtualMethodTable virtualMethodTable,
+                   String className) {
+      this.methodVisitor = methodVisitor;
+      this.classHierarchy = classHierarchy;
+      this.virtualMethodTable = virtualMethodTable;
+      this.className = className;
+   }
+
+   void main(MainClass mainClass) {
+      statement(mainClass.statement());
+      methodVisitor.visitInsn(Opcodes.RETURN);
+   }
+
+   /**
+    * Parameters take the slots after {@code this}, locals follow and are zero initialized so that every local has
+    * a value on every path.
+    */
+   void method(MethodDecl methodDecl) {
+      for (MethodParam methodParam : methodDecl.methodParams()) {
+         locals.put(methodParam.name(), new Local(nextSlot++, methodParam.type()));
+      }
+      for (VarDecl varDecl : methodDecl.varDecls()) {
+         Local local = new Local(nextSlot++, varDecl.varType());
+         locals.put(varDecl.varName(), local);
+         if (local.type() instanceof Int || local.type() instanceof Bool) {
+            methodVisitor.visitInsn(Opcodes.ICONST_0);
+         } else {
+            methodVisitor.visitInsn(Opcodes.ACONST_NULL);
+         }
+         methodVisitor.visitVarInsn(storeOpcode(local.type()), local.slot());
+      }
+      methodDecl.statements().forEach(this::statement);
+      Type returnType = expression(methodDecl.returnExpr());
+      methodVisitor.visitInsn(isReference(returnType) ? Opcodes.ARETURN : Opcodes.IRETURN);
+   }
+
+   private void statement(Statement statement) {
+      switch (statement) {
+         case StatementBlock statementBlock -> statementBlock.statements().forEach(this::statement);
+         case IfStatement       ifStatement -> {
+            Label elseLabel = new Label();
+            Label endLabel  = new Label();
+            expression(ifStatement.expr());
+            methodVisitor.visitJumpInsn(Opcodes.IFEQ, elseLabel);
+            statement(ifStatement.statement());
+            methodVisitor.visitJumpInsn(Opcodes.GOTO, endLabel);
+            methodVisitor.visitLabel(elseLabel);
+            statement(ifStatement.elseStatement());
+            methodVisitor.visitLabel(endLabel);
+         }
+         case WhileLoop           whileLoop -> {
+            Label conditionLabel = new Label();
+            Label endLabel       = new Label();
+            methodVisitor.visitLabel(conditionLabel);
+            expression(whileLoop.expr());
+            methodVisitor.visitJumpInsn(Opcodes.IFEQ, endLabel);
+            statement(whileLoop.statement());
+            methodVisitor.visitJumpInsn(Opcodes.GOTO, conditionLabel);
+            methodVisitor.visitLabel(endLabel);
+         }
+         case PrintStatement printStatement -> {
+            methodVisitor.visitFieldInsn(Opcodes.GETSTATIC, "java/lang/System", "out", "Ljava/io/PrintStream;");
+            Type type = expression(printStatement.expr());
+            String parameter = (type instanceof Int || type instanceof Bool) ?
+               CodeGenerator.descriptor(type) :
+               "Ljava/lang/Object;";
+            methodVisitor.visitMethodInsn(
+               Opcodes.INVOKEVIRTUAL, "java/io/PrintStream", "println", "(" + parameter + ")V", false);
+         }
+         case AssignStatement assignStatement -> {
+            Local local = locals.get(assignStatement.varName());
+            if (local != null) {
+               expression(assignStatement.expr());
+               methodVisitor.visitVarInsn(storeOpcode(local.type()), local.slot());
+            } else {
+               methodVisitor.visitVarInsn(Opcodes.ALOAD, 0);
+               expression(assignStatement.expr());
+               methodVisitor.visitFieldInsn(Opcodes.PUTFIELD, className, assignStatement.varName().id(),
+                  CodeGenerator.descriptor(fieldType(assignStatement.varName())));
+            }
+         }
+         case ArrayAssignStatement arrayAssign -> {
+            load(arrayAssign.varName());
+            expression(arrayAssign.indexExpr());
+            expression(arrayAssign.expr());
+            methodVisitor.visitInsn(Opcodes.IASTORE);
+         }
+         default -> throw new IllegalStateException("Unexpected value: " + statement);
+      }
+   }
+
+   /**
+    * Emits an expression and its continuations.
+    * @return The type of the value left on the operand stack
+    */
+   private Type expression(Expression expression) {
+      Type type = switch (expression) {
+         case ExprNumber exprNumber -> {
+            methodVisitor.visitLdcInsn(exprNumber.integer().integer());
+            yield new Int();
+         }
+         case ExprTrue exprTrue -> {
+            methodVisitor.visitInsn(Opcodes.ICONST_1);
+            yield new Bool();
+         }
+         case ExprFalse exprFalse -> {
+            methodVisitor.visitInsn(Opcodes.ICONST_0);
+            yield new Bool();
+         }
+         case ExprId exprId -> load(exprId.identifier());
+         case ExprThis exprThis -> {
+            methodVisitor.visitVarInsn(Opcodes.ALOAD, 0);
+            yield new ClassType(new Identifier(className));
+         }
+         case NewIntArrayDecl newIntArrayDecl -> {
+            expression(newIntArrayDecl.expr());
+            methodVisitor.visitIntInsn(Opcodes.NEWARRAY, Opcodes.T_INT);
+            yield new IntArray();
+         }
+         case NewClassDecl newClassDecl -> {
+            String newClassName = newClassDecl.identifier().id();
+            methodVisitor.visitTypeInsn(Opcodes.NEW, newClassName);
+            methodVisitor.visitInsn(Opcodes.DUP);
+            methodVisitor.visitMethodInsn(Opcodes.INVOKESPECIAL, newClassName, "<init>", "()V", false);
+            yield new ClassType(newClassDecl.identifier());
+         }
+         case ExprNot exprNot -> {
+            expression(exprNot.expr());
+            methodVisitor.visitInsn(Opcodes.ICONST_1);
+            methodVisitor.visitInsn(Opcodes.IXOR);
+            yield new Bool();
+         }
+         case ExprParenthesis exprParenthesis -> expression(exprParenthesis.expr());
+         default -> throw new IllegalStateException("Unexpected value: " + expression);
+      };
+      return expression2(type, expression.expr2());
+   }
+
+   private Type expression2(Type type, Optional<Expression2> expr2) {
+      while (expr2.isPresent()) {
+         Expression2 expression2 = expr2.get();
+         type = switch (expression2) {
+            case ExprArray exprArray -> {
+               expression(exprArray.expr());
+               methodVisitor.visitInsn(Opcodes.IALOAD);
+               yield new Int();
+            }
+            case ArrayLength arrayLength -> {
+               methodVisitor.visitInsn(Opcodes.ARRAYLENGTH);
+               yield new Int();
+            }
+            case ExprClassMember classMember -> invoke((ClassType) type, classMember);
+            case And and -> {
+               // each operand is only evaluated when the value so far is true
+               for (Expression operand : and.operands()) {
+                  Label falseLabel = new Label();
+                  Label endLabel   = new Label();
+                  methodVisitor.visitJumpInsn(Opcodes.IFEQ, falseLabel);
+                  expression(operand);
+                  methodVisitor.visitJumpInsn(Opcodes.GOTO, endLabel);
+                  methodVisitor.visitLabel(falseLabel);
+                  methodVisitor.visitInsn(Opcodes.ICONST_0);
+                  methodVisitor.visitLabel(endLabel);
+               }
+               yield new Bool();
+            }
+            case LessThan lessThan -> {
+               for (Expression operand : lessThan.operands()) {
+                  Label falseLabel = new Label();
+                  Label endLabel   = new Label();
+                  expression(operand);
+                  methodVisitor.visitJumpInsn(Opcodes.IF_ICMPGE, falseLabel);
+                  methodVisitor.visitInsn(Opcodes.ICONST_1);
+                  methodVisitor.visitJumpInsn(Opcodes.GOTO, endLabel);
+                  methodVisitor.visitLabel(falseLabel);
+                  methodVisitor.visitInsn(Opcodes.ICONST_0);
+                  methodVisitor.visitLabel(endLabel);
+               }
+               yield new Bool();
+            }
+            case Addition addition -> arithmetic(addition.operands(), Opcodes.IADD);
+            case Subtraction subtraction -> arithmetic(subtraction.operands(), Opcodes.ISUB);
+            case Multiplication multiplication -> arithmetic(multiplication.operands(), Opcodes.IMUL);
+            default -> throw new IllegalStateException("Unexpected value: " + expression2);
+         };
+         expr2 = expression2.expr2();
+      }
+      return type;
+   }
+
+   private Type arithmetic(List<Expression> operands, int opcode) {
+      for (Expression operand : operands) {
+         expression(operand);
+         methodVisitor.visitInsn(opcode);
+      }
+      return new Int();
+   }
+
+   /**
+    * Arguments are evaluated left to right on top of the receiver, the call dispatches virtually on the receiver.
+    */
+   private Type invoke(ClassType receiverType, ExprClassMember classMember) {
+      String receiverClass = receiverType.identifier().id();
+      MethodDecl methodDecl = virtualMethodTable.resolve(receiverClass, classMember.identifier().id())
+         .orElseThrow(() -> new IllegalStateException(
+            "Could not find method: " + receiverClass + "." + classMember.identifier()));
+      classMember.memberParams().forEach(this::expression);
+      methodVisitor.visitMethodInsn(Opcodes.INVOKEVIRTUAL, receiverClass, methodDecl.methodName().id(),
+         CodeGenerator.descriptor(methodDecl), false);
+      return methodDecl.methodType();
+   }
+
+   private Type load(Identifier identifier) {
+      Local local = locals.get(identifier);
+      if (local != null) {
+         methodVisitor.visitVarInsn(isReference(local.type()) ? Opcodes.ALOAD : Opcodes.ILOAD, local.slot());
+         return local.type();
+      }
+      Type type = fieldType(identifier);
+      methodVisitor.visitVarInsn(Opcodes.ALOAD, 0);
+      methodVisitor.visitFieldInsn(Opcodes.GETFIELD, className, identifier.id(), CodeGenerator.descriptor(type));
+      return type;
+   }
+
+   /**
+    * Finds a field in the current class or its superclasses, the JVM resolves the field access the same way.
+    */
+   private Type fieldType(Identifier identifier) {
+      ClassDecl classDecl = classHierarchy.classDecl(className);
+      while (classDecl != null) {
+         for (VarDecl varDecl : classDecl.varDecls()) {
+            if (varDecl.varName().equals(identifier)) {
+               return varDecl.varType();
+            }
+         }
+         classDecl = classHierarchy.superClass(classDecl.className().id()).orElse(null);
+      }
+      throw new IllegalStateException("Could not find identifier: " + identifier);
+   }
+
+   private static int storeOpcode(Type type) {
+      return isReference(type) ? Opcodes.ASTORE : Opcodes.ISTORE;
+   }
+
+   static boolean isReference(Type type) {
+      return type instanceof IntArray || type instanceof ClassType;
+   }
+}
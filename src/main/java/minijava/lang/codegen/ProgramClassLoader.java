@@ -0,0 +1,42 @@
+package minijava.lang.codegen;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.Map;
+
+/**
+ * Defines generated class files in-process so a compiled program runs without writing class files to disk.
+ */
+public class ProgramClassLoader extends ClassLoader {
+
+   private final Map<String, byte[]> classFiles;
+
+   public ProgramClassLoader(Map<String, byte[]> classFiles) {
+      super(ProgramClassLoader.class.getClassLoader());
+      this.classFiles = classFiles;
+   }
+
+   @Override
+   protected Class<?> findClass(String name) throws ClassNotFoundException {
+      byte[] classFile = classFiles.get(name);
+      if (classFile == null) {
+         throw new ClassNotFoundException(name);
+      }
+      return defineClass(name, classFile, 0, classFile.length);
+   }
+
+   /**
+    * Loads the main class and invokes its {@code main} method on the current thread.
+    */
+   public void run(String mainClass, String... args) throws ReflectiveOperationException {
+      Method main = loadClass(mainClass).getMethod("main", String[].class);
+      try {
+         main.invoke(null, (Object) args);
+      } catch (InvocationTargetException e) {
+         if (e.getCause() instanceof RuntimeException runtimeException) {
+            throw runtimeException;
+         }
+         throw e;
+      }
+   }
+}
@@ -0,0 +1,21 @@
+package minijava.lang.interpreter;
+
+import java.io.PrintStream;
+
+/**
+ * State shared by every {@link Frame} of one run of a program.
+ */
+final class Execution {
+
+   final PrintStream out;
+
+   long instructions;
+
+   long objects;
+
+   long arrays;
+
+   Execution(PrintStream out) {
+      this.out = out;
+   }
+}
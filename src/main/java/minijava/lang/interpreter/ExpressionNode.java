@@ -0,0 +1,17 @@
+package minijava.lang.interpreter;
+
+/**
+ * Resolved expression. {@code int} and {@code boolean} expressions are evaluated with {@link #evalInt(Frame)},
+ * booleans as {@code 0} and {@code 1}, so arithmetic never boxes. Arrays and objects are evaluated with
+ * {@link #evalRef(Frame)}.
+ */
+abstract class ExpressionNode {
+
+   int evalInt(Frame frame) {
+      throw new IllegalStateException(getClass().getSimpleName() + " is not an int expression.");
+   }
+
+   Object evalRef(Frame frame) {
+      throw new IllegalStateException(getClass().getSimpleName() + " is not a reference expression.");
+   }
+}
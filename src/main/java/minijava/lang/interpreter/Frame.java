@@ -0,0 +1,23 @@
+package minijava.lang.interpreter;
+
+/**
+ * Activation of a method. {@code int} and {@code boolean} locals live unboxed in {@link #ints}, arrays and objects in
+ * {@link #refs}, both indexed by the slots the {@link Resolver} assigned.
+ */
+final class Frame {
+
+   final Instance self;
+
+   final int[] ints;
+
+   final Object[] refs;
+
+   final Execution execution;
+
+   Frame(Instance self, int intSlots, int refSlots, Execution execution) {
+      this.self = self;
+      this.ints = new int[intSlots];
+      this.refs = new Object[refSlots];
+      this.execution = execution;
+   }
+}
@@ -0,0 +1,24 @@
+package minijava.lang.interpreter;
+
+/**
+ * An object of a MiniJava class, laid out by its {@link RuntimeClass}. {@code int} and {@code boolean} fields are
+ * stored unboxed in {@link #ints}, array and object fields in {@link #refs}, each at the fixed offset the
+ * {@link Resolver} assigned. A subclass extends the layout of its superclass, so an inherited field has the same
+ * offset in every subclass.
+ */
+final class Instance {
+
+   private static final Object[] NO_REFS = new Object[0];
+
+   final RuntimeClass runtimeClass;
+
+   final int[] ints;
+
+   final Object[] refs;
+
+   Instance(RuntimeClass runtimeClass) {
+      this.runtimeClass = runtimeClass;
+      this.ints = new int[runtimeClass.intFields];
+      this.refs = (runtimeClass.refFields == 0) ? NO_REFS : new Object[runtimeClass.refFields];
+   }
+}
@@ -0,0 +1,53 @@
+package minijava.lang.interpreter;
+
+import java.io.PrintStream;
+import minijava.lang.optimizer.CallSites;
+import minijava.lang.parser.AST.Program;
+import minijava.lang.parser.SymbolTable;
+import minijava.lang.typechecker.ClassHierarchy;
+import minijava.lang.typechecker.VirtualMethodTable;
+
+/**
+ * Executes a checked {@link Program} directly, without generating bytecode.
+ *
+ * The program is resolved once by the {@link Resolver}; running it only walks the resolved nodes. Every evaluated
+ * node counts as one instruction.
+ */
+public class Interpreter {
+
+   public record Report(long instructions, long nanos, long objects, long arrays) {
+
+      public double instructionsPerSecond() {
+         return (nanos == 0) ? 0 : instructions * 1e9 / nanos;
+      }
+
+      public String toString() {
+         return String.format("%d instructions in %.3f ms, %.0f instructions/s, %d objects and %d arrays allocated",
+            instructions, nanos / 1e6, instructionsPerSecond(), objects, arrays);
+      }
+   }
+
+   private final StatementNode main;
+
+   public Interpreter(SymbolTable<?> symbolTable, Program program) {
+      this(symbolTable, program, CallSites.analyze(symbolTable, program));
+   }
+
+   /**
+    * @param callSites The analysis of the program, its monomorphic calls are resolved to direct calls
+    */
+   public Interpreter(SymbolTable<?> symbolTable, Program program, CallSites callSites) {
+      this.main = new Resolver(ClassHierarchy.of(symbolTable), VirtualMethodTable.of(symbolTable), callSites)
+         .resolve(program);
+   }
+
+   /**
+    * Runs the main class, printing to {@code out}.
+    */
+   public Report run(PrintStream out) {
+      Execution execution = new Execution(out);
+      long start = System.nanoTime();
+      main.execute(new Frame(null, 0, 0, execution));
+      return new Report(execution.instructions, System.nanoTime() - start, execution.objects, execution.arrays);
+   }
+}
@@ -0,0 +1,530 @@
+package minijava.lang.interpreter;
+
+
+/**
+ * The resolved expressions and statements. Every evaluated node counts as one instruction.
+ */
+final class Nodes {
+
+   private Nodes() {}
+
+   static final class IntConstant extends ExpressionNode {
+      private final int value;
+
+      IntConstant(int value) {
+         this.value = value;
+      }
+
+      @Override
+      int evalInt(Frame frame) {
+         frame.execution.instructions++;
+         return value;
+      }
+   }
+
+   static final class LocalInt extends ExpressionNode {
+      private final int slot;
+
+      LocalInt(int slot) {
+         this.slot = slot;
+      }
+
+      @Override
+      int evalInt(Frame frame) {
+         frame.execution.instructions++;
+         return frame.ints[slot];
+      }
+   }
+
+   static final class LocalRef extends ExpressionNode {
+      private final int slot;
+
+      LocalRef(int slot) {
+         this.slot = slot;
+      }
+
+      @Override
+      Object evalRef(Frame frame) {
+         frame.execution.instructions++;
+         return frame.refs[slot];
+      }
+   }
+
+   static final class FieldInt extends ExpressionNode {
+      private final int slot;
+
+      FieldInt(int slot) {
+         this.slot = slot;
+      }
+
+      @Override
+      int evalInt(Frame frame) {
+         frame.execution.instructions++;
+         return frame.self.ints[slot];
+      }
+   }
+
+   static final class FieldRef extends ExpressionNode {
+      private final int slot;
+
+      FieldRef(int slot) {
+         this.slot = slot;
+      }
+
+      @Override
+      Object evalRef(Frame frame) {
+         frame.execution.instructions++;
+         return frame.self.refs[slot];
+      }
+   }
+
+   static final class This extends ExpressionNode {
+      @Override
+      Object evalRef(Frame frame) {
+         frame.execution.instructions++;
+         return frame.self;
+      }
+   }
+
+   static final class NewIntArray extends ExpressionNode {
+      private final ExpressionNode size;
+
+      NewIntArray(ExpressionNode size) {
+         this.size = size;
+      }
+
+      @Override
+      Object evalRef(Frame frame) {
+         frame.execution.instructions++;
+         frame.execution.arrays++;
+         return new int[size.evalInt(frame)];
+      }
+   }
+
+   static final class NewObject extends ExpressionNode {
+      private final RuntimeClass runtimeClass;
+
+      NewObject(RuntimeClass runtimeClass) {
+         this.runtimeClass = runtimeClass;
+      }
+
+      @Override
+      Object evalRef(Frame frame) {
+         frame.execution.instructions++;
+         frame.execution.objects++;
+         return new Instance(runtimeClass);
+      }
+   }
+
+   static final class Not extends ExpressionNode {
+      private final ExpressionNode operand;
+
+      Not(ExpressionNode operand) {
+         this.operand = operand;
+      }
+
+      @Override
+      int evalInt(Frame frame) {
+         frame.execution.instructions++;
+         return operand.evalInt(frame) ^ 1;
+      }
+   }
+
+   /**
+    * {@code &&} of a run of operands, evaluated left to right until one is false.
+    */
+   static final class And extends ExpressionNode {
+      private final ExpressionNode[] operands;
+
+      And(ExpressionNode[] operands) {
+         this.operands = operands;
+      }
+
+      @Override
+      int evalInt(Frame frame) {
+         frame.execution.instructions += operands.length - 1;
+         for (ExpressionNode operand : operands) {
+            if (operand.evalInt(frame) == 0) {
+               return 0;
+            }
+         }
+         return 1;
+      }
+   }
+
+   static final class LessThan extends ExpressionNode {
+      private final ExpressionNode left;
+      private final ExpressionNode right;
+
+      LessThan(ExpressionNode left, ExpressionNode right) {
+         this.left = left;
+         this.right = right;
+      }
+
+      @Override
+      int evalInt(Frame frame) {
+         frame.execution.instructions++;
+         return (left.evalInt(frame) < right.evalInt(frame)) ? 1 : 0;
+      }
+   }
+
+   /**
+    * {@code +} and {@code -} of a run of operands, folded left to right. The first operand is never subtracted.
+    */
+   static final class Sum extends ExpressionNode {
+      private final ExpressionNode[] operands;
+      private final boolean[] subtracted;
+
+      Sum(ExpressionNode[] operands, boolean[] subtracted) {
+         this.operands = operands;
+         this.subtracted = subtracted;
+      }
+
+      @Override
+      int evalInt(Frame frame) {
+         frame.execution.instructions += operands.length - 1;
+         int value = operands[0].evalInt(frame);
+         for (int index = 1; index < operands.length; index++) {
+            int operand = operands[index].evalInt(frame);
+            value = subtracted[index] ? value - operand : value + operand;
+         }
+         return value;
+      }
+   }
+
+   /**
+    * {@code *} of a run of operands, folded left to right.
+    */
+   static final class Multiplication extends ExpressionNode {
+      private final ExpressionNode[] operands;
+
+      Multiplication(ExpressionNode[] operands) {
+         this.operands = operands;
+      }
+
+      @Override
+      int evalInt(Frame frame) {
+         frame.execution.instructions += operands.length - 1;
+         int value = operands[0].evalInt(frame);
+         for (int index = 1; index < operands.length; index++) {
+            value *= operands[index].evalInt(frame);
+         }
+         return value;
+      }
+   }
+
+   static final class ArrayLoad extends ExpressionNode {
+      private final ExpressionNode array;
+      private final ExpressionNode index;
+
+      ArrayLoad(ExpressionNode array, ExpressionNode index) {
+         this.array = array;
+         this.index = index;
+      }
+
+      @Override
+      int evalInt(Frame frame) {
+         frame.execution.instructions++;
+         int[] values = (int[]) array.evalRef(frame);
+         return values[index.evalInt(frame)];
+      }
+   }
+
+   static final class ArrayLength extends ExpressionNode {
+      private final ExpressionNode array;
+
+      ArrayLength(ExpressionNode array) {
+         this.array = array;
+      }
+
+      @Override
+      int evalInt(Frame frame) {
+         frame.execution.instructions++;
+         return ((int[]) array.evalRef(frame)).length;
+      }
+   }
+
+   /**
+    * Virtual call: the method is looked up by its table index in the class of the receiver.
+    */
+   static final class Call extends ExpressionNode {
+      private final ExpressionNode receiver;
+      private final int methodIndex;
+      private final ExpressionNode[] args;
+      private final int[] argSlots;
+      private final boolean[] refArgs;
+
+      Call(ExpressionNode receiver, int methodIndex, ExpressionNode[] args, int[] argSlots, boolean[] refArgs) {
+         this.receiver = receiver;
+         this.methodIndex = methodIndex;
+         this.args = args;
+         this.argSlots = argSlots;
+         this.refArgs = refArgs;
+      }
+
+      @Override
+      int evalInt(Frame frame) {
+         Instance self = receiver(frame, receiver, args, refArgs);
+         RuntimeMethod method = self.runtimeClass.methods[methodIndex];
+         return method.returnExpr.evalInt(enter(frame, self, method, args, argSlots, refArgs));
+      }
+
+      @Override
+      Object evalRef(Frame frame) {
+         Instance self = receiver(frame, receiver, args, refArgs);
+         RuntimeMethod method = self.runtimeClass.methods[methodIndex];
+         return method.returnExpr.evalRef(enter(frame, self, method, args, argSlots, refArgs));
+      }
+   }
+
+   /**
+    * Call of a monomorphic call site: the only possible target is bound when the call is resolved.
+    */
+   static final class DirectCall extends ExpressionNode {
+      private final ExpressionNode receiver;
+      private final RuntimeMethod method;
+      private final ExpressionNode[] args;
+      private final int[] argSlots;
+      private final boolean[] refArgs;
+
+      DirectCall(ExpressionNode receiver, RuntimeMethod method, ExpressionNode[] args, int[] argSlots, boolean[] refArgs) {
+         this.receiver = receiver;
+         this.method = method;
+         this.args = args;
+         this.argSlots = argSlots;
+         this.refArgs = refArgs;
+      }
+
+      @Override
+      int evalInt(Frame frame) {
+         Instance self = receiver(frame, receiver, args, refArgs);
+         return method.returnExpr.evalInt(enter(frame, self, method, args, argSlots, refArgs));
+      }
+
+      @Override
+      Object evalRef(Frame frame) {
+         Instance self = receiver(frame, receiver, args, refArgs);
+         return method.returnExpr.evalRef(enter(frame, self, method, args, argSlots, refArgs));
+      }
+   }
+
+   /**
+    * Evaluates the receiver of a call. A {@code null} receiver only throws after the arguments are evaluated, like the
+    * JVM throws at the {@code invokevirtual} after pushing the arguments, so their side effects happen on both
+    * backends.
+    */
+   private static Instance receiver(Frame frame, ExpressionNode receiver, ExpressionNode[] args, boolean[] refArgs) {
+      Instance self = (Instance) receiver.evalRef(frame);
+      if (self == null) {
+         for (int index = 0; index < args.length; index++) {
+            if (refArgs[index]) {
+               args[index].evalRef(frame);
+            } else {
+               args[index].evalInt(frame);
+            }
+         }
+         throw new NullPointerException("Cannot invoke a method on null");
+      }
+      return self;
+   }
+
+   /**
+    * Evaluates the arguments into a new frame for the method and runs its body.
+    */
+   private static Frame enter(Frame frame, Instance self, RuntimeMethod method,
+                              ExpressionNode[] args, int[] argSlots, boolean[] refArgs) {
+      frame.execution.instructions++;
+      Frame callee = new Frame(self, method.intSlots, method.refSlots, frame.execution);
+      for (int index = 0; index < args.length; index++) {
+         if (refArgs[index]) {
+            callee.refs[argSlots[index]] = args[index].evalRef(frame);
+         } else {
+            callee.ints[argSlots[index]] = args[index].evalInt(frame);
+         }
+      }
+      method.body.execute(callee);
+      return callee;
+   }
+
+   static final class Block extends StatementNode {
+      private final StatementNode[] statements;
+
+      Block(StatementNode[] statements) {
+         this.statements = statements;
+      }
+
+      @Override
+      void execute(Frame frame) {
+         for (StatementNode statement : statements) {
+            statement.execute(frame);
+         }
+      }
+   }
+
+   static final class If extends StatementNode {
+      private final ExpressionNode condition;
+      private final StatementNode statement;
+      private final StatementNode elseStatement;
+
+      If(ExpressionNode condition, StatementNode statement, StatementNode elseStatement) {
+         this.condition = condition;
+         this.statement = statement;
+         this.elseStatement = elseStatement;
+      }
+
+      @Override
+      void execute(Frame frame) {
+         frame.execution.instructions++;
+         if (condition.evalInt(frame) != 0) {
+            statement.execute(frame);
+         } else {
+            elseStatement.execute(frame);
+         }
+      }
+   }
+
+   static final class While extends StatementNode {
+      private final ExpressionNode condition;
+      private final StatementNode statement;
+
+      While(ExpressionNode condition, StatementNode statement) {
+         this.condition = condition;
+         this.statement = statement;
+      }
+
+      @Override
+      void execute(Frame frame) {
+         frame.execution.instructions++;
+         while (condition.evalInt(frame) != 0) {
+            statement.execute(frame);
+            frame.execution.instructions++;
+         }
+      }
+   }
+
+   static final class PrintInt extends StatementNode {
+      private final ExpressionNode expr;
+
+      PrintInt(ExpressionNode expr) {
+         this.expr = expr;
+      }
+
+      @Override
+      void execute(Frame frame) {
+         frame.execution.instructions++;
+         frame.execution.out.println(expr.evalInt(frame));
+      }
+   }
+
+   static final class PrintBool extends StatementNode {
+      private final ExpressionNode expr;
+
+      PrintBool(ExpressionNode expr) {
+         this.expr = expr;
+      }
+
+      @Override
+      void execute(Frame frame) {
+         frame.execution.instructions++;
+         frame.execution.out.println(expr.evalInt(frame) != 0);
+      }
+   }
+
+   static final class PrintRef extends StatementNode {
+      private final ExpressionNode expr;
+
+      PrintRef(ExpressionNode expr) {
+         this.expr = expr;
+      }
+
+      @Override
+      void execute(Frame frame) {
+         frame.execution.instructions++;
+         frame.execution.out.println(expr.evalRef(frame));
+      }
+   }
+
+   static final class AssignLocalInt extends StatementNode {
+      private final int slot;
+      private final ExpressionNode expr;
+
+      AssignLocalInt(int slot, ExpressionNode expr) {
+         this.slot = slot;
+         this.expr = expr;
+      }
+
+      @Override
+      void execute(Frame frame) {
+         frame.execution.instructions++;
+         frame.ints[slot] = expr.evalInt(frame);
+      }
+   }
+
+   static final class AssignLocalRef extends StatementNode {
+      private final int slot;
+      private final ExpressionNode expr;
+
+      AssignLocalRef(int slot, ExpressionNode expr) {
+         this.slot = slot;
+         this.expr = expr;
+      }
+
+      @Override
+      void execute(Frame frame) {
+         frame.execution.instructions++;
+         frame.refs[slot] = expr.evalRef(frame);
+      }
+   }
+
+   static final class AssignFieldInt extends StatementNode {
+      private final int slot;
+      private final ExpressionNode expr;
+
+      AssignFieldInt(int slot, ExpressionNode expr) {
+         this.slot = slot;
+         this.expr = expr;
+      }
+
+      @Override
+      void execute(Frame frame) {
+         frame.execution.instructions++;
+         frame.self.ints[slot] = expr.evalInt(frame);
+      }
+   }
+
+   static final class AssignFieldRef extends StatementNode {
+      private final int slot;
+      private final ExpressionNode expr;
+
+      AssignFieldRef(int slot, ExpressionNode expr) {
+         this.slot = slot;
+         this.expr = expr;
+      }
+
+      @Override
+      void execute(Frame frame) {
+         frame.execution.instructions++;
+         frame.self.refs[slot] = expr.evalRef(frame);
+      }
+   }
+
+   static final class ArrayStore extends StatementNode {
+      private final ExpressionNode array;
+      private final ExpressionNode index;
+      private final ExpressionNode value;
+
+      ArrayStore(ExpressionNode array, ExpressionNode index, ExpressionNode value) {
+         this.array = array;
+         this.index = index;
+         this.value = value;
+      }
+
+      @Override
+      void execute(Frame frame) {
+         frame.execution.instructions++;
+         int[] values = (int[]) array.evalRef(frame);
+         int position = index.evalInt(frame);
+         values[position] = value.evalInt(frame);
+      }
+   }
+}
@@ -0,0 +1,372 @@
+package minijava.lang.interpreter;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import minijava.lang.optimizer.CallSites;
+import minijava.lang.parser.AST.Addition;
+import minijava.lang.parser.AST.And;
+import minijava.lang.parser.AST.ArrayAssignStatement;
+import minijava.lang.parser.AST.ArrayLength;
+import minijava.lang.parser.AST.AssignStatement;
+import minijava.lang.parser.AST.Bool;
+import minijava.lang.parser.AST.ClassDecl;
+import minijava.lang.parser.AST.ClassType;
+import minijava.lang.parser.AST.ExprArray;
+import minijava.lang.parser.AST.ExprClassMember;
+import minijava.lang.parser.AST.ExprFalse;
+import minijava.lang.parser.AST.ExprId;
+import minijava.lang.parser.AST.ExprNot;
+import minijava.lang.parser.AST.ExprNumber;
+import minijava.lang.parser.AST.ExprParenthesis;
+import minijava.lang.parser.AST.ExprThis;
+import minijava.lang.parser.AST.ExprTrue;
+import minijava.lang.parser.AST.Expression;
+import minijava.lang.parser.AST.Expression2;
+import minijava.lang.parser.AST.Identifier;
+import minijava.lang.parser.AST.IfStatement;
+import minijava.lang.parser.AST.Int;
+import minijava.lang.parser.AST.IntArray;
+import minijava.lang.parser.AST.LessThan;
+import minijava.lang.parser.AST.MethodDecl;
+import minijava.lang.parser.AST.MethodParam;
+import minijava.lang.parser.AST.Multiplication;
+import minijava.lang.parser.AST.NewClassDecl;
+import minijava.lang.parser.AST.NewIntArrayDecl;
+import minijava.lang.parser.AST.Operation;
+import minijava.lang.parser.AST.PrintStatement;
+import minijava.lang.parser.AST.Program;
+import minijava.lang.parser.AST.Statement;
+import minijava.lang.parser.AST.StatementBlock;
+import minijava.lang.parser.AST.Subtraction;
+import minijava.lang.parser.AST.Type;
+import minijava.lang.parser.AST.VarDecl;
+import minijava.lang.parser.AST.WhileLoop;
+import minijava.lang.typechecker.ClassHierarchy;
+import minijava.lang.typechecker.VirtualMethodTable;
+
+/**
+ * Resolution pass of the {@link Interpreter}. Translates a checked {@link Program} into {@link ExpressionNode}s and
+ * {@link StatementNode}s in which every variable is a slot index and every call a method table index, so nothing
+ * is looked up by name at run time. Monomorphic {@link CallSites} call their only target directly.
+ */
+final class Resolver {
+
+   private record Variable(int slot, Type type) {}
+
+   private record Resolved(ExpressionNode node, Type type) {}
+
+   private final ClassHierarchy classHierarchy;
+
+   private final VirtualMethodTable virtualMethodTable;
+
+   private final Map<String, RuntimeClass> runtimeClasses = new HashMap<>();
+
+   private final Map<String, Map<String, Variable>> fields = new HashMap<>();
+
+   private final Map<String, Map<String, Integer>> methodIndices = new HashMap<>();
+
+   private final Map<MethodDecl, RuntimeMethod> runtimeMethods = new IdentityHashMap<>();
+
+   private final CallSites callSites;
+
+   Resolver(ClassHierarchy classHierarchy, VirtualMethodTable virtualMethodTable, CallSites callSites) {
+      this.classHierarchy = classHierarchy;
+      this.virtualMethodTable = virtualMethodTable;
+      this.callSites = callSites;
+   }
+
+   /**
+    * @return The resolved statement of the main class
+    */
+   StatementNode resolve(Program program) {
+      for (ClassDecl classDecl : program.classDecls()) {
+         runtimeClasses.put(classDecl.className().id(), new RuntimeClass(classDecl.className().id()));
+         for (MethodDecl methodDecl : classDecl.methodDecls()) {
+            runtimeMethods.put(methodDecl, new RuntimeMethod(methodDecl.methodName().id()));
+         }
+      }
+      for (ClassDecl classDecl : classHierarchy.preorder()) {
+         if (runtimeClasses.containsKey(classDecl.className().id())) {
+            layout(classDecl);
+         }
+      }
+      for (ClassDecl classDecl : program.classDecls()) {
+         for (MethodDecl methodDecl : classDecl.methodDecls()) {
+            method(classDecl.className().id(), methodDecl);
+         }
+      }
+      return new MethodResolver(null, new HashMap<>()).statement(program.mainClass().statement());
+   }
+
+   /**
+    * Fields of the superclass keep their offsets, the fields of the class are appended after them. {@code int} and
+    * {@code boolean} fields are numbered separately from array and object fields. A field hides a superclass field of
+    * the same name.
+    */
+   private void layout(ClassDecl classDecl) {
+      String className = classDecl.className().id();
+      Optional<ClassDecl> superClass = classHierarchy.superClass(className);
+      if (superClass.isPresent() && ! runtimeClasses.containsKey(superClass.get().className().id())) {
+         throw new IllegalStateException("Cannot interpret " + className + ", its superclass "
+            + superClass.get().className() + " is precompiled.");
+      }
+      Map<String, Variable> classFields = superClass
+         .map((superClassDecl) -> new HashMap<>(fields.get(superClassDecl.className().id())))
+         .orElseGet(HashMap::new);
+      RuntimeClass runtimeClass = runtimeClasses.get(className);
+      superClass
+         .map((superClassDecl) -> runtimeClasses.get(superClassDecl.className().id()))
+         .ifPresent((superRuntimeClass) -> {
+            runtimeClass.intFields = superRuntimeClass.intFields;
+            runtimeClass.refFields = superRuntimeClass.refFields;
+         });
+      for (VarDecl varDecl : classDecl.varDecls()) {
+         int slot = isReference(varDecl.varType()) ? runtimeClass.refFields++ : runtimeClass.intFields++;
+         classFields.put(varDecl.varName().id(), new Variable(slot, varDecl.varType()));
+      }
+      fields.put(className, classFields);
+
+      List<MethodDecl> methodDecls = new ArrayList<>(virtualMethodTable.methods(className));
+      Map<String, Integer> indices = new HashMap<>();
+      runtimeClass.methods = new RuntimeMethod[methodDecls.size()];
+      for (int index = 0; index < methodDecls.size(); index++) {
+         MethodDecl methodDecl = methodDecls.get(index);
+         RuntimeMethod runtimeMethod = runtimeMethods.get(methodDecl);
+         if (runtimeMethod == null) {
+            throw new IllegalStateException("Cannot interpret " + className + "." + methodDecl.methodName()
+               + ", the method is precompiled.");
+         }
+         runtimeClass.methods[index] = runtimeMethod;
+         indices.put(methodDecl.methodName().id(), index);
+      }
+      methodIndices.put(className, indices);
+   }
+
+   private void method(String className, MethodDecl methodDecl) {
+      RuntimeMethod runtimeMethod = runtimeMethods.get(methodDecl);
+      MethodResolver methodResolver = new MethodResolver(className, new HashMap<>());
+      for (MethodParam methodParam : methodDecl.methodParams()) {
+         methodResolver.declare(methodParam.name(), methodParam.type());
+      }
+      for (VarDecl varDecl : methodDecl.varDecls()) {
+         methodResolver.declare(varDecl.varName(), varDecl.varType());
+      }
+      runtimeMethod.body = new Nodes.Block(methodDecl.statements().stream()
+         .map(methodResolver::statement)
+         .toArray(StatementNode[]::new));
+      runtimeMethod.returnExpr = methodResolver.expression(methodDecl.returnExpr()).node();
+      runtimeMethod.intSlots = methodResolver.intSlots;
+      runtimeMethod.refSlots = methodResolver.refSlots;
+   }
+
+   private static boolean isReference(Type type) {
+      return type instanceof IntArray || type instanceof ClassType;
+   }
+
+   /**
+    * Resolves the body of one method against its locals and the fields of its class.
+    */
+   private final class MethodResolver {
+
+      private final String className;
+
+      private final Map<Identifier, Variable> locals;
+
+      private int intSlots;
+
+      private int refSlots;
+
+      MethodResolver(String className, Map<Identifier, Variable> locals) {
+         this.className = className;
+         this.locals = locals;
+      }
+
+      void declare(Identifier identifier, Type type) {
+         int slot = isReference(type) ? refSlots++ : intSlots++;
+         locals.put(identifier, new Variable(slot, type));
+      }
+
+      StatementNode statement(Statement statement) {
+         return switch (statement) {
+            case StatementBlock statementBlock -> new Nodes.Block(statementBlock.statements().stream()
+               .map(this::statement)
+               .toArray(StatementNode[]::new));
+            case IfStatement ifStatement -> new Nodes.If(
+               expression(ifStatement.expr()).node(),
+               statement(ifStatement.statement()),
+               statement(ifStatement.elseStatement())
+            );
+            case WhileLoop whileLoop -> new Nodes.While(
+               expression(whileLoop.expr()).node(),
+               statement(whileLoop.statement())
+            );
+            case PrintStatement printStatement -> {
+               Resolved resolved = expression(printStatement.expr());
+               yield switch (resolved.type()) {
+                  case Int integer -> new Nodes.PrintInt(resolved.node());
+                  case Bool bool -> new Nodes.PrintBool(resolved.node());
+                  default -> new Nodes.PrintRef(resolved.node());
+               };
+            }
+            case AssignStatement assignStatement -> {
+               ExpressionNode expr = expression(assignStatement.expr()).node();
+               Variable local = locals.get(assignStatement.varName());
+               if (local != null) {
+                  yield isReference(local.type()) ?
+                     new Nodes.AssignLocalRef(local.slot(), expr) :
+                     new Nodes.AssignLocalInt(local.slot(), expr);
+               }
+               Variable field = field(assignStatement.varName());
+               yield isReference(field.type()) ?
+                  new Nodes.AssignFieldRef(field.slot(), expr) :
+                  new Nodes.AssignFieldInt(field.slot(), expr);
+            }
+            case ArrayAssignStatement arrayAssign -> new Nodes.ArrayStore(
+               variable(arrayAssign.varName()).node(),
+               expression(arrayAssign.indexExpr()).node(),
+               expression(arrayAssign.expr()).node()
+            );
+            default -> throw new IllegalStateException("Unexpected value: " + statement);
+         };
+      }
+
+      Resolved expression(Expression expression) {
+         Resolved resolved = switch (expression) {
+            case ExprNumber exprNumber -> new Resolved(new Nodes.IntConstant(exprNumber.integer().integer()), new Int());
+            case ExprTrue exprTrue -> new Resolved(new Nodes.IntConstant(1), new Bool());
+            case ExprFalse exprFalse -> new Resolved(new Nodes.IntConstant(0), new Bool());
+            case ExprId exprId -> variable(exprId.identifier());
+            case ExprThis exprThis -> new Resolved(new Nodes.This(), new ClassType(new Identifier(className)));
+            case NewIntArrayDecl newIntArrayDecl -> new Resolved(
+               new Nodes.NewIntArray(expression(newIntArrayDecl.expr()).node()),
+               new IntArray()
+            );
+            case NewClassDecl newClassDecl -> {
+               RuntimeClass runtimeClass = runtimeClasses.get(newClassDecl.identifier().id());
+               if (runtimeClass == null) {
+                  throw new IllegalStateException("Cannot interpret " + newClassDecl.identifier() + ", the class is precompiled.");
+               }
+               yield new Resolved(new Nodes.NewObject(runtimeClass), new ClassType(newClassDecl.identifier()));
+            }
+            case ExprNot exprNot -> new Resolved(new Nodes.Not(expression(exprNot.expr()).node()), new Bool());
+            case ExprParenthesis exprParenthesis -> expression(exprParenthesis.expr());
+            default -> throw new IllegalStateException("Unexpected value: " + expression);
+         };
+         return expression2(resolved, expression.expr2());
+      }
+
+      private Resolved expression2(Resolved resolved, Optional<Expression2> expr2) {
+         while (expr2.isPresent()) {
+            ExpressionNode left = resolved.node();
+            if (isSum(expr2.get())) {
+               List<ExpressionNode> operands = new ArrayList<>(List.of(left));
+               List<Boolean> subtracted = new ArrayList<>(List.of(false));
+               for (; expr2.isPresent() && isSum(expr2.get()); expr2 = expr2.get().expr2()) {
+                  for (Expression operand : ((Operation) expr2.get()).operands()) {
+                     operands.add(expression(operand).node());
+                     subtracted.add(expr2.get() instanceof Subtraction);
+                  }
+               }
+               resolved = new Resolved(sum(operands, subtracted), new Int());
+               continue;
+            }
+            resolved = switch (expr2.get()) {
+               case ExprArray exprArray -> new Resolved(
+                  new Nodes.ArrayLoad(left, expression(exprArray.expr()).node()), new Int());
+               case ArrayLength arrayLength -> new Resolved(new Nodes.ArrayLength(left), new Int());
+               case ExprClassMember classMember -> call(resolved, classMember);
+               case Operation operation -> operation(left, operation);
+               default -> throw new IllegalStateException("Unexpected value: " + expr2.get());
+            };
+            expr2 = expr2.get().expr2();
+         }
+         return resolved;
+      }
+
+      /**
+       * Applies the operator to the left operand and each operand in turn, in one node holding all of them. The checks
+       * reject chained comparisons, so {@code <} always has two.
+       */
+      private Resolved operation(ExpressionNode left, Operation operation) {
+         List<ExpressionNode> operands = new ArrayList<>(List.of(left));
+         for (Expression operand : operation.operands()) {
+            operands.add(expression(operand).node());
+         }
+         return switch (operation) {
+            case And and -> new Resolved(new Nodes.And(operands.toArray(ExpressionNode[]::new)), new Bool());
+            case LessThan lessThan -> new Resolved(new Nodes.LessThan(operands.get(0), operands.get(1)), new Bool());
+            case Multiplication multiplication -> new Resolved(
+               new Nodes.Multiplication(operands.toArray(ExpressionNode[]::new)), new Int());
+            default -> throw new IllegalStateException("Unknown operation: " + operation);
+         };
+      }
+
+      /**
+       * A run of {@code +} and {@code -} continuations, such as {@code a + b - c + d}, is folded by one node.
+       */
+      private static boolean isSum(Expression2 expr2) {
+         return expr2 instanceof Addition || expr2 instanceof Subtraction;
+      }
+
+      private static ExpressionNode sum(List<ExpressionNode> operands, List<Boolean> subtracted) {
+         boolean[] subtractions = new boolean[subtracted.size()];
+         for (int index = 0; index < subtractions.length; index++) {
+            subtractions[index] = subtracted.get(index);
+         }
+         return new Nodes.Sum(operands.toArray(ExpressionNode[]::new), subtractions);
+      }
+
+      private Resolved call(Resolved receiver, ExprClassMember classMember) {
+         String receiverClass = ((ClassType) receiver.type()).identifier().id();
+         String methodName = classMember.identifier().id();
+         MethodDecl methodDecl = virtualMethodTable.resolve(receiverClass, methodName)
+            .orElseThrow(() -> new IllegalStateException("Could not find method: " + receiverClass + "." + methodName));
+         Integer methodIndex = methodIndices.get(receiverClass).get(methodName);
+
+         int params = methodDecl.methodParams().size();
+         ExpressionNode[] args = new ExpressionNode[params];
+         int[] argSlots = new int[params];
+         boolean[] refArgs = new boolean[params];
+         int intSlot = 0;
+         int refSlot = 0;
+         for (int index = 0; index < params; index++) {
+            args[index] = expression(classMember.memberParams().get(index)).node();
+            refArgs[index] = isReference(methodDecl.methodParams().get(index).type());
+            argSlots[index] = refArgs[index] ? refSlot++ : intSlot++;
+         }
+         ExpressionNode call = callSites.callSite(classMember)
+            .flatMap(CallSites.CallSite::target)
+            .map(runtimeMethods::get)
+            .map((target) -> (ExpressionNode) new Nodes.DirectCall(receiver.node(), target, args, argSlots, refArgs))
+            .orElseGet(() -> new Nodes.Call(receiver.node(), methodIndex, args, argSlots, refArgs));
+         return new Resolved(call, methodDecl.methodType());
+      }
+
+      private Resolved variable(Identifier identifier) {
+         Variable local = locals.get(identifier);
+         if (local != null) {
+            return new Resolved(
+               isReference(local.type()) ? new Nodes.LocalRef(local.slot()) : new Nodes.LocalInt(local.slot()),
+               local.type()
+            );
+         }
+         Variable field = field(identifier);
+         return new Resolved(
+            isReference(field.type()) ? new Nodes.FieldRef(field.slot()) : new Nodes.FieldInt(field.slot()),
+            field.type()
+         );
+      }
+
+      private Variable field(Identifier identifier) {
+         Variable field = (className != null) ? fields.get(className).get(identifier.id()) : null;
+         if (field == null) {
+            throw new IllegalStateException("Could not find identifier: " + identifier);
+         }
+         return field;
+      }
+   }
+}
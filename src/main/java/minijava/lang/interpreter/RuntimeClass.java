@@ -0,0 +1,21 @@
+package minijava.lang.interpreter;
+
+/**
+ * Resolved class: the size of its field layout, inherited fields included, and its methods indexed like the
+ * {@link minijava.lang.typechecker.VirtualMethodTable}, so an overriding method takes the index of the method it
+ * overrides.
+ */
+final class RuntimeClass {
+
+   final String name;
+
+   int intFields;
+
+   int refFields;
+
+   RuntimeMethod[] methods;
+
+   RuntimeClass(String name) {
+      this.name = name;
+   }
+}
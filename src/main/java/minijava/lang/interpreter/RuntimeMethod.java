@@ -0,0 +1,21 @@
+package minijava.lang.interpreter;
+
+/**
+ * Resolved method body. Parameters take the first slots of their kind, locals follow.
+ */
+final class RuntimeMethod {
+
+   final String name;
+
+   int intSlots;
+
+   int refSlots;
+
+   StatementNode body;
+
+   ExpressionNode returnExpr;
+
+   RuntimeMethod(String name) {
+      this.name = name;
+   }
+}
@@ -0,0 +1,6 @@
+package minijava.lang.interpreter;
+
+abstract class StatementNode {
+
+   abstract void execute(Frame frame);
+}
@@ -0,0 +1,157 @@
+package minijava.lang.optimizer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import minijava.lang.parser.AST.ArrayAssignStatement;
+import minijava.lang.parser.AST.ArrayLength;
+import minijava.lang.parser.AST.AssignStatement;
+import minijava.lang.parser.AST.ClassDecl;
+import minijava.lang.parser.AST.ExprArray;
+import minijava.lang.parser.AST.ExprClassMember;
+import minijava.lang.parser.AST.ExprNot;
+import minijava.lang.parser.AST.ExprParenthesis;
+import minijava.lang.parser.AST.Expression;
+import minijava.lang.parser.AST.Expression2;
+import minijava.lang.parser.AST.IfStatement;
+import minijava.lang.parser.AST.MainClass;
+import minijava.lang.parser.AST.MethodDecl;
+import minijava.lang.parser.AST.NewIntArrayDecl;
+import minijava.lang.parser.AST.Operation;
+import minijava.lang.parser.AST.PrintStatement;
+import minijava.lang.parser.AST.Program;
+import minijava.lang.parser.AST.Statement;
+import minijava.lang.parser.AST.StatementBlock;
+import minijava.lang.parser.AST.WhileLoop;
+import minijava.lang.parser.OperatorPrecedence;
+
+/**
+ * Rebuilds a {@link Program} bottom up without modifying it. Every method returns a rewritten copy of its node, a
+ * pass overrides the nodes it changes and calls {@code super} to rewrite their children first.
+ */
+public abstract class ASTRewriter {
+
+   /**
+    * The class whose methods are rewritten, {@code null} in the {@link MainClass}.
+    */
+   protected ClassDecl currentClass;
+
+   /**
+    * The method being rewritten, {@code null} in the {@link MainClass}.
+    */
+   protected MethodDecl currentMethod;
+
+   public Program program(Program program) {
+      MainClass mainClass = mainClass(program.mainClass());
+      List<ClassDecl> classDecls = program.classDecls().stream()
+         .map(this::classDecl)
+         .toList();
+      return new Program(mainClass, classDecls);
+   }
+
+   protected MainClass mainClass(MainClass mainClass) {
+      currentClass = null;
+      currentMethod = null;
+      return new MainClass(mainClass.className(), mainClass.argName(), statement(mainClass.statement()));
+   }
+
+   protected ClassDecl classDecl(ClassDecl classDecl) {
+      currentClass = classDecl;
+      List<MethodDecl> methodDecls = classDecl.methodDecls().stream()
+         .map(this::methodDecl)
+         .toList();
+      currentClass = null;
+      return new ClassDecl(classDecl.className(), classDecl.superClass(), classDecl.varDecls(), methodDecls);
+   }
+
+   protected MethodDecl methodDecl(MethodDecl methodDecl) {
+      currentMethod = methodDecl;
+      List<Statement> statements = statements(methodDecl.statements());
+      Expression returnExpr = expression(methodDecl.returnExpr());
+      currentMethod = null;
+      return new MethodDecl(
+         methodDecl.methodType(),
+         methodDecl.methodName(),
+         methodDecl.methodParams(),
+         methodDecl.varDecls(),
+         statements,
+         returnExpr
+      );
+   }
+
+   protected List<Statement> statements(List<Statement> statements) {
+      return statements.stream()
+         .map(this::statement)
+         .toList();
+   }
+
+   protected Statement statement(Statement statement) {
+      return switch (statement) {
+         case StatementBlock statementBlock -> new StatementBlock(statements(statementBlock.statements()));
+         case IfStatement ifStatement -> new IfStatement(
+            expression(ifStatement.expr()),
+            statement(ifStatement.statement()),
+            statement(ifStatement.elseStatement())
+         );
+         case WhileLoop whileLoop -> new WhileLoop(expression(whileLoop.expr()), statement(whileLoop.statement()));
+         case PrintStatement printStatement -> new PrintStatement(expression(printStatement.expr()));
+         case AssignStatement assignStatement -> new AssignStatement(
+            assignStatement.varName(),
+            expression(assignStatement.expr())
+         );
+         case ArrayAssignStatement arrayAssign -> new ArrayAssignStatement(
+            arrayAssign.varName(),
+            expression(arrayAssign.indexExpr()),
+            expression(arrayAssign.expr())
+         );
+         default -> throw new IllegalStateException("Unexpected value: " + statement);
+      };
+   }
+
+   /**
+    * Rewrites the term of an expression and each of its continuations with {@link #expression2(Expression2)}, then
+    * links the rewritten continuations from the last one to the first, however long the chain is.
+    */
+   protected Expression expression(Expression expression) {
+      Expression base = switch (expression) {
+         case ExprNot exprNot -> new ExprNot(expression(exprNot.expr()), Optional.empty());
+         case ExprParenthesis exprParenthesis -> new ExprParenthesis(expression(exprParenthesis.expr()), Optional.empty());
+         case NewIntArrayDecl newIntArrayDecl -> new NewIntArrayDecl(expression(newIntArrayDecl.expr()), Optional.empty());
+         default -> OperatorPrecedence.withExpr2(expression, Optional.empty());
+      };
+      List<Expression2> chain = new ArrayList<>();
+      for (Expression2 expr2 = expression.next(); expr2 != null; expr2 = expr2.next()) {
+         chain.add(expression2(expr2));
+      }
+      Optional<Expression2> expr2 = Optional.empty();
+      for (int index = chain.size() - 1; index >= 0; index--) {
+         expr2 = Optional.of(OperatorPrecedence.withExpr2(chain.get(index), expr2));
+      }
+      return OperatorPrecedence.withExpr2(base, expr2);
+   }
+
+   /**
+    * Rewrites one continuation without the continuations after it, which {@link #expression(Expression)} links back.
+    */
+   protected Expression2 expression2(Expression2 expression2) {
+      return switch (expression2) {
+         case ExprArray exprArray -> new ExprArray(expression(exprArray.expr()), Optional.empty());
+         case ArrayLength arrayLength -> new ArrayLength(Optional.empty());
+         case ExprClassMember classMember -> new ExprClassMember(
+            classMember.identifier(),
+            classMember.memberParams().stream()
+               .map(this::expression)
+               .toList(),
+            Optional.empty()
+         );
+         case Operation operation -> OperatorPrecedence.withOperands(
+            operation,
+            operation.operands().stream()
+               .map(this::expression)
+               .toList(),
+            Optional.empty()
+         );
+         default -> throw new IllegalStateException("Unexpected value: " + expression2);
+      };
+   }
+}
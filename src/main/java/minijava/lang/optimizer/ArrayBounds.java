@@ -0,0 +1,447 @@
+package minijava.lang.optimizer;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import minijava.lang.parser.AST.Addition;
+import minijava.lang.parser.AST.And;
+import minijava.lang.parser.AST.ArrayAssignStatement;
+import minijava.lang.parser.AST.ArrayLength;
+import minijava.lang.parser.AST.AssignStatement;
+import minijava.lang.parser.AST.ClassDecl;
+import minijava.lang.parser.AST.ExprArray;
+import minijava.lang.parser.AST.ExprClassMember;
+import minijava.lang.parser.AST.ExprId;
+import minijava.lang.parser.AST.ExprNot;
+import minijava.lang.parser.AST.ExprNumber;
+import minijava.lang.parser.AST.ExprParenthesis;
+import minijava.lang.parser.AST.Expression;
+import minijava.lang.parser.AST.Expression2;
+import minijava.lang.parser.AST.Identifier;
+import minijava.lang.parser.AST.IfStatement;
+import minijava.lang.parser.AST.LessThan;
+import minijava.lang.parser.AST.MethodDecl;
+import minijava.lang.parser.AST.NewIntArrayDecl;
+import minijava.lang.parser.AST.Operation;
+import minijava.lang.parser.AST.PrintStatement;
+import minijava.lang.parser.AST.Program;
+import minijava.lang.parser.AST.Statement;
+import minijava.lang.parser.AST.StatementBlock;
+import minijava.lang.parser.AST.WhileLoop;
+import minijava.lang.parser.OperatorPrecedence;
+
+/**
+ * Range analysis that proves {@code int[]} accesses {@code a[i]} in bounds, so a backend can skip their checks.
+ *
+ * An access is in bounds when {@code i} is known to be non-negative and less than {@code a.length}. The upper bound
+ * comes from a {@link WhileLoop} or {@link IfStatement} condition {@code i < a.length}, or {@code i < n} where
+ * {@code n} holds the length of {@code a} because of {@code n = a.length} or {@code a = new int[n]}. Induction
+ * variables of a loop stay non-negative when the loop only increments them by one while they are below a length,
+ * which also rules out overflow. The analysis is intraprocedural: facts about fields only hold while no method is
+ * called, as a callee may assign them.
+ */
+public class ArrayBounds {
+
+   /**
+    * {@code value} is less than, or equal to, the length of {@code array}, depending on the set it is in.
+    */
+   private record Bound(Identifier value, Identifier array) {}
+
+   /**
+    * {@code copy} holds the same value as {@code original}.
+    */
+   private record Copy(Identifier copy, Identifier original) {}
+
+   /**
+    * What is known at one point of a method.
+    */
+   private static final class Facts {
+
+      private final Set<Identifier> nonNegative = new HashSet<>();
+
+      private final Set<Bound> lengths = new HashSet<>();
+
+      private final Set<Bound> lessThan = new HashSet<>();
+
+      private final Set<Copy> copies = new HashSet<>();
+
+      Facts copy() {
+         Facts facts = new Facts();
+         facts.nonNegative.addAll(nonNegative);
+         facts.lengths.addAll(lengths);
+         facts.lessThan.addAll(lessThan);
+         facts.copies.addAll(copies);
+         return facts;
+      }
+
+      /**
+       * Keeps what holds on both paths.
+       */
+      Facts meet(Facts other) {
+         Facts facts = copy();
+         facts.nonNegative.retainAll(other.nonNegative);
+         facts.lengths.retainAll(other.lengths);
+         facts.lessThan.retainAll(other.lessThan);
+         facts.copies.retainAll(other.copies);
+         return facts;
+      }
+
+      /**
+       * Forgets everything about the variables.
+       */
+      void kill(Set<Identifier> variables) {
+         nonNegative.removeAll(variables);
+         lengths.removeIf((bound) -> variables.contains(bound.value()) || variables.contains(bound.array()));
+         lessThan.removeIf((bound) -> variables.contains(bound.value()) || variables.contains(bound.array()));
+         copies.removeIf((copy) -> variables.contains(copy.copy()) || variables.contains(copy.original()));
+      }
+
+      boolean isInBounds(Identifier index, Identifier array) {
+         return nonNegative.contains(index) && lessThan.contains(new Bound(index, array));
+      }
+   }
+
+   private final Set<Object> inBounds = Collections.newSetFromMap(new IdentityHashMap<>());
+
+   private final Set<Object> accesses = Collections.newSetFromMap(new IdentityHashMap<>());
+
+   private ArrayBounds() {}
+
+   public static ArrayBounds analyze(Program program) {
+      ArrayBounds arrayBounds = new ArrayBounds();
+      arrayBounds.new MethodAnalyzer(Set.of()).statement(program.mainClass().statement(), new Facts());
+      for (ClassDecl classDecl : program.classDecls()) {
+         for (MethodDecl methodDecl : classDecl.methodDecls()) {
+            Set<Identifier> locals = new HashSet<>();
+            methodDecl.methodParams().forEach((methodParam) -> locals.add(methodParam.name()));
+            methodDecl.varDecls().forEach((varDecl) -> locals.add(varDecl.varName()));
+            MethodAnalyzer methodAnalyzer = arrayBounds.new MethodAnalyzer(locals);
+            Facts facts = methodAnalyzer.statements(methodDecl.statements(), new Facts());
+            methodAnalyzer.expression(methodDecl.returnExpr(), facts);
+         }
+      }
+      return arrayBounds;
+   }
+
+   /**
+    * @return {@code true} if the index of the array load is proven to be within the bounds of the array
+    */
+   public boolean isInBounds(ExprArray exprArray) {
+      return inBounds.contains(exprArray);
+   }
+
+   /**
+    * @return {@code true} if the index of the array store is proven to be within the bounds of the array
+    */
+   public boolean isInBounds(ArrayAssignStatement arrayAssign) {
+      return inBounds.contains(arrayAssign);
+   }
+
+   /**
+    * @return The number of array loads and stores of the program
+    */
+   public int accesses() {
+      return accesses.size();
+   }
+
+   /**
+    * @return The number of array loads and stores proven in bounds
+    */
+   public int inBounds() {
+      return inBounds.size();
+   }
+
+   /**
+    * Runs the facts of one method forward through its statements.
+    */
+   private final class MethodAnalyzer {
+
+      private final Set<Identifier> locals;
+
+      /**
+       * The induction variables the enclosing loops assume to be only incremented within bounds.
+       */
+      private final Set<Identifier> assumed = new HashSet<>();
+
+      /**
+       * The assumed induction variables that turned out to be assigned otherwise.
+       */
+      private final Set<Identifier> failed = new HashSet<>();
+
+      /**
+       * The accesses proven in bounds in the current attempt of the innermost loop.
+       */
+      private Set<Object> proven = inBounds;
+
+      MethodAnalyzer(Set<Identifier> locals) {
+         this.locals = locals;
+      }
+
+      Facts statements(List<Statement> statements, Facts facts) {
+         for (Statement statement : statements) {
+            facts = statement(statement, facts);
+         }
+         return facts;
+      }
+
+      /**
+       * @return The facts after the statement
+       */
+      Facts statement(Statement statement, Facts facts) {
+         return switch (statement) {
+            case StatementBlock statementBlock -> statements(statementBlock.statements(), facts);
+            case IfStatement ifStatement -> {
+               Facts condition = expression(ifStatement.expr(), facts);
+               Facts then = condition.copy();
+               assume(ifStatement.expr(), then);
+               yield statement(ifStatement.statement(), then).meet(statement(ifStatement.elseStatement(), condition));
+            }
+            case WhileLoop whileLoop -> whileLoop(whileLoop, facts);
+            case PrintStatement printStatement -> expression(printStatement.expr(), facts);
+            case AssignStatement assignStatement -> assign(assignStatement, expression(assignStatement.expr(), facts));
+            case ArrayAssignStatement arrayAssign -> {
+               accesses.add(arrayAssign);
+               Facts index = expression(arrayAssign.indexExpr(), facts);
+               Facts value = expression(arrayAssign.expr(), index);
+               if (isInBounds(arrayAssign.varName(), arrayAssign.indexExpr(), value)) {
+                  proven.add(arrayAssign);
+               }
+               yield value;
+            }
+            default -> throw new IllegalStateException("Unexpected value: " + statement);
+         };
+      }
+
+      /**
+       * Analyzes the loop under the assumption that its induction variables stay non-negative, and drops the
+       * variables for which the body disproves that until the assumption holds.
+       */
+      private Facts whileLoop(WhileLoop whileLoop, Facts facts) {
+         Set<Identifier> assigned = new HashSet<>(VariableCollector.assigned(whileLoop.statement()));
+         Set<Identifier> induction = new HashSet<>(assigned);
+         induction.retainAll(facts.nonNegative);
+         induction.removeAll(assumed);
+         boolean calls = CallCollector.containsCall(whileLoop.expr()) || CallCollector.containsCall(whileLoop.statement());
+         Set<Object> enclosing = proven;
+         while (true) {
+            Facts head = facts.copy();
+            Set<Identifier> killed = new HashSet<>(assigned);
+            if (calls) {
+               killed.addAll(fields(head));
+            }
+            head.kill(killed);
+            induction.stream()
+               .filter((variable) -> ! calls || locals.contains(variable))
+               .forEach(head.nonNegative::add);
+
+            proven = Collections.newSetFromMap(new IdentityHashMap<>());
+            assumed.addAll(induction);
+            Facts body = expression(whileLoop.expr(), head).copy();
+            assume(whileLoop.expr(), body);
+            statement(whileLoop.statement(), body);
+            assumed.removeAll(induction);
+
+            Set<Identifier> disproven = new HashSet<>(induction);
+            disproven.retainAll(failed);
+            if (disproven.isEmpty()) {
+               enclosing.addAll(proven);
+               proven = enclosing;
+               return expression(whileLoop.expr(), head);
+            }
+            failed.removeAll(disproven);
+            induction.removeAll(disproven);
+         }
+      }
+
+      private Facts assign(AssignStatement assignStatement, Facts facts) {
+         Identifier variable = assignStatement.varName();
+         Expression expr = assignStatement.expr();
+         Facts assigned = facts.copy();
+         assigned.kill(Set.of(variable));
+
+         if (assumed.contains(variable)) {
+            if (isIncrement(variable, expr) && facts.lessThan.stream().anyMatch((bound) -> bound.value().equals(variable))) {
+               assigned.nonNegative.add(variable);
+            } else {
+               failed.add(variable);
+            }
+         }
+         if (expr instanceof ExprNumber exprNumber && expr.expr2().isEmpty() && exprNumber.integer().integer() >= 0) {
+            assigned.nonNegative.add(variable);
+         }
+         Optional<Identifier> arrayLength = variable(expr)
+            .filter((array) -> expr.expr2().isPresent()
+               && expr.expr2().get() instanceof ArrayLength
+               && expr.expr2().get().expr2().isEmpty());
+         arrayLength.ifPresent((array) -> {
+            assigned.nonNegative.add(variable);
+            assigned.lengths.add(new Bound(variable, array));
+         });
+         if (expr instanceof ExprId exprId && expr.expr2().isEmpty() && ! exprId.identifier().equals(variable)) {
+            Identifier original = exprId.identifier();
+            if (facts.nonNegative.contains(original)) {
+               assigned.nonNegative.add(variable);
+            }
+            facts.lengths.stream()
+               .filter((bound) -> bound.value().equals(original))
+               .forEach((bound) -> assigned.lengths.add(new Bound(variable, bound.array())));
+            assigned.copies.add(new Copy(variable, original));
+         }
+         if (expr instanceof NewIntArrayDecl newIntArrayDecl && expr.expr2().isEmpty()) {
+            variable(newIntArrayDecl.expr())
+               .filter((length) -> newIntArrayDecl.expr().expr2().isEmpty() && ! length.equals(variable))
+               .ifPresent((length) -> {
+                  assigned.lengths.add(new Bound(length, variable));
+                  facts.copies.stream()
+                     .filter((copy) -> copy.original().equals(length) || copy.copy().equals(length))
+                     .map((copy) -> copy.original().equals(length) ? copy.copy() : copy.original())
+                     .forEach((same) -> assigned.lengths.add(new Bound(same, variable)));
+               });
+         }
+         return assigned;
+      }
+
+      /**
+       * Adds what a true condition tells about indices: {@code i < a.length} or {@code i < n} with {@code n} being
+       * the length of {@code a}, in any conjunct. A call in a later conjunct may assign the fields a conjunct bounds,
+       * so the facts about fields are dropped again if the condition calls a method.
+       */
+      private void assume(Expression condition, Facts facts) {
+         conjuncts(condition, facts);
+         if (CallCollector.containsCall(condition)) {
+            facts.kill(fields(facts));
+         }
+      }
+
+      private void conjuncts(Expression condition, Facts facts) {
+         if (condition instanceof ExprParenthesis exprParenthesis && condition.expr2().isEmpty()) {
+            conjuncts(exprParenthesis.expr(), facts);
+            return;
+         }
+         Optional<Operation> operation = OperatorPrecedence.finalOperation(condition);
+         if (operation.isEmpty()) {
+            return;
+         }
+         Expression term = OperatorPrecedence.term(condition);
+         if (operation.get() instanceof And) {
+            conjuncts(term, facts);
+            conjuncts(operation.get().operands().get(0), facts);
+            return;
+         }
+         Optional<Identifier> index = variable(term);
+         if (! (operation.get() instanceof LessThan) || index.isEmpty() || term.expr2().isPresent()) {
+            return;
+         }
+         Expression bound = operation.get().operands().get(0);
+         while (bound instanceof ExprParenthesis exprParenthesis && bound.expr2().isEmpty()) {
+            bound = exprParenthesis.expr();
+         }
+         Optional<Identifier> boundVariable = variable(bound);
+         if (boundVariable.isEmpty()) {
+            return;
+         }
+         if (bound.expr2().isPresent()) {
+            if (bound.expr2().get() instanceof ArrayLength && bound.expr2().get().expr2().isEmpty()) {
+               facts.lessThan.add(new Bound(index.get(), boundVariable.get()));
+            }
+            return;
+         }
+         facts.lengths.stream()
+            .filter((length) -> length.value().equals(boundVariable.get()))
+            .forEach((length) -> facts.lessThan.add(new Bound(index.get(), length.array())));
+      }
+
+      /**
+       * Checks the array loads of an expression.
+       * @return The facts after the expression, which drop the fields if it calls a method
+       */
+      Facts expression(Expression expression, Facts facts) {
+         if (! CallCollector.containsCall(expression)) {
+            loads(expression, facts);
+            return facts;
+         }
+         Facts called = facts.copy();
+         called.kill(fields(facts));
+         loads(expression, called);
+         return called;
+      }
+
+      private void loads(Expression expression, Facts facts) {
+         switch (expression) {
+            case ExprNot exprNot -> loads(exprNot.expr(), facts);
+            case ExprParenthesis exprParenthesis -> loads(exprParenthesis.expr(), facts);
+            case NewIntArrayDecl newIntArrayDecl -> loads(newIntArrayDecl.expr(), facts);
+            default -> {}
+         }
+         Optional<Identifier> array = variable(expression);
+         for (Optional<Expression2> expr2 = expression.expr2(); expr2.isPresent(); expr2 = expr2.get().expr2()) {
+            switch (expr2.get()) {
+               case ExprArray exprArray -> {
+                  accesses.add(exprArray);
+                  loads(exprArray.expr(), facts);
+                  if (array.isPresent() && isInBounds(array.get(), exprArray.expr(), facts)) {
+                     proven.add(exprArray);
+                  }
+               }
+               case ExprClassMember classMember -> classMember.memberParams().forEach((arg) -> loads(arg, facts));
+               case Operation operation -> operation.operands().forEach((operand) -> loads(operand, facts));
+               default -> {}
+            }
+            array = Optional.empty();
+         }
+      }
+
+      private boolean isInBounds(Identifier array, Expression index, Facts facts) {
+         return variable(index)
+            .filter((variable) -> index.expr2().isEmpty())
+            .map((variable) -> facts.isInBounds(variable, array))
+            .orElse(false);
+      }
+
+      /**
+       * @return {@code true} for {@code variable = variable + 1}
+       */
+      private boolean isIncrement(Identifier variable, Expression expr) {
+         return expr instanceof ExprId exprId
+            && exprId.identifier().equals(variable)
+            && expr.expr2().isPresent()
+            && expr.expr2().get() instanceof Addition addition
+            && addition.expr2().isEmpty()
+            && addition.operands().size() == 1
+            && addition.operands().get(0) instanceof ExprNumber exprNumber
+            && exprNumber.expr2().isEmpty()
+            && exprNumber.integer().integer() == 1;
+      }
+
+      /**
+       * @return The variables the facts mention that are fields, which a called method may assign
+       */
+      private Set<Identifier> fields(Facts facts) {
+         Set<Identifier> fields = new HashSet<>(facts.nonNegative);
+         facts.lengths.forEach((bound) -> {
+            fields.add(bound.value());
+            fields.add(bound.array());
+         });
+         facts.lessThan.forEach((bound) -> {
+            fields.add(bound.value());
+            fields.add(bound.array());
+         });
+         facts.copies.forEach((copy) -> {
+            fields.add(copy.copy());
+            fields.add(copy.original());
+         });
+         fields.removeAll(locals);
+         return fields;
+      }
+   }
+
+   /**
+    * @return The variable an expression starts with
+    */
+   private static Optional<Identifier> variable(Expression expression) {
+      return (expression instanceof ExprId exprId) ? Optional.of(exprId.identifier()) : Optional.empty();
+   }
+}
@@ -0,0 +1,75 @@
+package minijava.lang.optimizer;
+
+import java.util.List;
+import minijava.lang.parser.AST.ArrayAssignStatement;
+import minijava.lang.parser.AST.AssignStatement;
+import minijava.lang.parser.AST.ExprArray;
+import minijava.lang.parser.AST.ExprClassMember;
+import minijava.lang.parser.AST.ExprNot;
+import minijava.lang.parser.AST.ExprParenthesis;
+import minijava.lang.parser.AST.Expression;
+import minijava.lang.parser.AST.Expression2;
+import minijava.lang.parser.AST.IfStatement;
+import minijava.lang.parser.AST.NewIntArrayDecl;
+import minijava.lang.parser.AST.Operation;
+import minijava.lang.parser.AST.PrintStatement;
+import minijava.lang.parser.AST.Statement;
+import minijava.lang.parser.AST.StatementBlock;
+import minijava.lang.parser.AST.WhileLoop;
+
+/**
+ * Finds method calls, after which an analysis can no longer trust what it knows about fields. The nodes are only read
+ * and the walk stops at the first call.
+ */
+class CallCollector {
+
+   private CallCollector() {}
+
+   static boolean containsCall(Statement statement) {
+      return switch (statement) {
+         case StatementBlock statementBlock -> {
+            for (Statement inner : statementBlock.statements()) {
+               if (containsCall(inner)) {
+                  yield true;
+               }
+            }
+            yield false;
+         }
+         case IfStatement ifStatement -> containsCall(ifStatement.expr())
+            || containsCall(ifStatement.statement())
+            || containsCall(ifStatement.elseStatement());
+         case WhileLoop whileLoop -> containsCall(whileLoop.expr()) || containsCall(whileLoop.statement());
+         case PrintStatement printStatement -> containsCall(printStatement.expr());
+         case AssignStatement assignStatement -> containsCall(assignStatement.expr());
+         case ArrayAssignStatement arrayAssign -> containsCall(arrayAssign.indexExpr()) || containsCall(arrayAssign.expr());
+         default -> throw new IllegalStateException("Unexpected value: " + statement);
+      };
+   }
+
+   static boolean containsCall(Expression expression) {
+      boolean containsCall = switch (expression) {
+         case ExprNot exprNot -> containsCall(exprNot.expr());
+         case ExprParenthesis exprParenthesis -> containsCall(exprParenthesis.expr());
+         case NewIntArrayDecl newIntArrayDecl -> containsCall(newIntArrayDecl.expr());
+         default -> false;
+      };
+      for (Expression2 expr2 = expression.next(); ! containsCall && expr2 != null; expr2 = expr2.next()) {
+         containsCall = switch (expr2) {
+            case ExprClassMember classMember -> true;
+            case ExprArray exprArray -> containsCall(exprArray.expr());
+            case Operation operation -> anyContainsCall(operation.operands());
+            default -> false;
+         };
+      }
+      return containsCall;
+   }
+
+   private static boolean anyContainsCall(List<Expression> expressions) {
+      for (Expression expression : expressions) {
+         if (containsCall(expression)) {
+            return true;
+         }
+      }
+      return false;
+   }
+}
@@ -0,0 +1,245 @@
+package minijava.lang.optimizer;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import minijava.lang.parser.AST.And;
+import minijava.lang.parser.AST.ArrayAssignStatement;
+import minijava.lang.parser.AST.ArrayLength;
+import minijava.lang.parser.AST.AssignStatement;
+import minijava.lang.parser.AST.Bool;
+import minijava.lang.parser.AST.ClassDecl;
+import minijava.lang.parser.AST.ClassType;
+import minijava.lang.parser.AST.ExprArray;
+import minijava.lang.parser.AST.ExprClassMember;
+import minijava.lang.parser.AST.ExprFalse;
+import minijava.lang.parser.AST.ExprId;
+import minijava.lang.parser.AST.ExprNot;
+import minijava.lang.parser.AST.ExprNumber;
+import minijava.lang.parser.AST.ExprParenthesis;
+import minijava.lang.parser.AST.ExprThis;
+import minijava.lang.parser.AST.ExprTrue;
+import minijava.lang.parser.AST.Expression;
+import minijava.lang.parser.AST.Expression2;
+import minijava.lang.parser.AST.Identifier;
+import minijava.lang.parser.AST.IfStatement;
+import minijava.lang.parser.AST.Int;
+import minijava.lang.parser.AST.IntArray;
+import minijava.lang.parser.AST.LessThan;
+import minijava.lang.parser.AST.MethodDecl;
+import minijava.lang.parser.AST.NewClassDecl;
+import minijava.lang.parser.AST.NewIntArrayDecl;
+import minijava.lang.parser.AST.Operation;
+import minijava.lang.parser.AST.PrintStatement;
+import minijava.lang.parser.AST.Program;
+import minijava.lang.parser.AST.Statement;
+import minijava.lang.parser.AST.StatementBlock;
+import minijava.lang.parser.AST.Type;
+import minijava.lang.parser.AST.VarDecl;
+import minijava.lang.parser.AST.WhileLoop;
+import minijava.lang.parser.SymbolTable;
+import minijava.lang.typechecker.ClassHierarchy;
+import minijava.lang.typechecker.VirtualMethodTable;
+
+/**
+ * Whole program class hierarchy analysis of the {@link ExprClassMember} calls of a checked {@link Program}.
+ *
+ * The possible targets of a call are the methods it dispatches to on the static type of its receiver and on every
+ * subclass of it. The result is a side table keyed by the identity of the call node, so a backend can call a
+ * {@link Dispatch#MONOMORPHIC} site directly instead of looking the method up in the receiver's class.
+ */
+public class CallSites {
+
+   public enum Dispatch {
+      MONOMORPHIC,
+      BIMORPHIC,
+      MEGAMORPHIC
+   }
+
+   /**
+    * @param receiverClass The static type of the receiver
+    * @param targets       Every method the call may dispatch to, the one of the receiver class first
+    */
+   public record CallSite(String receiverClass, List<MethodDecl> targets) {
+
+      public Dispatch dispatch() {
+         return switch (targets.size()) {
+            case 1 -> Dispatch.MONOMORPHIC;
+            case 2 -> Dispatch.BIMORPHIC;
+            default -> Dispatch.MEGAMORPHIC;
+         };
+      }
+
+      /**
+       * @return The only target of a {@link Dispatch#MONOMORPHIC} call
+       */
+      public Optional<MethodDecl> target() {
+         return (targets.size() == 1) ? Optional.of(targets.get(0)) : Optional.empty();
+      }
+   }
+
+   private final ClassHierarchy classHierarchy;
+
+   private final VirtualMethodTable virtualMethodTable;
+
+   private final Map<ExprClassMember, CallSite> callSites = new IdentityHashMap<>();
+
+   private CallSites(SymbolTable<?> symbolTable) {
+      this.classHierarchy = ClassHierarchy.of(symbolTable);
+      this.virtualMethodTable = VirtualMethodTable.of(symbolTable);
+   }
+
+   /**
+    * @param symbolTable The table the program was checked with
+    */
+   public static CallSites analyze(SymbolTable<?> symbolTable, Program program) {
+      CallSites callSites = new CallSites(symbolTable);
+      callSites.new MethodAnalyzer(null, new HashMap<>()).statement(program.mainClass().statement());
+      for (ClassDecl classDecl : program.classDecls()) {
+         for (MethodDecl methodDecl : classDecl.methodDecls()) {
+            Map<Identifier, Type> locals = new HashMap<>();
+            methodDecl.methodParams().forEach((methodParam) -> locals.put(methodParam.name(), methodParam.type()));
+            methodDecl.varDecls().forEach((varDecl) -> locals.put(varDecl.varName(), varDecl.varType()));
+            MethodAnalyzer methodAnalyzer = callSites.new MethodAnalyzer(classDecl.className().id(), locals);
+            methodDecl.statements().forEach(methodAnalyzer::statement);
+            methodAnalyzer.expression(methodDecl.returnExpr());
+         }
+      }
+      return callSites;
+   }
+
+   public Optional<CallSite> callSite(ExprClassMember classMember) {
+      return Optional.ofNullable(callSites.get(classMember));
+   }
+
+   public int size() {
+      return callSites.size();
+   }
+
+   /**
+    * @return The number of call sites of every {@link Dispatch} kind
+    */
+   public Map<Dispatch, Integer> histogram() {
+      Map<Dispatch, Integer> histogram = new EnumMap<>(Dispatch.class);
+      for (Dispatch dispatch : Dispatch.values()) {
+         histogram.put(dispatch, 0);
+      }
+      callSites.values().forEach((callSite) -> histogram.merge(callSite.dispatch(), 1, Integer::sum));
+      return histogram;
+   }
+
+   private CallSite callSite(String receiverClass, Identifier methodName) {
+      List<MethodDecl> targets = new ArrayList<>();
+      for (ClassDecl classDecl : classHierarchy.descendants(receiverClass)) {
+         virtualMethodTable.resolve(classDecl.className().id(), methodName.id())
+            .filter((methodDecl) -> targets.stream().noneMatch((target) -> target == methodDecl))
+            .ifPresent(targets::add);
+      }
+      if (targets.isEmpty()) {
+         throw new IllegalStateException("Could not find method: " + receiverClass + "." + methodName);
+      }
+      return new CallSite(receiverClass, List.copyOf(targets));
+   }
+
+   /**
+    * Types the expressions of one method to find the static receiver type of its calls.
+    */
+   private final class MethodAnalyzer {
+
+      private final String className;
+
+      private final Map<Identifier, Type> locals;
+
+      MethodAnalyzer(String className, Map<Identifier, Type> locals) {
+         this.className = className;
+         this.locals = locals;
+      }
+
+      void statement(Statement statement) {
+         switch (statement) {
+            case StatementBlock statementBlock -> statementBlock.statements().forEach(this::statement);
+            case IfStatement ifStatement -> {
+               expression(ifStatement.expr());
+               statement(ifStatement.statement());
+               statement(ifStatement.elseStatement());
+            }
+            case WhileLoop whileLoop -> {
+               expression(whileLoop.expr());
+               statement(whileLoop.statement());
+            }
+            case PrintStatement printStatement -> expression(printStatement.expr());
+            case AssignStatement assignStatement -> expression(assignStatement.expr());
+            case ArrayAssignStatement arrayAssign -> {
+               expression(arrayAssign.indexExpr());
+               expression(arrayAssign.expr());
+            }
+            default -> throw new IllegalStateException("Unexpected value: " + statement);
+         }
+      }
+
+      Type expression(Expression expression) {
+         Type type = switch (expression) {
+            case ExprNumber exprNumber -> new Int();
+            case ExprTrue exprTrue -> new Bool();
+            case ExprFalse exprFalse -> new Bool();
+            case ExprId exprId -> variableType(exprId.identifier());
+            case ExprThis exprThis -> new ClassType(new Identifier(className));
+            case NewIntArrayDecl newIntArrayDecl -> {
+               expression(newIntArrayDecl.expr());
+               yield new IntArray();
+            }
+            case NewClassDecl newClassDecl -> new ClassType(newClassDecl.identifier());
+            case ExprNot exprNot -> {
+               expression(exprNot.expr());
+               yield new Bool();
+            }
+            case ExprParenthesis exprParenthesis -> expression(exprParenthesis.expr());
+            default -> throw new IllegalStateException("Unexpected value: " + expression);
+         };
+         for (Optional<Expression2> expr2 = expression.expr2(); expr2.isPresent(); expr2 = expr2.get().expr2()) {
+            type = switch (expr2.get()) {
+               case ExprArray exprArray -> {
+                  expression(exprArray.expr());
+                  yield new Int();
+               }
+               case ArrayLength arrayLength -> new Int();
+               case ExprClassMember classMember -> call((ClassType) type, classMember);
+               case Operation operation -> {
+                  operation.operands().forEach(this::expression);
+                  yield (operation instanceof And || operation instanceof LessThan) ? new Bool() : new Int();
+               }
+               default -> throw new IllegalStateException("Unexpected value: " + expr2.get());
+            };
+         }
+         return type;
+      }
+
+      private Type call(ClassType receiverType, ExprClassMember classMember) {
+         CallSite callSite = callSite(receiverType.identifier().id(), classMember.identifier());
+         callSites.put(classMember, callSite);
+         classMember.memberParams().forEach(this::expression);
+         return callSite.targets().get(0).methodType();
+      }
+
+      private Type variableType(Identifier identifier) {
+         Type local = locals.get(identifier);
+         if (local != null) {
+            return local;
+         }
+         for (Optional<ClassDecl> classDecl = Optional.of(classHierarchy.classDecl(className));
+              classDecl.isPresent();
+              classDecl = classHierarchy.superClass(classDecl.get().className().id())) {
+            for (VarDecl varDecl : classDecl.get().varDecls()) {
+               if (varDecl.varName().equals(identifier)) {
+                  return varDecl.varType();
+               }
+            }
+         }
+         throw new IllegalStateException("Could not find variable: " + identifier);
+      }
+   }
+}
@@ -0,0 +1,135 @@
+package minijava.lang.optimizer;
+
+import java.util.List;
+import java.util.Optional;
+import minijava.lang.parser.AST.Addition;
+import minijava.lang.parser.AST.And;
+import minijava.lang.parser.AST.ExprFalse;
+import minijava.lang.parser.AST.ExprNot;
+import minijava.lang.parser.AST.ExprNumber;
+import minijava.lang.parser.AST.ExprParenthesis;
+import minijava.lang.parser.AST.ExprTrue;
+import minijava.lang.parser.AST.Expression;
+import minijava.lang.parser.AST.Expression2;
+import minijava.lang.parser.AST.IfStatement;
+import minijava.lang.parser.AST.IntLiteral;
+import minijava.lang.parser.AST.LessThan;
+import minijava.lang.parser.AST.Multiplication;
+import minijava.lang.parser.AST.Operation;
+import minijava.lang.parser.AST.Program;
+import minijava.lang.parser.AST.Statement;
+import minijava.lang.parser.AST.StatementBlock;
+import minijava.lang.parser.AST.Subtraction;
+import minijava.lang.parser.AST.WhileLoop;
+import minijava.lang.parser.OperatorPrecedence;
+
+/**
+ * Folds operations over {@link ExprNumber}, {@link ExprTrue} and {@link ExprFalse} operands into literals and drops
+ * the branches of {@link IfStatement}s and {@link WhileLoop}s whose condition is constant.
+ *
+ * Arithmetic wraps like JVM {@code int} arithmetic. {@code false && e} folds to {@code false} and {@code true && e}
+ * to {@code e}, which keeps the short circuit evaluation of {@code e}. Expressions are expected in the shape
+ * {@link OperatorPrecedence} produces.
+ */
+public class ConstantFolder extends ASTRewriter {
+
+   public record Result(Program program, int nodesBefore, int nodesAfter) {
+
+      public int nodesRemoved() {
+         return nodesBefore - nodesAfter;
+      }
+   }
+
+   private ConstantFolder() {}
+
+   /**
+    * @return The folded copy of the program, the program itself is not modified
+    */
+   public static Result fold(Program program) {
+      Program folded = new ConstantFolder().program(program);
+      return new Result(folded, NodeCounter.count(program), NodeCounter.count(folded));
+   }
+
+   @Override
+   protected List<Statement> statements(List<Statement> statements) {
+      return super.statements(statements).stream()
+         .filter((statement) -> ! isEmptyBlock(statement))
+         .toList();
+   }
+
+   @Override
+   protected Statement statement(Statement statement) {
+      Statement rewritten = super.statement(statement);
+      return switch (rewritten) {
+         case IfStatement ifStatement when isLiteral(ifStatement.expr()) ->
+            (ifStatement.expr() instanceof ExprTrue) ? ifStatement.statement() : ifStatement.elseStatement();
+         case WhileLoop whileLoop when whileLoop.expr() instanceof ExprFalse ->
+            new StatementBlock(List.of());
+         default -> rewritten;
+      };
+   }
+
+   @Override
+   protected Expression expression(Expression expression) {
+      Expression rewritten = super.expression(expression);
+      Optional<Expression2> expr2 = rewritten.expr2();
+      Expression base = switch (OperatorPrecedence.withExpr2(rewritten, Optional.empty())) {
+         case ExprParenthesis exprParenthesis when isLiteral(exprParenthesis.expr()) -> exprParenthesis.expr();
+         case ExprNot exprNot when isLiteral(exprNot.expr()) -> bool(exprNot.expr() instanceof ExprFalse);
+         case Expression other -> other;
+      };
+      while (isLiteral(base) && expr2.isPresent() && expr2.get() instanceof Operation operation) {
+         List<Expression> operands = operation.operands();
+         Optional<Expression> folded = fold(base, operation, operands.get(0));
+         if (folded.isEmpty()) {
+            break;
+         }
+         base = folded.get();
+         expr2 = (operands.size() > 1) ?
+            Optional.of(OperatorPrecedence.withOperands(operation, operands.subList(1, operands.size()), operation.expr2())) :
+            operation.expr2();
+      }
+      return OperatorPrecedence.withExpr2(base, expr2);
+   }
+
+   /**
+    * Folds the operation of a literal with one of its operands, the operands are folded already.
+    */
+   private static Optional<Expression> fold(Expression left, Operation operation, Expression right) {
+      if (operation instanceof And) {
+         if (left instanceof ExprFalse) {
+            return Optional.of(left);
+         }
+         return Optional.of(right.expr2().isEmpty() ? right : new ExprParenthesis(right, Optional.empty()));
+      }
+      if (! isLiteral(right)) {
+         return Optional.empty();
+      }
+      int leftValue = ((ExprNumber) left).integer().integer();
+      int rightValue = ((ExprNumber) right).integer().integer();
+      return Optional.of(switch (operation) {
+         case LessThan lessThan -> bool(leftValue < rightValue);
+         case Addition addition -> number(leftValue + rightValue);
+         case Subtraction subtraction -> number(leftValue - rightValue);
+         case Multiplication multiplication -> number(leftValue * rightValue);
+         default -> throw new IllegalStateException("Unknown operation: " + operation);
+      });
+   }
+
+   private static boolean isLiteral(Expression expression) {
+      return (expression instanceof ExprNumber || expression instanceof ExprTrue || expression instanceof ExprFalse)
+         && expression.expr2().isEmpty();
+   }
+
+   private static boolean isEmptyBlock(Statement statement) {
+      return statement instanceof StatementBlock statementBlock && statementBlock.statements().isEmpty();
+   }
+
+   private static Expression bool(boolean value) {
+      return value ? new ExprTrue(Optional.empty()) : new ExprFalse(Optional.empty());
+   }
+
+   private static Expression number(int value) {
+      return new ExprNumber(new IntLiteral(value), Optional.empty());
+   }
+}
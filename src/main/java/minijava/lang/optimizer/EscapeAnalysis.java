@@ -0,0 +1,239 @@
+package minijava.lang.optimizer;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+import minijava.lang.parser.AST.ArrayAssignStatement;
+import minijava.lang.parser.AST.AssignStatement;
+import minijava.lang.parser.AST.ClassDecl;
+import minijava.lang.parser.AST.ClassType;
+import minijava.lang.parser.AST.ExprArray;
+import minijava.lang.parser.AST.ExprClassMember;
+import minijava.lang.parser.AST.ExprId;
+import minijava.lang.parser.AST.ExprNot;
+import minijava.lang.parser.AST.ExprParenthesis;
+import minijava.lang.parser.AST.Expression;
+import minijava.lang.parser.AST.Expression2;
+import minijava.lang.parser.AST.Identifier;
+import minijava.lang.parser.AST.IfStatement;
+import minijava.lang.parser.AST.MethodDecl;
+import minijava.lang.parser.AST.NewClassDecl;
+import minijava.lang.parser.AST.NewIntArrayDecl;
+import minijava.lang.parser.AST.Operation;
+import minijava.lang.parser.AST.PrintStatement;
+import minijava.lang.parser.AST.Program;
+import minijava.lang.parser.AST.Statement;
+import minijava.lang.parser.AST.StatementBlock;
+import minijava.lang.parser.AST.Type;
+import minijava.lang.parser.AST.WhileLoop;
+import minijava.lang.parser.SymbolTable;
+import minijava.lang.typechecker.ClassHierarchy;
+import minijava.lang.typechecker.VirtualMethodTable;
+
+/**
+ * Intraprocedural escape analysis of the {@link NewClassDecl} allocations of a checked {@link Program}.
+ *
+ * An object escapes globally when it is stored into a field, returned, printed or copied into another variable, and
+ * into its callee when it is passed as an argument or is the receiver of a method that may use {@code this}. A
+ * receiver does not escape into methods that never use {@code this}, which are all methods the call may dispatch to
+ * by class hierarchy analysis. An object assigned to a local escapes as far as the uses of the local let it.
+ */
+public class EscapeAnalysis {
+
+   /**
+    * Ordered from the least to the farthest escape.
+    */
+   public enum Escape {
+      NON_ESCAPING,
+      ARGUMENT_ESCAPING,
+      GLOBAL_ESCAPING
+   }
+
+   private final ClassHierarchy classHierarchy;
+
+   private final VirtualMethodTable virtualMethodTable;
+
+   private final Set<String> programClasses;
+
+   private final Map<MethodDecl, Boolean> usesThis = new IdentityHashMap<>();
+
+   private final Map<NewClassDecl, Escape> escapes = new IdentityHashMap<>();
+
+   private EscapeAnalysis(SymbolTable<?> symbolTable, Program program) {
+      this.classHierarchy = ClassHierarchy.of(symbolTable);
+      this.virtualMethodTable = VirtualMethodTable.of(symbolTable);
+      this.programClasses = program.classDecls().stream()
+         .map((classDecl) -> classDecl.className().id())
+         .collect(Collectors.toSet());
+   }
+
+   /**
+    * @param symbolTable The table the program was checked with
+    */
+   public static EscapeAnalysis analyze(SymbolTable<?> symbolTable, Program program) {
+      EscapeAnalysis escapeAnalysis = new EscapeAnalysis(symbolTable, program);
+      escapeAnalysis.new MethodAnalyzer(Map.of()).analyze(List.of(program.mainClass().statement()), Optional.empty());
+      for (ClassDecl classDecl : program.classDecls()) {
+         for (MethodDecl methodDecl : classDecl.methodDecls()) {
+            Map<Identifier, Type> locals = new HashMap<>();
+            methodDecl.methodParams().forEach((methodParam) -> locals.put(methodParam.name(), methodParam.type()));
+            methodDecl.varDecls().forEach((varDecl) -> locals.put(varDecl.varName(), varDecl.varType()));
+            escapeAnalysis.new MethodAnalyzer(locals)
+               .analyze(methodDecl.statements(), Optional.of(methodDecl.returnExpr()));
+         }
+      }
+      return escapeAnalysis;
+   }
+
+   public Escape escape(NewClassDecl newClassDecl) {
+      Escape escape = escapes.get(newClassDecl);
+      if (escape == null) {
+         throw new IllegalStateException("The allocation of " + newClassDecl.identifier() + " was not analyzed.");
+      }
+      return escape;
+   }
+
+   /**
+    * @return The number of analyzed allocation sites
+    */
+   public int size() {
+      return escapes.size();
+   }
+
+   /**
+    * @return The number of allocation sites of every {@link Escape} kind
+    */
+   public Map<Escape, Integer> histogram() {
+      Map<Escape, Integer> histogram = new EnumMap<>(Escape.class);
+      for (Escape escape : Escape.values()) {
+         histogram.put(escape, 0);
+      }
+      escapes.values().forEach((escape) -> histogram.merge(escape, 1, Integer::sum));
+      return histogram;
+   }
+
+   /**
+    * @return {@link Escape#NON_ESCAPING} if none of the methods the call may dispatch to uses {@code this}
+    */
+   private Escape receiver(String className, Identifier methodName) {
+      for (ClassDecl classDecl : classHierarchy.descendants(className)) {
+         Optional<MethodDecl> target = virtualMethodTable.resolve(classDecl.className().id(), methodName.id());
+         if (target.isEmpty()) {
+            continue;
+         }
+         boolean precompiled = ! programClasses.contains(virtualMethodTable.declaringClass(target.get()).className().id());
+         if (precompiled || usesThis.computeIfAbsent(target.get(), VariableCollector::usesThis)) {
+            return Escape.ARGUMENT_ESCAPING;
+         }
+      }
+      return Escape.NON_ESCAPING;
+   }
+
+   private static Escape max(Escape escape, Escape other) {
+      return (escape.compareTo(other) >= 0) ? escape : other;
+   }
+
+   /**
+    * Follows the values of one method body into the places they flow to.
+    */
+   private final class MethodAnalyzer {
+
+      private final Map<Identifier, Type> locals;
+
+      private final Map<Identifier, List<NewClassDecl>> allocations = new HashMap<>();
+
+      private final Map<Identifier, Escape> localEscapes = new HashMap<>();
+
+      MethodAnalyzer(Map<Identifier, Type> locals) {
+         this.locals = locals;
+      }
+
+      void analyze(List<Statement> statements, Optional<Expression> returnExpr) {
+         statements.forEach(this::statement);
+         returnExpr.ifPresent((expression) -> expression(expression, Escape.GLOBAL_ESCAPING));
+         allocations.forEach((local, newClassDecls) -> {
+            Escape escape = localEscapes.getOrDefault(local, Escape.NON_ESCAPING);
+            newClassDecls.forEach((newClassDecl) -> escapes.put(newClassDecl, escape));
+         });
+      }
+
+      private void statement(Statement statement) {
+         switch (statement) {
+            case StatementBlock statementBlock -> statementBlock.statements().forEach(this::statement);
+            case IfStatement ifStatement -> {
+               expression(ifStatement.expr(), Escape.GLOBAL_ESCAPING);
+               statement(ifStatement.statement());
+               statement(ifStatement.elseStatement());
+            }
+            case WhileLoop whileLoop -> {
+               expression(whileLoop.expr(), Escape.GLOBAL_ESCAPING);
+               statement(whileLoop.statement());
+            }
+            case PrintStatement printStatement -> expression(printStatement.expr(), Escape.GLOBAL_ESCAPING);
+            case AssignStatement assignStatement -> {
+               if (locals.containsKey(assignStatement.varName())
+                  && assignStatement.expr() instanceof NewClassDecl newClassDecl
+                  && newClassDecl.expr2().isEmpty()) {
+                  allocations.computeIfAbsent(assignStatement.varName(), (local) -> new ArrayList<>()).add(newClassDecl);
+               } else {
+                  expression(assignStatement.expr(), Escape.GLOBAL_ESCAPING);
+               }
+            }
+            case ArrayAssignStatement arrayAssign -> {
+               expression(arrayAssign.indexExpr(), Escape.GLOBAL_ESCAPING);
+               expression(arrayAssign.expr(), Escape.GLOBAL_ESCAPING);
+            }
+            default -> throw new IllegalStateException("Unexpected value: " + statement);
+         }
+      }
+
+      /**
+       * @param context How far the value of the expression escapes
+       */
+      private void expression(Expression expression, Escape context) {
+         Escape escape = expression.expr2().isEmpty() ? context : Escape.GLOBAL_ESCAPING;
+         if (expression.expr2().isPresent() && expression.expr2().get() instanceof ExprClassMember call) {
+            escape = staticClass(expression)
+               .map((className) -> receiver(className, call.identifier()))
+               .orElse(Escape.ARGUMENT_ESCAPING);
+         }
+         switch (expression) {
+            case NewClassDecl newClassDecl -> escapes.put(newClassDecl, escape);
+            case ExprId exprId when locals.containsKey(exprId.identifier()) ->
+               localEscapes.merge(exprId.identifier(), escape, EscapeAnalysis::max);
+            case ExprParenthesis exprParenthesis -> expression(exprParenthesis.expr(), escape);
+            case ExprNot exprNot -> expression(exprNot.expr(), Escape.GLOBAL_ESCAPING);
+            case NewIntArrayDecl newIntArrayDecl -> expression(newIntArrayDecl.expr(), Escape.GLOBAL_ESCAPING);
+            default -> {}
+         }
+         for (Optional<Expression2> expr2 = expression.expr2(); expr2.isPresent(); expr2 = expr2.get().expr2()) {
+            switch (expr2.get()) {
+               case ExprArray exprArray -> expression(exprArray.expr(), Escape.GLOBAL_ESCAPING);
+               case ExprClassMember classMember -> classMember.memberParams()
+                  .forEach((memberParam) -> expression(memberParam, Escape.ARGUMENT_ESCAPING));
+               case Operation operation -> operation.operands()
+                  .forEach((operand) -> expression(operand, Escape.GLOBAL_ESCAPING));
+               default -> {}
+            }
+         }
+      }
+
+      /**
+       * @return The static class of a receiver this analysis tracks
+       */
+      private Optional<String> staticClass(Expression receiver) {
+         return switch (receiver) {
+            case NewClassDecl newClassDecl -> Optional.of(newClassDecl.identifier().id());
+            case ExprId exprId when locals.get(exprId.identifier()) instanceof ClassType classType ->
+               Optional.of(classType.identifier().id());
+            default -> Optional.empty();
+         };
+      }
+   }
+}
@@ -0,0 +1,397 @@
+package minijava.lang.optimizer;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import minijava.lang.parser.AST.ArrayAssignStatement;
+import minijava.lang.parser.AST.AssignStatement;
+import minijava.lang.parser.AST.Bool;
+import minijava.lang.parser.AST.ClassDecl;
+import minijava.lang.parser.AST.ExprClassMember;
+import minijava.lang.parser.AST.ExprFalse;
+import minijava.lang.parser.AST.ExprId;
+import minijava.lang.parser.AST.ExprNumber;
+import minijava.lang.parser.AST.ExprParenthesis;
+import minijava.lang.parser.AST.ExprThis;
+import minijava.lang.parser.AST.ExprTrue;
+import minijava.lang.parser.AST.Expression;
+import minijava.lang.parser.AST.Expression2;
+import minijava.lang.parser.AST.Identifier;
+import minijava.lang.parser.AST.Int;
+import minijava.lang.parser.AST.IntLiteral;
+import minijava.lang.parser.AST.MethodDecl;
+import minijava.lang.parser.AST.MethodParam;
+import minijava.lang.parser.AST.Operation;
+import minijava.lang.parser.AST.PrintStatement;
+import minijava.lang.parser.AST.Program;
+import minijava.lang.parser.AST.Statement;
+import minijava.lang.parser.AST.StatementBlock;
+import minijava.lang.parser.AST.Type;
+import minijava.lang.parser.AST.VarDecl;
+import minijava.lang.parser.OperatorPrecedence;
+import minijava.lang.parser.SymbolTable;
+import minijava.lang.typechecker.ClassHierarchy;
+import minijava.lang.typechecker.VirtualMethodTable;
+
+/**
+ * Inlines calls of small methods that have a single possible target.
+ *
+ * A call {@code this.m(args)} is inlined when no subclass of the calling class declares {@code m} and the body of
+ * {@code m} fits into the size budget, counted in {@link NodeCounter} nodes. Only calls on {@code this} are inlined:
+ * a method reads the fields of its receiver by name, which the caller can only do for its own object.
+ *
+ * A method that only returns an expression is inlined anywhere its arguments are literals, {@code this} or locals of
+ * the caller, which are substituted for the parameters. Otherwise the call has to be the whole expression of an
+ * assignment, a print or a return: the arguments are evaluated in order into fresh locals of the caller, followed by
+ * the statements of the method with its locals renamed to fresh locals. Either way the arguments are evaluated
+ * before the body, as in the call.
+ */
+public class Inliner extends ASTRewriter {
+
+   public static final int DEFAULT_BUDGET = 24;
+
+   private static final Identifier NULL = new Identifier("null");
+
+   /**
+    * @param inlined The number of inlined call sites by {@code Class.method} of the inlined method
+    */
+   public record Result(Program program, Map<String, Integer> inlined) {
+
+      public int callSites() {
+         return inlined.values().stream()
+            .mapToInt(Integer::intValue)
+            .sum();
+      }
+   }
+
+   /**
+    * @param fields The locals that replace the fields the method uses, empty if the receiver is {@code this}
+    */
+   protected record Target(ClassDecl classDecl, MethodDecl methodDecl, Map<Identifier, Identifier> fields) {}
+
+   private record Inlined(List<Statement> statements, Expression value) {}
+
+   protected final ClassHierarchy classHierarchy;
+
+   protected final VirtualMethodTable virtualMethodTable;
+
+   protected final Map<String, ClassDecl> classDecls = new HashMap<>();
+
+   protected final int budget;
+
+   protected final Map<String, Integer> inlined = new LinkedHashMap<>();
+
+   /**
+    * The locals added to the current method.
+    */
+   protected List<VarDecl> freshLocals;
+
+   /**
+    * The never assigned locals of the current method that reset inlined locals of a class type, by type.
+    */
+   private Map<Type, Identifier> nulls;
+
+   private int freshNames;
+
+   protected Inliner(SymbolTable<?> symbolTable, Program program, int budget) {
+      this.classHierarchy = ClassHierarchy.of(symbolTable);
+      this.virtualMethodTable = VirtualMethodTable.of(symbolTable);
+      this.budget = budget;
+      program.classDecls().forEach((classDecl) -> classDecls.put(classDecl.className().id(), classDecl));
+   }
+
+   public static Result inline(SymbolTable<?> symbolTable, Program program) {
+      return inline(symbolTable, program, DEFAULT_BUDGET);
+   }
+
+   /**
+    * @param symbolTable The table built from the program
+    * @param budget      The largest method body that is inlined, in {@link NodeCounter} nodes
+    * @return The inlined copy of the program, the program itself is not modified
+    */
+   public static Result inline(SymbolTable<?> symbolTable, Program program, int budget) {
+      Inliner inliner = new Inliner(symbolTable, program, budget);
+      return new Result(inliner.program(program), inliner.inlined);
+   }
+
+   @Override
+   protected MethodDecl methodDecl(MethodDecl methodDecl) {
+      freshLocals = new ArrayList<>();
+      nulls = new HashMap<>();
+      currentMethod = methodDecl;
+      List<Statement> statements = statements(methodDecl.statements());
+      Expression returnExpr;
+      Optional<Inlined> inlinedReturn = inlineWhole(methodDecl.returnExpr());
+      if (inlinedReturn.isPresent()) {
+         statements = new ArrayList<>(statements);
+         statements.addAll(inlinedReturn.get().statements());
+         returnExpr = inlinedReturn.get().value();
+      } else {
+         returnExpr = expression(methodDecl.returnExpr());
+      }
+      currentMethod = null;
+
+      List<VarDecl> varDecls = new ArrayList<>(methodDecl.varDecls());
+      varDecls.addAll(freshLocals);
+      return new MethodDecl(
+         methodDecl.methodType(),
+         methodDecl.methodName(),
+         methodDecl.methodParams(),
+         varDecls,
+         statements,
+         returnExpr
+      );
+   }
+
+   @Override
+   protected Statement statement(Statement statement) {
+      Optional<Statement> inlinedStatement = switch (statement) {
+         case AssignStatement assignStatement -> inlineWhole(assignStatement.expr())
+            .map((inlinedCall) -> block(inlinedCall, new AssignStatement(assignStatement.varName(), inlinedCall.value())));
+         case PrintStatement printStatement -> inlineWhole(printStatement.expr())
+            .map((inlinedCall) -> block(inlinedCall, new PrintStatement(inlinedCall.value())));
+         default -> Optional.empty();
+      };
+      return inlinedStatement.orElseGet(() -> super.statement(statement));
+   }
+
+   @Override
+   protected Expression expression(Expression expression) {
+      Expression rewritten = super.expression(expression);
+      Optional<Target> target = target(rewritten);
+      if (target.isEmpty() || ! target.get().methodDecl().statements().isEmpty()) {
+         return rewritten;
+      }
+      ExprClassMember call = (ExprClassMember) rewritten.expr2().get();
+      if (! call.memberParams().stream().allMatch(this::isSimple)) {
+         return rewritten;
+      }
+      Inlined inlinedCall = inlineCall(target.get(), call.memberParams(), false);
+      return continueWith(inlinedCall.value(), call.expr2());
+   }
+
+   /**
+    * Inlines a call that is the whole expression, so the statements of the method can precede the statement.
+    */
+   private Optional<Inlined> inlineWhole(Expression expression) {
+      Optional<Target> target = target(expression);
+      if (target.isEmpty() || expression.expr2().get().expr2().isPresent()) {
+         return Optional.empty();
+      }
+      ExprClassMember call = (ExprClassMember) expression.expr2().get();
+      if (target.get().methodDecl().statements().isEmpty() && call.memberParams().stream().allMatch(this::isSimple)) {
+         return Optional.empty();
+      }
+      List<Expression> args = call.memberParams().stream()
+         .map(this::expression)
+         .toList();
+      return Optional.of(inlineCall(target.get(), args, true));
+   }
+
+   /**
+    * @return The method a {@code this.m(args)} call certainly dispatches to, if it may be inlined
+    */
+   protected Optional<Target> target(Expression expression) {
+      if (currentMethod == null
+         || ! (expression instanceof ExprThis)
+         || expression.expr2().isEmpty()
+         || ! (expression.expr2().get() instanceof ExprClassMember call)) {
+         return Optional.empty();
+      }
+      String className = currentClass.className().id();
+      Optional<MethodDecl> resolved = virtualMethodTable.resolve(className, call.identifier().id());
+      if (resolved.isEmpty() || isOverridden(className, call.identifier())) {
+         return Optional.empty();
+      }
+      ClassDecl declaringClass = classDecls.get(virtualMethodTable.declaringClass(resolved.get()).className().id());
+      if (declaringClass == null) {
+         return Optional.empty();
+      }
+      MethodDecl methodDecl = declaringClass.methodDecls().stream()
+         .filter((candidate) -> candidate.methodName().equals(call.identifier()))
+         .findFirst()
+         .orElseThrow();
+      boolean recursive = methodDecl.methodName().equals(currentMethod.methodName())
+         && classHierarchy.isSubclass(className, declaringClass.className().id());
+      if (recursive || NodeCounter.count(methodDecl) > budget || ! fieldsVisible(methodDecl, declaringClass)) {
+         return Optional.empty();
+      }
+      return Optional.of(new Target(declaringClass, methodDecl, Map.of()));
+   }
+
+   private boolean isOverridden(String className, Identifier methodName) {
+      return classHierarchy.descendants(className).stream()
+         .skip(1)
+         .flatMap((subclass) -> subclass.methodDecls().stream())
+         .anyMatch((methodDecl) -> methodDecl.methodName().equals(methodName));
+   }
+
+   /**
+    * The fields the method uses by name have to name the same fields in the caller: no local of the caller and no
+    * field of a class between the caller and the declaring class may hide them.
+    */
+   private boolean fieldsVisible(MethodDecl methodDecl, ClassDecl declaringClass) {
+      Set<Identifier> fields = VariableCollector.variables(methodDecl);
+      methodDecl.methodParams().forEach((methodParam) -> fields.remove(methodParam.name()));
+      methodDecl.varDecls().forEach((varDecl) -> fields.remove(varDecl.varName()));
+
+      Set<Identifier> hiding = new HashSet<>();
+      currentMethod.methodParams().forEach((methodParam) -> hiding.add(methodParam.name()));
+      currentMethod.varDecls().forEach((varDecl) -> hiding.add(varDecl.varName()));
+      for (ClassDecl classDecl = currentClass;
+           ! classDecl.className().equals(declaringClass.className());
+           classDecl = classHierarchy.superClass(classDecl.className().id()).orElseThrow()) {
+         classDecl.varDecls().forEach((varDecl) -> hiding.add(varDecl.varName()));
+      }
+      return fields.stream().noneMatch(hiding::contains);
+   }
+
+   /**
+    * Binds the arguments to the parameters and renames the locals of the method. The renamed locals are reset to
+    * their default values before the statements, as a new frame would be: the same inlined call may run again, in a
+    * loop, and must not see the values the previous run left.
+    * @param bindAll Binds every argument to a fresh local, otherwise every argument is substituted
+    */
+   private Inlined inlineCall(Target target, List<Expression> args, boolean bindAll) {
+      MethodDecl methodDecl = target.methodDecl();
+      inlined.merge(target.classDecl().className().id() + "." + methodDecl.methodName().id(), 1, Integer::sum);
+
+      List<Statement> statements = new ArrayList<>();
+      Map<Identifier, Expression> substitutions = new HashMap<>();
+      Map<Identifier, Identifier> renames = new HashMap<>(target.fields());
+      for (int index = 0; index < args.size(); index++) {
+         MethodParam methodParam = methodDecl.methodParams().get(index);
+         if (bindAll) {
+            Identifier fresh = fresh(methodDecl.methodName(), methodParam.name(), methodParam.type());
+            renames.put(methodParam.name(), fresh);
+            statements.add(new AssignStatement(fresh, args.get(index)));
+         } else {
+            substitutions.put(methodParam.name(), args.get(index));
+         }
+      }
+      for (VarDecl varDecl : methodDecl.varDecls()) {
+         Identifier fresh = fresh(methodDecl.methodName(), varDecl.varName(), varDecl.varType());
+         renames.put(varDecl.varName(), fresh);
+         if (! methodDecl.statements().isEmpty()) {
+            statements.add(new AssignStatement(fresh, defaultValue(varDecl.varType())));
+         }
+      }
+      Renamer renamer = new Renamer(substitutions, renames);
+      methodDecl.statements().forEach((statement) -> statements.add(renamer.statement(statement)));
+      return new Inlined(statements, renamer.expression(methodDecl.returnExpr()));
+   }
+
+   /**
+    * Declares a local of the caller. The name contains a {@code $}, so it cannot clash with a name of the source.
+    */
+   protected Identifier fresh(Identifier owner, Identifier name, Type type) {
+      Identifier fresh = new Identifier(owner.id() + "$" + name.id() + "$" + (++freshNames));
+      freshLocals.add(new VarDecl(type, fresh));
+      return fresh;
+   }
+
+   /**
+    * @return The value a local of the type starts with, {@code null} is read from a local that is never assigned
+    */
+   private Expression defaultValue(Type type) {
+      return switch (type) {
+         case Int integer -> new ExprNumber(new IntLiteral(0), Optional.empty());
+         case Bool bool -> new ExprFalse(Optional.empty());
+         default -> new ExprId(
+            nulls.computeIfAbsent(type, (classType) -> fresh(currentMethod.methodName(), NULL, classType)),
+            Optional.empty()
+         );
+      };
+   }
+
+   /**
+    * Literals, {@code this} and locals of the caller: evaluating them has no effect and the inlined expression cannot
+    * change their value.
+    */
+   private boolean isSimple(Expression expression) {
+      if (expression.expr2().isPresent()) {
+         return false;
+      }
+      return switch (expression) {
+         case ExprNumber exprNumber -> true;
+         case ExprTrue exprTrue -> true;
+         case ExprFalse exprFalse -> true;
+         case ExprThis exprThis -> true;
+         case ExprId exprId -> currentMethod.methodParams().stream()
+               .anyMatch((methodParam) -> methodParam.name().equals(exprId.identifier()))
+            || currentMethod.varDecls().stream()
+               .anyMatch((varDecl) -> varDecl.varName().equals(exprId.identifier()))
+            || freshLocals.stream()
+               .anyMatch((varDecl) -> varDecl.varName().equals(exprId.identifier()));
+         default -> false;
+      };
+   }
+
+   private static Statement block(Inlined inlinedCall, Statement statement) {
+      List<Statement> statements = new ArrayList<>(inlinedCall.statements());
+      statements.add(statement);
+      return new StatementBlock(statements);
+   }
+
+   /**
+    * Continues the inlined value with the rest of the call chain, parenthesized if it ends with an operation.
+    */
+   private static Expression continueWith(Expression value, Optional<Expression2> rest) {
+      if (rest.isEmpty()) {
+         return value;
+      }
+      boolean endsWithOperation = false;
+      for (Optional<Expression2> expr2 = value.expr2(); expr2.isPresent(); expr2 = expr2.get().expr2()) {
+         endsWithOperation = expr2.get() instanceof Operation;
+      }
+      Expression operand = endsWithOperation ? new ExprParenthesis(value, Optional.empty()) : value;
+      return OperatorPrecedence.append(operand, rest.get());
+   }
+
+   /**
+    * Substitutes the arguments for the parameters and renames the locals of an inlined method.
+    */
+   private static class Renamer extends ASTRewriter {
+
+      private final Map<Identifier, Expression> substitutions;
+
+      private final Map<Identifier, Identifier> renames;
+
+      Renamer(Map<Identifier, Expression> substitutions, Map<Identifier, Identifier> renames) {
+         this.substitutions = substitutions;
+         this.renames = renames;
+      }
+
+      @Override
+      protected Statement statement(Statement statement) {
+         Statement rewritten = super.statement(statement);
+         return switch (rewritten) {
+            case AssignStatement assignStatement when renames.containsKey(assignStatement.varName()) ->
+               new AssignStatement(renames.get(assignStatement.varName()), assignStatement.expr());
+            case ArrayAssignStatement arrayAssign when renames.containsKey(arrayAssign.varName()) ->
+               new ArrayAssignStatement(renames.get(arrayAssign.varName()), arrayAssign.indexExpr(), arrayAssign.expr());
+            default -> rewritten;
+         };
+      }
+
+      @Override
+      protected Expression expression(Expression expression) {
+         Expression rewritten = super.expression(expression);
+         if (rewritten instanceof ExprId exprId) {
+            if (substitutions.containsKey(exprId.identifier())) {
+               Expression arg = OperatorPrecedence.withExpr2(substitutions.get(exprId.identifier()), Optional.empty());
+               return continueWith(arg, exprId.expr2());
+            }
+            if (renames.containsKey(exprId.identifier())) {
+               return new ExprId(renames.get(exprId.identifier()), exprId.expr2());
+            }
+         }
+         return rewritten;
+      }
+   }
+}
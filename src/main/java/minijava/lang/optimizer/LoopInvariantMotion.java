@@ -0,0 +1,311 @@
+package minijava.lang.optimizer;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+import minijava.lang.parser.AST.And;
+import minijava.lang.parser.AST.ArrayLength;
+import minijava.lang.parser.AST.AssignStatement;
+import minijava.lang.parser.AST.Bool;
+import minijava.lang.parser.AST.ExprArray;
+import minijava.lang.parser.AST.ExprFalse;
+import minijava.lang.parser.AST.ExprId;
+import minijava.lang.parser.AST.ExprNot;
+import minijava.lang.parser.AST.ExprNumber;
+import minijava.lang.parser.AST.ExprParenthesis;
+import minijava.lang.parser.AST.ExprThis;
+import minijava.lang.parser.AST.ExprTrue;
+import minijava.lang.parser.AST.Expression;
+import minijava.lang.parser.AST.Expression2;
+import minijava.lang.parser.AST.Identifier;
+import minijava.lang.parser.AST.Int;
+import minijava.lang.parser.AST.LessThan;
+import minijava.lang.parser.AST.MethodDecl;
+import minijava.lang.parser.AST.Operation;
+import minijava.lang.parser.AST.Program;
+import minijava.lang.parser.AST.Statement;
+import minijava.lang.parser.AST.StatementBlock;
+import minijava.lang.parser.AST.Type;
+import minijava.lang.parser.AST.VarDecl;
+import minijava.lang.parser.AST.WhileLoop;
+import minijava.lang.parser.OperatorPrecedence;
+
+/**
+ * Hoists the loop-invariant expressions of {@link WhileLoop} conditions and bodies into fresh locals assigned before
+ * the loop.
+ *
+ * An expression is invariant when it only reads literals, {@code this}, array lengths and variables the loop does
+ * not assign, and fields only if the loop calls no method that may assign them. Operations cannot fail, so they are
+ * hoisted even if the loop never runs them. {@code a.length} fails on a {@code null} array and is only hoisted from
+ * the part of a condition without calls and array loads that is evaluated before every iteration, occurrences in the
+ * body then read the hoisted local. The largest invariant expressions are hoisted, outer loops first.
+ */
+public class LoopInvariantMotion extends ASTRewriter {
+
+   /**
+    * @param hoisted The number of hoisted expressions, occurrences reading an already hoisted local not counted
+    */
+   public record Result(Program program, int hoisted) {}
+
+   private Set<Identifier> locals = Set.of();
+
+   private List<VarDecl> freshLocals = new ArrayList<>();
+
+   private int freshNames;
+
+   private int hoisted;
+
+   private LoopInvariantMotion() {}
+
+   /**
+    * @return The copy of the program with the hoisted expressions, the program itself is not modified
+    */
+   public static Result hoist(Program program) {
+      LoopInvariantMotion loopInvariantMotion = new LoopInvariantMotion();
+      return new Result(loopInvariantMotion.program(program), loopInvariantMotion.hoisted);
+   }
+
+   @Override
+   protected MethodDecl methodDecl(MethodDecl methodDecl) {
+      locals = new HashSet<>();
+      methodDecl.methodParams().forEach((methodParam) -> locals.add(methodParam.name()));
+      methodDecl.varDecls().forEach((varDecl) -> locals.add(varDecl.varName()));
+      freshLocals = new ArrayList<>();
+      MethodDecl rewritten = super.methodDecl(methodDecl);
+
+      List<VarDecl> varDecls = new ArrayList<>(rewritten.varDecls());
+      varDecls.addAll(freshLocals);
+      return new MethodDecl(
+         rewritten.methodType(),
+         rewritten.methodName(),
+         rewritten.methodParams(),
+         varDecls,
+         rewritten.statements(),
+         rewritten.returnExpr()
+      );
+   }
+
+   /**
+    * The main method has no locals to hoist into, so only loops of methods are rewritten.
+    */
+   @Override
+   protected Statement statement(Statement statement) {
+      if (! (statement instanceof WhileLoop whileLoop) || currentMethod == null) {
+         return super.statement(statement);
+      }
+      Hoister hoister = new Hoister(
+         VariableCollector.assigned(whileLoop.statement()),
+         CallCollector.containsCall(whileLoop.expr()) || CallCollector.containsCall(whileLoop.statement())
+      );
+      WhileLoop rewritten = (WhileLoop) super.statement(
+         new WhileLoop(hoister.condition(whileLoop.expr()), hoister.statement(whileLoop.statement()))
+      );
+      if (hoister.assignments.isEmpty()) {
+         return rewritten;
+      }
+      List<Statement> statements = new ArrayList<>(hoister.assignments);
+      statements.add(rewritten);
+      return new StatementBlock(statements);
+   }
+
+   /**
+    * Replaces the invariant expressions of one loop by the locals assigned before it.
+    */
+   private final class Hoister extends ASTRewriter {
+
+      private final Set<Identifier> assigned;
+
+      private final boolean calls;
+
+      private final List<Statement> assignments = new ArrayList<>();
+
+      private final Map<String, Identifier> hoistedLocals = new HashMap<>();
+
+      /**
+       * Whether the expression being rewritten is evaluated before the first iteration whenever the loop is reached.
+       */
+      private boolean unconditional;
+
+      Hoister(Set<Identifier> assigned, boolean calls) {
+         this.assigned = assigned;
+         this.calls = calls;
+      }
+
+      Expression condition(Expression condition) {
+         unconditional = ! CallCollector.containsCall(condition) && ! loadsArray(condition);
+         Expression rewritten = expression(condition);
+         unconditional = false;
+         return rewritten;
+      }
+
+      @Override
+      protected Expression expression(Expression expression) {
+         Optional<Identifier> local = hoist(expression);
+         if (local.isPresent()) {
+            return new ExprId(local.get(), Optional.empty());
+         }
+         Optional<Operation> operation = OperatorPrecedence.finalOperation(expression);
+         if (operation.isPresent()) {
+            local = hoist(OperatorPrecedence.term(expression));
+            if (local.isPresent()) {
+               return new ExprId(local.get(), Optional.of(expression2(operation.get())));
+            }
+         }
+         return super.expression(expression);
+      }
+
+      /**
+       * The right operand of {@code &&} is only evaluated when the left one is true.
+       */
+      @Override
+      protected Expression2 expression2(Expression2 expression2) {
+         if (! (expression2 instanceof And)) {
+            return super.expression2(expression2);
+         }
+         boolean enclosing = unconditional;
+         unconditional = false;
+         Expression2 rewritten = super.expression2(expression2);
+         unconditional = enclosing;
+         return rewritten;
+      }
+
+      /**
+       * @return The local holding the value of the expression, if it is hoisted
+       */
+      private Optional<Identifier> hoist(Expression expression) {
+         if (! isWorthHoisting(expression) || ! isInvariant(expression)) {
+            return Optional.empty();
+         }
+         String key = key(expression);
+         Identifier local = hoistedLocals.get(key);
+         if (local != null) {
+            return Optional.of(local);
+         }
+         if (hasArrayLength(expression) && ! unconditional) {
+            return Optional.empty();
+         }
+         local = new Identifier("loop$" + (++freshNames));
+         freshLocals.add(new VarDecl(type(expression), local));
+         locals.add(local);
+         assignments.add(new AssignStatement(local, expression));
+         hoistedLocals.put(key, local);
+         hoisted++;
+         return Optional.of(local);
+      }
+
+      private boolean isInvariant(Expression expression) {
+         boolean invariant = switch (expression) {
+            case ExprNumber exprNumber -> true;
+            case ExprTrue exprTrue -> true;
+            case ExprFalse exprFalse -> true;
+            case ExprThis exprThis -> true;
+            case ExprId exprId -> ! assigned.contains(exprId.identifier())
+               && (locals.contains(exprId.identifier()) || ! calls);
+            case ExprNot exprNot -> isInvariant(exprNot.expr());
+            case ExprParenthesis exprParenthesis -> isInvariant(exprParenthesis.expr());
+            default -> false;
+         };
+         for (Optional<Expression2> expr2 = expression.expr2(); invariant && expr2.isPresent(); expr2 = expr2.get().expr2()) {
+            invariant = switch (expr2.get()) {
+               case ArrayLength arrayLength -> true;
+               case Operation operation -> operation.operands().stream().allMatch(this::isInvariant);
+               default -> false;
+            };
+         }
+         return invariant;
+      }
+   }
+
+   /**
+    * @return {@code true} if the expression computes something, a variable or literal is not worth a local
+    */
+   private static boolean isWorthHoisting(Expression expression) {
+      return switch (expression) {
+         case ExprParenthesis exprParenthesis when expression.expr2().isEmpty() ->
+            isWorthHoisting(exprParenthesis.expr());
+         case ExprNot exprNot -> true;
+         default -> expression.expr2().isPresent();
+      };
+   }
+
+   private static boolean hasArrayLength(Expression expression) {
+      boolean arrayLength = switch (expression) {
+         case ExprNot exprNot -> hasArrayLength(exprNot.expr());
+         case ExprParenthesis exprParenthesis -> hasArrayLength(exprParenthesis.expr());
+         default -> false;
+      };
+      for (Optional<Expression2> expr2 = expression.expr2(); expr2.isPresent(); expr2 = expr2.get().expr2()) {
+         arrayLength |= switch (expr2.get()) {
+            case ArrayLength length -> true;
+            case Operation operation -> operation.operands().stream().anyMatch(LoopInvariantMotion::hasArrayLength);
+            default -> false;
+         };
+      }
+      return arrayLength;
+   }
+
+   private static boolean loadsArray(Expression expression) {
+      boolean loads = switch (expression) {
+         case ExprNot exprNot -> loadsArray(exprNot.expr());
+         case ExprParenthesis exprParenthesis -> loadsArray(exprParenthesis.expr());
+         default -> false;
+      };
+      for (Optional<Expression2> expr2 = expression.expr2(); expr2.isPresent(); expr2 = expr2.get().expr2()) {
+         loads |= switch (expr2.get()) {
+            case ExprArray exprArray -> true;
+            case Operation operation -> operation.operands().stream().anyMatch(LoopInvariantMotion::loadsArray);
+            default -> false;
+         };
+      }
+      return loads;
+   }
+
+   /**
+    * @return The type of an expression {@link #isWorthHoisting} accepts
+    */
+   private static Type type(Expression expression) {
+      Optional<Expression2> last = Optional.empty();
+      for (Optional<Expression2> expr2 = expression.expr2(); expr2.isPresent(); expr2 = expr2.get().expr2()) {
+         last = expr2;
+      }
+      if (last.isPresent()) {
+         return (last.get() instanceof LessThan || last.get() instanceof And) ? new Bool() : new Int();
+      }
+      return switch (expression) {
+         case ExprParenthesis exprParenthesis -> type(exprParenthesis.expr());
+         case ExprNot exprNot -> new Bool();
+         default -> throw new IllegalStateException("Unexpected value: " + expression);
+      };
+   }
+
+   /**
+    * @return A text that is equal for structurally equal invariant expressions
+    */
+   private static String key(Expression expression) {
+      StringBuilder key = new StringBuilder(switch (expression) {
+         case ExprNumber exprNumber -> exprNumber.integer().integer().toString();
+         case ExprTrue exprTrue -> "true";
+         case ExprFalse exprFalse -> "false";
+         case ExprThis exprThis -> "this";
+         case ExprId exprId -> exprId.identifier().id();
+         case ExprNot exprNot -> "!" + key(exprNot.expr());
+         case ExprParenthesis exprParenthesis -> "(" + key(exprParenthesis.expr()) + ")";
+         default -> throw new IllegalStateException("Unexpected value: " + expression);
+      });
+      for (Optional<Expression2> expr2 = expression.expr2(); expr2.isPresent(); expr2 = expr2.get().expr2()) {
+         key.append(switch (expr2.get()) {
+            case ArrayLength arrayLength -> ".length";
+            case Operation operation -> " " + operation.getClass().getSimpleName() + operation.operands().stream()
+               .map((operand) -> " (" + key(operand) + ")")
+               .collect(Collectors.joining());
+            default -> throw new IllegalStateException("Unexpected value: " + expr2.get());
+         });
+      }
+      return key.toString();
+   }
+}
@@ -0,0 +1,90 @@
+package minijava.lang.optimizer;
+
+import java.util.Optional;
+import minijava.lang.parser.AST.ArrayAssignStatement;
+import minijava.lang.parser.AST.AssignStatement;
+import minijava.lang.parser.AST.ClassDecl;
+import minijava.lang.parser.AST.ExprArray;
+import minijava.lang.parser.AST.ExprClassMember;
+import minijava.lang.parser.AST.ExprNot;
+import minijava.lang.parser.AST.ExprParenthesis;
+import minijava.lang.parser.AST.Expression;
+import minijava.lang.parser.AST.Expression2;
+import minijava.lang.parser.AST.IfStatement;
+import minijava.lang.parser.AST.MethodDecl;
+import minijava.lang.parser.AST.NewIntArrayDecl;
+import minijava.lang.parser.AST.Operation;
+import minijava.lang.parser.AST.PrintStatement;
+import minijava.lang.parser.AST.Program;
+import minijava.lang.parser.AST.Statement;
+import minijava.lang.parser.AST.StatementBlock;
+import minijava.lang.parser.AST.WhileLoop;
+
+/**
+ * Counts the statement and expression nodes of a {@link Program}, used to report what an optimization removed.
+ */
+public class NodeCounter {
+
+   private NodeCounter() {}
+
+   public static int count(Program program) {
+      int nodes = count(program.mainClass().statement());
+      for (ClassDecl classDecl : program.classDecls()) {
+         for (MethodDecl methodDecl : classDecl.methodDecls()) {
+            nodes += count(methodDecl);
+         }
+      }
+      return nodes;
+   }
+
+   public static int count(MethodDecl methodDecl) {
+      int nodes = count(methodDecl.returnExpr());
+      for (Statement statement : methodDecl.statements()) {
+         nodes += count(statement);
+      }
+      return nodes;
+   }
+
+   public static int count(Statement statement) {
+      return 1 + switch (statement) {
+         case StatementBlock statementBlock -> statementBlock.statements().stream()
+            .mapToInt(NodeCounter::count)
+            .sum();
+         case IfStatement ifStatement ->
+            count(ifStatement.expr()) + count(ifStatement.statement()) + count(ifStatement.elseStatement());
+         case WhileLoop whileLoop -> count(whileLoop.expr()) + count(whileLoop.statement());
+         case PrintStatement printStatement -> count(printStatement.expr());
+         case AssignStatement assignStatement -> count(assignStatement.expr());
+         case ArrayAssignStatement arrayAssign -> count(arrayAssign.indexExpr()) + count(arrayAssign.expr());
+         default -> throw new IllegalStateException("Unexpected value: " + statement);
+      };
+   }
+
+   public static int count(Expression expression) {
+      int nodes = 1 + switch (expression) {
+         case ExprNot exprNot -> count(exprNot.expr());
+         case ExprParenthesis exprParenthesis -> count(exprParenthesis.expr());
+         case NewIntArrayDecl newIntArrayDecl -> count(newIntArrayDecl.expr());
+         default -> 0;
+      };
+      return nodes + count(expression.expr2());
+   }
+
+   private static int count(Optional<Expression2> expr2) {
+      int nodes = 0;
+      while (expr2.isPresent()) {
+         nodes += 1 + switch (expr2.get()) {
+            case ExprArray exprArray -> count(exprArray.expr());
+            case ExprClassMember classMember -> classMember.memberParams().stream()
+               .mapToInt(NodeCounter::count)
+               .sum();
+            case Operation operation -> operation.operands().stream()
+               .mapToInt(NodeCounter::count)
+               .sum();
+            default -> 0;
+         };
+         expr2 = expr2.get().expr2();
+      }
+      return nodes;
+   }
+}
@@ -0,0 +1,283 @@
+package minijava.lang.optimizer;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import minijava.lang.optimizer.EscapeAnalysis.Escape;
+import minijava.lang.parser.AST.AssignStatement;
+import minijava.lang.parser.AST.Bool;
+import minijava.lang.parser.AST.ClassDecl;
+import minijava.lang.parser.AST.ExprClassMember;
+import minijava.lang.parser.AST.ExprFalse;
+import minijava.lang.parser.AST.ExprId;
+import minijava.lang.parser.AST.ExprNumber;
+import minijava.lang.parser.AST.Expression;
+import minijava.lang.parser.AST.Identifier;
+import minijava.lang.parser.AST.IfStatement;
+import minijava.lang.parser.AST.Int;
+import minijava.lang.parser.AST.IntLiteral;
+import minijava.lang.parser.AST.MethodDecl;
+import minijava.lang.parser.AST.NewClassDecl;
+import minijava.lang.parser.AST.Program;
+import minijava.lang.parser.AST.Statement;
+import minijava.lang.parser.AST.StatementBlock;
+import minijava.lang.parser.AST.VarDecl;
+import minijava.lang.parser.AST.WhileLoop;
+import minijava.lang.parser.SymbolTable;
+
+/**
+ * Replaces objects that do not escape the method allocating them by locals holding their fields.
+ *
+ * A local is replaced when it is only ever assigned {@code new C()} of one class C, every allocation is
+ * {@link Escape#NON_ESCAPING} by {@link EscapeAnalysis}, the fields of C are {@code int} or {@code boolean} and every
+ * use of the local is a call that can be inlined the way the {@link Inliner} inlines calls on {@code this}. Each
+ * allocation becomes the assignment of the default values to the field locals, each call the inlined method with
+ * its fields renamed to the field locals. The dynamic class of the local is known to be C, so calls do not need to
+ * be monomorphic on the declared type.
+ */
+public class ScalarReplacement extends Inliner {
+
+   /**
+    * @param escapes The allocation sites of the input program by {@link Escape}
+    */
+   public record Result(Program program, Map<Escape, Integer> escapes, int allocationsBefore, int allocationsAfter) {
+
+      public int allocationsRemoved() {
+         return allocationsBefore - allocationsAfter;
+      }
+   }
+
+   /**
+    * @param fields      The field locals visible in the methods of every class of the replaced object
+    * @param fieldLocals Every field local, in field order
+    */
+   private record Replacement(ClassDecl classDecl, Map<String, Map<Identifier, Identifier>> fields,
+                              List<VarDecl> fieldLocals) {
+
+      /**
+       * @return The statements that replace an allocation: every field local is set to its default value
+       */
+      List<Statement> defaults() {
+         return fieldLocals.stream()
+            .map((fieldLocal) -> (Statement) new AssignStatement(fieldLocal.varName(),
+               (fieldLocal.varType() instanceof Int) ?
+                  new ExprNumber(new IntLiteral(0), Optional.empty()) :
+                  new ExprFalse(Optional.empty())))
+            .toList();
+      }
+   }
+
+   private final EscapeAnalysis escapeAnalysis;
+
+   private Set<Identifier> candidates = Set.of();
+
+   private final Map<Identifier, Replacement> replacements = new HashMap<>();
+
+   private int allocationsRemoved;
+
+   private ScalarReplacement(SymbolTable<?> symbolTable, Program program) {
+      super(symbolTable, program, DEFAULT_BUDGET);
+      this.escapeAnalysis = EscapeAnalysis.analyze(symbolTable, program);
+   }
+
+   /**
+    * @param symbolTable The table built from the program
+    * @return The copy of the program without the replaced allocations, the program itself is not modified
+    */
+   public static Result replace(SymbolTable<?> symbolTable, Program program) {
+      ScalarReplacement scalarReplacement = new ScalarReplacement(symbolTable, program);
+      Program replaced = scalarReplacement.program(program);
+      int allocations = scalarReplacement.escapeAnalysis.size();
+      return new Result(
+         replaced,
+         scalarReplacement.escapeAnalysis.histogram(),
+         allocations,
+         allocations - scalarReplacement.allocationsRemoved
+      );
+   }
+
+   /**
+    * Drops every local of which a use could not be inlined and rewrites the method again, until every remaining
+    * local is replaced.
+    */
+   @Override
+   protected MethodDecl methodDecl(MethodDecl methodDecl) {
+      Map<Identifier, List<NewClassDecl>> allocations = candidates(methodDecl);
+      candidates = new HashSet<>(allocations.keySet());
+      while (true) {
+         Map<String, Integer> inlinedBefore = new LinkedHashMap<>(inlined);
+         replacements.clear();
+         MethodDecl rewritten = super.methodDecl(methodDecl);
+         Set<Identifier> used = VariableCollector.variables(rewritten);
+         if (candidates.stream().noneMatch(used::contains)) {
+            candidates.forEach((local) -> allocationsRemoved += allocations.get(local).size());
+            Set<Identifier> replaced = candidates;
+            candidates = Set.of();
+            return new MethodDecl(
+               rewritten.methodType(),
+               rewritten.methodName(),
+               rewritten.methodParams(),
+               rewritten.varDecls().stream()
+                  .filter((varDecl) -> ! replaced.contains(varDecl.varName()))
+                  .toList(),
+               rewritten.statements(),
+               rewritten.returnExpr()
+            );
+         }
+         candidates.removeAll(used);
+         inlined.clear();
+         inlined.putAll(inlinedBefore);
+      }
+   }
+
+   @Override
+   protected Statement statement(Statement statement) {
+      if (statement instanceof AssignStatement assignStatement && candidates.contains(assignStatement.varName())) {
+         return new StatementBlock(replacement(assignStatement.varName()).defaults());
+      }
+      return super.statement(statement);
+   }
+
+   /**
+    * @return The method a call on a replaced local dispatches to, with the fields renamed to the field locals
+    */
+   @Override
+   protected Optional<Target> target(Expression expression) {
+      if (! (expression instanceof ExprId exprId)
+         || ! candidates.contains(exprId.identifier())
+         || expression.expr2().isEmpty()
+         || ! (expression.expr2().get() instanceof ExprClassMember call)) {
+         return Optional.empty();
+      }
+      Replacement replacement = replacement(exprId.identifier());
+      Optional<MethodDecl> resolved =
+         virtualMethodTable.resolve(replacement.classDecl().className().id(), call.identifier().id());
+      if (resolved.isEmpty()) {
+         return Optional.empty();
+      }
+      ClassDecl declaringClass = classDecls.get(virtualMethodTable.declaringClass(resolved.get()).className().id());
+      MethodDecl methodDecl = declaringClass.methodDecls().stream()
+         .filter((candidate) -> candidate.methodName().equals(call.identifier()))
+         .findFirst()
+         .orElseThrow();
+      if (NodeCounter.count(methodDecl) > budget || VariableCollector.usesThis(methodDecl)) {
+         return Optional.empty();
+      }
+      return Optional.of(new Target(
+         declaringClass,
+         methodDecl,
+         replacement.fields().get(declaringClass.className().id())
+      ));
+   }
+
+   /**
+    * Declares the field locals of a replaced local the first time the method uses them.
+    */
+   private Replacement replacement(Identifier local) {
+      Replacement replacement = replacements.get(local);
+      if (replacement != null) {
+         return replacement;
+      }
+      List<ClassDecl> superClasses = new ArrayList<>();
+      String className = allocatedClass(local);
+      for (Optional<ClassDecl> classDecl = Optional.of(classDecls.get(className));
+           classDecl.isPresent();
+           classDecl = classHierarchy.superClass(classDecl.get().className().id())) {
+         superClasses.add(0, classDecls.get(classDecl.get().className().id()));
+      }
+      Map<String, Map<Identifier, Identifier>> fields = new HashMap<>();
+      List<VarDecl> fieldLocals = new ArrayList<>();
+      Map<Identifier, Identifier> visible = Map.of();
+      for (ClassDecl classDecl : superClasses) {
+         visible = new HashMap<>(visible);
+         for (VarDecl varDecl : classDecl.varDecls()) {
+            Identifier fieldLocal = fresh(local, varDecl.varName(), varDecl.varType());
+            visible.put(varDecl.varName(), fieldLocal);
+            fieldLocals.add(new VarDecl(varDecl.varType(), fieldLocal));
+         }
+         fields.put(classDecl.className().id(), visible);
+      }
+      replacement = new Replacement(classDecls.get(className), fields, fieldLocals);
+      replacements.put(local, replacement);
+      return replacement;
+   }
+
+   private String allocatedClass(Identifier local) {
+      List<Expression> assigned = new ArrayList<>();
+      currentMethod.statements().forEach((statement) -> assignments(statement, local, assigned));
+      return ((NewClassDecl) assigned.get(0)).identifier().id();
+   }
+
+   /**
+    * @return The allocations of every local that may be replaced
+    */
+   private Map<Identifier, List<NewClassDecl>> candidates(MethodDecl methodDecl) {
+      Map<Identifier, List<NewClassDecl>> candidates = new HashMap<>();
+      for (VarDecl varDecl : methodDecl.varDecls()) {
+         List<Expression> assigned = new ArrayList<>();
+         methodDecl.statements().forEach((statement) -> assignments(statement, varDecl.varName(), assigned));
+         if (assigned.isEmpty() || ! assigned.stream().allMatch(this::isNonEscapingAllocation)) {
+            continue;
+         }
+         List<NewClassDecl> newClassDecls = assigned.stream()
+            .map(NewClassDecl.class::cast)
+            .toList();
+         String className = newClassDecls.get(0).identifier().id();
+         boolean oneClass = newClassDecls.stream()
+            .allMatch((newClassDecl) -> newClassDecl.identifier().id().equals(className));
+         if (oneClass && hasScalarFields(className)) {
+            candidates.put(varDecl.varName(), newClassDecls);
+         }
+      }
+      return candidates;
+   }
+
+   private boolean isNonEscapingAllocation(Expression expression) {
+      return expression instanceof NewClassDecl newClassDecl
+         && newClassDecl.expr2().isEmpty()
+         && escapeAnalysis.escape(newClassDecl) == Escape.NON_ESCAPING;
+   }
+
+   /**
+    * @return {@code true} if the class and its superclasses are part of the program and only have {@code int} and
+    *         {@code boolean} fields, which the field locals can be reset to
+    */
+   private boolean hasScalarFields(String className) {
+      if (! classDecls.containsKey(className)) {
+         return false;
+      }
+      for (Optional<ClassDecl> classDecl = Optional.of(classDecls.get(className));
+           classDecl.isPresent();
+           classDecl = classHierarchy.superClass(classDecl.get().className().id())) {
+         if (! classDecls.containsKey(classDecl.get().className().id())) {
+            return false;
+         }
+         boolean scalar = classDecl.get().varDecls().stream()
+            .allMatch((varDecl) -> varDecl.varType() instanceof Int || varDecl.varType() instanceof Bool);
+         if (! scalar) {
+            return false;
+         }
+      }
+      return true;
+   }
+
+   private static void assignments(Statement statement, Identifier local, List<Expression> assigned) {
+      switch (statement) {
+         case StatementBlock statementBlock ->
+            statementBlock.statements().forEach((nested) -> assignments(nested, local, assigned));
+         case IfStatement ifStatement -> {
+            assignments(ifStatement.statement(), local, assigned);
+            assignments(ifStatement.elseStatement(), local, assigned);
+         }
+         case WhileLoop whileLoop -> assignments(whileLoop.statement(), local, assigned);
+         case AssignStatement assignStatement when assignStatement.varName().equals(local) ->
+            assigned.add(assignStatement.expr());
+         default -> {}
+      }
+   }
+}
@@ -0,0 +1,338 @@
+package minijava.lang.optimizer;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import minijava.lang.parser.AST.Addition;
+import minijava.lang.parser.AST.AssignStatement;
+import minijava.lang.parser.AST.Bool;
+import minijava.lang.parser.AST.ExprClassMember;
+import minijava.lang.parser.AST.ExprFalse;
+import minijava.lang.parser.AST.ExprId;
+import minijava.lang.parser.AST.ExprNot;
+import minijava.lang.parser.AST.ExprNumber;
+import minijava.lang.parser.AST.ExprParenthesis;
+import minijava.lang.parser.AST.ExprThis;
+import minijava.lang.parser.AST.ExprTrue;
+import minijava.lang.parser.AST.Expression;
+import minijava.lang.parser.AST.Expression2;
+import minijava.lang.parser.AST.Identifier;
+import minijava.lang.parser.AST.IfStatement;
+import minijava.lang.parser.AST.Int;
+import minijava.lang.parser.AST.IntLiteral;
+import minijava.lang.parser.AST.MethodDecl;
+import minijava.lang.parser.AST.MethodParam;
+import minijava.lang.parser.AST.Multiplication;
+import minijava.lang.parser.AST.Operation;
+import minijava.lang.parser.AST.Program;
+import minijava.lang.parser.AST.Statement;
+import minijava.lang.parser.AST.StatementBlock;
+import minijava.lang.parser.AST.Type;
+import minijava.lang.parser.AST.VarDecl;
+import minijava.lang.parser.AST.WhileLoop;
+import minijava.lang.parser.OperatorPrecedence;
+import minijava.lang.parser.SymbolTable;
+import minijava.lang.typechecker.ClassHierarchy;
+
+/**
+ * Turns self-recursive calls in tail position into iterations of a {@link WhileLoop}, so deep recursion runs in
+ * constant stack space.
+ *
+ * A MiniJava method returns at its end only, so a call {@code this.m(args)} of the method itself is in tail position
+ * when it is the return expression, or when it is assigned to the returned local by a statement that is the last one
+ * executed on its path. Instead of calling, the arguments are evaluated into fresh locals, assigned to the parameters
+ * and the body runs again with its locals reset to their default values, as in a new frame. A call only one
+ * {@code +} or {@code *} away from tail position, {@code e * this.m(args)} or {@code this.m(args) * e}, is turned
+ * into an accumulator that the iterations multiply by {@code e} and the method finally applies to its result, which
+ * {@code int} arithmetic being associative and commutative allows. When the call comes first, {@code e} is only
+ * read earlier if it cannot observe or fail differently, that is when it only reads locals.
+ *
+ * A method that a subclass overrides is kept as is, since {@code this} may dispatch to the override.
+ */
+public class TailCallElimination extends ASTRewriter {
+
+   /**
+    * @param eliminated The number of eliminated calls by method, in {@code Class.method} form
+    */
+   public record Result(Program program, Map<String, Integer> eliminated) {
+
+      public int callSites() {
+         return eliminated.values().stream()
+            .mapToInt(Integer::intValue)
+            .sum();
+      }
+   }
+
+   /**
+    * A tail call, applied to {@code operand} with {@code operation} if it accumulates.
+    */
+   private record TailCall(ExprClassMember call, Optional<Operation> operation, Optional<Expression> operand) {}
+
+   private final ClassHierarchy classHierarchy;
+
+   private final Map<String, Integer> eliminated = new LinkedHashMap<>();
+
+   private List<VarDecl> freshLocals;
+
+   /**
+    * The local that requests another iteration of the rewritten method.
+    */
+   private Identifier loop;
+
+   private Optional<Identifier> accumulator;
+
+   private int freshNames;
+
+   private TailCallElimination(SymbolTable<?> symbolTable) {
+      this.classHierarchy = ClassHierarchy.of(symbolTable);
+   }
+
+   /**
+    * @param symbolTable The table built from the program
+    * @return The copy of the program without the eliminated calls, the program itself is not modified
+    */
+   public static Result eliminate(SymbolTable<?> symbolTable, Program program) {
+      TailCallElimination tailCallElimination = new TailCallElimination(symbolTable);
+      return new Result(tailCallElimination.program(program), tailCallElimination.eliminated);
+   }
+
+   @Override
+   protected MethodDecl methodDecl(MethodDecl methodDecl) {
+      if (isOverridden(methodDecl)) {
+         return methodDecl;
+      }
+      currentMethod = methodDecl;
+      freshLocals = new ArrayList<>();
+      List<Statement> statements = new ArrayList<>(methodDecl.statements());
+      Identifier result;
+      if (methodDecl.returnExpr() instanceof ExprId exprId
+         && exprId.expr2().isEmpty()
+         && methodDecl.varDecls().stream().anyMatch((varDecl) -> varDecl.varName().equals(exprId.identifier()))) {
+         result = exprId.identifier();
+      } else if (tailCall(methodDecl.returnExpr()).isPresent()) {
+         result = fresh("result", methodDecl.methodType());
+         statements.add(new AssignStatement(result, methodDecl.returnExpr()));
+      } else {
+         currentMethod = null;
+         return methodDecl;
+      }
+
+      Map<AssignStatement, TailCall> tailCalls = new IdentityHashMap<>();
+      if (! statements.isEmpty()) {
+         tailCalls(statements.get(statements.size() - 1), result, tailCalls);
+      }
+      Optional<Operation> operation = tailCalls.values().stream()
+         .flatMap((tailCall) -> tailCall.operation().stream())
+         .findFirst();
+      tailCalls.values().removeIf((tailCall) -> tailCall.operation().isPresent()
+         && (! (methodDecl.methodType() instanceof Int)
+             || tailCall.operation().get().getClass() != operation.get().getClass()));
+      if (tailCalls.isEmpty()) {
+         currentMethod = null;
+         return methodDecl;
+      }
+      eliminated.merge(currentClass.className().id() + "." + methodDecl.methodName().id(), tailCalls.size(), Integer::sum);
+
+      loop = fresh("loop", new Bool());
+      accumulator = operation
+         .filter((accumulating) -> tailCalls.values().stream().anyMatch((tailCall) -> tailCall.operation().isPresent()))
+         .map((accumulating) -> fresh("accumulator", new Int()));
+      Statement last = statements.remove(statements.size() - 1);
+      statements.add(replace(last, tailCalls));
+
+      List<Statement> body = new ArrayList<>();
+      body.add(new AssignStatement(loop, new ExprFalse(Optional.empty())));
+      body.addAll(resets(methodDecl.varDecls()));
+      body.addAll(statements);
+      List<Statement> rewritten = new ArrayList<>();
+      rewritten.add(new AssignStatement(loop, new ExprTrue(Optional.empty())));
+      accumulator.ifPresent((local) -> rewritten.add(new AssignStatement(local, identity(operation.get()))));
+      rewritten.add(new WhileLoop(new ExprId(loop, Optional.empty()), new StatementBlock(body)));
+      Expression returnExpr = accumulator
+         .map((local) -> (Expression) new ExprId(local, Optional.of(
+            OperatorPrecedence.withOperand(operation.get(), new ExprId(result, Optional.empty()), Optional.empty())
+         )))
+         .orElse(new ExprId(result, Optional.empty()));
+      currentMethod = null;
+
+      List<VarDecl> varDecls = new ArrayList<>(methodDecl.varDecls());
+      varDecls.addAll(freshLocals);
+      return new MethodDecl(
+         methodDecl.methodType(),
+         methodDecl.methodName(),
+         methodDecl.methodParams(),
+         varDecls,
+         rewritten,
+         returnExpr
+      );
+   }
+
+   private boolean isOverridden(MethodDecl methodDecl) {
+      return classHierarchy.descendants(currentClass.className().id()).stream()
+         .filter((classDecl) -> ! classDecl.className().equals(currentClass.className()))
+         .flatMap((classDecl) -> classDecl.methodDecls().stream())
+         .anyMatch((overriding) -> overriding.methodName().equals(methodDecl.methodName()));
+   }
+
+   /**
+    * Collects the assignments of the result that are the last statement executed on their path.
+    */
+   private void tailCalls(Statement statement, Identifier result, Map<AssignStatement, TailCall> tailCalls) {
+      switch (statement) {
+         case StatementBlock statementBlock when ! statementBlock.statements().isEmpty() ->
+            tailCalls(statementBlock.statements().get(statementBlock.statements().size() - 1), result, tailCalls);
+         case IfStatement ifStatement -> {
+            tailCalls(ifStatement.statement(), result, tailCalls);
+            tailCalls(ifStatement.elseStatement(), result, tailCalls);
+         }
+         case AssignStatement assignStatement when assignStatement.varName().equals(result) ->
+            tailCall(assignStatement.expr()).ifPresent((tailCall) -> tailCalls.put(assignStatement, tailCall));
+         default -> {}
+      }
+   }
+
+   /**
+    * @return The self call the value of the expression is, or is one {@code +} or {@code *} away from
+    */
+   private Optional<TailCall> tailCall(Expression expression) {
+      expression = unwrap(expression);
+      if (isSelfCall(expression)) {
+         return Optional.of(new TailCall((ExprClassMember) expression.expr2().get(), Optional.empty(), Optional.empty()));
+      }
+      Optional<Operation> operation = OperatorPrecedence.finalOperation(expression)
+         .filter((accumulating) -> accumulating instanceof Addition || accumulating instanceof Multiplication);
+      if (operation.isEmpty()) {
+         return Optional.empty();
+      }
+      Expression term = OperatorPrecedence.term(expression);
+      Expression right = operation.get().operands().get(0);
+      Expression operand = unwrap(right);
+      if (isSelfCall(operand)) {
+         return Optional.of(new TailCall((ExprClassMember) operand.expr2().get(), operation, Optional.of(term)));
+      }
+      term = unwrap(term);
+      if (isSelfCall(term) && readsOnlyLocals(right)) {
+         return Optional.of(new TailCall((ExprClassMember) term.expr2().get(), operation, Optional.of(right)));
+      }
+      return Optional.empty();
+   }
+
+   private boolean isSelfCall(Expression expression) {
+      return expression instanceof ExprThis
+         && expression.expr2().isPresent()
+         && expression.expr2().get() instanceof ExprClassMember call
+         && call.expr2().isEmpty()
+         && call.identifier().equals(currentMethod.methodName());
+   }
+
+   /**
+    * @return {@code true} if the expression cannot fail and only reads locals and parameters, which a call does not
+    *         assign
+    */
+   private boolean readsOnlyLocals(Expression expression) {
+      boolean local = switch (expression) {
+         case ExprNumber exprNumber -> true;
+         case ExprTrue exprTrue -> true;
+         case ExprFalse exprFalse -> true;
+         case ExprId exprId -> currentMethod.methodParams().stream()
+               .anyMatch((methodParam) -> methodParam.name().equals(exprId.identifier()))
+            || currentMethod.varDecls().stream()
+               .anyMatch((varDecl) -> varDecl.varName().equals(exprId.identifier()));
+         case ExprNot exprNot -> readsOnlyLocals(exprNot.expr());
+         case ExprParenthesis exprParenthesis -> readsOnlyLocals(exprParenthesis.expr());
+         default -> false;
+      };
+      for (Optional<Expression2> expr2 = expression.expr2(); local && expr2.isPresent(); expr2 = expr2.get().expr2()) {
+         local = expr2.get() instanceof Operation operation
+            && operation.operands().stream().allMatch(this::readsOnlyLocals);
+      }
+      return local;
+   }
+
+   /**
+    * Replaces every tail call by the accumulation of its operand, the evaluation of its arguments and their
+    * assignment to the parameters, and the request for another iteration.
+    */
+   private Statement replace(Statement statement, Map<AssignStatement, TailCall> tailCalls) {
+      return switch (statement) {
+         case StatementBlock statementBlock when ! statementBlock.statements().isEmpty() -> {
+            List<Statement> statements = new ArrayList<>(statementBlock.statements());
+            Statement last = statements.remove(statements.size() - 1);
+            statements.add(replace(last, tailCalls));
+            yield new StatementBlock(statements);
+         }
+         case IfStatement ifStatement -> new IfStatement(
+            ifStatement.expr(),
+            replace(ifStatement.statement(), tailCalls),
+            replace(ifStatement.elseStatement(), tailCalls)
+         );
+         case AssignStatement assignStatement when tailCalls.containsKey(assignStatement) ->
+            iterate(tailCalls.get(assignStatement));
+         default -> statement;
+      };
+   }
+
+   private Statement iterate(TailCall tailCall) {
+      List<Statement> statements = new ArrayList<>();
+      tailCall.operand().ifPresent((operand) -> statements.add(new AssignStatement(
+         accumulator.get(),
+         new ExprId(accumulator.get(), Optional.of(
+            OperatorPrecedence.withOperand(tailCall.operation().get(), operand, Optional.empty())
+         ))
+      )));
+      List<MethodParam> methodParams = currentMethod.methodParams();
+      List<Identifier> arguments = new ArrayList<>();
+      for (int index = 0; index < methodParams.size(); index++) {
+         Identifier argument = fresh(methodParams.get(index).name().id(), methodParams.get(index).type());
+         statements.add(new AssignStatement(argument, tailCall.call().memberParams().get(index)));
+         arguments.add(argument);
+      }
+      for (int index = 0; index < methodParams.size(); index++) {
+         statements.add(new AssignStatement(methodParams.get(index).name(), new ExprId(arguments.get(index), Optional.empty())));
+      }
+      statements.add(new AssignStatement(loop, new ExprTrue(Optional.empty())));
+      return new StatementBlock(statements);
+   }
+
+   /**
+    * @return The assignments that give the locals their default values again, {@code null} is read from a local
+    *         that is never assigned
+    */
+   private List<Statement> resets(List<VarDecl> varDecls) {
+      Map<Type, Identifier> nulls = new HashMap<>();
+      List<Statement> resets = new ArrayList<>();
+      for (VarDecl varDecl : varDecls) {
+         Expression value = switch (varDecl.varType()) {
+            case Int type -> new ExprNumber(new IntLiteral(0), Optional.empty());
+            case Bool type -> new ExprFalse(Optional.empty());
+            default -> new ExprId(
+               nulls.computeIfAbsent(varDecl.varType(), (type) -> fresh("null", type)),
+               Optional.empty()
+            );
+         };
+         resets.add(new AssignStatement(varDecl.varName(), value));
+      }
+      return resets;
+   }
+
+   private Identifier fresh(String name, Type type) {
+      Identifier fresh = new Identifier(currentMethod.methodName().id() + "$" + name + "$" + (++freshNames));
+      freshLocals.add(new VarDecl(type, fresh));
+      return fresh;
+   }
+
+   private static Expression identity(Operation operation) {
+      return new ExprNumber(new IntLiteral((operation instanceof Multiplication) ? 1 : 0), Optional.empty());
+   }
+
+   private static Expression unwrap(Expression expression) {
+      while (expression instanceof ExprParenthesis exprParenthesis && expression.expr2().isEmpty()) {
+         expression = exprParenthesis.expr();
+      }
+      return expression;
+   }
+}
@@ -0,0 +1,109 @@
+package minijava.lang.optimizer;
+
+import java.util.HashSet;
+import java.util.Set;
+import minijava.lang.parser.AST.ArrayAssignStatement;
+import minijava.lang.parser.AST.AssignStatement;
+import minijava.lang.parser.AST.ExprArray;
+import minijava.lang.parser.AST.ExprClassMember;
+import minijava.lang.parser.AST.ExprId;
+import minijava.lang.parser.AST.ExprNot;
+import minijava.lang.parser.AST.ExprParenthesis;
+import minijava.lang.parser.AST.ExprThis;
+import minijava.lang.parser.AST.Expression;
+import minijava.lang.parser.AST.Expression2;
+import minijava.lang.parser.AST.Identifier;
+import minijava.lang.parser.AST.IfStatement;
+import minijava.lang.parser.AST.MethodDecl;
+import minijava.lang.parser.AST.NewIntArrayDecl;
+import minijava.lang.parser.AST.Operation;
+import minijava.lang.parser.AST.PrintStatement;
+import minijava.lang.parser.AST.Statement;
+import minijava.lang.parser.AST.StatementBlock;
+import minijava.lang.parser.AST.WhileLoop;
+
+/**
+ * Collects the names a method reads or assigns and whether it uses {@code this}. The nodes are only read.
+ */
+class VariableCollector {
+
+   private final Set<Identifier> variables = new HashSet<>();
+
+   private final Set<Identifier> assigned = new HashSet<>();
+
+   private boolean usesThis;
+
+   private VariableCollector() {}
+
+   static Set<Identifier> variables(MethodDecl methodDecl) {
+      VariableCollector collector = new VariableCollector();
+      collector.methodDecl(methodDecl);
+      return collector.variables;
+   }
+
+   /**
+    * @return The variables the statement assigns, the elements of arrays are not counted
+    */
+   static Set<Identifier> assigned(Statement statement) {
+      VariableCollector collector = new VariableCollector();
+      collector.statement(statement);
+      return collector.assigned;
+   }
+
+   static boolean usesThis(MethodDecl methodDecl) {
+      VariableCollector collector = new VariableCollector();
+      collector.methodDecl(methodDecl);
+      return collector.usesThis;
+   }
+
+   private void methodDecl(MethodDecl methodDecl) {
+      methodDecl.statements().forEach(this::statement);
+      expression(methodDecl.returnExpr());
+   }
+
+   private void statement(Statement statement) {
+      switch (statement) {
+         case StatementBlock statementBlock -> statementBlock.statements().forEach(this::statement);
+         case IfStatement ifStatement -> {
+            expression(ifStatement.expr());
+            statement(ifStatement.statement());
+            statement(ifStatement.elseStatement());
+         }
+         case WhileLoop whileLoop -> {
+            expression(whileLoop.expr());
+            statement(whileLoop.statement());
+         }
+         case PrintStatement printStatement -> expression(printStatement.expr());
+         case AssignStatement assignStatement -> {
+            variables.add(assignStatement.varName());
+            assigned.add(assignStatement.varName());
+            expression(assignStatement.expr());
+         }
+         case ArrayAssignStatement arrayAssign -> {
+            variables.add(arrayAssign.varName());
+            expression(arrayAssign.indexExpr());
+            expression(arrayAssign.expr());
+         }
+         default -> throw new IllegalStateException("Unexpected value: " + statement);
+      }
+   }
+
+   private void expression(Expression expression) {
+      switch (expression) {
+         case ExprId exprId -> variables.add(exprId.identifier());
+         case ExprThis exprThis -> usesThis = true;
+         case ExprNot exprNot -> expression(exprNot.expr());
+         case ExprParenthesis exprParenthesis -> expression(exprParenthesis.expr());
+         case NewIntArrayDecl newIntArrayDecl -> expression(newIntArrayDecl.expr());
+         default -> {}
+      }
+      for (Expression2 expr2 = expression.next(); expr2 != null; expr2 = expr2.next()) {
+         switch (expr2) {
+            case ExprArray exprArray -> expression(exprArray.expr());
+            case ExprClassMember classMember -> classMember.memberParams().forEach(this::expression);
+            case Operation operation -> operation.operands().forEach(this::expression);
+            default -> {}
+         }
+      }
+   }
+}
@@ -17,7 +17,20 @@ public class AST {
 
    public interface Statement       extends ASTNode {}
 
-   public interface IExpression     extends ASTNode {}
+   /**
+    * An expression and its continuation, the {@link Expression2} that follows it. The continuation is stored as a
+    * reference that is {@code null} at the end of the expression, without an {@link Optional} per node.
+    */
+   public interface IExpression     extends ASTNode {
+      /**
+       * @return The continuation, {@code null} if there is none
+       */
+      Expression2 next();
+
+      default Optional<Expression2> expr2() {
+         return Optional.ofNullable(next());
+      }
+   }
 
    public interface Expression  extends IExpression {}
 
@@ -25,38 +38,46 @@ public class AST {
 
    public interface Declaration     extends ASTNode {}
 
-   public interface ExprBoolean extends Expression {
-      Optional<Expression2> expr2();
-   }
+   public interface ExprBoolean extends Expression {}
 
    public abstract static class ClassExpression implements Expression {
 
-      private Optional<Expression2> expr2;
+      private Expression2 next;
 
       public ClassExpression(Optional<Expression2> expr2) {
-         this.expr2 = expr2;
+         this.next = expr2.orElse(null);
+      }
+
+      public ClassExpression(Expression2 next) {
+         this.next = next;
       }
 
       abstract Identifier identifier();
 
-      public Optional<Expression2> expr2() {
-         return expr2;
+      public Expression2 next() {
+         return next;
       }
 
       public Optional<Expression2> expr2(Optional<Expression2> expr2) {
-         this.expr2 = expr2;
-         return this.expr2;
+         this.next = expr2.orElse(null);
+         return expr2;
       }
    }
 
+   /**
+    * An operator applied to the value it continues and each of its operands in turn, left to right, so
+    * {@code a - b - c} is {@code a} continued by one {@link Subtraction} of {@code b} and {@code c}.
+    */
    public interface Operation      extends Expression2 {
-      Expression            expr();
-      Optional<Expression2> expr2();
+      List<Expression>      operands();
    }
 
    public record Program(MainClass        mainClass,
                          List<ClassDecl> classDecls) implements ASTNode, Scope {}
 
+   public record CompilationUnit(Optional<MainClass> mainClass,
+                                 List<ClassDecl>     classDecls) implements ASTNode {}
+
    public record MainClass(Identifier     className,
                            Identifier     argName,
                            Statement      statement) implements ASTNode, Scope {}
@@ -92,21 +113,38 @@ public class AST {
    public record AssignStatement(Identifier varName,
                                  Expression expr) implements Statement {}
 
-   public record ArrayAssignStatement(Expression indexExpr,
+   public record ArrayAssignStatement(Identifier varName,
+                                      Expression indexExpr,
                                       Expression expr) implements Statement {}
 
    public record ExprNumber(IntLiteral            integer,
-                            Optional<Expression2> expr2)  implements Expression {}
+                            Expression2           next)  implements Expression {
+      public ExprNumber(IntLiteral integer, Optional<Expression2> expr2) {
+         this(integer, expr2.orElse(null));
+      }
+   }
 
-   public record ExprTrue(Optional<Expression2> expr2) implements ExprBoolean {}
+   public record ExprTrue(Expression2 next) implements ExprBoolean {
+      public ExprTrue(Optional<Expression2> expr2) {
+         this(expr2.orElse(null));
+      }
+   }
 
-   public record ExprFalse(Optional<Expression2> expr2) implements ExprBoolean {}
+   public record ExprFalse(Expression2 next) implements ExprBoolean {
+      public ExprFalse(Optional<Expression2> expr2) {
+         this(expr2.orElse(null));
+      }
+   }
 
    public static class ExprId extends ClassExpression {
       private final Identifier className;
 
       public ExprId(Identifier className, Optional<Expression2> expr2) {
-         super(expr2);
+         this(className, expr2.orElse(null));
+      }
+
+      public ExprId(Identifier className, Expression2 next) {
+         super(next);
          this.className = className;
       }
 
@@ -122,6 +160,10 @@ public class AST {
          super(expr2);
       }
 
+      public ExprThis(Expression2 next) {
+         super(next);
+      }
+
       @Override
       Identifier identifier() {
          return null;
@@ -129,17 +171,29 @@ public class AST {
    }
 
    public record  ExprNot(Expression expr,
-                          Optional<Expression2> expr2) implements Expression {}
+                          Expression2           next) implements Expression {
+      public ExprNot(Expression expr, Optional<Expression2> expr2) {
+         this(expr, expr2.orElse(null));
+      }
+   }
 
    public record NewIntArrayDecl(Expression            expr,
-                                 Optional<Expression2> expr2) implements Expression {}
+                                 Expression2           next) implements Expression {
+      public NewIntArrayDecl(Expression expr, Optional<Expression2> expr2) {
+         this(expr, expr2.orElse(null));
+      }
+   }
 
    public static class NewClassDecl extends ClassExpression {
 
       private final Identifier className;
 
       public NewClassDecl(Identifier className, Optional<Expression2> expr2) {
-         super(expr2);
+         this(className, expr2.orElse(null));
+      }
+
+      public NewClassDecl(Identifier className, Expression2 next) {
+         super(next);
          this.className = className;
       }
 
@@ -150,7 +204,11 @@ public class AST {
    }
 
    public record ExprParenthesis(Expression                 expr,
-                                 Optional<Expression2>      expr2) implements Expression {}
+                                 Expression2                next) implements Expression {
+      public ExprParenthesis(Expression expr, Optional<Expression2> expr2) {
+         this(expr, expr2.orElse(null));
+      }
+   }
 
    public static class ExprClassMember extends ClassExpression implements Expression2 {
 
@@ -160,7 +218,13 @@ public class AST {
       public ExprClassMember(Identifier identifier,
                              List<Expression> memberParams,
                              Optional<Expression2> expr2) {
-         super(expr2);
+         this(identifier, memberParams, expr2.orElse(null));
+      }
+
+      public ExprClassMember(Identifier identifier,
+                             List<Expression> memberParams,
+                             Expression2 next) {
+         super(next);
          this.identifier = identifier;
          this.memberParams = memberParams;
       }
@@ -176,9 +240,17 @@ public class AST {
    }
 
    public record ExprArray(Expression            expr,
-                           Optional<Expression2> expr2) implements Expression2 {}
+                           Expression2           next) implements Expression2 {
+      public ExprArray(Expression expr, Optional<Expression2> expr2) {
+         this(expr, expr2.orElse(null));
+      }
+   }
 
-   public record ArrayLength(Optional<Expression2> expr2) implements Expression2 {}
+   public record ArrayLength(Expression2 next) implements Expression2 {
+      public ArrayLength(Optional<Expression2> expr2) {
+         this(expr2.orElse(null));
+      }
+   }
 
    public record IntLiteral(Integer integer) implements ASTNode {
    }
@@ -221,18 +293,38 @@ public class AST {
       }
    }
 
-   public record            And(Expression            expr,
-                                Optional<Expression2> expr2) implements Operation {}
+   public record            And(List<Expression>      operands,
+                                Expression2           next) implements Operation {
+      public And(List<Expression> operands, Optional<Expression2> expr2) {
+         this(operands, expr2.orElse(null));
+      }
+   }
 
-   public record       Addition(Expression            expr,
-                                Optional<Expression2> expr2) implements Operation {}
+   public record       Addition(List<Expression>      operands,
+                                Expression2           next) implements Operation {
+      public Addition(List<Expression> operands, Optional<Expression2> expr2) {
+         this(operands, expr2.orElse(null));
+      }
+   }
 
-   public record    Subtraction(Expression            expr,
-                                Optional<Expression2> expr2) implements Operation {}
+   public record    Subtraction(List<Expression>      operands,
+                                Expression2           next) implements Operation {
+      public Subtraction(List<Expression> operands, Optional<Expression2> expr2) {
+         this(operands, expr2.orElse(null));
+      }
+   }
 
-   public record Multiplication(Expression            expr,
-                                Optional<Expression2> expr2) implements Operation {}
+   public record Multiplication(List<Expression>      operands,
+                                Expression2           next) implements Operation {
+      public Multiplication(List<Expression> operands, Optional<Expression2> expr2) {
+         this(operands, expr2.orElse(null));
+      }
+   }
 
-   public record       LessThan(Expression            expr,
-                                Optional<Expression2> expr2) implements Operation {}
+   public record       LessThan(List<Expression>      operands,
+                                Expression2           next) implements Operation {
+      public LessThan(List<Expression> operands, Optional<Expression2> expr2) {
+         this(operands, expr2.orElse(null));
+      }
+   }
 }
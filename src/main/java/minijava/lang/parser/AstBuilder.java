@@ -0,0 +1,112 @@
+package minijava.lang.parser;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+import org.antlr.v4.runtime.ParserRuleContext;
+import org.antlr.v4.runtime.tree.ErrorNode;
+import org.antlr.v4.runtime.tree.ParseTreeListener;
+import org.antlr.v4.runtime.tree.TerminalNode;
+import antlr4.MiniJavaParser;
+import antlr4.MiniJavaParser.ClassDeclarationContext;
+import antlr4.MiniJavaParser.MainClassContext;
+import minijava.lang.parser.AST.ClassDecl;
+import minijava.lang.parser.AST.CompilationUnit;
+import minijava.lang.parser.AST.MainClass;
+import minijava.lang.parser.AST.Program;
+
+/**
+ * Builds the {@link AST} while {@link MiniJavaParser} parses, without keeping its parse tree.
+ *
+ * The parser runs with {@code setBuildParseTree(false)}, so a finished rule context is not attached to its parent.
+ * The builder attaches it when the rule exits, which gives {@link MiniJavaVisitorImpl} the subtree of the class being
+ * parsed. Every {@code mainClass} and {@code classDeclaration} is visited as soon as it is complete and never
+ * attached, so the parse tree of at most one class is alive at a time.
+ */
+public class AstBuilder implements ParseTreeListener {
+
+   private final MiniJavaVisitorImpl visitor;
+
+   private final Consumer<ClassDecl> classDecls;
+
+   private Optional<MainClass> mainClass = Optional.empty();
+
+   private AstBuilder(Consumer<ClassDecl> classDecls, SourcePositions positions) {
+      this.classDecls = classDecls;
+      this.visitor = new MiniJavaVisitorImpl(positions);
+   }
+
+   public static Program program(MiniJavaParser parser) {
+      return program(parser, SourcePositions.NONE);
+   }
+
+   /**
+    * @param positions Records the positions of the nodes
+    */
+   public static Program program(MiniJavaParser parser, SourcePositions positions) {
+      List<ClassDecl> classDecls = new ArrayList<>();
+      AstBuilder builder = build(parser, classDecls::add, positions);
+      parser.program();
+      return new Program(builder.mainClass(), classDecls);
+   }
+
+   /**
+    * Hands every class to the consumer as soon as it is parsed.
+    * @return The main class
+    */
+   public static MainClass program(MiniJavaParser parser, Consumer<ClassDecl> classDecls) {
+      AstBuilder builder = build(parser, classDecls, SourcePositions.NONE);
+      parser.program();
+      return builder.mainClass();
+   }
+
+   /**
+    * Parses a file of a multi-file program, the {@code mainClass} is optional.
+    */
+   public static CompilationUnit compilationUnit(MiniJavaParser parser) {
+      return compilationUnit(parser, SourcePositions.NONE);
+   }
+
+   public static CompilationUnit compilationUnit(MiniJavaParser parser, SourcePositions positions) {
+      List<ClassDecl> classDecls = new ArrayList<>();
+      AstBuilder builder = build(parser, classDecls::add, positions);
+      parser.compilationUnit();
+      return new CompilationUnit(builder.mainClass, classDecls);
+   }
+
+   private static AstBuilder build(MiniJavaParser parser, Consumer<ClassDecl> classDecls, SourcePositions positions) {
+      AstBuilder builder = new AstBuilder(classDecls, positions);
+      parser.setBuildParseTree(false);
+      parser.addParseListener(builder);
+      return builder;
+   }
+
+   private MainClass mainClass() {
+      return mainClass.orElseThrow(() -> new IllegalStateException("Missing main class."));
+   }
+
+   @Override
+   public void exitEveryRule(ParserRuleContext ctx) {
+      switch (ctx) {
+         case MainClassContext mainClassContext ->
+            mainClass = Optional.of((MainClass) visitor.visit(mainClassContext));
+         case ClassDeclarationContext classDeclarationContext ->
+            classDecls.accept((ClassDecl) visitor.visit(classDeclarationContext));
+         default -> {
+            if (ctx.getParent() != null) {
+               ctx.getParent().addChild(ctx);
+            }
+         }
+      }
+   }
+
+   @Override
+   public void enterEveryRule(ParserRuleContext ctx) {}
+
+   @Override
+   public void visitTerminal(TerminalNode node) {}
+
+   @Override
+   public void visitErrorNode(ErrorNode node) {}
+}
@@ -0,0 +1,193 @@
+package minijava.lang.parser;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import minijava.lang.MiniJava;
+import minijava.lang.parser.AST.Bool;
+import minijava.lang.parser.AST.ClassDecl;
+import minijava.lang.parser.AST.ClassType;
+import minijava.lang.parser.AST.Identifier;
+import minijava.lang.parser.AST.Int;
+import minijava.lang.parser.AST.IntArray;
+import minijava.lang.parser.AST.MethodDecl;
+import minijava.lang.parser.AST.MethodParam;
+import minijava.lang.parser.AST.Type;
+import minijava.lang.parser.AST.VarDecl;
+import minijava.lang.parser.SymbolTable.SymbolTableEntry;
+
+/**
+ * Reads and writes class signature summaries used for separate compilation.
+ *
+ * A summary keeps only what other classes can observe of a {@link ClassDecl}: its superclass, its fields and its
+ * method headers. One summary is written per class, one declaration per line:
+ * <pre>
+ *    class Fac extends Base
+ *    field int num
+ *    method int ComputeFac int num
+ * </pre>
+ * Decoded summaries are {@link ClassDecl}s whose methods have no body, so they can be placed in the root
+ * {@link SymbolTable} in place of the parsed dependency sources.
+ */
+public class ClassSignatures {
+
+   private static final String CLASS   = "class";
+
+   private static final String EXTENDS = "extends";
+
+   private static final String FIELD   = "field";
+
+   private static final String METHOD  = "method";
+
+   private ClassSignatures() {}
+
+   /**
+    * @return The summary text of the given {@link ClassDecl}
+    */
+   public static String encode(ClassDecl classDecl) {
+      StringBuilder signature = new StringBuilder()
+         .append(CLASS).append(' ').append(classDecl.className());
+      classDecl.superClass()
+         .ifPresent((superClass) -> signature.append(' ').append(EXTENDS).append(' ').append(superClass));
+      signature.append('\n');
+      classDecl.varDecls()
+         .forEach((varDecl) -> signature
+            .append(FIELD).append(' ')
+            .append(encodeType(varDecl.varType())).append(' ')
+            .append(varDecl.varName()).append('\n'));
+      classDecl.methodDecls()
+         .forEach((methodDecl) -> {
+            signature
+               .append(METHOD).append(' ')
+               .append(encodeType(methodDecl.methodType())).append(' ')
+               .append(methodDecl.methodName());
+            methodDecl.methodParams()
+               .forEach((param) -> signature
+                  .append(' ').append(encodeType(param.type()))
+                  .append(' ').append(param.name()));
+            signature.append('\n');
+         });
+      return signature.toString();
+   }
+
+   /**
+    * @param signature Summary text produced by {@link ClassSignatures#encode(ClassDecl)}
+    * @return A {@link ClassDecl} with the fields and method headers of the summary and empty method bodies
+    */
+   public static ClassDecl decode(String signature) {
+      List<String[]> lines = signature.lines()
+         .map(String::strip)
+         .filter((line) -> ! line.isEmpty())
+         .map((line) -> line.split("\\s+"))
+         .toList();
+      if (lines.isEmpty() || ! lines.get(0)[0].equals(CLASS)) {
+         throw new IllegalStateException("Malformed class signature: missing class header.");
+      }
+      String[] header = lines.get(0);
+      Identifier className = new Identifier(header[1]);
+      Optional<Identifier> superClass = (header.length == 4 && header[2].equals(EXTENDS)) ?
+         Optional.of(new Identifier(header[3])) :
+         Optional.empty();
+
+      List<VarDecl>       varDecls = new ArrayList<>();
+      List<MethodDecl> methodDecls = new ArrayList<>();
+      for (String[] line : lines.subList(1, lines.size())) {
+         switch (line[0]) {
+            case FIELD  -> varDecls.add(new VarDecl(decodeType(line[1]), new Identifier(line[2])));
+            case METHOD -> methodDecls.add(decodeMethod(line));
+            default     -> throw new IllegalStateException("Malformed class signature for " + className + ": " + line[0]);
+         }
+      }
+      return new ClassDecl(className, superClass, varDecls, methodDecls);
+   }
+
+   /**
+    * Writes the summary of the given {@link ClassDecl} into the directory as {@code <className>.mjsig}
+    * @return {@link Path} of the written summary
+    */
+   public static Path write(ClassDecl classDecl, Path directory) throws IOException {
+      Files.createDirectories(directory);
+      Path signatureFile = directory.resolve(classDecl.className().id() + MiniJava.SignatureExt);
+      return Files.writeString(signatureFile, encode(classDecl));
+   }
+
+   public static ClassDecl read(Path signatureFile) throws IOException {
+      return decode(Files.readString(signatureFile));
+   }
+
+   /**
+    * Adds the summarized classes as {@link ClassDecl} tables of the root {@link SymbolTable}.
+    * @param symbolTable Any table of the program, the summaries are loaded into its root
+    * @param summaries Decoded summaries
+    * @return The root {@link SymbolTable}
+    * @throws IllegalStateException if a summarized class is already declared by the program
+    */
+   public static SymbolTable<?> load(SymbolTable<?> symbolTable, List<ClassDecl> summaries) {
+      SymbolTable<?> rootTable = symbolTable.getRoot();
+      List<String> declaredClasses = rootTable.tableEntryStream()
+         .map((entry) -> entry.identifier().id())
+         .collect(Collectors.toList());
+      for (ClassDecl summary : summaries) {
+         if (declaredClasses.contains(summary.className().id())) {
+            throw new IllegalStateException("Duplicate classes.");
+         }
+         declaredClasses.add(summary.className().id());
+
+         SymbolTable<?> classTable = SymbolTableBuilder.visitAndBuild(summary);
+         SymbolTablePopulator.visitAndPopulate(classTable);
+         classTable.setParentTable(rootTable);
+         rootTable.addChildTable(classTable);
+         rootTable.AddTableEntry(new SymbolTableEntry(summary.className(), new ClassType(summary.className()), summary));
+      }
+      return rootTable;
+   }
+
+   private static MethodDecl decodeMethod(String[] line) {
+      List<MethodParam> methodParams = new ArrayList<>();
+      for (int index = 3; index + 1 < line.length; index += 2) {
+         methodParams.add(new MethodParam(decodeType(line[index]), new Identifier(line[index + 1])));
+      }
+      return new MethodDecl(
+         decodeType(line[1]),
+         new Identifier(line[2]),
+         methodParams,
+         List.of(),
+         List.of(),
+         null
+      );
+   }
+
+   private static String encodeType(Type type) {
+      return switch (type) {
+         case IntArray intArray   -> "int[]";
+         case Bool bool           -> "boolean";
+         case Int integer         -> "int";
+         case ClassType classType -> classType.identifier().id();
+         default                  -> throw new IllegalStateException("Unexpected value: " + type);
+      };
+   }
+
+   private static Type decodeType(String type) {
+      return switch (type) {
+         case "int[]"   -> new IntArray();
+         case "boolean" -> new Bool();
+         case "int"     -> new Int();
+         default        -> new ClassType(new Identifier(type));
+      };
+   }
+
+   /**
+    * @return The summaries of all classes of the given signature files
+    */
+   public static List<ClassDecl> readAll(List<Path> signatureFiles) throws IOException {
+      List<ClassDecl> summaries = new ArrayList<>();
+      for (Path signatureFile : signatureFiles) {
+         summaries.add(read(signatureFile));
+      }
+      return summaries;
+   }
+}
@@ -0,0 +1,381 @@
+package minijava.lang.parser;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.antlr.v4.runtime.ANTLRErrorListener;
+import org.antlr.v4.runtime.CharStream;
+import org.antlr.v4.runtime.CommonTokenFactory;
+import org.antlr.v4.runtime.ConsoleErrorListener;
+import org.antlr.v4.runtime.IntStream;
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.TokenFactory;
+import org.antlr.v4.runtime.TokenSource;
+import org.antlr.v4.runtime.UnbufferedCharStream;
+import org.antlr.v4.runtime.misc.Interval;
+import org.antlr.v4.runtime.misc.Pair;
+import antlr4.MiniJavaLexer;
+
+/**
+ * Table-driven lexer producing the tokens of {@link MiniJavaLexer} without simulating its ATN.
+ *
+ * The tokens of the grammar are compiled into one deterministic automaton over ASCII when the class is loaded: every
+ * state keeps the literal it is a prefix of, whether it is inside an identifier, an integer, white space or a
+ * comment, and the token type it accepts, the first rule of the grammar on ties. Other code points only continue
+ * comments. Like the ANTLR lexer, the longest accepted prefix is the token, {@code COMMENT} ends at the first line
+ * break after at least one character and input no rule accepts is reported as a token recognition error and dropped.
+ */
+public final class DfaLexer implements TokenSource {
+
+   /**
+    * One column per ASCII character and one for every other code point.
+    */
+   private static final int COLUMNS = 129;
+
+   private static final int START = 0;
+
+   private static final int DEAD = -1;
+
+   private static final int[] TRANSITIONS;
+
+   /**
+    * The token type accepted in a state, {@link Token#INVALID_TYPE} if none.
+    */
+   private static final int[] ACCEPTS;
+
+   /**
+    * The token type accepted in a state at the end of the input.
+    */
+   private static final int[] EOF_ACCEPTS;
+
+   static {
+      Automaton automaton = new Automaton();
+      TRANSITIONS = automaton.transitions();
+      ACCEPTS = automaton.accepts;
+      EOF_ACCEPTS = automaton.eofAccepts;
+   }
+
+   private final CharStream input;
+
+   private final Pair<TokenSource, CharStream> source;
+
+   /**
+    * The white space and comments of an ASCII input, {@code null} otherwise or if the input is unbuffered.
+    */
+   private final SourceIndex index;
+
+   private final List<ANTLRErrorListener> listeners = new ArrayList<>(List.of(ConsoleErrorListener.INSTANCE));
+
+   private TokenFactory<?> factory = CommonTokenFactory.DEFAULT;
+
+   private int line = 1;
+
+   private int charPositionInLine;
+
+   public DfaLexer(CharStream input) {
+      this.input = input;
+      this.source = new Pair<>(this, input);
+      this.index = index(input);
+   }
+
+   private static SourceIndex index(CharStream input) {
+      if (input instanceof UnbufferedCharStream || input.size() == 0) {
+         return null;
+      }
+      byte[] bytes = input.getText(Interval.of(0, input.size() - 1)).getBytes(StandardCharsets.UTF_8);
+      return (bytes.length == input.size()) ? SourceIndex.scan(bytes) : null;
+   }
+
+   public void addErrorListener(ANTLRErrorListener listener) {
+      listeners.add(listener);
+   }
+
+   public void removeErrorListeners() {
+      listeners.clear();
+   }
+
+   /**
+    * Reads the input through {@link CharStream#LA} and keeps it marked from the start of a token to its end only, so
+    * it runs on an {@link UnbufferedCharStream} as well. White space and comments found by the {@link SourceIndex}
+    * are skipped at once.
+    */
+   @Override
+   public Token nextToken() {
+      while (true) {
+         int start = input.index();
+         if (index != null && index.isSkipped(start)) {
+            int end = index.skip(start);
+            input.seek(end);
+            line = index.line(end);
+            charPositionInLine = end - index.lineStart(line);
+            continue;
+         }
+         int startLine = line;
+         int startCharPosition = charPositionInLine;
+         if (input.LA(1) == IntStream.EOF) {
+            return factory.create(source, Token.EOF, null, Token.DEFAULT_CHANNEL, start, start - 1, line, charPositionInLine);
+         }
+
+         int mark = input.mark();
+         try {
+            int state = START;
+            int type = Token.INVALID_TYPE;
+            int end = start;
+            int endLine = line;
+            int endCharPosition = charPositionInLine;
+            int codePoint;
+            while (true) {
+               codePoint = input.LA(1);
+               if (codePoint == IntStream.EOF) {
+                  if (EOF_ACCEPTS[state] != Token.INVALID_TYPE) {
+                     type = EOF_ACCEPTS[state];
+                     end = input.index();
+                     endLine = line;
+                     endCharPosition = charPositionInLine;
+                  }
+                  break;
+               }
+               int next = TRANSITIONS[state * COLUMNS + ((codePoint < 128) ? codePoint : 128)];
+               if (next == DEAD) {
+                  break;
+               }
+               state = next;
+               consume(codePoint);
+               if (ACCEPTS[state] != Token.INVALID_TYPE) {
+                  type = ACCEPTS[state];
+                  end = input.index();
+                  endLine = line;
+                  endCharPosition = charPositionInLine;
+               }
+            }
+
+            if (type == Token.INVALID_TYPE) {
+               int position = input.index();
+               String text = input.getText(Interval.of(start, (codePoint == IntStream.EOF) ? position - 1 : position));
+               String message = "token recognition error at: '" + display(text) + "'";
+               listeners.forEach((listener) ->
+                  listener.syntaxError(null, null, startLine, startCharPosition, message, null));
+               if (codePoint != IntStream.EOF) {
+                  consume(codePoint);
+               }
+               continue;
+            }
+            input.seek(end);
+            line = endLine;
+            charPositionInLine = endCharPosition;
+            if (type == MiniJavaLexer.WS || type == MiniJavaLexer.COMMENT) {
+               continue;
+            }
+            return factory.create(source, type, null, Token.DEFAULT_CHANNEL, start, end - 1, startLine, startCharPosition);
+         } finally {
+            input.release(mark);
+         }
+      }
+   }
+
+   /**
+    * Consumes a code point, counting lines like the ANTLR lexer.
+    */
+   private void consume(int codePoint) {
+      input.consume();
+      if (codePoint == '\n') {
+         line++;
+         charPositionInLine = 0;
+      } else {
+         charPositionInLine++;
+      }
+   }
+
+   private static String display(String text) {
+      return text
+         .replace("\n", "\\n")
+         .replace("\t", "\\t")
+         .replace("\r", "\\r");
+   }
+
+   @Override
+   public int getLine() {
+      return line;
+   }
+
+   @Override
+   public int getCharPositionInLine() {
+      return charPositionInLine;
+   }
+
+   @Override
+   public CharStream getInputStream() {
+      return input;
+   }
+
+   @Override
+   public String getSourceName() {
+      return input.getSourceName();
+   }
+
+   @Override
+   public void setTokenFactory(TokenFactory<?> factory) {
+      this.factory = factory;
+   }
+
+   @Override
+   public TokenFactory<?> getTokenFactory() {
+      return factory;
+   }
+
+   /**
+    * Builds the transition table by exploring the combinations of the automata of the single rules reachable from
+    * the start.
+    */
+   private static final class Automaton {
+
+      /**
+       * States of the rules in a combined state, {@link #DEAD} once a rule cannot match anymore.
+       *
+       * @param literal The node of the trie of the literals
+       * @param comment 1 after {@code /}, 2 after {@code //}, 3 in the comment, 4 after its line break
+       */
+      private record State(int literal, int identifier, int integer, int whiteSpace, int comment) {}
+
+      private final List<Map<Integer, Integer>> trie = new ArrayList<>();
+
+      private final List<Integer> literalTypes = new ArrayList<>();
+
+      private final Map<State, Integer> states = new HashMap<>();
+
+      private final List<int[]> rows = new ArrayList<>();
+
+      private int[] accepts = new int[0];
+
+      private int[] eofAccepts = new int[0];
+
+      Automaton() {
+         node();
+         for (int type = 1; type <= MiniJavaLexer.VOCABULARY.getMaxTokenType(); type++) {
+            String literal = MiniJavaLexer.VOCABULARY.getLiteralName(type);
+            if (literal != null) {
+               insert(literal.substring(1, literal.length() - 1), type);
+            }
+         }
+
+         Deque<State> work = new ArrayDeque<>();
+         work.add(new State(0, 0, 0, 0, 0));
+         index(work.peek());
+         while (! work.isEmpty()) {
+            State state = work.poll();
+            int[] row = rows.get(states.get(state));
+            for (int column = 0; column < COLUMNS; column++) {
+               State next = next(state, column);
+               if (next == null) {
+                  row[column] = DEAD;
+                  continue;
+               }
+               if (! states.containsKey(next)) {
+                  work.add(next);
+               }
+               row[column] = index(next);
+            }
+         }
+      }
+
+      int[] transitions() {
+         int[] transitions = new int[rows.size() * COLUMNS];
+         for (int state = 0; state < rows.size(); state++) {
+            System.arraycopy(rows.get(state), 0, transitions, state * COLUMNS, COLUMNS);
+         }
+         return transitions;
+      }
+
+      private int index(State state) {
+         Integer index = states.get(state);
+         if (index != null) {
+            return index;
+         }
+         index = rows.size();
+         states.put(state, index);
+         rows.add(new int[COLUMNS]);
+         accepts = Arrays.copyOf(accepts, index + 1);
+         eofAccepts = Arrays.copyOf(eofAccepts, index + 1);
+         accepts[index] = accept(state);
+         eofAccepts[index] = (state.comment() == 3) ? MiniJavaLexer.COMMENT : Token.INVALID_TYPE;
+         return index;
+      }
+
+      /**
+       * @return The first rule of the grammar the state accepts, literals come first and in type order
+       */
+      private int accept(State state) {
+         if (state.literal() != DEAD && literalTypes.get(state.literal()) != Token.INVALID_TYPE) {
+            return literalTypes.get(state.literal());
+         }
+         if (state.integer() == 1) {
+            return MiniJavaLexer.IntegerLiteral;
+         }
+         if (state.identifier() == 1) {
+            return MiniJavaLexer.Identifier;
+         }
+         if (state.whiteSpace() == 1) {
+            return MiniJavaLexer.WS;
+         }
+         if (state.comment() == 4) {
+            return MiniJavaLexer.COMMENT;
+         }
+         return Token.INVALID_TYPE;
+      }
+
+      /**
+       * @return The state after the column, {@code null} if every rule failed
+       */
+      private State next(State state, int column) {
+         int literal = (state.literal() == DEAD) ? DEAD : trie.get(state.literal()).getOrDefault(column, DEAD);
+         int identifier = DEAD;
+         if ((state.identifier() == 0 && isIdentifierStart(column))
+            || (state.identifier() == 1 && (isIdentifierStart(column) || isDigit(column)))) {
+            identifier = 1;
+         }
+         int integer = (state.integer() != DEAD && isDigit(column)) ? 1 : DEAD;
+         int whiteSpace = (state.whiteSpace() != DEAD && " \t\r\n".indexOf(column) >= 0) ? 1 : DEAD;
+         int comment = switch (state.comment()) {
+            case 0 -> (column == '/') ? 1 : DEAD;
+            case 1 -> (column == '/') ? 2 : DEAD;
+            case 2 -> 3;
+            case 3 -> (column == '\n') ? 4 : 3;
+            default -> DEAD;
+         };
+         State next = new State(literal, identifier, integer, whiteSpace, comment);
+         return next.equals(new State(DEAD, DEAD, DEAD, DEAD, DEAD)) ? null : next;
+      }
+
+      private static boolean isIdentifierStart(int column) {
+         return (column >= 'a' && column <= 'z') || (column >= 'A' && column <= 'Z') || column == '_';
+      }
+
+      private static boolean isDigit(int column) {
+         return column >= '0' && column <= '9';
+      }
+
+      private int node() {
+         trie.add(new HashMap<>());
+         literalTypes.add(Token.INVALID_TYPE);
+         return trie.size() - 1;
+      }
+
+      private void insert(String literal, int type) {
+         int node = 0;
+         for (char character : literal.toCharArray()) {
+            Integer child = trie.get(node).get((int) character);
+            if (child == null) {
+               child = node();
+               trie.get(node).put((int) character, child);
+            }
+            node = child;
+         }
+         literalTypes.set(node, type);
+      }
+   }
+}
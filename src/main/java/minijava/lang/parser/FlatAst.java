@@ -0,0 +1,571 @@
+package minijava.lang.parser;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import minijava.lang.parser.AST.Addition;
+import minijava.lang.parser.AST.And;
+import minijava.lang.parser.AST.ArrayAssignStatement;
+import minijava.lang.parser.AST.ArrayLength;
+import minijava.lang.parser.AST.AssignStatement;
+import minijava.lang.parser.AST.Bool;
+import minijava.lang.parser.AST.ClassDecl;
+import minijava.lang.parser.AST.ClassType;
+import minijava.lang.parser.AST.ExprArray;
+import minijava.lang.parser.AST.ExprClassMember;
+import minijava.lang.parser.AST.ExprFalse;
+import minijava.lang.parser.AST.ExprId;
+import minijava.lang.parser.AST.ExprNot;
+import minijava.lang.parser.AST.ExprNumber;
+import minijava.lang.parser.AST.ExprParenthesis;
+import minijava.lang.parser.AST.ExprThis;
+import minijava.lang.parser.AST.ExprTrue;
+import minijava.lang.parser.AST.Expression;
+import minijava.lang.parser.AST.Expression2;
+import minijava.lang.parser.AST.IExpression;
+import minijava.lang.parser.AST.Identifier;
+import minijava.lang.parser.AST.IfStatement;
+import minijava.lang.parser.AST.Int;
+import minijava.lang.parser.AST.IntArray;
+import minijava.lang.parser.AST.IntLiteral;
+import minijava.lang.parser.AST.LessThan;
+import minijava.lang.parser.AST.MainClass;
+import minijava.lang.parser.AST.MethodDecl;
+import minijava.lang.parser.AST.MethodParam;
+import minijava.lang.parser.AST.Multiplication;
+import minijava.lang.parser.AST.NewClassDecl;
+import minijava.lang.parser.AST.NewIntArrayDecl;
+import minijava.lang.parser.AST.PrintStatement;
+import minijava.lang.parser.AST.Program;
+import minijava.lang.parser.AST.Statement;
+import minijava.lang.parser.AST.StatementBlock;
+import minijava.lang.parser.AST.Subtraction;
+import minijava.lang.parser.AST.Type;
+import minijava.lang.parser.AST.VarDecl;
+import minijava.lang.parser.AST.WhileLoop;
+
+/**
+ * A {@link Program} encoded as a struct of arrays, for passes that visit every node.
+ *
+ * A node is an index into parallel arrays of its {@link Kind}, its first child, its next sibling, its interned
+ * identifier and its value. The value is the integer of a {@link Kind#NUMBER} or a second identifier: the argument of
+ * the {@link Kind#MAIN_CLASS} and the superclass of a {@link Kind#CLASS_DECL}. Missing children, siblings and
+ * identifiers are {@code -1}. Nodes are numbered in preorder from the program at {@code 0}, so a pass over every node
+ * is a loop over the arrays, and identifiers are compared as ints.
+ *
+ * The children of a node are the children of its {@link AST} node in the order of their fields, the continuation of
+ * an expression is its last child and the only one with an {@link Kind#isExpression2} kind. The encoding is read-only
+ * through {@link Node} views and {@link #toProgram()} decodes it into the {@link AST} again.
+ */
+public final class FlatAst {
+
+   public enum Kind {
+      PROGRAM, MAIN_CLASS, CLASS_DECL, VAR_DECL, METHOD_DECL, METHOD_PARAM,
+      INT, BOOLEAN, INT_ARRAY, CLASS_TYPE,
+      STATEMENT_BLOCK, IF, WHILE, PRINT, ASSIGN, ARRAY_ASSIGN,
+      NUMBER, TRUE, FALSE, ID, THIS, NEW_INT_ARRAY, NEW_OBJECT, NOT, PARENTHESIS,
+      METHOD_CALL, ARRAY, LENGTH, AND, LESS_THAN, PLUS, MINUS, TIMES;
+
+      private static final Kind[] KINDS = values();
+
+      public boolean isType() {
+         return compareTo(INT) >= 0 && compareTo(CLASS_TYPE) <= 0;
+      }
+
+      public boolean isStatement() {
+         return compareTo(STATEMENT_BLOCK) >= 0 && compareTo(ARRAY_ASSIGN) <= 0;
+      }
+
+      public boolean isExpression() {
+         return compareTo(NUMBER) >= 0 && compareTo(PARENTHESIS) <= 0;
+      }
+
+      public boolean isExpression2() {
+         return compareTo(METHOD_CALL) >= 0;
+      }
+
+      public boolean isOperation() {
+         return compareTo(AND) >= 0;
+      }
+   }
+
+   private final int size;
+
+   private final int[] kinds;
+
+   private final int[] firstChildren;
+
+   private final int[] nextSiblings;
+
+   private final int[] identifiers;
+
+   private final int[] values;
+
+   private final String[] names;
+
+   private FlatAst(Encoder encoder) {
+      this.size = encoder.size;
+      this.kinds = Arrays.copyOf(encoder.kinds, size);
+      this.firstChildren = Arrays.copyOf(encoder.firstChildren, size);
+      this.nextSiblings = Arrays.copyOf(encoder.nextSiblings, size);
+      this.identifiers = Arrays.copyOf(encoder.identifiers, size);
+      this.values = Arrays.copyOf(encoder.values, size);
+      this.names = encoder.names.toArray(String[]::new);
+   }
+
+   public static FlatAst of(Program program) {
+      Encoder encoder = new Encoder();
+      encoder.program(program);
+      return new FlatAst(encoder);
+   }
+
+   public int size() {
+      return size;
+   }
+
+   public Kind kind(int node) {
+      return Kind.KINDS[kinds[node]];
+   }
+
+   public int firstChild(int node) {
+      return firstChildren[node];
+   }
+
+   public int nextSibling(int node) {
+      return nextSiblings[node];
+   }
+
+   /**
+    * @return The interned identifier, equal identifiers have the same one
+    */
+   public int identifier(int node) {
+      return identifiers[node];
+   }
+
+   public int value(int node) {
+      return values[node];
+   }
+
+   /**
+    * @return The number of distinct identifiers
+    */
+   public int names() {
+      return names.length;
+   }
+
+   public String name(int identifier) {
+      return names[identifier];
+   }
+
+   public Node root() {
+      return new Node(this, 0);
+   }
+
+   public Node node(int node) {
+      return new Node(this, node);
+   }
+
+   public Program toProgram() {
+      return new Decoder(this).program();
+   }
+
+   /**
+    * A read-only view of a node.
+    */
+   public record Node(FlatAst ast, int index) {
+
+      public Kind kind() {
+         return ast.kind(index);
+      }
+
+      public Optional<String> identifier() {
+         int identifier = ast.identifier(index);
+         return (identifier == -1) ? Optional.empty() : Optional.of(ast.name(identifier));
+      }
+
+      public int value() {
+         return ast.value(index);
+      }
+
+      /**
+       * @return The second identifier of a {@link Kind#MAIN_CLASS} or {@link Kind#CLASS_DECL}
+       */
+      public Optional<String> secondIdentifier() {
+         int identifier = ast.value(index);
+         return (identifier == -1) ? Optional.empty() : Optional.of(ast.name(identifier));
+      }
+
+      public List<Node> children() {
+         List<Node> children = new ArrayList<>();
+         for (int child = ast.firstChild(index); child != -1; child = ast.nextSibling(child)) {
+            children.add(new Node(ast, child));
+         }
+         return children;
+      }
+
+      /**
+       * @return The children without the continuation of an expression
+       */
+      public List<Node> operands() {
+         return children().stream()
+            .filter((child) -> ! child.kind().isExpression2())
+            .toList();
+      }
+
+      public Optional<Node> continuation() {
+         int last = -1;
+         for (int child = ast.firstChild(index); child != -1; child = ast.nextSibling(child)) {
+            last = child;
+         }
+         return (last != -1 && ast.kind(last).isExpression2()) ? Optional.of(new Node(ast, last)) : Optional.empty();
+      }
+   }
+
+   /**
+    * Appends the nodes in preorder, the continuation of an expression is appended in a loop.
+    */
+   private static final class Encoder {
+
+      private int size;
+
+      private int[] kinds = new int[256];
+
+      private int[] firstChildren = new int[256];
+
+      private int[] nextSiblings = new int[256];
+
+      private int[] identifiers = new int[256];
+
+      private int[] values = new int[256];
+
+      /**
+       * The last child of every node so far, only needed while children are added.
+       */
+      private int[] lastChildren = new int[256];
+
+      private final List<String> names = new ArrayList<>();
+
+      private final Map<String, Integer> interned = new HashMap<>();
+
+      private void program(Program program) {
+         int node = add(Kind.PROGRAM, -1, -1);
+         mainClass(node, program.mainClass());
+         program.classDecls().forEach((classDecl) -> classDecl(node, classDecl));
+      }
+
+      private void mainClass(int parent, MainClass mainClass) {
+         int node = child(parent, Kind.MAIN_CLASS, intern(mainClass.className()), intern(mainClass.argName()));
+         statement(node, mainClass.statement());
+      }
+
+      private void classDecl(int parent, ClassDecl classDecl) {
+         int superClass = classDecl.superClass().map(this::intern).orElse(-1);
+         int node = child(parent, Kind.CLASS_DECL, intern(classDecl.className()), superClass);
+         classDecl.varDecls().forEach((varDecl) -> varDecl(node, varDecl));
+         classDecl.methodDecls().forEach((methodDecl) -> methodDecl(node, methodDecl));
+      }
+
+      private void varDecl(int parent, VarDecl varDecl) {
+         type(child(parent, Kind.VAR_DECL, intern(varDecl.varName()), -1), varDecl.varType());
+      }
+
+      private void methodDecl(int parent, MethodDecl methodDecl) {
+         int node = child(parent, Kind.METHOD_DECL, intern(methodDecl.methodName()), -1);
+         type(node, methodDecl.methodType());
+         for (MethodParam param : methodDecl.methodParams()) {
+            type(child(node, Kind.METHOD_PARAM, intern(param.name()), -1), param.type());
+         }
+         methodDecl.varDecls().forEach((varDecl) -> varDecl(node, varDecl));
+         methodDecl.statements().forEach((statement) -> statement(node, statement));
+         expression(node, methodDecl.returnExpr());
+      }
+
+      private void type(int parent, Type type) {
+         switch (type) {
+            case Int       ignored -> child(parent, Kind.INT, -1, -1);
+            case Bool      ignored -> child(parent, Kind.BOOLEAN, -1, -1);
+            case IntArray  ignored -> child(parent, Kind.INT_ARRAY, -1, -1);
+            case ClassType classType -> child(parent, Kind.CLASS_TYPE, intern(classType.identifier()), -1);
+            default -> throw new IllegalStateException("Unknown type: " + type);
+         }
+      }
+
+      private void statement(int parent, Statement statement) {
+         switch (statement) {
+            case StatementBlock block -> {
+               int node = child(parent, Kind.STATEMENT_BLOCK, -1, -1);
+               block.statements().forEach((child) -> statement(node, child));
+            }
+            case IfStatement ifStatement -> {
+               int node = child(parent, Kind.IF, -1, -1);
+               expression(node, ifStatement.expr());
+               statement(node, ifStatement.statement());
+               statement(node, ifStatement.elseStatement());
+            }
+            case WhileLoop whileLoop -> {
+               int node = child(parent, Kind.WHILE, -1, -1);
+               expression(node, whileLoop.expr());
+               statement(node, whileLoop.statement());
+            }
+            case PrintStatement print -> expression(child(parent, Kind.PRINT, -1, -1), print.expr());
+            case AssignStatement assign ->
+               expression(child(parent, Kind.ASSIGN, intern(assign.varName()), -1), assign.expr());
+            case ArrayAssignStatement arrayAssign -> {
+               int node = child(parent, Kind.ARRAY_ASSIGN, intern(arrayAssign.varName()), -1);
+               expression(node, arrayAssign.indexExpr());
+               expression(node, arrayAssign.expr());
+            }
+            default -> throw new IllegalStateException("Unknown statement: " + statement);
+         }
+      }
+
+      /**
+       * Appends the expression and its continuation, each continuation is the last child of the one before.
+       */
+      private void expression(int parent, IExpression expression) {
+         int node = parent;
+         Optional<? extends IExpression> current = Optional.of(expression);
+         while (current.isPresent()) {
+            node = term(node, current.get());
+            current = current.get().expr2();
+         }
+      }
+
+      /**
+       * Appends an expression without its continuation.
+       */
+      private int term(int parent, IExpression expression) {
+         return switch (expression) {
+            case ExprNumber number -> child(parent, Kind.NUMBER, -1, number.integer().integer());
+            case ExprTrue ignored -> child(parent, Kind.TRUE, -1, -1);
+            case ExprFalse ignored -> child(parent, Kind.FALSE, -1, -1);
+            case ExprId exprId -> child(parent, Kind.ID, intern(exprId.identifier()), -1);
+            case ExprThis ignored -> child(parent, Kind.THIS, -1, -1);
+            case NewIntArrayDecl newIntArray -> operand(child(parent, Kind.NEW_INT_ARRAY, -1, -1), newIntArray.expr());
+            case NewClassDecl newObject -> child(parent, Kind.NEW_OBJECT, intern(newObject.identifier()), -1);
+            case ExprNot not -> operand(child(parent, Kind.NOT, -1, -1), not.expr());
+            case ExprParenthesis parenthesis -> operand(child(parent, Kind.PARENTHESIS, -1, -1), parenthesis.expr());
+            case ExprClassMember call -> {
+               int node = child(parent, Kind.METHOD_CALL, intern(call.identifier()), -1);
+               call.memberParams().forEach((param) -> expression(node, param));
+               yield node;
+            }
+            case ExprArray array -> operand(child(parent, Kind.ARRAY, -1, -1), array.expr());
+            case ArrayLength ignored -> child(parent, Kind.LENGTH, -1, -1);
+            case And and -> operands(child(parent, Kind.AND, -1, -1), and.operands());
+            case LessThan lessThan -> operands(child(parent, Kind.LESS_THAN, -1, -1), lessThan.operands());
+            case Addition addition -> operands(child(parent, Kind.PLUS, -1, -1), addition.operands());
+            case Subtraction subtraction -> operands(child(parent, Kind.MINUS, -1, -1), subtraction.operands());
+            case Multiplication multiplication -> operands(child(parent, Kind.TIMES, -1, -1), multiplication.operands());
+            default -> throw new IllegalStateException("Unknown expression: " + expression);
+         };
+      }
+
+      private int operand(int node, Expression expr) {
+         expression(node, expr);
+         return node;
+      }
+
+      private int operands(int node, List<Expression> operands) {
+         operands.forEach((operand) -> expression(node, operand));
+         return node;
+      }
+
+      private int child(int parent, Kind kind, int identifier, int value) {
+         int node = add(kind, identifier, value);
+         if (firstChildren[parent] == -1) {
+            firstChildren[parent] = node;
+         } else {
+            nextSiblings[lastChildren[parent]] = node;
+         }
+         lastChildren[parent] = node;
+         return node;
+      }
+
+      private int add(Kind kind, int identifier, int value) {
+         if (size == kinds.length) {
+            int length = size * 2;
+            kinds = Arrays.copyOf(kinds, length);
+            firstChildren = Arrays.copyOf(firstChildren, length);
+            nextSiblings = Arrays.copyOf(nextSiblings, length);
+            identifiers = Arrays.copyOf(identifiers, length);
+            values = Arrays.copyOf(values, length);
+            lastChildren = Arrays.copyOf(lastChildren, length);
+         }
+         kinds[size] = kind.ordinal();
+         firstChildren[size] = -1;
+         nextSiblings[size] = -1;
+         identifiers[size] = identifier;
+         values[size] = value;
+         lastChildren[size] = -1;
+         return size++;
+      }
+
+      private int intern(Identifier identifier) {
+         return interned.computeIfAbsent(identifier.id(), (id) -> {
+            names.add(id);
+            return names.size() - 1;
+         });
+      }
+   }
+
+   /**
+    * Rebuilds the {@link AST}, the continuation of an expression is rebuilt in a loop from its end.
+    */
+   private record Decoder(FlatAst ast) {
+
+      private Program program() {
+         List<Integer> children = children(0);
+         MainClass mainClass = mainClass(children.get(0));
+         List<ClassDecl> classDecls = children.subList(1, children.size()).stream()
+            .map(this::classDecl)
+            .toList();
+         return new Program(mainClass, classDecls);
+      }
+
+      private MainClass mainClass(int node) {
+         Identifier argName = new Identifier(ast.name(ast.value(node)));
+         return new MainClass(identifier(node), argName, statement(ast.firstChild(node)));
+      }
+
+      private ClassDecl classDecl(int node) {
+         Optional<Identifier> superClass = (ast.value(node) == -1) ?
+            Optional.empty() :
+            Optional.of(new Identifier(ast.name(ast.value(node))));
+         List<VarDecl> varDecls = new ArrayList<>();
+         List<MethodDecl> methodDecls = new ArrayList<>();
+         for (int child : children(node)) {
+            if (ast.kind(child) == Kind.VAR_DECL) {
+               varDecls.add(varDecl(child));
+            } else {
+               methodDecls.add(methodDecl(child));
+            }
+         }
+         return new ClassDecl(identifier(node), superClass, varDecls, methodDecls);
+      }
+
+      private VarDecl varDecl(int node) {
+         return new VarDecl(type(ast.firstChild(node)), identifier(node));
+      }
+
+      private MethodDecl methodDecl(int node) {
+         List<Integer> children = children(node);
+         List<MethodParam> methodParams = new ArrayList<>();
+         List<VarDecl> varDecls = new ArrayList<>();
+         List<Statement> statements = new ArrayList<>();
+         for (int child : children.subList(1, children.size() - 1)) {
+            switch (ast.kind(child)) {
+               case METHOD_PARAM -> methodParams.add(new MethodParam(type(ast.firstChild(child)), identifier(child)));
+               case VAR_DECL     -> varDecls.add(varDecl(child));
+               default           -> statements.add(statement(child));
+            }
+         }
+         return new MethodDecl(
+            type(children.get(0)),
+            identifier(node),
+            methodParams,
+            varDecls,
+            statements,
+            expression(children.get(children.size() - 1))
+         );
+      }
+
+      private Type type(int node) {
+         return switch (ast.kind(node)) {
+            case INT       -> new Int();
+            case BOOLEAN   -> new Bool();
+            case INT_ARRAY -> new IntArray();
+            default        -> new ClassType(identifier(node));
+         };
+      }
+
+      private Statement statement(int node) {
+         List<Integer> children = children(node);
+         return switch (ast.kind(node)) {
+            case STATEMENT_BLOCK -> new StatementBlock(children.stream().map(this::statement).toList());
+            case IF              -> new IfStatement(
+               expression(children.get(0)),
+               statement(children.get(1)),
+               statement(children.get(2))
+            );
+            case WHILE           -> new WhileLoop(expression(children.get(0)), statement(children.get(1)));
+            case PRINT           -> new PrintStatement(expression(children.get(0)));
+            case ASSIGN          -> new AssignStatement(identifier(node), expression(children.get(0)));
+            case ARRAY_ASSIGN    -> new ArrayAssignStatement(
+               identifier(node),
+               expression(children.get(0)),
+               expression(children.get(1))
+            );
+            default              -> throw new IllegalStateException("Not a statement: " + ast.kind(node));
+         };
+      }
+
+      private Expression expression(int node) {
+         List<Integer> chain = new ArrayList<>();
+         for (int term = node; term != -1; term = continuation(term)) {
+            chain.add(term);
+         }
+         Optional<Expression2> expr2 = Optional.empty();
+         for (int index = chain.size() - 1; index > 0; index--) {
+            expr2 = Optional.of((Expression2) term(chain.get(index), expr2));
+         }
+         return (Expression) term(node, expr2);
+      }
+
+      private IExpression term(int node, Optional<Expression2> expr2) {
+         List<Integer> operands = children(node).stream()
+            .filter((child) -> ! ast.kind(child).isExpression2())
+            .toList();
+         return switch (ast.kind(node)) {
+            case NUMBER        -> new ExprNumber(new IntLiteral(ast.value(node)), expr2);
+            case TRUE          -> new ExprTrue(expr2);
+            case FALSE         -> new ExprFalse(expr2);
+            case ID            -> new ExprId(identifier(node), expr2);
+            case THIS          -> new ExprThis(expr2);
+            case NEW_INT_ARRAY -> new NewIntArrayDecl(expression(operands.get(0)), expr2);
+            case NEW_OBJECT    -> new NewClassDecl(identifier(node), expr2);
+            case NOT           -> new ExprNot(expression(operands.get(0)), expr2);
+            case PARENTHESIS   -> new ExprParenthesis(expression(operands.get(0)), expr2);
+            case METHOD_CALL   -> new ExprClassMember(identifier(node), expressions(operands), expr2);
+            case ARRAY         -> new ExprArray(expression(operands.get(0)), expr2);
+            case LENGTH        -> new ArrayLength(expr2);
+            case AND           -> new And(expressions(operands), expr2);
+            case LESS_THAN     -> new LessThan(expressions(operands), expr2);
+            case PLUS          -> new Addition(expressions(operands), expr2);
+            case MINUS         -> new Subtraction(expressions(operands), expr2);
+            case TIMES         -> new Multiplication(expressions(operands), expr2);
+            default            -> throw new IllegalStateException("Not an expression: " + ast.kind(node));
+         };
+      }
+
+      private List<Expression> expressions(List<Integer> nodes) {
+         return nodes.stream().map(this::expression).toList();
+      }
+
+      /**
+       * @return The last child if it is the continuation of the expression, otherwise {@code -1}
+       */
+      private int continuation(int node) {
+         int last = -1;
+         for (int child = ast.firstChild(node); child != -1; child = ast.nextSibling(child)) {
+            last = child;
+         }
+         return (last != -1 && ast.kind(last).isExpression2()) ? last : -1;
+      }
+
+      private List<Integer> children(int node) {
+         List<Integer> children = new ArrayList<>();
+         for (int child = ast.firstChild(node); child != -1; child = ast.nextSibling(child)) {
+            children.add(child);
+         }
+         return children;
+      }
+
+      private Identifier identifier(int node) {
+         return new Identifier(ast.name(ast.identifier(node)));
+      }
+   }
+}
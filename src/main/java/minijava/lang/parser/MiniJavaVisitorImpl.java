@@ -3,9 +3,13 @@ package minijava.lang.parser;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import org.antlr.v4.runtime.ParserRuleContext;
+import org.antlr.v4.runtime.tree.ParseTree;
+import org.antlr.v4.runtime.tree.TerminalNode;
 import antlr4.MiniJavaBaseVisitor;
 import antlr4.MiniJavaParser;
 import antlr4.MiniJavaParser.ClassDeclarationContext;
+import antlr4.MiniJavaParser.CompilationUnitContext;
 import antlr4.MiniJavaParser.MainClassContext;
 import antlr4.MiniJavaParser.ProgramContext;
 import minijava.lang.parser.AST.ASTNode;
@@ -17,6 +21,7 @@ import minijava.lang.parser.AST.AssignStatement;
 import minijava.lang.parser.AST.Bool;
 import minijava.lang.parser.AST.ClassDecl;
 import minijava.lang.parser.AST.ClassType;
+import minijava.lang.parser.AST.CompilationUnit;
 import minijava.lang.parser.AST.ExprArray;
 import minijava.lang.parser.AST.ExprClassMember;
 import minijava.lang.parser.AST.ExprFalse;
@@ -40,6 +45,7 @@ import minijava.lang.parser.AST.MethodDecl;
 import minijava.lang.parser.AST.Multiplication;
 import minijava.lang.parser.AST.NewClassDecl;
 import minijava.lang.parser.AST.NewIntArrayDecl;
+import minijava.lang.parser.AST.Operation;
 import minijava.lang.parser.AST.PrintStatement;
 import minijava.lang.parser.AST.Program;
 import minijava.lang.parser.AST.Statement;
@@ -51,6 +57,28 @@ import minijava.lang.parser.AST.WhileLoop;
 
 public class MiniJavaVisitorImpl extends MiniJavaBaseVisitor<ASTNode> {
 
+   private final SourcePositions positions;
+
+   public MiniJavaVisitorImpl() {
+      this(SourcePositions.NONE);
+   }
+
+   /**
+    * @param positions Records the position of every node built from a rule, identifier and root expression
+    */
+   public MiniJavaVisitorImpl(SourcePositions positions) {
+      this.positions = positions;
+   }
+
+   @Override
+   public ASTNode visit(ParseTree tree) {
+      ASTNode node = super.visit(tree);
+      if (tree instanceof ParserRuleContext ctx) {
+         positions.put(node, ctx.getStart(), ctx.getStop());
+      }
+      return node;
+   }
+
    @Override
    public ASTNode visitProgram(ProgramContext ctx) {
       MainClass        mainClass = (MainClass) visit(ctx.mainClass());
@@ -64,10 +92,25 @@ public class MiniJavaVisitorImpl extends MiniJavaBaseVisitor<ASTNode> {
       );
    }
 
+   @Override
+   public ASTNode visitCompilationUnit(CompilationUnitContext ctx) {
+      Optional<MainClass> mainClass = (ctx.mainClass() != null) ?
+         Optional.of((MainClass) visit(ctx.mainClass())) :
+         Optional.empty();
+      List<ClassDecl>    classDecls = new ArrayList<>();
+      ctx.classDeclaration()
+         .forEach( (classDecl) -> classDecls.add((ClassDecl) visit(classDecl)) );
+
+      return new CompilationUnit(
+         mainClass,
+         classDecls
+      );
+   }
+
    @Override
    public ASTNode visitMainClass(MainClassContext ctx) {
-      Identifier className = new Identifier(ctx.Identifier().get(0).getText());
-      Identifier argName   = new Identifier(ctx.Identifier().get(1).getText());
+      Identifier className = identifier(ctx.Identifier().get(0));
+      Identifier argName   = identifier(ctx.Identifier().get(1));
       Statement statement  = (Statement) visit(ctx.statement());
 
       return new MainClass(
@@ -79,9 +122,9 @@ public class MiniJavaVisitorImpl extends MiniJavaBaseVisitor<ASTNode> {
 
    @Override
    public ASTNode visitClassDeclaration(ClassDeclarationContext ctx) {
-      Identifier             className = new Identifier(ctx.Identifier().get(0).getText());
+      Identifier             className = identifier(ctx.Identifier().get(0));
       Optional<Identifier>  superClass = (ctx.Identifier().size() > 1) ?
-               Optional.of(new Identifier(ctx.Identifier().get(1).getText())) :
+               Optional.of(identifier(ctx.Identifier().get(1))) :
                Optional.empty();
       List<VarDecl>           varDecls = new ArrayList<>();
       ctx.varDeclaration()
@@ -101,7 +144,7 @@ public class MiniJavaVisitorImpl extends MiniJavaBaseVisitor<ASTNode> {
    @Override
    public ASTNode visitVarDeclaration(MiniJavaParser.VarDeclarationContext ctx) {
       Type       varType = (Type) visit(ctx.type());
-      Identifier varName = new Identifier(ctx.Identifier().getText());
+      Identifier varName = identifier(ctx.Identifier());
 
       return new VarDecl(
          varType,
@@ -112,12 +155,12 @@ public class MiniJavaVisitorImpl extends MiniJavaBaseVisitor<ASTNode> {
    @Override
    public ASTNode visitMethodDeclaration(MiniJavaParser.MethodDeclarationContext ctx) {
       Type              methodType   = (Type) visit(ctx.type().get(0));
-      Identifier        methodName   = new Identifier(ctx.Identifier().get(0).getText());
+      Identifier        methodName   = identifier(ctx.Identifier().get(0));
       List<MethodParam> methodParams = new ArrayList<>();
       for (int index = 1; index < ctx.Identifier().size(); index ++) {
          methodParams.add(new MethodParam(
             (Type) visit(ctx.type(index)),
-            new Identifier(ctx.Identifier().get(index).getText())
+            identifier(ctx.Identifier().get(index))
          ));
       }
       List<VarDecl> varDecls         = new ArrayList<>();
@@ -126,7 +169,7 @@ public class MiniJavaVisitorImpl extends MiniJavaBaseVisitor<ASTNode> {
       List<Statement> statements     = new ArrayList<>();
       ctx.statement()
          .forEach((statement) -> statements.add((Statement) visit(statement)));
-      Expression returnExpr          = (Expression) visit(ctx.expression());
+      Expression returnExpr          = expression(ctx.expression());
 
       return new MethodDecl(
          methodType,
@@ -155,7 +198,7 @@ public class MiniJavaVisitorImpl extends MiniJavaBaseVisitor<ASTNode> {
 
    @Override
    public ASTNode visitIdType(MiniJavaParser.IdTypeContext ctx) {
-      Identifier className = new Identifier(ctx.Identifier().getText());
+      Identifier className = identifier(ctx.Identifier());
 
       return new ClassType(
          className
@@ -173,7 +216,7 @@ public class MiniJavaVisitorImpl extends MiniJavaBaseVisitor<ASTNode> {
 
    @Override
    public ASTNode visitIfStatement(MiniJavaParser.IfStatementContext ctx) {
-      Expression expr         = (Expression) visit(ctx.expression());
+      Expression expr         = expression(ctx.expression());
       Statement statement     = (Statement)  visit(ctx.statement(0));
       Statement elseStatement = (Statement)  visit(ctx.statement(1));
 
@@ -186,7 +229,7 @@ public class MiniJavaVisitorImpl extends MiniJavaBaseVisitor<ASTNode> {
 
    @Override
    public ASTNode visitWhileLoop(MiniJavaParser.WhileLoopContext ctx) {
-      Expression expr     = (Expression) visit(ctx.expression());
+      Expression expr     = expression(ctx.expression());
       Statement statement = (Statement)  visit(ctx.statement());
 
       return new WhileLoop(
@@ -197,15 +240,15 @@ public class MiniJavaVisitorImpl extends MiniJavaBaseVisitor<ASTNode> {
 
    @Override
    public ASTNode visitPrintExpr(MiniJavaParser.PrintExprContext ctx) {
-      Expression expr = (Expression) visit(ctx.expression());
+      Expression expr = expression(ctx.expression());
 
       return new PrintStatement(expr);
    }
 
    @Override
    public ASTNode visitAssign(MiniJavaParser.AssignContext ctx) {
-      Identifier varName = new Identifier(ctx.Identifier().getText());
-      Expression expr    = (Expression) visit(ctx.expression());
+      Identifier varName = identifier(ctx.Identifier());
+      Expression expr    = expression(ctx.expression());
 
       return new AssignStatement(
          varName,
@@ -215,10 +258,12 @@ public class MiniJavaVisitorImpl extends MiniJavaBaseVisitor<ASTNode> {
 
    @Override
    public ASTNode visitArrayAssign(MiniJavaParser.ArrayAssignContext ctx) {
-      Expression indexExpr = (Expression) visit(ctx.expression(0));
-      Expression expr      = (Expression) visit(ctx.expression(1));
+      Identifier varName   = identifier(ctx.Identifier());
+      Expression indexExpr = expression(ctx.expression(0));
+      Expression expr      = expression(ctx.expression(1));
 
       return new ArrayAssignStatement(
+         varName,
          indexExpr,
          expr
       );
@@ -226,10 +271,8 @@ public class MiniJavaVisitorImpl extends MiniJavaBaseVisitor<ASTNode> {
 
    @Override
    public ASTNode visitExprNumber(MiniJavaParser.ExprNumberContext ctx) {
-      IntLiteral integer          = (IntLiteral) visit(ctx.IntegerLiteral());
-      Optional<Expression2> expr2 = (ctx.expression2().children != null) ?
-         Optional.of((Expression2) visit(ctx.expression2())) :
-         Optional.empty();
+      IntLiteral integer          = new IntLiteral(Integer.parseInt(ctx.IntegerLiteral().getText()));
+      Expression2 expr2           = expression2(ctx.expression2());
 
       return new ExprNumber(
          integer,
@@ -239,9 +282,7 @@ public class MiniJavaVisitorImpl extends MiniJavaBaseVisitor<ASTNode> {
 
    @Override
    public ASTNode visitExprTrue(MiniJavaParser.ExprTrueContext ctx) {
-      Optional<Expression2> expr2 = (ctx.expression2().children != null) ?
-         Optional.of((Expression2) visit(ctx.expression2())) :
-         Optional.empty();
+      Expression2 expr2           = expression2(ctx.expression2());
 
       return new ExprTrue(
          expr2
@@ -250,9 +291,7 @@ public class MiniJavaVisitorImpl extends MiniJavaBaseVisitor<ASTNode> {
 
    @Override
    public ASTNode visitExprFalse(MiniJavaParser.ExprFalseContext ctx) {
-      Optional<Expression2> expr2 = (ctx.expression2().children != null) ?
-         Optional.of((Expression2) visit(ctx.expression2())) :
-         Optional.empty();
+      Expression2 expr2           = expression2(ctx.expression2());
 
       return new ExprFalse(
          expr2
@@ -261,10 +300,8 @@ public class MiniJavaVisitorImpl extends MiniJavaBaseVisitor<ASTNode> {
 
    @Override
    public ASTNode visitExprId(MiniJavaParser.ExprIdContext ctx) {
-      Identifier id               = new Identifier(ctx.Identifier().getText());
-      Optional<Expression2> expr2 = (ctx.expression2().children != null) ?
-         Optional.of((Expression2) visit(ctx.expression2())) :
-         Optional.empty();
+      Identifier id               = identifier(ctx.Identifier());
+      Expression2 expr2           = expression2(ctx.expression2());
 
       return new ExprId(
          id,
@@ -275,9 +312,7 @@ public class MiniJavaVisitorImpl extends MiniJavaBaseVisitor<ASTNode> {
 
    @Override
    public ASTNode visitExprThis(MiniJavaParser.ExprThisContext ctx) {
-      Optional<Expression2> expr2 = (ctx.expression2().children != null) ?
-         Optional.of((Expression2) visit(ctx.expression2())) :
-         Optional.empty();
+      Expression2 expr2           = expression2(ctx.expression2());
 
       return new ExprThis(
          expr2
@@ -287,9 +322,7 @@ public class MiniJavaVisitorImpl extends MiniJavaBaseVisitor<ASTNode> {
    @Override
    public ASTNode visitNewIntArray(MiniJavaParser.NewIntArrayContext ctx) {
       Expression expr             = (Expression) visit(ctx.expression());
-      Optional<Expression2> expr2 = (ctx.expression2().children != null) ?
-         Optional.of((Expression2) visit(ctx.expression2())) :
-         Optional.empty();
+      Expression2 expr2           = expression2(ctx.expression2());
 
       return new NewIntArrayDecl(
          expr,
@@ -299,10 +332,8 @@ public class MiniJavaVisitorImpl extends MiniJavaBaseVisitor<ASTNode> {
 
    @Override
    public ASTNode visitNewObject(MiniJavaParser.NewObjectContext ctx) {
-      Identifier className        =  new Identifier(ctx.Identifier().getText());
-      Optional<Expression2> expr2 = (ctx.expression2().children != null) ?
-         Optional.of((Expression2) visit(ctx.expression2())) :
-         Optional.empty();
+      Identifier className        =  identifier(ctx.Identifier());
+      Expression2 expr2           = expression2(ctx.expression2());
 
       return new NewClassDecl(
          className,
@@ -312,23 +343,18 @@ public class MiniJavaVisitorImpl extends MiniJavaBaseVisitor<ASTNode> {
 
    @Override
    public ASTNode visitExprNot(MiniJavaParser.ExprNotContext ctx) {
-      Expression expr             = (Expression) visit(ctx.expression());
-      Optional<Expression2> expr2 = (ctx.expression2().children != null) ?
-         Optional.of((Expression2) visit(ctx.expression2())) :
-         Optional.empty();
+      Expression expr             = (Expression) visit(ctx.term());
 
       return new ExprNot(
          expr,
-         expr2
+         Optional.empty()
       );
    }
 
    @Override
    public ASTNode visitExprParenthesis(MiniJavaParser.ExprParenthesisContext ctx) {
       Expression expr             = (Expression) visit(ctx.expression());
-      Optional<Expression2> expr2 = (ctx.expression2().children != null) ?
-         Optional.of((Expression2) visit(ctx.expression2())) :
-         Optional.empty();
+      Expression2 expr2           = expression2(ctx.expression2());
 
       return new ExprParenthesis(
          expr,
@@ -338,13 +364,11 @@ public class MiniJavaVisitorImpl extends MiniJavaBaseVisitor<ASTNode> {
 
    @Override
    public ASTNode visitExprClassMember(MiniJavaParser.ExprClassMemberContext ctx) {
-      Identifier id              = new Identifier(ctx.Identifier().getText());
+      Identifier id              = identifier(ctx.Identifier());
       List<Expression> paramList = new ArrayList<>();
       ctx.expression()
          .forEach((param) -> paramList.add((Expression) visit(param)));
-      Optional<Expression2> expr2 = (ctx.expression2().children != null) ?
-         Optional.of((Expression2) visit(ctx.expression2())) :
-         Optional.empty();
+      Expression2 expr2           = expression2(ctx.expression2());
 
       return new ExprClassMember(
          id,
@@ -355,9 +379,7 @@ public class MiniJavaVisitorImpl extends MiniJavaBaseVisitor<ASTNode> {
 
    @Override
    public ASTNode visitExprLength(MiniJavaParser.ExprLengthContext ctx) {
-      Optional<Expression2> expr2 = (ctx.expression2().children != null) ?
-         Optional.of((Expression2) visit(ctx.expression2())) :
-         Optional.empty();
+      Expression2 expr2           = expression2(ctx.expression2());
 
       return new ArrayLength(
          expr2
@@ -367,9 +389,7 @@ public class MiniJavaVisitorImpl extends MiniJavaBaseVisitor<ASTNode> {
    @Override
    public ASTNode visitExprArray(MiniJavaParser.ExprArrayContext ctx) {
       Expression expr             = (Expression) visit(ctx.expression());
-      Optional<Expression2> expr2 = (ctx.expression2().children != null) ?
-         Optional.of((Expression2) visit(ctx.expression2())) :
-         Optional.empty();
+      Expression2 expr2           = expression2(ctx.expression2());
 
       return new ExprArray(
          expr,
@@ -378,19 +398,81 @@ public class MiniJavaVisitorImpl extends MiniJavaBaseVisitor<ASTNode> {
    }
 
    @Override
-   public ASTNode visitExprOp(MiniJavaParser.ExprOpContext ctx) {
-      Expression expr = (Expression) visit(ctx.expression());
-      Optional<Expression2> expr2 = (ctx.expression2().children != null) ?
-         Optional.of((Expression2) visit(ctx.expression2())) :
-         Optional.empty();
+   public ASTNode visitExpression(MiniJavaParser.ExpressionContext ctx) {
+      return operations(ctx);
+   }
+
+   @Override
+   public ASTNode visitComparison(MiniJavaParser.ComparisonContext ctx) {
+      return operations(ctx);
+   }
+
+   @Override
+   public ASTNode visitSum(MiniJavaParser.SumContext ctx) {
+      return operations(ctx);
+   }
 
-      return switch (ctx.children.get(0).getText()) {
-      case "&&"  -> new And(expr, expr2);
-      case "<"   -> new LessThan(expr, expr2);
-      case "+"   -> new Addition(expr, expr2);
-      case "-"   -> new Subtraction(expr, expr2);
-      case "*"   -> new Multiplication(expr, expr2);
-      default    -> null;
+   @Override
+   public ASTNode visitProduct(MiniJavaParser.ProductContext ctx) {
+      return operations(ctx);
+   }
+
+   /**
+    * Visits the operands of one precedence level and appends an {@link Operation} per run of the same operator to the
+    * first operand, see {@link OperatorPrecedence}.
+    */
+   private Expression operations(ParserRuleContext ctx) {
+      Expression first = (Expression) visit(ctx.getChild(0));
+      if (ctx.getChildCount() == 1) {
+         return first;
+      }
+      List<String> operators = new ArrayList<>();
+      List<List<Expression>> operands = new ArrayList<>();
+      for (int index = 1; index < ctx.getChildCount(); index += 2) {
+         String operator = ctx.getChild(index).getText();
+         if (operators.isEmpty() || ! operators.get(operators.size() - 1).equals(operator)) {
+            operators.add(operator);
+            operands.add(new ArrayList<>());
+         }
+         operands.get(operands.size() - 1).add((Expression) visit(ctx.getChild(index + 1)));
+      }
+      Expression2 expr2 = null;
+      for (int index = operators.size() - 1; index >= 0; index--) {
+         expr2 = operation(operators.get(index), operands.get(index), expr2);
+      }
+      return OperatorPrecedence.append(first, expr2);
+   }
+
+   private static Operation operation(String operator, List<Expression> operands, Expression2 expr2) {
+      return switch (operator) {
+      case "&&"  -> new And(operands, expr2);
+      case "<"   -> new LessThan(operands, expr2);
+      case "+"   -> new Addition(operands, expr2);
+      case "-"   -> new Subtraction(operands, expr2);
+      case "*"   -> new Multiplication(operands, expr2);
+      default    -> throw new IllegalStateException("Unknown operator: " + operator);
       };
    }
+
+   /**
+    * Visits the root of an expression and records its position.
+    */
+   private Expression expression(MiniJavaParser.ExpressionContext ctx) {
+      Expression expression = (Expression) visit(ctx);
+      positions.put(expression, ctx.getStart(), ctx.getStop());
+      return expression;
+   }
+
+   /**
+    * @return The continuation of an expression, {@code null} for the empty alternative
+    */
+   private Expression2 expression2(MiniJavaParser.Expression2Context ctx) {
+      return (ctx.children != null) ? (Expression2) visit(ctx) : null;
+   }
+
+   private Identifier identifier(TerminalNode node) {
+      Identifier identifier = new Identifier(node.getText());
+      positions.put(identifier, node.getSymbol(), node.getSymbol());
+      return identifier;
+   }
 }
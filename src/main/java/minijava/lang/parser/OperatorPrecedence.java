@@ -0,0 +1,151 @@
+package minijava.lang.parser;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import minijava.lang.parser.AST.Addition;
+import minijava.lang.parser.AST.And;
+import minijava.lang.parser.AST.ArrayLength;
+import minijava.lang.parser.AST.ExprArray;
+import minijava.lang.parser.AST.ExprClassMember;
+import minijava.lang.parser.AST.ExprFalse;
+import minijava.lang.parser.AST.ExprId;
+import minijava.lang.parser.AST.ExprNot;
+import minijava.lang.parser.AST.ExprNumber;
+import minijava.lang.parser.AST.ExprParenthesis;
+import minijava.lang.parser.AST.ExprThis;
+import minijava.lang.parser.AST.ExprTrue;
+import minijava.lang.parser.AST.Expression;
+import minijava.lang.parser.AST.Expression2;
+import minijava.lang.parser.AST.LessThan;
+import minijava.lang.parser.AST.Multiplication;
+import minijava.lang.parser.AST.NewClassDecl;
+import minijava.lang.parser.AST.NewIntArrayDecl;
+import minijava.lang.parser.AST.Operation;
+import minijava.lang.parser.AST.Subtraction;
+
+/**
+ * Rebuilds the continuations of expressions, which keep their operators in one flat chain.
+ *
+ * The grammar parses every precedence level of {@code MiniJava.g4} in a loop: {@code *} binds tighter than
+ * {@code + -}, tighter than {@code <}, tighter than {@code &&}. An expression is a term, its postfix continuations
+ * (calls, indexing, length) and the {@link Operation}s of each level from the tightest to the loosest. An
+ * {@link Operation} is applied to the value of everything before it in the chain and holds the operands of a run of
+ * the same operator, so {@code 10 - 3 - 2 * x} is {@code 10} continued by one {@link Subtraction} of {@code 3} and
+ * {@code 2 * x}. Chains are walked in loops, however many operators an expression has.
+ */
+public class OperatorPrecedence {
+
+   private OperatorPrecedence() {}
+
+   /**
+    * Rebuilds an {@link Expression} with another {@link Expression2} continuation.
+    */
+   public static Expression withExpr2(Expression expression, Optional<Expression2> expr2) {
+      return switch (expression) {
+         case ExprNumber           exprNumber -> new ExprNumber(exprNumber.integer(), expr2);
+         case ExprTrue               exprTrue -> new ExprTrue(expr2);
+         case ExprFalse             exprFalse -> new ExprFalse(expr2);
+         case ExprId                   exprId -> new ExprId(exprId.identifier(), expr2);
+         case ExprThis               exprThis -> new ExprThis(expr2);
+         case NewIntArrayDecl newIntArrayDecl -> new NewIntArrayDecl(newIntArrayDecl.expr(), expr2);
+         case NewClassDecl       newClassDecl -> new NewClassDecl(newClassDecl.identifier(), expr2);
+         case ExprNot                 exprNot -> new ExprNot(exprNot.expr(), expr2);
+         case ExprParenthesis exprParenthesis -> new ExprParenthesis(exprParenthesis.expr(), expr2);
+         default -> throw new IllegalStateException("Unexpected value: " + expression);
+      };
+   }
+
+   /**
+    * Rebuilds an {@link Expression2} with another {@link Expression2} continuation.
+    */
+   public static Expression2 withExpr2(Expression2 expression2, Optional<Expression2> expr2) {
+      return switch (expression2) {
+         case ExprArray             exprArray -> new ExprArray(exprArray.expr(), expr2);
+         case ArrayLength         arrayLength -> new ArrayLength(expr2);
+         case ExprClassMember     classMember -> new ExprClassMember(classMember.identifier(), classMember.memberParams(), expr2);
+         case Operation             operation -> withOperands(operation, operation.operands(), expr2);
+         default -> throw new IllegalStateException("Unexpected value: " + expression2);
+      };
+   }
+
+   /**
+    * Rebuilds an {@link Operation} of the same kind with one operand and another continuation.
+    */
+   public static Operation withOperand(Operation operation, Expression expr, Optional<Expression2> expr2) {
+      return withOperands(operation, List.of(expr), expr2);
+   }
+
+   /**
+    * Rebuilds an {@link Operation} of the same kind with other operands and continuation.
+    */
+   public static Operation withOperands(Operation operation, List<Expression> operands, Optional<Expression2> expr2) {
+      return switch (operation) {
+         case And            and -> new And(operands, expr2);
+         case LessThan  lessThan -> new LessThan(operands, expr2);
+         case Addition  addition -> new Addition(operands, expr2);
+         case Subtraction   sub  -> new Subtraction(operands, expr2);
+         case Multiplication mul -> new Multiplication(operands, expr2);
+         default                 -> throw new IllegalStateException("Unknown operation: " + operation);
+      };
+   }
+
+   /**
+    * Appends a continuation at the end of the continuations of an expression.
+    */
+   public static Expression append(Expression expression, Expression2 tail) {
+      return link(expression, chain(expression), tail);
+   }
+
+   /**
+    * @return The operation a parsed expression ends with, with only its last operand, applied to the value of its
+    *         {@link #term}
+    */
+   public static Optional<Operation> finalOperation(Expression expression) {
+      List<Expression2> chain = chain(expression);
+      if (chain.isEmpty() || ! (chain.get(chain.size() - 1) instanceof Operation operation)) {
+         return Optional.empty();
+      }
+      List<Expression> operands = operation.operands();
+      return Optional.of(withOperand(operation, operands.get(operands.size() - 1), Optional.empty()));
+   }
+
+   /**
+    * @return The expression without the last operand of its {@link #finalOperation}
+    */
+   public static Expression term(Expression expression) {
+      List<Expression2> chain = chain(expression);
+      if (chain.isEmpty() || ! (chain.get(chain.size() - 1) instanceof Operation operation)) {
+         return expression;
+      }
+      chain.remove(chain.size() - 1);
+      List<Expression> operands = operation.operands();
+      if (operands.size() > 1) {
+         chain.add(withOperands(operation, operands.subList(0, operands.size() - 1), Optional.empty()));
+      }
+      return link(expression, chain, null);
+   }
+
+   /**
+    * @return The continuations of an expression in order
+    */
+   private static List<Expression2> chain(Expression expression) {
+      List<Expression2> chain = new ArrayList<>();
+      for (Expression2 expr2 = expression.next(); expr2 != null; expr2 = expr2.next()) {
+         chain.add(expr2);
+      }
+      return chain;
+   }
+
+   /**
+    * Rebuilds an expression with the continuations of a chain, from the last one to the first.
+    * @param tail The continuation after the chain, {@code null} if there is none
+    */
+   private static Expression link(Expression expression, List<Expression2> chain, Expression2 tail) {
+      Optional<Expression2> expr2 = Optional.ofNullable(tail);
+      for (int index = chain.size() - 1; index >= 0; index--) {
+         expr2 = Optional.of(withExpr2(chain.get(index), expr2));
+      }
+      return withExpr2(expression, expr2);
+   }
+}
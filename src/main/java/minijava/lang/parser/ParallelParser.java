@@ -0,0 +1,132 @@
+package minijava.lang.parser;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.IntStream;
+import org.antlr.v4.runtime.ListTokenSource;
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.TokenSource;
+import minijava.lang.parser.AST.ClassDecl;
+import minijava.lang.parser.AST.CompilationUnit;
+import minijava.lang.parser.AST.MainClass;
+import minijava.lang.parser.AST.Program;
+
+/**
+ * Parses the classes of one source in parallel.
+ *
+ * Classes only appear at the top level of a source, so every {@code class} token outside of braces starts the next
+ * class. The tokens are split there and each range is parsed by the {@link RecursiveDescentParser} on its own. The
+ * tokens keep the lines and columns of the source, so an error in a range is reported at its position in the source.
+ */
+public class ParallelParser {
+
+   private static final int CLASS  = RecursiveDescentParser.literal("class");
+   private static final int LBRACE = RecursiveDescentParser.literal("{");
+   private static final int RBRACE = RecursiveDescentParser.literal("}");
+   private static final int STATIC = RecursiveDescentParser.literal("static");
+
+   private ParallelParser() {}
+
+   /**
+    * @throws IllegalStateException At the first error of any class
+    */
+   public static Program program(TokenSource tokenSource) {
+      return program(tokenSource, SourcePositions.NONE);
+   }
+
+   /**
+    * @param positions Records the positions of the nodes of every class, see {@link RecursiveDescentParser}
+    */
+   public static Program program(TokenSource tokenSource, SourcePositions positions) {
+      List<List<Token>> ranges = split(tokens(tokenSource));
+      if (ranges.isEmpty()) {
+         throw new IllegalStateException("Missing main class.");
+      }
+      MainClass mainClass = RecursiveDescentParser.mainClass(new ListTokenSource(ranges.get(0)), positions);
+      return new Program(mainClass, classDecls(ranges.subList(1, ranges.size()), positions));
+   }
+
+   /**
+    * Parses a file of a multi-file program, the {@code mainClass} is optional.
+    * @throws IllegalStateException At the first error of any class
+    */
+   public static CompilationUnit compilationUnit(TokenSource tokenSource) {
+      return compilationUnit(tokenSource, SourcePositions.NONE);
+   }
+
+   public static CompilationUnit compilationUnit(TokenSource tokenSource, SourcePositions positions) {
+      List<List<Token>> ranges = split(tokens(tokenSource));
+      if (! ranges.isEmpty() && isMainClass(ranges.get(0))) {
+         MainClass mainClass = RecursiveDescentParser.mainClass(new ListTokenSource(ranges.get(0)), positions);
+         List<ClassDecl> classDecls = classDecls(ranges.subList(1, ranges.size()), positions);
+         return new CompilationUnit(Optional.of(mainClass), classDecls);
+      }
+      return new CompilationUnit(Optional.empty(), classDecls(ranges, positions));
+   }
+
+   /**
+    * Splits the tokens before every {@code class} outside of braces, the end of file is dropped.
+    */
+   public static List<List<Token>> split(List<Token> tokens) {
+      List<List<Token>> ranges = new ArrayList<>();
+      int depth = 0;
+      int start = 0;
+      int end = tokens.size() - 1;
+      for (int index = 0; index < end; index++) {
+         int type = tokens.get(index).getType();
+         if (type == LBRACE) {
+            depth++;
+         } else if (type == RBRACE) {
+            depth--;
+         } else if (type == CLASS && depth == 0 && index > start) {
+            ranges.add(tokens.subList(start, index));
+            start = index;
+         }
+      }
+      if (end > start) {
+         ranges.add(tokens.subList(start, end));
+      }
+      return ranges;
+   }
+
+   /**
+    * Every range records into a table of its own, which are added to the positions after the parallel parse, so the
+    * threads do not contend for one table.
+    */
+   private static List<ClassDecl> classDecls(List<List<Token>> ranges, SourcePositions positions) {
+      List<SourcePositions> rangePositions = ranges.stream()
+         .map((range) -> (positions == SourcePositions.NONE) ? SourcePositions.NONE : new SourcePositions())
+         .toList();
+      List<ClassDecl> classDecls;
+      try {
+         classDecls = IntStream.range(0, ranges.size()).parallel()
+            .mapToObj((index) -> RecursiveDescentParser.classDecl(
+               new ListTokenSource(ranges.get(index)), rangePositions.get(index)))
+            .toList();
+      } catch (IllegalStateException e) {
+         // an exception of another thread is rethrown wrapped in a new one
+         throw (e.getCause() instanceof IllegalStateException cause) ? cause : e;
+      }
+      rangePositions.forEach(positions::putAll);
+      return classDecls;
+   }
+
+   private static boolean isMainClass(List<Token> range) {
+      return range.size() > 4 && range.get(4).getType() == STATIC;
+   }
+
+   /**
+    * @return Every token of the source up to and including the end of file
+    */
+   private static List<Token> tokens(TokenSource tokenSource) {
+      RecursiveDescentParser.failOnErrors(tokenSource);
+      List<Token> tokens = new ArrayList<>();
+      Token token;
+      do {
+         token = tokenSource.nextToken();
+         tokens.add(token);
+      } while (token.getType() != Token.EOF);
+      return tokens;
+   }
+}
@@ -2,30 +2,241 @@ package minijava.lang.parser;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 import org.antlr.v4.runtime.CharStream;
 import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.CommonTokenFactory;
 import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.TokenSource;
+import org.antlr.v4.runtime.UnbufferedCharStream;
+import org.antlr.v4.runtime.UnbufferedTokenStream;
 import antlr4.MiniJavaLexer;
 import antlr4.MiniJavaParser;
+import minijava.lang.parser.AST.ClassDecl;
+import minijava.lang.parser.AST.CompilationUnit;
+import minijava.lang.parser.AST.MainClass;
+import minijava.lang.parser.AST.Program;
 
 public class Parser {
 
+   /**
+    * The {@link TokenSource} the parser reads, both produce the same tokens.
+    */
+   public enum Lexer {
+      /**
+       * The lexer ANTLR generates from the grammar.
+       */
+      ANTLR,
+      /**
+       * The table-driven {@link DfaLexer}.
+       */
+      DFA
+   }
+
+   /**
+    * How the {@link AST} is built from the tokens, every mode builds the same {@link AST}.
+    */
+   public enum Mode {
+      /**
+       * {@link MiniJavaVisitorImpl} visits the complete parse tree of the ANTLR parser.
+       */
+      PARSE_TREE,
+      /**
+       * The ANTLR parser runs without a parse tree and the {@link AstBuilder} visits every class once it is parsed.
+       */
+      NO_PARSE_TREE,
+      /**
+       * The {@link RecursiveDescentParser} builds the {@link AST} directly. Input it rejects is parsed again like
+       * {@link #PARSE_TREE}, which reports the errors and recovers from them.
+       */
+      RECURSIVE_DESCENT,
+      /**
+       * Like {@link #NO_PARSE_TREE} over bounded buffers: the source is decoded by an {@link UnbufferedCharStream} and
+       * the parser reads an {@link UnbufferedTokenStream}, neither keeps more than the tokens of the current
+       * decision. The tokens copy their text.
+       */
+      STREAMING,
+      /**
+       * The source is split into its classes, which are parsed in parallel by the {@link ParallelParser}. Input it
+       * rejects is parsed again like {@link #PARSE_TREE}.
+       */
+      PARALLEL
+   }
+
+   private static final int BUFFER_SIZE = 4096;
+
    public static MiniJavaParser.ProgramContext parse(InputStream inputStream) throws IOException {
-      CharStream        charStream      = CharStreams.fromStream(inputStream);
-      MiniJavaLexer     lexer           = new MiniJavaLexer(charStream);
-      CommonTokenStream tokenStream     = new CommonTokenStream(lexer);
-      MiniJavaParser    parser          = new MiniJavaParser(tokenStream);
+      return parse(inputStream, Lexer.ANTLR);
+   }
 
-      return parser.program();
+   public static MiniJavaParser.ProgramContext parse(InputStream inputStream, Lexer lexer) throws IOException {
+      return parser(CharStreams.fromStream(inputStream), lexer).program();
    }
 
    public static MiniJavaParser.ProgramContext parse(String input) {
-      CharStream        charStream      = CharStreams.fromString(input);
-      MiniJavaLexer     lexer           = new MiniJavaLexer(charStream);
-      CommonTokenStream tokenStream     = new CommonTokenStream(lexer);
-      MiniJavaParser    parser          = new MiniJavaParser(tokenStream);
+      return parse(input, Lexer.ANTLR);
+   }
+
+   public static MiniJavaParser.ProgramContext parse(String input, Lexer lexer) {
+      return parser(CharStreams.fromString(input), lexer).program();
+   }
+
+   /**
+    * Parses a file of a multi-file program, the {@code mainClass} is optional.
+    */
+   public static MiniJavaParser.CompilationUnitContext parseCompilationUnit(InputStream inputStream) throws IOException {
+      return parseCompilationUnit(inputStream, Lexer.ANTLR);
+   }
+
+   public static MiniJavaParser.CompilationUnitContext parseCompilationUnit(InputStream inputStream, Lexer lexer)
+      throws IOException {
+      return parser(CharStreams.fromStream(inputStream), lexer).compilationUnit();
+   }
+
+   public static MiniJavaParser.CompilationUnitContext parseCompilationUnit(String input) {
+      return parseCompilationUnit(input, Lexer.ANTLR);
+   }
+
+   public static MiniJavaParser.CompilationUnitContext parseCompilationUnit(String input, Lexer lexer) {
+      return parser(CharStreams.fromString(input), lexer).compilationUnit();
+   }
+
+   /**
+    * Parses the program into its {@link Program}, see {@link Mode}.
+    */
+   public static Program program(InputStream inputStream, Lexer lexer, Mode mode) throws IOException {
+      return program(inputStream, lexer, mode, SourcePositions.NONE);
+   }
+
+   /**
+    * @param positions Records the positions of the nodes for diagnostics
+    */
+   public static Program program(InputStream inputStream, Lexer lexer, Mode mode, SourcePositions positions)
+      throws IOException {
+      return program(charStream(inputStream, mode), lexer, mode, positions);
+   }
+
+   public static Program program(String input, Lexer lexer, Mode mode) {
+      return program(input, lexer, mode, SourcePositions.NONE);
+   }
+
+   public static Program program(String input, Lexer lexer, Mode mode, SourcePositions positions) {
+      return program(CharStreams.fromString(input), lexer, mode, positions);
+   }
+
+   /**
+    * Parses a file of a multi-file program into its {@link CompilationUnit}, see {@link Mode}.
+    */
+   public static CompilationUnit compilationUnit(InputStream inputStream, Lexer lexer, Mode mode) throws IOException {
+      return compilationUnit(inputStream, lexer, mode, SourcePositions.NONE);
+   }
+
+   public static CompilationUnit compilationUnit(InputStream inputStream, Lexer lexer, Mode mode,
+                                                 SourcePositions positions) throws IOException {
+      return compilationUnit(charStream(inputStream, mode), lexer, mode, positions);
+   }
+
+   public static CompilationUnit compilationUnit(String input, Lexer lexer, Mode mode) {
+      return compilationUnit(input, lexer, mode, SourcePositions.NONE);
+   }
+
+   public static CompilationUnit compilationUnit(String input, Lexer lexer, Mode mode, SourcePositions positions) {
+      return compilationUnit(CharStreams.fromString(input), lexer, mode, positions);
+   }
+
+   /**
+    * Parses the program like {@link Mode#STREAMING} and hands every class to the consumer as soon as it is parsed,
+    * so classes can be processed and dropped while the rest of the source is read.
+    * @return The main class
+    */
+   public static MainClass streamProgram(InputStream inputStream, Lexer lexer, Consumer<ClassDecl> classDecls)
+      throws IOException {
+      return AstBuilder.program(streamingParser(charStream(inputStream, Mode.STREAMING), lexer), classDecls);
+   }
+
+   public static TokenSource tokenSource(CharStream charStream, Lexer lexer) {
+      return switch (lexer) {
+         case ANTLR -> new MiniJavaLexer(charStream);
+         case DFA   -> new DfaLexer(charStream);
+      };
+   }
+
+   private static Program program(CharStream charStream, Lexer lexer, Mode mode, SourcePositions positions) {
+      return switch (mode) {
+         case PARSE_TREE        -> (Program) new MiniJavaVisitorImpl(positions).visit(parser(charStream, lexer).program());
+         case NO_PARSE_TREE     -> AstBuilder.program(parser(charStream, lexer), positions);
+         case STREAMING         -> AstBuilder.program(streamingParser(charStream, lexer), positions);
+         case RECURSIVE_DESCENT -> withFallback(
+            charStream,
+            positions,
+            () -> RecursiveDescentParser.program(tokenSource(charStream, lexer), positions),
+            () -> program(charStream, lexer, Mode.PARSE_TREE, positions)
+         );
+         case PARALLEL          -> withFallback(
+            charStream,
+            positions,
+            () -> ParallelParser.program(tokenSource(charStream, lexer), positions),
+            () -> program(charStream, lexer, Mode.PARSE_TREE, positions)
+         );
+      };
+   }
+
+   private static CompilationUnit compilationUnit(CharStream charStream, Lexer lexer, Mode mode,
+                                                  SourcePositions positions) {
+      return switch (mode) {
+         case PARSE_TREE        -> (CompilationUnit) new MiniJavaVisitorImpl(positions)
+            .visit(parser(charStream, lexer).compilationUnit());
+         case NO_PARSE_TREE     -> AstBuilder.compilationUnit(parser(charStream, lexer), positions);
+         case STREAMING         -> AstBuilder.compilationUnit(streamingParser(charStream, lexer), positions);
+         case RECURSIVE_DESCENT -> withFallback(
+            charStream,
+            positions,
+            () -> RecursiveDescentParser.compilationUnit(tokenSource(charStream, lexer), positions),
+            () -> compilationUnit(charStream, lexer, Mode.PARSE_TREE, positions)
+         );
+         case PARALLEL          -> withFallback(
+            charStream,
+            positions,
+            () -> ParallelParser.compilationUnit(tokenSource(charStream, lexer), positions),
+            () -> compilationUnit(charStream, lexer, Mode.PARSE_TREE, positions)
+         );
+      };
+   }
+
+   /**
+    * @return The result of the parser, or of the fallback on the start of the stream if the parser throws an
+    *         {@link IllegalStateException}. The positions of the parser are dropped before the fallback runs.
+    */
+   private static <T> T withFallback(CharStream charStream, SourcePositions positions, Supplier<T> parser,
+                                     Supplier<T> fallback) {
+      try {
+         return parser.get();
+      } catch (IllegalStateException e) {
+         charStream.seek(0);
+         positions.clear();
+         return fallback.get();
+      }
+   }
+
+   private static MiniJavaParser parser(CharStream charStream, Lexer lexer) {
+      TokenSource       tokenSource     = tokenSource(charStream, lexer);
+      CommonTokenStream tokenStream     = new CommonTokenStream(tokenSource);
+
+      return new MiniJavaParser(tokenStream);
+   }
+
+   private static MiniJavaParser streamingParser(CharStream charStream, Lexer lexer) {
+      TokenSource tokenSource = tokenSource(charStream, lexer);
+      tokenSource.setTokenFactory(new CommonTokenFactory(true));
 
-      return parser.program();
+      return new MiniJavaParser(new UnbufferedTokenStream<>(tokenSource, BUFFER_SIZE));
    }
 
+   private static CharStream charStream(InputStream inputStream, Mode mode) throws IOException {
+      return (mode == Mode.STREAMING) ?
+         new UnbufferedCharStream(inputStream, BUFFER_SIZE, StandardCharsets.UTF_8) :
+         CharStreams.fromStream(inputStream);
+   }
 }
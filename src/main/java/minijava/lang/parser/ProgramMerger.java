@@ -0,0 +1,40 @@
+package minijava.lang.parser;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import minijava.lang.parser.AST.ClassDecl;
+import minijava.lang.parser.AST.CompilationUnit;
+import minijava.lang.parser.AST.MainClass;
+import minijava.lang.parser.AST.Program;
+
+/**
+ * Merges the {@link CompilationUnit}s of a multi-file program into a single {@link Program}.
+ * Duplicated classes are left in the merged {@link Program} so they are reported by the type checker.
+ */
+public class ProgramMerger {
+
+   private ProgramMerger() {}
+
+   /**
+    * @param compilationUnits The parsed files, in command line order
+    * @return A {@link Program} with the only {@link MainClass} and every {@link ClassDecl} of the files
+    * @throws IllegalStateException if there is not exactly one {@link MainClass}
+    */
+   public static Program merge(List<CompilationUnit> compilationUnits) {
+      List<MainClass> mainClasses = compilationUnits.stream()
+         .flatMap((compilationUnit) -> compilationUnit.mainClass().stream())
+         .toList();
+      if (mainClasses.isEmpty()) {
+         throw new IllegalStateException("Missing main class.");
+      }
+      if (mainClasses.size() > 1) {
+         throw new IllegalStateException("Duplicate main classes: " + mainClasses.stream()
+            .map((mainClass) -> mainClass.className().id())
+            .toList());
+      }
+      List<ClassDecl> classDecls = compilationUnits.stream()
+         .flatMap((compilationUnit) -> compilationUnit.classDecls().stream())
+         .collect(Collectors.toList());
+      return new Program(mainClasses.get(0), classDecls);
+   }
+}
@@ -0,0 +1,578 @@
+package minijava.lang.parser;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+import org.antlr.v4.runtime.BaseErrorListener;
+import org.antlr.v4.runtime.RecognitionException;
+import org.antlr.v4.runtime.Recognizer;
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.TokenSource;
+import antlr4.MiniJavaLexer;
+import minijava.lang.parser.AST.ASTNode;
+import minijava.lang.parser.AST.Addition;
+import minijava.lang.parser.AST.And;
+import minijava.lang.parser.AST.ArrayAssignStatement;
+import minijava.lang.parser.AST.ArrayLength;
+import minijava.lang.parser.AST.AssignStatement;
+import minijava.lang.parser.AST.Bool;
+import minijava.lang.parser.AST.ClassDecl;
+import minijava.lang.parser.AST.ClassType;
+import minijava.lang.parser.AST.CompilationUnit;
+import minijava.lang.parser.AST.ExprArray;
+import minijava.lang.parser.AST.ExprClassMember;
+import minijava.lang.parser.AST.ExprFalse;
+import minijava.lang.parser.AST.ExprId;
+import minijava.lang.parser.AST.ExprNot;
+import minijava.lang.parser.AST.ExprNumber;
+import minijava.lang.parser.AST.ExprParenthesis;
+import minijava.lang.parser.AST.ExprThis;
+import minijava.lang.parser.AST.ExprTrue;
+import minijava.lang.parser.AST.Expression;
+import minijava.lang.parser.AST.Expression2;
+import minijava.lang.parser.AST.Identifier;
+import minijava.lang.parser.AST.IfStatement;
+import minijava.lang.parser.AST.Int;
+import minijava.lang.parser.AST.IntArray;
+import minijava.lang.parser.AST.IntLiteral;
+import minijava.lang.parser.AST.LessThan;
+import minijava.lang.parser.AST.MainClass;
+import minijava.lang.parser.AST.MethodDecl;
+import minijava.lang.parser.AST.MethodParam;
+import minijava.lang.parser.AST.Multiplication;
+import minijava.lang.parser.AST.NewClassDecl;
+import minijava.lang.parser.AST.NewIntArrayDecl;
+import minijava.lang.parser.AST.PrintStatement;
+import minijava.lang.parser.AST.Program;
+import minijava.lang.parser.AST.Statement;
+import minijava.lang.parser.AST.StatementBlock;
+import minijava.lang.parser.AST.Subtraction;
+import minijava.lang.parser.AST.Type;
+import minijava.lang.parser.AST.VarDecl;
+import minijava.lang.parser.AST.WhileLoop;
+
+/**
+ * Parses {@code MiniJava.g4} straight into {@link AST} nodes, without a parse tree.
+ *
+ * The parser reads the tokens of either lexer with at most five tokens of lookahead and builds the same {@link AST}
+ * as {@link MiniJavaVisitorImpl} does from the ANTLR parse tree. Every precedence level of an expression is read in
+ * a loop and its operations are added to one flat chain of continuations, see {@link OperatorPrecedence}, so the
+ * parser only recurses into parentheses, calls and indices. The parser does not recover: the first syntax or token
+ * recognition error throws an {@link IllegalStateException}, see {@link Parser#program} for the fallback that reports
+ * errors. The positions of the nodes are recorded like {@link MiniJavaVisitorImpl} records them.
+ */
+public class RecursiveDescentParser {
+
+   private static final int CLASS      = literal("class");
+   private static final int LBRACE     = literal("{");
+   private static final int RBRACE     = literal("}");
+   private static final int PUBLIC     = literal("public");
+   private static final int STATIC     = literal("static");
+   private static final int VOID       = literal("void");
+   private static final int MAIN       = literal("main");
+   private static final int LPAREN     = literal("(");
+   private static final int RPAREN     = literal(")");
+   private static final int STRING     = literal("String");
+   private static final int LBRACKET   = literal("[");
+   private static final int RBRACKET   = literal("]");
+   private static final int EXTENDS    = literal("extends");
+   private static final int SEMICOLON  = literal(";");
+   private static final int COMMA      = literal(",");
+   private static final int RETURN     = literal("return");
+   private static final int INT        = literal("int");
+   private static final int BOOLEAN    = literal("boolean");
+   private static final int IF         = literal("if");
+   private static final int ELSE       = literal("else");
+   private static final int WHILE      = literal("while");
+   private static final int PRINTLN    = literal("System.out.println");
+   private static final int ASSIGN     = literal("=");
+   private static final int TRUE       = literal("true");
+   private static final int FALSE      = literal("false");
+   private static final int THIS       = literal("this");
+   private static final int NEW        = literal("new");
+   private static final int NOT        = literal("!");
+   private static final int DOT        = literal(".");
+   private static final int LENGTH     = literal("length");
+   private static final int AND        = literal("&&");
+   private static final int LESS_THAN  = literal("<");
+   private static final int PLUS       = literal("+");
+   private static final int MINUS      = literal("-");
+   private static final int TIMES      = literal("*");
+
+   /**
+    * The operators of each precedence level, the loosest first, like the expression rules of the grammar.
+    */
+   private static final int[][] LEVELS = { { AND }, { LESS_THAN }, { PLUS, MINUS }, { TIMES } };
+
+   private static final int LOOKAHEAD = 8;
+
+   private final TokenSource tokenSource;
+
+   private final SourcePositions positions;
+
+   private final Token[] lookahead = new Token[LOOKAHEAD];
+
+   private int head;
+
+   private int buffered;
+
+   /**
+    * The last token read.
+    */
+   private Token last;
+
+   private RecursiveDescentParser(TokenSource tokenSource, SourcePositions positions) {
+      this.tokenSource = tokenSource;
+      this.positions = positions;
+      failOnErrors(tokenSource);
+   }
+
+   /**
+    * Replaces the error listeners of a lexer by one that throws an {@link IllegalStateException}.
+    */
+   static void failOnErrors(TokenSource tokenSource) {
+      BaseErrorListener failing = new BaseErrorListener() {
+         @Override
+         public void syntaxError(Recognizer<?, ?> recognizer, Object offendingSymbol, int line,
+                                 int charPositionInLine, String message, RecognitionException e) {
+            throw new IllegalStateException("line " + line + ":" + charPositionInLine + " " + message);
+         }
+      };
+      switch (tokenSource) {
+         case MiniJavaLexer miniJavaLexer -> {
+            miniJavaLexer.removeErrorListeners();
+            miniJavaLexer.addErrorListener(failing);
+         }
+         case DfaLexer dfaLexer -> {
+            dfaLexer.removeErrorListeners();
+            dfaLexer.addErrorListener(failing);
+         }
+         default -> {}
+      }
+   }
+
+   /**
+    * @throws IllegalStateException At the first error
+    */
+   public static Program program(TokenSource tokenSource) {
+      return program(tokenSource, SourcePositions.NONE);
+   }
+
+   public static Program program(TokenSource tokenSource, SourcePositions positions) {
+      RecursiveDescentParser parser = new RecursiveDescentParser(tokenSource, positions);
+      MainClass mainClass = parser.mainClass();
+      List<ClassDecl> classDecls = parser.classDecls();
+      parser.expect(Token.EOF);
+      return new Program(mainClass, classDecls);
+   }
+
+   /**
+    * Parses a file of a multi-file program, the {@code mainClass} is optional.
+    * @throws IllegalStateException At the first error
+    */
+   public static CompilationUnit compilationUnit(TokenSource tokenSource) {
+      return compilationUnit(tokenSource, SourcePositions.NONE);
+   }
+
+   public static CompilationUnit compilationUnit(TokenSource tokenSource, SourcePositions positions) {
+      RecursiveDescentParser parser = new RecursiveDescentParser(tokenSource, positions);
+      Optional<MainClass> mainClass = (parser.is(0, CLASS) && parser.is(4, STATIC)) ?
+         Optional.of(parser.mainClass()) :
+         Optional.empty();
+      List<ClassDecl> classDecls = parser.classDecls();
+      parser.expect(Token.EOF);
+      return new CompilationUnit(mainClass, classDecls);
+   }
+
+   /**
+    * Parses a {@code mainClass} followed by the end of the tokens.
+    * @throws IllegalStateException At the first error
+    */
+   public static MainClass mainClass(TokenSource tokenSource, SourcePositions positions) {
+      RecursiveDescentParser parser = new RecursiveDescentParser(tokenSource, positions);
+      MainClass mainClass = parser.mainClass();
+      parser.expect(Token.EOF);
+      return mainClass;
+   }
+
+   /**
+    * Parses a {@code classDeclaration} followed by the end of the tokens.
+    * @throws IllegalStateException At the first error
+    */
+   public static ClassDecl classDecl(TokenSource tokenSource, SourcePositions positions) {
+      RecursiveDescentParser parser = new RecursiveDescentParser(tokenSource, positions);
+      ClassDecl classDecl = parser.classDecl();
+      parser.expect(Token.EOF);
+      return classDecl;
+   }
+
+   private MainClass mainClass() {
+      Token start = expect(CLASS);
+      Identifier className = identifier();
+      expect(LBRACE);
+      expect(PUBLIC);
+      expect(STATIC);
+      expect(VOID);
+      expect(MAIN);
+      expect(LPAREN);
+      expect(STRING);
+      expect(LBRACKET);
+      expect(RBRACKET);
+      Identifier argName = identifier();
+      expect(RPAREN);
+      expect(LBRACE);
+      Statement statement = statement();
+      expect(RBRACE);
+      expect(RBRACE);
+      return at(start, new MainClass(className, argName, statement));
+   }
+
+   private List<ClassDecl> classDecls() {
+      List<ClassDecl> classDecls = new ArrayList<>();
+      while (is(0, CLASS)) {
+         classDecls.add(classDecl());
+      }
+      return classDecls;
+   }
+
+   private ClassDecl classDecl() {
+      Token start = expect(CLASS);
+      Identifier className = identifier();
+      Optional<Identifier> superClass = Optional.empty();
+      if (is(0, EXTENDS)) {
+         next();
+         superClass = Optional.of(identifier());
+      }
+      expect(LBRACE);
+      List<VarDecl> varDecls = varDecls();
+      List<MethodDecl> methodDecls = new ArrayList<>();
+      while (is(0, PUBLIC)) {
+         methodDecls.add(methodDecl());
+      }
+      expect(RBRACE);
+      return at(start, new ClassDecl(className, superClass, varDecls, methodDecls));
+   }
+
+   private List<VarDecl> varDecls() {
+      List<VarDecl> varDecls = new ArrayList<>();
+      while (is(0, INT) || is(0, BOOLEAN) || (is(0, MiniJavaLexer.Identifier) && is(1, MiniJavaLexer.Identifier))) {
+         Token start = peek(0);
+         Type varType = type();
+         Identifier varName = identifier();
+         expect(SEMICOLON);
+         varDecls.add(at(start, new VarDecl(varType, varName)));
+      }
+      return varDecls;
+   }
+
+   private MethodDecl methodDecl() {
+      Token start = expect(PUBLIC);
+      Type methodType = type();
+      Identifier methodName = identifier();
+      expect(LPAREN);
+      List<MethodParam> methodParams = new ArrayList<>();
+      if (! is(0, RPAREN)) {
+         methodParams.add(new MethodParam(type(), identifier()));
+         while (is(0, COMMA)) {
+            next();
+            methodParams.add(new MethodParam(type(), identifier()));
+         }
+      }
+      expect(RPAREN);
+      expect(LBRACE);
+      List<VarDecl> varDecls = varDecls();
+      List<Statement> statements = new ArrayList<>();
+      while (! is(0, RETURN)) {
+         statements.add(statement());
+      }
+      expect(RETURN);
+      Expression returnExpr = rootExpression();
+      expect(SEMICOLON);
+      expect(RBRACE);
+      return at(start, new MethodDecl(methodType, methodName, methodParams, varDecls, statements, returnExpr));
+   }
+
+   private Type type() {
+      Token start = peek(0);
+      if (is(0, INT)) {
+         next();
+         if (is(0, LBRACKET)) {
+            next();
+            expect(RBRACKET);
+            return at(start, new IntArray());
+         }
+         return at(start, new Int());
+      }
+      if (is(0, BOOLEAN)) {
+         next();
+         return at(start, new Bool());
+      }
+      return at(start, new ClassType(identifier()));
+   }
+
+   private Statement statement() {
+      Token token = peek(0);
+      if (token.getType() == LBRACE) {
+         next();
+         List<Statement> statements = new ArrayList<>();
+         while (! is(0, RBRACE)) {
+            statements.add(statement());
+         }
+         next();
+         return at(token, new StatementBlock(statements));
+      }
+      if (token.getType() == IF) {
+         next();
+         expect(LPAREN);
+         Expression expr = rootExpression();
+         expect(RPAREN);
+         Statement statement = statement();
+         expect(ELSE);
+         Statement elseStatement = statement();
+         return at(token, new IfStatement(expr, statement, elseStatement));
+      }
+      if (token.getType() == WHILE) {
+         next();
+         expect(LPAREN);
+         Expression expr = rootExpression();
+         expect(RPAREN);
+         Statement statement = statement();
+         return at(token, new WhileLoop(expr, statement));
+      }
+      if (token.getType() == PRINTLN) {
+         next();
+         expect(LPAREN);
+         Expression expr = rootExpression();
+         expect(RPAREN);
+         expect(SEMICOLON);
+         return at(token, new PrintStatement(expr));
+      }
+      Identifier varName = identifier();
+      if (is(0, LBRACKET)) {
+         next();
+         Expression indexExpr = rootExpression();
+         expect(RBRACKET);
+         expect(ASSIGN);
+         Expression expr = rootExpression();
+         expect(SEMICOLON);
+         return at(token, new ArrayAssignStatement(varName, indexExpr, expr));
+      }
+      expect(ASSIGN);
+      Expression expr = rootExpression();
+      expect(SEMICOLON);
+      return at(token, new AssignStatement(varName, expr));
+   }
+
+   /**
+    * An expression that is not part of another one, see {@link MiniJavaVisitorImpl}.
+    */
+   private Expression rootExpression() {
+      Token start = peek(0);
+      return at(start, expression());
+   }
+
+   private Expression expression() {
+      List<Function<Expression2, Expression2>> chain = new ArrayList<>();
+      return expression(0, chain).apply(link(chain));
+   }
+
+   /**
+    * Reads the operands of a precedence level and the operators between them, the loosest level first. The
+    * operations of the level are added to the chain after the continuations of the first operand, one per run of
+    * the same operator.
+    * @return The first operand given its continuation
+    */
+   private Function<Expression2, Expression> expression(int level, List<Function<Expression2, Expression2>> chain) {
+      if (level == LEVELS.length) {
+         return term(chain);
+      }
+      Function<Expression2, Expression> first = expression(level + 1, chain);
+      while (isOperator(level, peek(0).getType())) {
+         int operator = peek(0).getType();
+         List<Expression> operands = new ArrayList<>();
+         while (is(0, operator)) {
+            next();
+            List<Function<Expression2, Expression2>> operandChain = new ArrayList<>();
+            operands.add(expression(level + 1, operandChain).apply(link(operandChain)));
+         }
+         chain.add((expr2) -> operation(operator, operands, expr2));
+      }
+      return first;
+   }
+
+   /**
+    * @return A term with its postfix continuations only
+    */
+   private Expression operand() {
+      List<Function<Expression2, Expression2>> chain = new ArrayList<>();
+      return term(chain).apply(link(chain));
+   }
+
+   /**
+    * Reads a term and adds its postfix continuations to the chain.
+    * @return The term given its continuation
+    */
+   private Function<Expression2, Expression> term(List<Function<Expression2, Expression2>> chain) {
+      Token token = next();
+      int type = token.getType();
+      Function<Expression2, Expression> term;
+      if (type == NOT) {
+         Expression expr = operand();
+         return (expr2) -> new ExprNot(expr, expr2);
+      } else if (type == MiniJavaLexer.IntegerLiteral) {
+         IntLiteral integer = new IntLiteral(Integer.parseInt(token.getText()));
+         term = (expr2) -> new ExprNumber(integer, expr2);
+      } else if (type == TRUE) {
+         term = ExprTrue::new;
+      } else if (type == FALSE) {
+         term = ExprFalse::new;
+      } else if (type == MiniJavaLexer.Identifier) {
+         Identifier id = at(token, new Identifier(token.getText()));
+         term = (expr2) -> new ExprId(id, expr2);
+      } else if (type == THIS) {
+         term = ExprThis::new;
+      } else if (type == NEW && is(0, INT)) {
+         next();
+         expect(LBRACKET);
+         Expression expr = expression();
+         expect(RBRACKET);
+         term = (expr2) -> new NewIntArrayDecl(expr, expr2);
+      } else if (type == NEW) {
+         Identifier className = identifier();
+         expect(LPAREN);
+         expect(RPAREN);
+         term = (expr2) -> new NewClassDecl(className, expr2);
+      } else if (type == LPAREN) {
+         Expression expr = expression();
+         expect(RPAREN);
+         term = (expr2) -> new ExprParenthesis(expr, expr2);
+      } else {
+         throw error(token, "an expression");
+      }
+      postfix(chain);
+      return term;
+   }
+
+   private void postfix(List<Function<Expression2, Expression2>> chain) {
+      while (true) {
+         if (is(0, DOT) && is(1, LENGTH)) {
+            next();
+            next();
+            chain.add(ArrayLength::new);
+         } else if (is(0, DOT)) {
+            next();
+            Identifier id = identifier();
+            expect(LPAREN);
+            List<Expression> memberParams = new ArrayList<>();
+            if (! is(0, RPAREN)) {
+               memberParams.add(expression());
+               while (is(0, COMMA)) {
+                  next();
+                  memberParams.add(expression());
+               }
+            }
+            expect(RPAREN);
+            chain.add((expr2) -> new ExprClassMember(id, memberParams, expr2));
+         } else if (is(0, LBRACKET)) {
+            next();
+            Expression expr = expression();
+            expect(RBRACKET);
+            chain.add((expr2) -> new ExprArray(expr, expr2));
+         } else {
+            return;
+         }
+      }
+   }
+
+   /**
+    * @return The first link of the chain, {@code null} if it is empty
+    */
+   private static Expression2 link(List<Function<Expression2, Expression2>> chain) {
+      Expression2 expr2 = null;
+      for (int index = chain.size() - 1; index >= 0; index--) {
+         expr2 = chain.get(index).apply(expr2);
+      }
+      return expr2;
+   }
+
+   private static boolean isOperator(int level, int type) {
+      for (int operator : LEVELS[level]) {
+         if (operator == type) {
+            return true;
+         }
+      }
+      return false;
+   }
+
+   private static Expression2 operation(int operator, List<Expression> operands, Expression2 expr2) {
+      if (operator == AND) {
+         return new And(operands, expr2);
+      } else if (operator == LESS_THAN) {
+         return new LessThan(operands, expr2);
+      } else if (operator == PLUS) {
+         return new Addition(operands, expr2);
+      } else if (operator == MINUS) {
+         return new Subtraction(operands, expr2);
+      }
+      return new Multiplication(operands, expr2);
+   }
+
+   private Identifier identifier() {
+      Token token = expect(MiniJavaLexer.Identifier);
+      return at(token, new Identifier(token.getText()));
+   }
+
+   /**
+    * Records the position of a node from its first token to the last token read.
+    */
+   private <T extends ASTNode> T at(Token start, T node) {
+      positions.put(node, start, last);
+      return node;
+   }
+
+   private Token expect(int type) {
+      Token token = next();
+      if (token.getType() != type) {
+         throw error(token, MiniJavaLexer.VOCABULARY.getDisplayName(type));
+      }
+      return token;
+   }
+
+   private boolean is(int offset, int type) {
+      return peek(offset).getType() == type;
+   }
+
+   private Token peek(int offset) {
+      while (buffered <= offset) {
+         lookahead[(head + buffered) % LOOKAHEAD] = tokenSource.nextToken();
+         buffered++;
+      }
+      return lookahead[(head + offset) % LOOKAHEAD];
+   }
+
+   private Token next() {
+      Token token = peek(0);
+      head = (head + 1) % LOOKAHEAD;
+      buffered--;
+      last = token;
+      return token;
+   }
+
+   private static IllegalStateException error(Token token, String expected) {
+      return new IllegalStateException("line " + token.getLine() + ":" + token.getCharPositionInLine()
+         + " expected " + expected + " but found '" + token.getText() + "'");
+   }
+
+   /**
+    * @return The token type of a literal of the grammar
+    */
+   static int literal(String literal) {
+      for (int type = 1; type <= MiniJavaLexer.VOCABULARY.getMaxTokenType(); type++) {
+         if (("'" + literal + "'").equals(MiniJavaLexer.VOCABULARY.getLiteralName(type))) {
+            return type;
+         }
+      }
+      throw new IllegalStateException("No token for " + literal + ".");
+   }
+}
@@ -0,0 +1,229 @@
+package minijava.lang.parser;
+
+import java.util.Arrays;
+
+/**
+ * The lines, white space and comments of a UTF-8 source, found in one pass before it is lexed.
+ *
+ * Lines start after every {@code \n} like in the ANTLR lexer. A byte is skipped if the lexer drops it as {@code WS}
+ * or {@code COMMENT}, so the lexer can jump over every skipped span at once. With the {@code jdk.incubator.vector}
+ * module ({@code --add-modules jdk.incubator.vector}) the source is scanned a vector of bytes at a time, see
+ * {@link VectorizedScan}, otherwise byte by byte.
+ */
+public class SourceIndex {
+
+   static final boolean VECTORIZED = ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent();
+
+   private final int length;
+
+   private final int[] lineStarts;
+
+   private final int lines;
+
+   private final long[] skipped;
+
+   /**
+    * The source if it is not ASCII, columns count code points.
+    */
+   private final byte[] source;
+
+   private SourceIndex(Scan scan) {
+      this.length = scan.source.length;
+      this.lineStarts = scan.lineStarts;
+      this.lines = scan.lines;
+      this.skipped = scan.skipped;
+      this.source = scan.ascii ? null : scan.source;
+   }
+
+   public static SourceIndex scan(byte[] source) {
+      Scan scan = new Scan(source);
+      if (VECTORIZED) {
+         VectorizedScan.scan(scan);
+      } else {
+         scan.scalar(0, source.length, true);
+      }
+      return new SourceIndex(scan.finish());
+   }
+
+   static SourceIndex scanScalar(byte[] source) {
+      Scan scan = new Scan(source);
+      scan.scalar(0, source.length, true);
+      return new SourceIndex(scan.finish());
+   }
+
+   public boolean isAscii() {
+      return source == null;
+   }
+
+   public int lines() {
+      return lines;
+   }
+
+   /**
+    * @return The offset of the first byte of the line, lines start at 1
+    */
+   public int lineStart(int line) {
+      return lineStarts[line - 1];
+   }
+
+   /**
+    * @return The line of the byte at the offset, lines start at 1
+    */
+   public int line(int offset) {
+      int index = Arrays.binarySearch(lineStarts, 0, lines, offset);
+      return (index >= 0) ? index + 1 : -index - 1;
+   }
+
+   /**
+    * @return The code points before the offset on its line
+    */
+   public int charPositionInLine(int offset) {
+      int start = lineStart(line(offset));
+      if (source == null) {
+         return offset - start;
+      }
+      int column = 0;
+      for (int index = start; index < offset; index++) {
+         if ((source[index] & 0xC0) != 0x80) {
+            column++;
+         }
+      }
+      return column;
+   }
+
+   public boolean isSkipped(int offset) {
+      return offset < length && (skipped[offset >>> 6] & (1L << offset)) != 0;
+   }
+
+   /**
+    * @return The first offset from the given one that is not skipped, the length of the source at its end
+    */
+   public int skip(int offset) {
+      int word = offset >>> 6;
+      if (word >= skipped.length) {
+         return length;
+      }
+      long kept = ~skipped[word] & (-1L << offset);
+      while (kept == 0) {
+         if (++word == skipped.length) {
+            return length;
+         }
+         kept = ~skipped[word];
+      }
+      return Math.min(length, (word << 6) + Long.numberOfTrailingZeros(kept));
+   }
+
+   /**
+    * The state of a scan, the source is scanned from the start to the end in blocks of any size.
+    */
+   static final class Scan {
+
+      private static final int CODE = 0;
+
+      private static final int SLASH = 1;
+
+      private static final int AFTER_SLASHES = 2;
+
+      private static final int COMMENT = 3;
+
+      final byte[] source;
+
+      private final long[] skipped;
+
+      private int[] lineStarts = new int[64];
+
+      private int lines = 1;
+
+      private boolean ascii = true;
+
+      private int state = CODE;
+
+      Scan(byte[] source) {
+         this.source = source;
+         this.skipped = new long[(source.length + 63) >>> 6];
+      }
+
+      /**
+       * Scans a block of up to 64 bytes starting at a multiple of its size with the bitmaps of its new lines, white
+       * space and slashes, falling back to {@link #scalar} if it starts or ends a comment.
+       */
+      void block(int from, int size, long newLines, long whiteSpace, long slashes, boolean nonAscii) {
+         ascii &= ! nonAscii;
+         for (long bits = newLines; bits != 0; bits &= bits - 1) {
+            lineStart(from + Long.numberOfTrailingZeros(bits) + 1);
+         }
+         if (state == CODE && slashes == 0) {
+            skipped[from >>> 6] |= whiteSpace << from;
+         } else if (state == COMMENT && newLines == 0) {
+            skipped[from >>> 6] |= ((size == 64) ? -1L : (1L << size) - 1) << from;
+         } else {
+            scalar(from, from + size, false);
+         }
+      }
+
+      /**
+       * Scans the bytes one at a time, with or without counting their lines.
+       */
+      void scalar(int from, int to, boolean countLines) {
+         for (int index = from; index < to; index++) {
+            byte character = source[index];
+            if (countLines) {
+               ascii &= character >= 0;
+               if (character == '\n') {
+                  lineStart(index + 1);
+               }
+            }
+            switch (state) {
+               case SLASH -> {
+                  if (character == '/') {
+                     skip(index - 1);
+                     skip(index);
+                     state = AFTER_SLASHES;
+                     continue;
+                  }
+                  state = CODE;
+               }
+               case AFTER_SLASHES -> {
+                  skip(index);
+                  state = COMMENT;
+                  continue;
+               }
+               case COMMENT -> {
+                  skip(index);
+                  state = (character == '\n') ? CODE : COMMENT;
+                  continue;
+               }
+               default -> {}
+            }
+            if (character == ' ' || character == '\t' || character == '\r' || character == '\n') {
+               skip(index);
+            } else if (character == '/') {
+               state = SLASH;
+            }
+         }
+      }
+
+      /**
+       * A comment needs a character after its slashes.
+       */
+      Scan finish() {
+         if (state == AFTER_SLASHES) {
+            int end = source.length;
+            skipped[(end - 1) >>> 6] &= ~(1L << (end - 1));
+            skipped[(end - 2) >>> 6] &= ~(1L << (end - 2));
+         }
+         return this;
+      }
+
+      private void skip(int offset) {
+         skipped[offset >>> 6] |= 1L << offset;
+      }
+
+      private void lineStart(int offset) {
+         if (lines == lineStarts.length) {
+            lineStarts = Arrays.copyOf(lineStarts, lines * 2);
+         }
+         lineStarts[lines++] = offset;
+      }
+   }
+}
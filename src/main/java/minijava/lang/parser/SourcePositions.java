@@ -0,0 +1,230 @@
+package minijava.lang.parser;
+
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.OptionalLong;
+import org.antlr.v4.runtime.Token;
+import minijava.lang.parser.AST.ASTNode;
+
+/**
+ * The source positions of the {@link AST} nodes of one source, kept beside the nodes instead of in them.
+ *
+ * A position is the offset of the first character of a node and its length in characters, packed into one
+ * {@code long}. Positions are kept by node identity in an open addressing table, so equal nodes like two uses of one
+ * {@link AST.Identifier} have a position each, and no node keeps a token. Lines and columns are only resolved when a
+ * position is reported, from the start of every line a node starts on, which is recorded with the node.
+ */
+public class SourcePositions {
+
+   /**
+    * Records nothing, for parses without positions.
+    */
+   public static final SourcePositions NONE = new SourcePositions();
+
+   private final Optional<String> sourceName;
+
+   private Object[] nodes = new Object[64];
+
+   private long[] positions = new long[64];
+
+   private int size;
+
+   /**
+    * The offset of the first character of every line by line, {@code -1} for lines no node starts on.
+    */
+   private int[] lineStarts = new int[64];
+
+   private int[] knownLines;
+
+   private int[] knownStarts;
+
+   public SourcePositions() {
+      this(Optional.empty());
+   }
+
+   /**
+    * @param sourceName The file the positions are reported in
+    */
+   public SourcePositions(String sourceName) {
+      this(Optional.of(sourceName));
+   }
+
+   private SourcePositions(Optional<String> sourceName) {
+      this.sourceName = sourceName;
+      Arrays.fill(lineStarts, -1);
+   }
+
+   public static long pack(int start, int length) {
+      return ((long) start << 32) | (length & 0xFFFFFFFFL);
+   }
+
+   public static int start(long position) {
+      return (int) (position >>> 32);
+   }
+
+   public static int length(long position) {
+      return (int) position;
+   }
+
+   /**
+    * Records the position of a node from its first and last token, an empty node if the last token is before the
+    * first. Tokens the parser made up to recover from an error have no position and are not recorded.
+    */
+   public synchronized void put(ASTNode node, Token start, Token stop) {
+      if (this == NONE || node == null || start == null || start.getStartIndex() < 0) {
+         return;
+      }
+      int offset = start.getStartIndex();
+      int length = (stop != null && stop.getStopIndex() >= offset) ? stop.getStopIndex() - offset + 1 : 0;
+      put(node, pack(offset, length));
+      lineStart(start.getLine(), offset - start.getCharPositionInLine());
+   }
+
+   /**
+    * Adds every position and line start of another table, e.g. of a part of the source parsed on another thread.
+    */
+   public synchronized void putAll(SourcePositions other) {
+      if (this == NONE) {
+         return;
+      }
+      synchronized (other) {
+         for (int index = 0; index < other.nodes.length; index++) {
+            if (other.nodes[index] != null) {
+               put((ASTNode) other.nodes[index], other.positions[index]);
+            }
+         }
+         for (int line = 0; line < other.lineStarts.length; line++) {
+            if (other.lineStarts[line] != -1) {
+               lineStart(line + 1, other.lineStarts[line]);
+            }
+         }
+      }
+   }
+
+   public synchronized OptionalLong position(ASTNode node) {
+      int slot = slot(node);
+      return (nodes[slot] == null) ? OptionalLong.empty() : OptionalLong.of(positions[slot]);
+   }
+
+   /**
+    * @return {@code line L:C} of the start of the node, prefixed by the source name if there is one
+    */
+   public synchronized Optional<String> location(ASTNode node) {
+      OptionalLong position = position(node);
+      if (position.isEmpty()) {
+         return Optional.empty();
+      }
+      int offset = start(position.getAsLong());
+      String location = line(offset) + ":" + charPositionInLine(offset);
+      return Optional.of(sourceName.map((name) -> name + ":" + location).orElse("line " + location));
+   }
+
+   /**
+    * @return The line of the offset of a recorded node, lines start at 1
+    */
+   public synchronized int line(int offset) {
+      return knownLines()[lineIndex(offset)];
+   }
+
+   /**
+    * @return The characters before the offset of a recorded node on its line
+    */
+   public synchronized int charPositionInLine(int offset) {
+      knownLines();
+      return offset - knownStarts[lineIndex(offset)];
+   }
+
+   public synchronized int size() {
+      return size;
+   }
+
+   /**
+    * Drops every position, e.g. of a parse that is repeated.
+    */
+   public synchronized void clear() {
+      Arrays.fill(nodes, null);
+      Arrays.fill(lineStarts, -1);
+      size = 0;
+      knownLines = null;
+   }
+
+   private void put(ASTNode node, long position) {
+      if ((size + 1) * 2 > nodes.length) {
+         grow();
+      }
+      int slot = slot(node);
+      if (nodes[slot] == null) {
+         nodes[slot] = node;
+         size++;
+      }
+      positions[slot] = position;
+   }
+
+   private int slot(Object node) {
+      int mask = nodes.length - 1;
+      int hash = System.identityHashCode(node) * 0x9E3779B9;
+      int slot = (hash ^ (hash >>> 16)) & mask;
+      while (nodes[slot] != null && nodes[slot] != node) {
+         slot = (slot + 1) & mask;
+      }
+      return slot;
+   }
+
+   private void grow() {
+      Object[] oldNodes = nodes;
+      long[] oldPositions = positions;
+      nodes = new Object[oldNodes.length * 2];
+      positions = new long[oldNodes.length * 2];
+      for (int index = 0; index < oldNodes.length; index++) {
+         if (oldNodes[index] != null) {
+            int slot = slot(oldNodes[index]);
+            nodes[slot] = oldNodes[index];
+            positions[slot] = oldPositions[index];
+         }
+      }
+   }
+
+   private void lineStart(int line, int offset) {
+      if (line < 1) {
+         return;
+      }
+      if (line > lineStarts.length) {
+         int length = lineStarts.length;
+         lineStarts = Arrays.copyOf(lineStarts, Math.max(line, length * 2));
+         Arrays.fill(lineStarts, length, lineStarts.length, -1);
+      }
+      if (lineStarts[line - 1] == -1) {
+         lineStarts[line - 1] = offset;
+         knownLines = null;
+      }
+   }
+
+   /**
+    * @return The lines with a known start, {@link #knownStarts} has their starts
+    */
+   private int[] knownLines() {
+      if (knownLines == null) {
+         int[] lines = new int[lineStarts.length];
+         int[] starts = new int[lineStarts.length];
+         int known = 0;
+         for (int index = 0; index < lineStarts.length; index++) {
+            if (lineStarts[index] != -1) {
+               lines[known] = index + 1;
+               starts[known++] = lineStarts[index];
+            }
+         }
+         knownLines = Arrays.copyOf(lines, known);
+         knownStarts = Arrays.copyOf(starts, known);
+      }
+      return knownLines;
+   }
+
+   /**
+    * @return The index of the last known line starting at or before the offset
+    */
+   private int lineIndex(int offset) {
+      knownLines();
+      int index = Arrays.binarySearch(knownStarts, offset);
+      return (index >= 0) ? index : Math.max(0, -index - 2);
+   }
+}
@@ -1,6 +1,8 @@
 package minijava.lang.parser;
 
+import java.util.List;
 import minijava.lang.parser.AST.ASTNode;
+import minijava.lang.parser.AST.ClassDecl;
 
 public class SymbolTableFactory {
 
@@ -23,6 +25,14 @@ public class SymbolTableFactory {
             return this;
          }
 
+         /**
+          * Loads precompiled class summaries into the root table, see {@link ClassSignatures}
+          */
+         public PopulatorStage load(List<ClassDecl> summaries) {
+            ClassSignatures.load(symbolTable, summaries);
+            return this;
+         }
+
          public SymbolTable<?> build() {
             return symbolTable;
          }
@@ -0,0 +1,38 @@
+package minijava.lang.parser;
+
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Scans a {@link SourceIndex} with the vector API, only loaded if {@link SourceIndex#VECTORIZED}.
+ *
+ * Every vector of 32 or 64 bytes is compared against new lines, white space and slashes at once. Blocks without
+ * slashes outside of comments and comments without a new line are done from the bitmaps of the comparisons, the rest
+ * byte by byte.
+ */
+final class VectorizedScan {
+
+   private static final VectorSpecies<Byte> SPECIES = (ByteVector.SPECIES_PREFERRED.length() > 64) ?
+      ByteVector.SPECIES_512 :
+      ByteVector.SPECIES_PREFERRED;
+
+   private VectorizedScan() {}
+
+   static void scan(SourceIndex.Scan scan) {
+      byte[] source = scan.source;
+      int size = SPECIES.length();
+      int bound = SPECIES.loopBound(source.length);
+      int index = 0;
+      for (; index < bound; index += size) {
+         ByteVector bytes = ByteVector.fromArray(SPECIES, source, index);
+         long newLines = bytes.eq((byte) '\n').toLong();
+         long whiteSpace = bytes.eq((byte) ' ')
+            .or(bytes.eq((byte) '\t'))
+            .or(bytes.eq((byte) '\r'))
+            .toLong() | newLines;
+         long slashes = bytes.eq((byte) '/').toLong();
+         scan.block(index, size, newLines, whiteSpace, slashes, bytes.lt((byte) 0).anyTrue());
+      }
+      scan.scalar(index, source.length, true);
+   }
+}
@@ -0,0 +1,117 @@
+package minijava.lang.typechecker;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+import minijava.lang.parser.AST.ClassDecl;
+import minijava.lang.parser.AST.Program;
+import minijava.lang.parser.SymbolTable;
+
+/**
+ * Type checks the classes of a {@link Program} on a bounded thread pool in dependency order.
+ *
+ * The class graph is the {@link ClassHierarchy} of the program. A class is checked once its superclass has been
+ * checked, so independent classes and siblings of a wide hierarchy are checked in parallel. Superclasses that are not
+ * declared by the {@link Program} (e.g. loaded class summaries) do not hold back their subclasses.
+ */
+public class ClassCheckScheduler {
+
+   private static final Logger LOG = Logger.getLogger(ClassCheckScheduler.class.getName());
+
+   private final ClassHierarchy classHierarchy;
+
+   private final Map<String, ClassDecl> classDecls = new LinkedHashMap<>();
+
+   private final Map<String, AtomicInteger> pendingDependencies = new HashMap<>();
+
+   public ClassCheckScheduler(Program program, ClassHierarchy classHierarchy) {
+      this.classHierarchy = classHierarchy;
+      program.classDecls()
+         .forEach((classDecl) -> classDecls.put(classDecl.className().id(), classDecl));
+      for (ClassDecl classDecl : classDecls.values()) {
+         boolean hasDependency = classDecl.superClass()
+            .map((superClass) -> classDecls.containsKey(superClass.id()))
+            .orElse(false);
+         pendingDependencies.put(classDecl.className().id(), new AtomicInteger(hasDependency ? 1 : 0));
+      }
+   }
+
+   /**
+    * Checks the {@link Program} like {@link TypeChecker#visitAndCheck} with at most one thread per processor.
+    */
+   public static void visitAndCheck(SymbolTable<?> symbolTable, Program program) {
+      visitAndCheck(symbolTable, program, Runtime.getRuntime().availableProcessors());
+   }
+
+   public static void visitAndCheck(SymbolTable<?> symbolTable, Program program, int parallelism) {
+      TypeChecker.duplicateClassCheck(program);
+      new ClassCheckScheduler(program, ClassHierarchy.of(symbolTable)).run(symbolTable, parallelism);
+      TypeChecker.visitAndCheck(symbolTable.findChild(program.mainClass()), program.mainClass());
+   }
+
+   /**
+    * @return The classes of the {@link Program}, superclasses before their subclasses
+    */
+   public List<ClassDecl> checkOrder() {
+      return classHierarchy.preorder().stream()
+         .filter((classDecl) -> classDecls.containsKey(classDecl.className().id()))
+         .toList();
+   }
+
+   private void run(SymbolTable<?> symbolTable, int parallelism) {
+      if (classDecls.isEmpty()) {
+         return;
+      }
+      ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(parallelism, classDecls.size())));
+      AtomicInteger remaining = new AtomicInteger(classDecls.size());
+      CompletableFuture<Void> done = new CompletableFuture<>();
+      try {
+         classDecls.values().stream()
+            .filter((classDecl) -> pendingDependencies.get(classDecl.className().id()).get() == 0)
+            .forEach((classDecl) -> submit(executor, symbolTable, classDecl, remaining, done));
+         done.join();
+      } catch (CompletionException e) {
+         if (e.getCause() instanceof RuntimeException cause) {
+            throw cause;
+         }
+         if (e.getCause() instanceof Error error) {
+            throw error;
+         }
+         throw e;
+      } finally {
+         executor.shutdownNow();
+      }
+   }
+
+   private void submit(ExecutorService executor, SymbolTable<?> symbolTable, ClassDecl classDecl,
+                       AtomicInteger remaining, CompletableFuture<Void> done) {
+      executor.execute(() -> {
+         if (done.isDone()) {
+            return;
+         }
+         try {
+            TypeChecker.visitAndCheck(symbolTable.findChild(classDecl), classDecl);
+         } catch (RuntimeException | Error e) {
+            LOG.warning(() -> "Could not check class " + classDecl.className() + ": " + e.getMessage());
+            done.completeExceptionally(e);
+            return;
+         }
+         for (ClassDecl subclass : classHierarchy.subclasses(classDecl.className().id())) {
+            AtomicInteger pending = pendingDependencies.get(subclass.className().id());
+            if (pending != null && pending.decrementAndGet() == 0) {
+               submit(executor, symbolTable, subclass, remaining, done);
+            }
+         }
+         if (remaining.decrementAndGet() == 0) {
+            done.complete(null);
+         }
+      });
+   }
+}
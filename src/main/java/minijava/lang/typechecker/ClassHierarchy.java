@@ -0,0 +1,209 @@
+package minijava.lang.typechecker;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.WeakHashMap;
+import java.util.stream.IntStream;
+import minijava.lang.parser.AST.ClassDecl;
+import minijava.lang.parser.SymbolTable;
+
+/**
+ * The superclass forest of all {@link ClassDecl}s of a program, built once in O(classes).
+ *
+ * Classes are numbered by an iterative depth first walk from the classes without a superclass. Every class gets its
+ * preorder and postorder number, so {@code A} is a subclass of {@code B} exactly when the interval of {@code A} is
+ * nested in the interval of {@code B}, and the descendants of a class are a contiguous run of the preorder.
+ * Classes never reached by the walk lie on, or extend, a superclass cycle.
+ */
+public class ClassHierarchy {
+
+   private static final Map<SymbolTable<?>, ClassHierarchy> HIERARCHIES = new WeakHashMap<>();
+
+   private static final int NO_SUPERCLASS = -1;
+
+   private final Map<String, Integer> classIndex = new HashMap<>();
+
+   private final ClassDecl[] classDecls;
+
+   private final int[] superClass;
+
+   private final int[] preorder;
+
+   private final int[] postorder;
+
+   private final int[] depth;
+
+   /**
+    * Class indexes sorted by preorder number, superclasses come before their subclasses
+    */
+   private final int[] byPreorder;
+
+   private final List<List<Integer>> subclasses;
+
+   public ClassHierarchy(Collection<ClassDecl> classDecls) {
+      this.classDecls = classDecls.toArray(new ClassDecl[0]);
+      int size = this.classDecls.length;
+      for (int index = 0; index < size; index++) {
+         if (classIndex.putIfAbsent(this.classDecls[index].className().id(), index) != null) {
+            throw new IllegalStateException("Duplicate classes.");
+         }
+      }
+
+      superClass = new int[size];
+      subclasses = new ArrayList<>(size);
+      for (int index = 0; index < size; index++) {
+         subclasses.add(new ArrayList<>());
+      }
+      for (int index = 0; index < size; index++) {
+         superClass[index] = NO_SUPERCLASS;
+         Optional<String> superClassName = this.classDecls[index].superClass().map((superClass) -> superClass.id());
+         if (superClassName.isPresent()) {
+            Integer superClassIndex = classIndex.get(superClassName.get());
+            if (superClassIndex == null) {
+               throw new IllegalStateException(superClassName.get() + " was not found. Reference before declaration.");
+            }
+            superClass[index] = superClassIndex;
+            subclasses.get(superClassIndex).add(index);
+         }
+      }
+
+      preorder   = new int[size];
+      postorder  = new int[size];
+      depth      = new int[size];
+      byPreorder = new int[size];
+      Arrays.fill(preorder, -1);
+      number();
+   }
+
+   /**
+    * @return The {@link ClassHierarchy} of every {@link ClassDecl} table of the root table, built once per root
+    */
+   public static ClassHierarchy of(SymbolTable<?> symbolTable) {
+      SymbolTable<?> rootTable = symbolTable.getRoot();
+      synchronized (HIERARCHIES) {
+         return HIERARCHIES.computeIfAbsent(rootTable, (root) -> new ClassHierarchy(
+            root.childTableStream(ClassDecl.class)
+               .map((table) -> (ClassDecl) table.scope())
+               .toList()
+         ));
+      }
+   }
+
+   /**
+    * Iterative depth first walk that assigns preorder/postorder numbers and depths
+    * @throws IllegalStateException if any class was not reached from a class without superclass
+    */
+   private void number() {
+      int preorderCount  = 0;
+      int postorderCount = 0;
+      int[] stack = new int[classDecls.length];
+      int[] nextChild = new int[classDecls.length];
+      for (int root = 0; root < classDecls.length; root++) {
+         if (superClass[root] != NO_SUPERCLASS) {
+            continue;
+         }
+         int top = 0;
+         stack[top] = root;
+         depth[root] = 0;
+         preorder[root] = preorderCount;
+         byPreorder[preorderCount++] = root;
+         while (top >= 0) {
+            int current = stack[top];
+            List<Integer> children = subclasses.get(current);
+            if (nextChild[current] < children.size()) {
+               int child = children.get(nextChild[current]++);
+               depth[child] = depth[current] + 1;
+               preorder[child] = preorderCount;
+               byPreorder[preorderCount++] = child;
+               stack[++top] = child;
+            } else {
+               postorder[current] = postorderCount++;
+               top--;
+            }
+         }
+      }
+      if (preorderCount < classDecls.length) {
+         List<String> cyclicClasses = IntStream.range(0, classDecls.length)
+            .filter((index) -> preorder[index] < 0)
+            .mapToObj((index) -> classDecls[index].className().id())
+            .toList();
+         throw new IllegalStateException("Circular dependency for class: " + String.join(", ", cyclicClasses));
+      }
+   }
+
+   public boolean contains(String className) {
+      return classIndex.containsKey(className);
+   }
+
+   public ClassDecl classDecl(String className) {
+      return classDecls[index(className)];
+   }
+
+   public Optional<ClassDecl> superClass(String className) {
+      int superClassIndex = superClass[index(className)];
+      return (superClassIndex == NO_SUPERCLASS) ?
+         Optional.empty() :
+         Optional.of(classDecls[superClassIndex]);
+   }
+
+   /**
+    * @return The direct subclasses of the class
+    */
+   public List<ClassDecl> subclasses(String className) {
+      return subclasses.get(index(className)).stream()
+         .map((index) -> classDecls[index])
+         .toList();
+   }
+
+   /**
+    * @return The class and all of its transitive subclasses, superclasses first
+    */
+   public List<ClassDecl> descendants(String className) {
+      int index = index(className);
+      List<ClassDecl> descendants = new ArrayList<>();
+      for (int order = preorder[index]; order < classDecls.length && isSubclass(byPreorder[order], index); order++) {
+         descendants.add(classDecls[byPreorder[order]]);
+      }
+      return descendants;
+   }
+
+   /**
+    * @return Number of superclasses above the class
+    */
+   public int depth(String className) {
+      return depth[index(className)];
+   }
+
+   /**
+    * @return {@code true} if {@code className} is {@code superClassName} or one of its transitive subclasses
+    */
+   public boolean isSubclass(String className, String superClassName) {
+      return isSubclass(index(className), index(superClassName));
+   }
+
+   /**
+    * @return Every class, superclasses before their subclasses
+    */
+   public List<ClassDecl> preorder() {
+      return Arrays.stream(byPreorder)
+         .mapToObj((index) -> classDecls[index])
+         .toList();
+   }
+
+   private boolean isSubclass(int index, int superClassIndex) {
+      return preorder[superClassIndex] <= preorder[index] && postorder[index] <= postorder[superClassIndex];
+   }
+
+   private int index(String className) {
+      Integer index = classIndex.get(className);
+      if (index == null) {
+         throw new IllegalStateException(className + " was not found. Reference before declaration.");
+      }
+      return index;
+   }
+}
@@ -6,15 +6,19 @@ import java.util.logging.Logger;
 import minijava.lang.parser.AST;
 import minijava.lang.parser.AST.ClassDecl;
 import minijava.lang.parser.AST.ClassType;
+import minijava.lang.parser.AST.Declaration;
 import minijava.lang.parser.AST.ExprNot;
 import minijava.lang.parser.AST.Bool;
 import minijava.lang.parser.AST.ExprId;
 import minijava.lang.parser.AST.ExprBoolean;
 import minijava.lang.parser.AST.ExprNumber;
+import minijava.lang.parser.AST.Identifier;
 import minijava.lang.parser.AST.Int;
 import minijava.lang.parser.AST.Type;
 import minijava.lang.parser.AST.ExprThis;
+import minijava.lang.parser.AST.VarDecl;
 import minijava.lang.parser.SymbolTable;
+import minijava.lang.parser.SymbolTable.SymbolTableEntry;
 import minijava.lang.parser.AST.NewClassDecl;
 import minijava.lang.parser.AST.ExprParenthesis;
 import minijava.lang.parser.AST.IntArray;
@@ -26,26 +30,16 @@ public class ExpressionTypeChecker extends TypeChecker {
 
    private ExpressionTypeChecker() {}
 
-   protected static Int evalExprNumber(SymbolTable<?> symbolTable, ExprNumber exprNumber) {
-      return (exprNumber.expr2().isPresent()) ?
-         (Int) Types.areCompatibleTypes(Int.class, evalExpression2(symbolTable, exprNumber, exprNumber.expr2().get())) :
-         new Int();
+   protected static Type evalExprNumber(SymbolTable<?> symbolTable, ExprNumber exprNumber) {
+      return evalExpression2(symbolTable, new Int(), exprNumber.next());
    }
 
-   protected static Bool evalExprBool(SymbolTable<?> symbolTable, ExprBoolean exprBoolean) {
-      return (exprBoolean.expr2().isPresent()) ?
-         (Bool) Types.areCompatibleTypes(Bool.class, evalExpression2(symbolTable, exprBoolean, exprBoolean.expr2().get())) :
-         new Bool();
+   protected static Type evalExprBool(SymbolTable<?> symbolTable, ExprBoolean exprBoolean) {
+      return evalExpression2(symbolTable, new Bool(), exprBoolean.next());
    }
 
    protected static Type evalExprId(SymbolTable<?> symbolTable, ExprId exprId) {
-      SymbolTable<?> ancestorTable = symbolTable.findFirstTableWithEntry(exprId.identifier(), AST.Declaration.class);
-      Optional<SymbolTable.SymbolTableEntry> tableEntry = ancestorTable.tableEntryStream()
-         .filter((entry) -> entry.identifier().equals(exprId.identifier()))
-         .findFirst();
-      return (exprId.expr2().isPresent()) ?
-         evalExpression2(symbolTable, exprId, exprId.expr2().get()) :
-         tableEntry.get().type();
+      return evalExpression2(symbolTable, variableType(symbolTable, exprId.identifier()), exprId.next());
    }
 
    protected static Type evalExprThis(SymbolTable<?> symbolTable, ExprThis exprThis) {
@@ -58,38 +52,64 @@ public class ExpressionTypeChecker extends TypeChecker {
             break;
          }
       }
-      var temp = (exprThis.expr2().isPresent()) ?
-         evalExpression2(symbolTable, exprThis, exprThis.expr2().get()) :
-         thisType;
+      var temp = evalExpression2(symbolTable, thisType, exprThis.next());
 
-      LOG.warning(() -> "EvalExprThis: " + temp);
+      LOG.fine(() -> "EvalExprThis: " + temp);
 
       return temp;
    }
 
-   protected static IntArray evalNewIntArrayDecl(SymbolTable<?> symbolTable, NewIntArrayDecl newIntArrayDecl) {
-      return (newIntArrayDecl.expr2().isPresent()) ?
-         (IntArray) Types.areCompatibleTypes(IntArray.class, evalExpression2(symbolTable, newIntArrayDecl, newIntArrayDecl.expr2().get())) :
-         new IntArray();
+   protected static Type evalNewIntArrayDecl(SymbolTable<?> symbolTable, NewIntArrayDecl newIntArrayDecl) {
+      Types.areCompatibleTypes(Int.class, evalExpression(symbolTable, newIntArrayDecl.expr()));
+      return evalExpression2(symbolTable, new IntArray(), newIntArrayDecl.next());
    }
 
    protected static Type evalNewClassDecl(SymbolTable<?> symbolTable, NewClassDecl newClassDecl) {
-      return (newClassDecl.expr2().isPresent()) ?
-         evalExpression2(symbolTable, newClassDecl, newClassDecl.expr2().get()) :
-         new AST.ClassType(newClassDecl.identifier());
+      if (! ClassHierarchy.of(symbolTable).contains(newClassDecl.identifier().id())) {
+         throw new TypeCheckException(
+            newClassDecl.identifier() + " was not found. Reference before declaration.",
+            newClassDecl.identifier()
+         );
+      }
+      return evalExpression2(symbolTable, new AST.ClassType(newClassDecl.identifier()), newClassDecl.next());
    }
 
-   protected static Bool evalExprNot(SymbolTable<?> symbolTable, ExprNot exprNot) {
-      return (exprNot.expr2().isPresent()) ?
-         (Bool) Types.areCompatibleTypes(evalExpression(symbolTable, exprNot.expr()), evalExpression2(symbolTable, exprNot, exprNot.expr2().get())) :
-         (Bool) Types.areCompatibleTypes(Bool.class, evalExpression(symbolTable, exprNot.expr()));
+   protected static Type evalExprNot(SymbolTable<?> symbolTable, ExprNot exprNot) {
+      Types.areCompatibleTypes(Bool.class, evalExpression(symbolTable, exprNot.expr()));
+      return evalExpression2(symbolTable, new Bool(), exprNot.next());
    }
 
    protected static Type evalExprParenthesis(SymbolTable<?> symbolTable, ExprParenthesis exprParenthesis) {
-      return (exprParenthesis.expr2().isPresent()) ?
-         Types.areCompatibleTypes(
-            evalExpression(symbolTable, exprParenthesis.expr()), evalExpression2(symbolTable, exprParenthesis, exprParenthesis.expr2().get())
-         ) :
-         evalExpression(symbolTable, exprParenthesis.expr());
+      return evalExpression2(symbolTable, evalExpression(symbolTable, exprParenthesis.expr()), exprParenthesis.next());
+   }
+
+   /**
+    * Finds the declared type of a variable. Locals and parameters are found in the enclosing tables, fields in the
+    * enclosing class table or in one of its superclasses.
+    */
+   protected static Type variableType(SymbolTable<?> symbolTable, Identifier identifier) {
+      for (SymbolTable<?> table = symbolTable; table != null; table = table.parentTable()) {
+         Optional<SymbolTableEntry> tableEntry = table.tableEntryStream()
+            .filter((entry) -> entry.node() instanceof Declaration)
+            .filter((entry) -> entry.identifier().equals(identifier))
+            .findFirst();
+         if (tableEntry.isPresent()) {
+            return tableEntry.get().type();
+         }
+         if (table.scope() instanceof ClassDecl classDecl) {
+            ClassHierarchy classHierarchy = ClassHierarchy.of(table);
+            Optional<ClassDecl> superClass = classHierarchy.superClass(classDecl.className().id());
+            while (superClass.isPresent()) {
+               Optional<VarDecl> field = superClass.get().varDecls().stream()
+                  .filter((varDecl) -> varDecl.varName().equals(identifier))
+                  .findFirst();
+               if (field.isPresent()) {
+                  return field.get().varType();
+               }
+               superClass = classHierarchy.superClass(superClass.get().className().id());
+            }
+         }
+      }
+      throw new TypeCheckException("Could not find identifier: " + identifier, identifier);
    }
-}
\ No newline at end of file
+}
@@ -0,0 +1,43 @@
+package minijava.lang.typechecker;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import minijava.lang.parser.AST.ASTNode;
+
+/**
+ * An error of the checkers with the nodes that were being checked when it was thrown, innermost first.
+ *
+ * The nodes carry no positions, the error is located by the first of its nodes that has one in the
+ * {@link minijava.lang.parser.SourcePositions} of the parse.
+ */
+public class TypeCheckException extends IllegalStateException {
+
+   private static final long serialVersionUID = 1L;
+
+   private final transient List<ASTNode> nodes = new ArrayList<>();
+
+   public TypeCheckException(String message, ASTNode node) {
+      super(message);
+      nodes.add(node);
+   }
+
+   private TypeCheckException(IllegalStateException cause) {
+      super(cause.getMessage(), cause);
+   }
+
+   /**
+    * @return The error with the node added as the innermost node around the ones it already has
+    */
+   static TypeCheckException at(ASTNode node, IllegalStateException e) {
+      TypeCheckException exception = (e instanceof TypeCheckException checkException) ?
+         checkException :
+         new TypeCheckException(e);
+      exception.nodes.add(node);
+      return exception;
+   }
+
+   public List<ASTNode> nodes() {
+      return Collections.unmodifiableList(nodes);
+   }
+}
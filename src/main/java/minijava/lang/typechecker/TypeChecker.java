@@ -49,9 +49,18 @@ public class TypeChecker {
     *
     * @param symbolTable The current {@link minijava.lang.parser.AST.Scope} of the {@link Program}.
     * @param ast {@link ASTNode} within the {@link AST}
+    * @throws TypeCheckException With the nodes being checked, to locate the error
     */
 
    public static void visitAndCheck(SymbolTable<?> symbolTable, ASTNode ast) {
+      try {
+         check(symbolTable, ast);
+      } catch (IllegalStateException e) {
+         throw TypeCheckException.at(ast, e);
+      }
+   }
+
+   private static void check(SymbolTable<?> symbolTable, ASTNode ast) {
       switch (ast) {
          case Program                  program -> programCheck(symbolTable, program);
          case ClassDecl              classDecl -> classCheck(symbolTable, classDecl);
@@ -68,6 +77,14 @@ public class TypeChecker {
    }
 
    protected static Type evalExpression(SymbolTable<?> symbolTable, IExpression expression) {
+      try {
+         return eval(symbolTable, expression);
+      } catch (IllegalStateException e) {
+         throw TypeCheckException.at(expression, e);
+      }
+   }
+
+   private static Type eval(SymbolTable<?> symbolTable, IExpression expression) {
       return switch (expression) {
          case ExprId                   exprId -> evalExprId(symbolTable, exprId);
          case ExprNot                 exprNot -> evalExprNot(symbolTable, exprNot);
@@ -81,12 +98,31 @@ public class TypeChecker {
       };
    }
 
-   protected static Type evalExpression2(SymbolTable<?> symbolTable, IExpression expr, Expression2 expression2) {
+   /**
+    * Evaluates the {@link Expression2}s that continue an expression, in a loop from the first one to the last one.
+    * An {@link Operation} evaluates its operands in a loop too, so the checker only recurses into nested expressions.
+    *
+    * @param exprType The type of the expression that is continued, e.g. the receiver of a {@link ExprClassMember}
+    *                 or the left operand of an {@link Operation}
+    * @param expression2 The continuation, {@code null} at the end of the expression
+    */
+   protected static Type evalExpression2(SymbolTable<?> symbolTable, Type exprType, Expression2 expression2) {
+      Type type = exprType;
+      for (Expression2 link = expression2; link != null; link = link.next()) {
+         type = evalLink(symbolTable, type, link);
+      }
+      return type;
+   }
+
+   /**
+    * @return The type of the value an {@link Expression2} evaluates to, without its continuation
+    */
+   private static Type evalLink(SymbolTable<?> symbolTable, Type exprType, Expression2 expression2) {
       return switch (expression2) {
-         case ExprArray         exprArray -> evalExprArray(symbolTable, expr, exprArray);
-         case Operation         operation -> evalOperation(symbolTable, expr, operation);
-         case ArrayLength     arrayLength -> evalArrayLength(symbolTable, expr, arrayLength);
-         case ExprClassMember classMember -> evalExprClassMember(symbolTable, expr, classMember);
+         case ExprArray         exprArray -> evalExprArray(symbolTable, exprType, exprArray);
+         case Operation         operation -> evalOperation(symbolTable, exprType, operation);
+         case ArrayLength     arrayLength -> evalArrayLength(symbolTable, exprType, arrayLength);
+         case ExprClassMember classMember -> evalExprClassMember(symbolTable, exprType, classMember);
          default                          -> throw new IllegalStateException("Unexpected value: " + expression2);
       };
    }
@@ -100,6 +136,20 @@ public class TypeChecker {
     * @param program {@link Program} within the {@link AST}
     */
    private static void programCheck(SymbolTable<?> symbolTable, Program program) {
+      duplicateClassCheck(program);
+      program.classDecls()
+         .forEach((classDecl) -> {
+            SymbolTable<?> classDeclTable = symbolTable.findChild(classDecl);
+            visitAndCheck(classDeclTable, classDecl);
+         });
+      SymbolTable<?> mainClassTable = symbolTable.findChild(program.mainClass());
+      visitAndCheck(mainClassTable, program.mainClass());
+   }
+
+   /**
+    * Checks if there are duplicated class names, the {@link MainClass} included
+    */
+   protected static void duplicateClassCheck(Program program) {
       List<String> uniqueClassDecl = program.classDecls().stream()
          .map(ClassDecl::className)
          .map(Identifier::id)
@@ -114,13 +164,6 @@ public class TypeChecker {
       if (hasDuplicatedMainClass.isPresent()) {
          throw new IllegalStateException("Duplicate classes.");
       }
-      program.classDecls()
-         .forEach((classDecl) -> {
-            SymbolTable<?> classDeclTable = symbolTable.findChild(classDecl);
-            visitAndCheck(classDeclTable, classDecl);
-         });
-      SymbolTable<?> mainClassTable = symbolTable.findChild(program.mainClass());
-      visitAndCheck(mainClassTable, program.mainClass());
    }
 
    /**
@@ -165,7 +208,11 @@ public class TypeChecker {
       if (uniqueVarDecl.size() != methodDecl.varDecls().size()) {
          throw new IllegalStateException("Duplicate variables.");
       }
-      Types.areCompatibleTypes(methodDecl.methodType(), evalExpression(symbolTable, methodDecl.returnExpr()));
+      Types.areAssignableTypes(
+         ClassHierarchy.of(symbolTable),
+         methodDecl.methodType(),
+         evalExpression(symbolTable, methodDecl.returnExpr())
+      );
       List<String> parameters = methodDecl.methodParams().stream()
          .map(AST.MethodParam::name)
          .map(Identifier::id)
@@ -183,6 +230,7 @@ public class TypeChecker {
    }
 
    private static void arrayAssignStatementCheck(SymbolTable<?> symbolTable, ArrayAssignStatement arrayAssign) {
+      Types.areCompatibleTypes(IntArray.class, ExpressionTypeChecker.variableType(symbolTable, arrayAssign.varName()));
       if (! Types.hasCompatibleTypes(Int.class, evalExpression(symbolTable, arrayAssign.indexExpr()))) {
          throw new IllegalStateException("Index is not type " + new Int());
       }
@@ -209,14 +257,18 @@ public class TypeChecker {
    }
 
    private static void assignStatementCheck(SymbolTable<?> symbolTable, AssignStatement assignStatement) {
-
+      Types.areAssignableTypes(
+         ClassHierarchy.of(symbolTable),
+         ExpressionTypeChecker.variableType(symbolTable, assignStatement.varName()),
+         evalExpression(symbolTable, assignStatement.expr())
+      );
    }
 
-   private static Int evalExprNumber(SymbolTable<?> symbolTable, ExprNumber exprNumber) {
+   private static Type evalExprNumber(SymbolTable<?> symbolTable, ExprNumber exprNumber) {
       return ExpressionTypeChecker.evalExprNumber(symbolTable, exprNumber);
    }
 
-   private static Bool evalExprBool(SymbolTable<?> symbolTable, ExprBoolean exprBoolean) {
+   private static Type evalExprBool(SymbolTable<?> symbolTable, ExprBoolean exprBoolean) {
       return ExpressionTypeChecker.evalExprBool(symbolTable, exprBoolean);
    }
 
@@ -228,7 +280,7 @@ public class TypeChecker {
       return ExpressionTypeChecker.evalExprThis(symbolTable, exprThis);
    }
 
-   private static IntArray evalNewIntArrayDecl(SymbolTable<?> symbolTable, NewIntArrayDecl newIntArrayDecl) {
+   private static Type evalNewIntArrayDecl(SymbolTable<?> symbolTable, NewIntArrayDecl newIntArrayDecl) {
       return ExpressionTypeChecker.evalNewIntArrayDecl(symbolTable, newIntArrayDecl);
    }
 
@@ -236,7 +288,7 @@ public class TypeChecker {
       return ExpressionTypeChecker.evalNewClassDecl(symbolTable, newClassDecl);
    }
 
-   private static Bool evalExprNot(SymbolTable<?> symbolTable, ExprNot exprNot) {
+   private static Type evalExprNot(SymbolTable<?> symbolTable, ExprNot exprNot) {
       return ExpressionTypeChecker.evalExprNot(symbolTable, exprNot);
    }
 
@@ -244,19 +296,19 @@ public class TypeChecker {
       return ExpressionTypeChecker.evalExprParenthesis(symbolTable, exprParenthesis);
    }
 
-   private static Type evalExprClassMember(SymbolTable<?> symbolTable, IExpression expr, ExprClassMember exprClassMember) {
-      return Expression2TypeChecker.evalExprClassMember(symbolTable, expr, exprClassMember);
+   private static Type evalExprClassMember(SymbolTable<?> symbolTable, Type exprType, ExprClassMember exprClassMember) {
+      return Expression2TypeChecker.evalExprClassMember(symbolTable, exprType, exprClassMember);
    }
 
-   private static Int evalArrayLength(SymbolTable<?> symbolTable, IExpression expr, ArrayLength arrayLength) {
-      return Expression2TypeChecker.evalArrayLength(symbolTable, expr, arrayLength);
+   private static Type evalArrayLength(SymbolTable<?> symbolTable, Type exprType, ArrayLength arrayLength) {
+      return Expression2TypeChecker.evalArrayLength(symbolTable, exprType, arrayLength);
    }
 
-   private static Type evalExprArray(SymbolTable<?> symbolTable, IExpression expr, ExprArray exprArray) {
-       return Expression2TypeChecker.evalExprArray(symbolTable, expr, exprArray);
+   private static Type evalExprArray(SymbolTable<?> symbolTable, Type exprType, ExprArray exprArray) {
+       return Expression2TypeChecker.evalExprArray(symbolTable, exprType, exprArray);
    }
 
-   private static Type evalOperation(SymbolTable<?> symbolTable, IExpression expr, Operation operation) {
-      return Expression2TypeChecker.evalExprOperation(symbolTable, expr, operation);
+   private static Type evalOperation(SymbolTable<?> symbolTable, Type exprType, Operation operation) {
+      return Expression2TypeChecker.evalExprOperation(symbolTable, exprType, operation);
    }
 }
@@ -1,5 +1,6 @@
 package minijava.lang.typechecker;
 
+import minijava.lang.parser.AST.ClassType;
 import minijava.lang.parser.AST.Type;
 
 public class Types {
@@ -31,6 +32,34 @@ public class Types {
       return type.equals(otherType.getClass());
    }
 
+   /**
+    * Check if a value of type {@code actual} can be used where {@code declared} is expected
+    * @return {@code true} if the types are equal, or if both are {@link ClassType}s and {@code actual} is a subclass
+    *    of {@code declared}
+    */
+   protected static boolean isAssignable(ClassHierarchy classHierarchy, Type declared, Type actual) {
+      if (declared.equals(actual)) {
+         return true;
+      }
+      return declared instanceof ClassType declaredClass && actual instanceof ClassType actualClass
+         && declaredClass.identifier() != null && actualClass.identifier() != null
+         && classHierarchy.contains(declaredClass.identifier().id())
+         && classHierarchy.contains(actualClass.identifier().id())
+         && classHierarchy.isSubclass(actualClass.identifier().id(), declaredClass.identifier().id());
+   }
+
+   /**
+    * Check if a value of type {@code actual} can be used where {@code declared} is expected
+    * @return {@code declared}
+    * @throws {@link IllegalStateException} if {@code actual} is not assignable to {@code declared}
+    */
+   protected static Type areAssignableTypes(ClassHierarchy classHierarchy, Type declared, Type actual) {
+      if (! isAssignable(classHierarchy, declared, actual)) {
+         throw new IllegalStateException("Types are not compatible: " + declared + ", " + actual);
+      }
+      return declared;
+   }
+
    protected static Type areCompatibleTypes(Class<? extends Type> type, Type... otherTypes) {
       for (Type otherType : otherTypes) {
          if (! type.equals(otherType.getClass())) {
@@ -0,0 +1,99 @@
+package minijava.lang.typechecker;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.WeakHashMap;
+import minijava.lang.parser.AST.ClassDecl;
+import minijava.lang.parser.AST.MethodDecl;
+import minijava.lang.parser.AST.MethodParam;
+import minijava.lang.parser.SymbolTable;
+
+/**
+ * Flattened method tables of every class, built once from the {@link ClassHierarchy}.
+ *
+ * Classes are visited superclasses first, every class starts from a copy of its superclass table and replaces the
+ * entries it overrides. A call site resolves its target {@link MethodDecl} with one lookup by interned method name,
+ * independent of the depth of the hierarchy.
+ */
+public class VirtualMethodTable {
+
+   private static final Map<SymbolTable<?>, VirtualMethodTable> TABLES = new WeakHashMap<>();
+
+   private final Map<String, Map<String, MethodDecl>> methodTables = new HashMap<>();
+
+   private final Map<MethodDecl, ClassDecl> declaringClasses = new IdentityHashMap<>();
+
+   /**
+    * @throws IllegalStateException if a method overrides a superclass method with a different header
+    */
+   public VirtualMethodTable(ClassHierarchy classHierarchy) {
+      for (ClassDecl classDecl : classHierarchy.preorder()) {
+         Map<String, MethodDecl> methodTable = classHierarchy.superClass(classDecl.className().id())
+            .map((superClass) -> new LinkedHashMap<>(methodTables.get(superClass.className().id())))
+            .orElseGet(LinkedHashMap::new);
+         for (MethodDecl methodDecl : classDecl.methodDecls()) {
+            MethodDecl overridden = methodTable.put(methodDecl.methodName().id().intern(), methodDecl);
+            if (overridden != null && ! isOverride(classHierarchy, methodDecl, overridden)) {
+               throw new IllegalStateException("Method " + classDecl.className() + "." + methodDecl.methodName()
+                  + " does not match the header of the method it overrides.");
+            }
+            declaringClasses.put(methodDecl, classDecl);
+         }
+         methodTables.put(classDecl.className().id().intern(), methodTable);
+      }
+   }
+
+   /**
+    * @return The {@link VirtualMethodTable} of the classes of the root table, built once per root
+    */
+   public static VirtualMethodTable of(SymbolTable<?> symbolTable) {
+      SymbolTable<?> rootTable = symbolTable.getRoot();
+      synchronized (TABLES) {
+         VirtualMethodTable virtualMethodTable = TABLES.get(rootTable);
+         if (virtualMethodTable == null) {
+            virtualMethodTable = new VirtualMethodTable(ClassHierarchy.of(rootTable));
+            TABLES.put(rootTable, virtualMethodTable);
+         }
+         return virtualMethodTable;
+      }
+   }
+
+   /**
+    * @return The {@link MethodDecl} a call of {@code methodName} on an instance of {@code className} dispatches to
+    */
+   public Optional<MethodDecl> resolve(String className, String methodName) {
+      Map<String, MethodDecl> methodTable = methodTables.get(className);
+      if (methodTable == null) {
+         throw new IllegalStateException(className + " was not found. Reference before declaration.");
+      }
+      return Optional.ofNullable(methodTable.get(methodName));
+   }
+
+   /**
+    * @return Every method callable on an instance of the class, inherited methods included
+    */
+   public Collection<MethodDecl> methods(String className) {
+      return methodTables.get(className).values();
+   }
+
+   /**
+    * @return The {@link ClassDecl} that declares the method
+    */
+   public ClassDecl declaringClass(MethodDecl methodDecl) {
+      return declaringClasses.get(methodDecl);
+   }
+
+   /**
+    * An override takes the same parameter types, {@link minijava.lang.parser.AST.ClassType}s naming the same class,
+    * and may return a subclass of the type the overridden method returns, like the JVM descriptors of both methods.
+    */
+   private static boolean isOverride(ClassHierarchy classHierarchy, MethodDecl methodDecl, MethodDecl overridden) {
+      return Types.isAssignable(classHierarchy, overridden.methodType(), methodDecl.methodType())
+         && methodDecl.methodParams().stream().map(MethodParam::type).toList()
+            .equals(overridden.methodParams().stream().map(MethodParam::type).toList());
+   }
+}
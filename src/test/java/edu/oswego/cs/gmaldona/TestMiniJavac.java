@@ -13,20 +13,27 @@ import java.util.stream.Stream;
 
 import minijava.lang.MiniJava;
 import minijava.lang.parser.AST;
+import minijava.lang.parser.Parser;
+import minijava.lang.parser.SourcePositions;
 import minijava.lang.parser.SymbolTable;
 import minijava.lang.typechecker.SyntacticChecker;
 import org.junit.Ignore;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
+import org.junit.rules.TemporaryFolder;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
 
 public class TestMiniJavac {
 
    @Rule
    public final ExpectedException exception = ExpectedException.none();
 
+   @Rule
+   public final TemporaryFolder folder = new TemporaryFolder();
+
    private static final Logger LOG = Logger.getLogger(TestMiniJavac.class.getName());
 
    private Stream<InputStream> MiniJavaExamples() {
@@ -101,6 +108,131 @@ public class TestMiniJavac {
          .compile(MiniJavaExamples());
    }
 
+   private Path writeFile(String fileName, String content) throws IOException {
+      return Files.writeString(folder.getRoot().toPath().resolve(fileName), content);
+   }
+
+   /**
+    * test for {@link MiniJavac#linkProgram(List)}
+    */
+   @Test
+   public void wholeProgram() throws IOException {
+      Path main = writeFile("Main.java", """
+            class Main {
+               public static void main(String[] a) { System.out.println(new B().start()); }
+            }
+         """);
+      Path a = writeFile("A.java", """
+            class A {
+               public int start() { return 1; }
+            }
+         """);
+      Path b = writeFile("B.java", """
+            class B extends A { }
+
+            class C extends B { }
+         """);
+
+      AST.Program program = MiniJavac.linkProgram(List.of(main, a, b));
+
+      assertEquals(3, program.classDecls().size());
+      assertEquals("Main", program.mainClass().className().id());
+      MiniJavac.getInstance().check(program);
+   }
+
+   @Test
+   public void wholeProgramDuplicateClasses() throws IOException {
+      exception.expect(IllegalStateException.class);
+
+      Path main = writeFile("Main.java", """
+            class Main {
+               public static void main(String[] a) { System.out.println(1); }
+            }
+
+            class A { }
+         """);
+      Path a = writeFile("A.java", """
+            class A { }
+         """);
+
+      MiniJavac.getInstance().check(MiniJavac.linkProgram(List.of(main, a)));
+   }
+
+   @Test
+   public void locatesCheckErrors() {
+      String program = """
+         class Main {
+            public static void main(String[] a) { System.out.println(new A().start()); }
+         }
+         class A {
+            public int start() {
+               int x;
+               x = 1;
+               return x + y;
+            }
+         }
+         """;
+      for (Parser.Mode mode : Parser.Mode.values()) {
+         List<SourcePositions> positions = List.of(new SourcePositions());
+         try {
+            MiniJavac.getInstance().check(Parser.program(program, Parser.Lexer.DFA, mode, positions.get(0)), positions);
+            fail();
+         } catch (IllegalStateException e) {
+            assertEquals(mode.toString(), "line 8:17 Could not find identifier: y", e.getMessage());
+         }
+      }
+   }
+
+   @Test
+   public void wholeProgramLocatesCheckErrors() throws IOException {
+      exception.expect(IllegalStateException.class);
+
+      Path main = writeFile("Main.java", """
+            class Main {
+               public static void main(String[] a) { System.out.println(new A().stop()); }
+            }
+         """);
+      Path a = writeFile("A.java", """
+            class A {
+               public int start() { return 1; }
+            }
+         """);
+      exception.expectMessage(main + ":2:71 Could not find method: A.stop");
+
+      List<SourcePositions> positions = List.of(new SourcePositions(main.toString()), new SourcePositions(a.toString()));
+      AST.Program program = MiniJavac.linkProgram(List.of(main, a), Parser.Lexer.DFA, Parser.Mode.RECURSIVE_DESCENT, positions);
+      MiniJavac.getInstance().check(program, positions);
+   }
+
+   /**
+    * test for {@link MiniJavac#build(AST.ASTNode)} and {@link MiniJavac#optimize(AST.Program)}
+    */
+   @Test
+   public void longExpressions() {
+      String program = """
+            class Main {
+               public static void main(String[] a) { System.out.println(new A().f(1)); }
+            }
+
+            class A {
+               public int f(int x) {
+                  boolean b;
+                  int y;
+                  b = %s;
+                  while (b && y < 1) {
+                     y = %s;
+                  }
+                  return %s;
+               }
+            }
+         """.formatted("x < 1" + " && b".repeat(10000), "x" + " + x * 2 - x".repeat(10000), "1" + " + x * 2 - x".repeat(10000));
+
+      MiniJavac compiler = MiniJavac.getInstance();
+      AST.Program parsed = Parser.program(program, Parser.Lexer.ANTLR, Parser.Mode.PARSE_TREE);
+      compiler.build(parsed);
+      compiler.build(compiler.optimize(parsed));
+   }
+
    /**
     * test for {@link minijava.lang.typechecker.SyntacticChecker#circularDependencyChecker(SymbolTable)}
     */
@@ -136,34 +268,4 @@ public class TestMiniJavac {
       symbolTable = TestMiniJavacV1.extractSymbolTable(program);
       SyntacticChecker.circularDependencyChecker(symbolTable);
    }
-
-   /**
-    * test for {@link minijava.lang.typechecker.SyntacticChecker#recursiveSuperClass(List, SymbolTable, AST.Scope)}
-    */
-   @Test
-   public void recursiveSuperClass() {
-      String program = """
-            class Main {
-               public static void main(String[] a) { System.out.println(new A().start()); }
-            }
-            
-            class A extends B { }
-            
-            class B extends C { }
-            
-            class C extends A { }
-         """;
-      SymbolTable<?> symbolTable = TestMiniJavacV1.extractSymbolTable(program);
-      List<AST.Scope> classDecls = symbolTable.getRoot()
-              .childTableStream(AST.ClassDecl.class)
-              .map(SymbolTable::scope)
-              .filter(scope -> scope instanceof AST.ClassDecl)
-              .toList();
-      List<List<String>> superClassChain = classDecls.parallelStream()
-              .map(classDecl -> SyntacticChecker.recursiveSuperClass(new ArrayList<>(), symbolTable.getRoot(), classDecl))
-              .toList();
-
-      assertEquals(3, superClassChain.size());
-   }
-
 }
@@ -0,0 +1,122 @@
+package minijava.lang;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import minijava.lang.interpreter.Interpreter;
+import minijava.lang.parser.AST.Program;
+import minijava.lang.parser.MiniJavaVisitorImpl;
+import minijava.lang.parser.Parser;
+import minijava.lang.parser.SymbolTable;
+import minijava.lang.parser.SymbolTableFactory;
+import minijava.lang.typechecker.TypeChecker;
+
+/**
+ * MiniJava programs of {@code src/test/resources/minijava} with the output {@code javac} compiled code prints for
+ * them, shared by the tests of the backends.
+ */
+public class Examples {
+
+   public static final List<String> NAMES = List.of(
+      "Factorial",
+      "BubbleSort",
+      "QuickSort",
+      "BinarySearch",
+      "LinkedList",
+      "Shapes"
+   );
+
+   public record Checked(Program program, SymbolTable<?> symbolTable) {}
+
+   private Examples() {}
+
+   public static String source(String name) {
+      return resource(name + MiniJava.JavaExt);
+   }
+
+   public static String expectedOutput(String name) {
+      return resource(name + ".expected");
+   }
+
+   public static Checked check(String source) {
+      return check((Program) new MiniJavaVisitorImpl().visit(Parser.parse(source)));
+   }
+
+   /**
+    * Builds the symbol table of a program made by the tests, e.g. an optimized program, and checks it
+    */
+   public static Checked check(Program program) {
+      SymbolTable<?> symbolTable = new SymbolTableFactory(program)
+         .newTable()
+         .populate()
+         .build();
+      TypeChecker.visitAndCheck(symbolTable, program);
+      return new Checked(program, symbolTable);
+   }
+
+   /**
+    * Checks the program and runs it in the {@link Interpreter}
+    * @return Everything the program printed
+    */
+   public static String run(Program program) {
+      ByteArrayOutputStream output = new ByteArrayOutputStream();
+      interpret(program, output);
+      return output.toString(StandardCharsets.UTF_8);
+   }
+
+   /**
+    * Checks the program and runs it in the {@link Interpreter}
+    * @return The number of instructions the program executed
+    */
+   public static long instructions(Program program) {
+      return interpret(program, new ByteArrayOutputStream()).instructions();
+   }
+
+   /**
+    * Checks the program and runs it in the {@link Interpreter}
+    * @return The number of objects the program allocated
+    */
+   public static long objects(Program program) {
+      return interpret(program, new ByteArrayOutputStream()).objects();
+   }
+
+   private static Interpreter.Report interpret(Program program, ByteArrayOutputStream output) {
+      Checked checked = check(program);
+      return new Interpreter(checked.symbolTable(), program)
+         .run(new PrintStream(output, true, StandardCharsets.UTF_8));
+   }
+
+   public interface Run {
+      void run() throws Exception;
+   }
+
+   /**
+    * @return Everything printed to {@link System#out} while running
+    */
+   public static synchronized String captureOutput(Run run) throws Exception {
+      PrintStream out = System.out;
+      ByteArrayOutputStream output = new ByteArrayOutputStream();
+      System.setOut(new PrintStream(output, true, StandardCharsets.UTF_8));
+      try {
+         run.run();
+      } finally {
+         System.setOut(out);
+      }
+      return output.toString(StandardCharsets.UTF_8);
+   }
+
+   private static String resource(String fileName) {
+      try (InputStream inputStream = Examples.class.getResourceAsStream("/minijava/" + fileName)) {
+         if (inputStream == null) {
+            throw new IllegalStateException("Missing example: " + fileName);
+         }
+         return new String(inputStream.readAllBytes(), StandardCharsets.UTF_8);
+      } catch (IOException e) {
+         throw new UncheckedIOException(e);
+      }
+   }
+}
@@ -0,0 +1,102 @@
+package minijava.lang.codegen;
+
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Path;
+import java.util.Map;
+import minijava.lang.Examples;
+import minijava.lang.Examples.Checked;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertEquals;
+
+public class TestCodeGenerator {
+
+   @Rule
+   public final TemporaryFolder folder = new TemporaryFolder();
+
+   private static Map<String, byte[]> generate(String name) {
+      return compile(Examples.source(name));
+   }
+
+   private static Map<String, byte[]> compile(String source) {
+      Checked checked = Examples.check(source);
+      return CodeGenerator.generate(checked.symbolTable(), checked.program());
+   }
+
+   @Test
+   public void examples() throws Exception {
+      for (String name : Examples.NAMES) {
+         Map<String, byte[]> classFiles = generate(name);
+         String output = Examples.captureOutput(() -> new ProgramClassLoader(classFiles).run(name));
+
+         assertEquals(name, Examples.expectedOutput(name), output);
+      }
+   }
+
+   @Test
+   public void writeClasses() throws Exception {
+      Path directory = folder.newFolder("classes").toPath();
+      CodeGenerator.writeClasses(generate("QuickSort"), directory);
+
+      try (URLClassLoader classLoader = new URLClassLoader(new URL[] { directory.toUri().toURL() })) {
+         String output = Examples.captureOutput(() -> classLoader.loadClass("QuickSort")
+            .getMethod("main", String[].class)
+            .invoke(null, (Object) new String[0]));
+
+         assertEquals(Examples.expectedOutput("QuickSort"), output);
+      }
+   }
+
+   @Test
+   public void writeJar() throws Exception {
+      Path jar = CodeGenerator.writeJar(generate("BinarySearch"), "BinarySearch", folder.getRoot().toPath().resolve("BinarySearch.jar"));
+
+      try (URLClassLoader classLoader = new URLClassLoader(new URL[] { jar.toUri().toURL() })) {
+         String output = Examples.captureOutput(() -> classLoader.loadClass("BinarySearch")
+            .getMethod("main", String[].class)
+            .invoke(null, (Object) new String[0]));
+
+         assertEquals(Examples.expectedOutput("BinarySearch"), output);
+      }
+   }
+
+   @Test
+   public void covariantReturns() throws Exception {
+      Map<String, byte[]> classFiles = compile("""
+            class Main {
+               public static void main(String[] a) {
+                  System.out.println(new Client().run(new B()));
+               }
+            }
+
+            class A {
+               public A make() { return new A(); }
+               public int id() { return 1; }
+            }
+
+            class B extends A {
+               public B make() { return new B(); }
+               public int id() { return 2; }
+            }
+
+            class C extends B {
+               public C make() { return new C(); }
+               public int id() { return 3; }
+            }
+
+            class Client {
+               public int run(A a) {
+                  System.out.println(a.make().id());
+                  a = new C();
+                  return a.make().id();
+               }
+            }
+         """);
+      String output = Examples.captureOutput(() -> new ProgramClassLoader(classFiles).run("Main"));
+
+      assertEquals(String.format("2%n3%n"), output);
+   }
+}
@@ -0,0 +1,217 @@
+package minijava.lang.interpreter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import minijava.lang.Examples;
+import minijava.lang.Examples.Checked;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class TestInterpreter {
+
+   private static String run(String source) {
+      Checked checked = Examples.check(source);
+      ByteArrayOutputStream output = new ByteArrayOutputStream();
+      new Interpreter(checked.symbolTable(), checked.program())
+         .run(new PrintStream(output, true, StandardCharsets.UTF_8));
+      return output.toString(StandardCharsets.UTF_8);
+   }
+
+   @Test
+   public void examples() {
+      for (String name : Examples.NAMES) {
+         assertEquals(name, Examples.expectedOutput(name), run(Examples.source(name)));
+      }
+   }
+
+   @Test
+   public void hiddenField() {
+      assertEquals(String.format("0%n2%n"), run("""
+            class Main {
+               public static void main(String[] a) {
+                  System.out.println(new B().init());
+               }
+            }
+
+            class A {
+               int x;
+               public int getX() { return x; }
+            }
+
+            class B extends A {
+               int x;
+               public int init() {
+                  x = 2;
+                  System.out.println(this.getX());
+                  return x;
+               }
+            }
+         """));
+   }
+
+   @Test
+   public void inheritedFieldLayout() {
+      Checked checked = Examples.check("""
+            class Main {
+               public static void main(String[] a) {
+                  System.out.println(new Tree().build(1000));
+               }
+            }
+
+            class Node {
+               int value;
+               Node next;
+               public int value() { return value; }
+               public Node next() { return next; }
+            }
+
+            class Leaf extends Node {
+               boolean marked;
+               int[] payload;
+               public Node init(int v, Node n) {
+                  value = v;
+                  next = n;
+                  marked = true;
+                  payload = new int[1];
+                  payload[0] = v;
+                  return this;
+               }
+               public int value() { return payload[0] + value; }
+            }
+
+            class Tree {
+               public int build(int size) {
+                  Node list;
+                  int sum;
+                  int i;
+                  list = new Node();
+                  i = 0;
+                  while (i < size) {
+                     list = new Leaf().init(i, list);
+                     i = i + 1;
+                  }
+                  sum = 0;
+                  while (0 < i) {
+                     sum = sum + list.value();
+                     list = list.next();
+                     i = i - 1;
+                  }
+                  return sum;
+               }
+            }
+         """);
+      ByteArrayOutputStream output = new ByteArrayOutputStream();
+      Interpreter.Report report = new Interpreter(checked.symbolTable(), checked.program())
+         .run(new PrintStream(output, true, StandardCharsets.UTF_8));
+
+      assertEquals(String.format("999000%n"), output.toString(StandardCharsets.UTF_8));
+      assertEquals(1002, report.objects());
+      assertEquals(1000, report.arrays());
+   }
+
+   @Test
+   public void report() {
+      Checked checked = Examples.check(Examples.source("QuickSort"));
+      Interpreter.Report report = new Interpreter(checked.symbolTable(), checked.program())
+         .run(new PrintStream(new ByteArrayOutputStream(), true, StandardCharsets.UTF_8));
+
+      assertTrue(report.instructions() > 0);
+      assertTrue(report.instructionsPerSecond() > 0);
+   }
+
+   /**
+    * {@code A.f} has a single target and is called directly, {@code B.f} is overridden and called virtually.
+    */
+   /**
+    * A run of operators is evaluated in a loop, so a long expression fits in a small thread stack.
+    */
+   @Test
+   public void longExpressions() throws InterruptedException {
+      Checked checked = Examples.check("""
+            class Main {
+               public static void main(String[] a) { System.out.println(new A().f(1)); }
+            }
+
+            class A {
+               public int f(int x) {
+                  boolean b;
+                  b = true;
+                  System.out.println(%s);
+                  System.out.println(%s);
+                  System.out.println(%s);
+                  return %s;
+               }
+            }
+         """.formatted(
+            "x" + " + x".repeat(4999),
+            "x < 2" + " && b".repeat(5000),
+            "x" + " * x".repeat(5000),
+            "1" + " + x * 2 - x".repeat(5000)
+         ));
+      ByteArrayOutputStream output = new ByteArrayOutputStream();
+      Throwable[] thrown = new Throwable[1];
+      Thread thread = new Thread(null, () -> {
+         try {
+            new Interpreter(checked.symbolTable(), checked.program())
+               .run(new PrintStream(output, true, StandardCharsets.UTF_8));
+         } catch (Throwable e) {
+            thrown[0] = e;
+         }
+      }, "longExpressions", 256 * 1024);
+      thread.start();
+      thread.join();
+      if (thrown[0] != null) {
+         throw new AssertionError(thrown[0]);
+      }
+      assertEquals(String.format("5000%ntrue%n1%n5001%n"), output.toString(StandardCharsets.UTF_8));
+   }
+
+   @Test
+   public void nullReceiverAfterArguments() {
+      for (String call : new String[] { "a", "b" }) {
+         Checked checked = Examples.check("""
+               class Main {
+                  public static void main(String[] a) {
+                     System.out.println(new Calls().start());
+                  }
+               }
+
+               class A {
+                  public int f(int x) { return x; }
+               }
+
+               class B {
+                  public int f(int x) { return x; }
+               }
+
+               class C extends B {
+                  public int f(int x) { return 0; }
+               }
+
+               class Calls {
+                  A a;
+                  B b;
+                  public int say(int x) {
+                     System.out.println(x);
+                     return x;
+                  }
+                  public int start() { return %s.f(this.say(1)); }
+               }
+            """.formatted(call));
+         ByteArrayOutputStream output = new ByteArrayOutputStream();
+         Interpreter interpreter = new Interpreter(checked.symbolTable(), checked.program());
+
+         try {
+            interpreter.run(new PrintStream(output, true, StandardCharsets.UTF_8));
+            fail(call);
+         } catch (NullPointerException e) {
+            // expected, after the argument was printed
+         }
+         assertEquals(call, String.format("1%n"), output.toString(StandardCharsets.UTF_8));
+      }
+   }
+}
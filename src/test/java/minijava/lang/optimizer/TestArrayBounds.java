@@ -0,0 +1,176 @@
+package minijava.lang.optimizer;
+
+import java.util.List;
+import java.util.Map;
+import minijava.lang.Examples;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class TestArrayBounds {
+
+   private static final String ARRAYS = """
+         class Main {
+            public static void main(String[] a) {
+               System.out.println(new Arrays().run(10));
+            }
+         }
+
+         class Arrays {
+            int[] numbers;
+            int size;
+
+            public int run(int n) {
+               int[] sides;
+               int i;
+               int total;
+               sides = new int[n];
+               i = 0;
+               while (i < sides.length) {
+                  sides[i] = i;
+                  total = total + sides[i];
+                  i = i + 1;
+               }
+               i = 0;
+               while (i < n) {
+                  total = total + sides[i];
+                  i = i + 1;
+               }
+               total = total + this.init(n);
+               return total;
+            }
+
+            public int init(int sz) {
+               int j;
+               size = sz;
+               numbers = new int[sz];
+               j = 1;
+               while (j < (size) && 0 < j) {
+                  numbers[j] = j;
+                  j = j + 1;
+               }
+               return numbers[0];
+            }
+         }
+      """;
+
+   private static final String UNPROVEN = """
+         class Main {
+            public static void main(String[] a) {
+               System.out.println(new Arrays().run(10, 5));
+            }
+         }
+
+         class Arrays {
+            int[] numbers;
+
+            public int run(int n, int m) {
+               int[] sides;
+               int i;
+               int total;
+               sides = new int[n];
+               i = n - 1;
+               while (0 < i) {
+                  total = total + sides[i];
+                  i = i - 1;
+               }
+               i = 0;
+               while (i < m) {
+                  total = total + sides[i];
+                  i = i + 1;
+               }
+               i = 0;
+               while (i < sides.length) {
+                  sides[i] = i;
+                  i = i + 2;
+               }
+               numbers = new int[n];
+               i = 0;
+               while (i < n) {
+                  numbers[i] = this.clear();
+                  i = i + 1;
+               }
+               numbers = new int[n];
+               i = 0;
+               while (i < numbers.length && this.shrinkAt(i)) {
+                  total = total + numbers[i];
+                  i = i + 1;
+               }
+               return total;
+            }
+
+            public int clear() {
+               numbers = new int[0];
+               return 0;
+            }
+
+            public boolean shrinkAt(int k) {
+               numbers = new int[1];
+               return k < 3;
+            }
+         }
+      """;
+
+   /**
+    * The accesses and the accesses proven in bounds of every example.
+    */
+   private static final Map<String, List<Integer>> EXAMPLES = Map.of(
+      "Factorial",    List.of(0, 0),
+      "BubbleSort",   List.of(17, 0),
+      "QuickSort",    List.of(23, 0),
+      "BinarySearch", List.of(3, 1),
+      "LinkedList",   List.of(0, 0),
+      "Shapes",       List.of(9, 5)
+   );
+
+   @Test
+   public void provesLoopAccessesInBounds() {
+      ArrayBounds arrayBounds = ArrayBounds.analyze(Examples.check(ARRAYS).program());
+
+      assertEquals(5, arrayBounds.accesses());
+      assertEquals(4, arrayBounds.inBounds());
+   }
+
+   @Test
+   public void keepsUnprovenAccesses() {
+      ArrayBounds arrayBounds = ArrayBounds.analyze(Examples.check(UNPROVEN).program());
+
+      assertEquals(5, arrayBounds.accesses());
+      assertEquals(0, arrayBounds.inBounds());
+   }
+
+   @Test
+   public void examples() {
+      for (String name : Examples.NAMES) {
+         ArrayBounds arrayBounds = ArrayBounds.analyze(Examples.check(Examples.source(name)).program());
+
+         assertEquals(name, EXAMPLES.get(name), List.of(arrayBounds.accesses(), arrayBounds.inBounds()));
+      }
+   }
+
+   @Test
+   public void longExpressions() {
+      ArrayBounds arrayBounds = ArrayBounds.analyze(Examples.check("""
+            class Main {
+               public static void main(String[] a) { System.out.println(new A().f(1)); }
+            }
+
+            class A {
+               public int f(int x) {
+                  int[] values;
+                  int i;
+                  values = new int[10];
+                  i = 0;
+                  while (i < values.length) {
+                     values[i] = %s;
+                     i = i + 1;
+                  }
+                  return %s;
+               }
+            }
+         """.formatted("x" + " + x * 2 - x".repeat(10000), "1" + " + x * 2 - x".repeat(10000))).program());
+
+      assertEquals(1, arrayBounds.accesses());
+      assertEquals(1, arrayBounds.inBounds());
+   }
+}
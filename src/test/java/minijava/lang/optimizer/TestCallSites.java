@@ -0,0 +1,86 @@
+package minijava.lang.optimizer;
+
+import java.util.Map;
+import minijava.lang.Examples;
+import minijava.lang.Examples.Checked;
+import minijava.lang.optimizer.CallSites.CallSite;
+import minijava.lang.optimizer.CallSites.Dispatch;
+import minijava.lang.parser.AST.ExprClassMember;
+import minijava.lang.parser.AST.PrintStatement;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+public class TestCallSites {
+
+   private static final String SHAPES = """
+         class Main {
+            public static void main(String[] a) {
+               System.out.println(new Shape().area());
+            }
+         }
+
+         class Shape {
+            public int area() { return 0; }
+
+            public int scale(int factor) { return this.area() * factor; }
+         }
+
+         class Square extends Shape {
+            public int area() { return 4; }
+
+            public int side() { return this.area(); }
+
+            public int sum() { return new Square().area() + new Circle().scale(2); }
+         }
+
+         class Circle extends Shape {
+            public int area() { return 3; }
+         }
+      """;
+
+   @Test
+   public void classifiesCallSites() {
+      Checked checked = Examples.check(SHAPES);
+      CallSites callSites = CallSites.analyze(checked.symbolTable(), checked.program());
+
+      assertEquals(5, callSites.size());
+      assertEquals(Map.of(Dispatch.MONOMORPHIC, 3, Dispatch.BIMORPHIC, 0, Dispatch.MEGAMORPHIC, 2), callSites.histogram());
+
+      PrintStatement print = (PrintStatement) checked.program().mainClass().statement();
+      CallSite shapeArea = callSites.callSite((ExprClassMember) print.expr().expr2().get()).orElseThrow();
+      assertEquals("Shape", shapeArea.receiverClass());
+      assertEquals(Dispatch.MEGAMORPHIC, shapeArea.dispatch());
+      assertEquals(3, shapeArea.targets().size());
+
+      ExprClassMember squareSide = (ExprClassMember) checked.program().classDecls().get(1).methodDecls().get(1)
+         .returnExpr().expr2().get();
+      CallSite squareArea = callSites.callSite(squareSide).orElseThrow();
+      assertSame(checked.program().classDecls().get(1).methodDecls().get(0), squareArea.target().orElseThrow());
+   }
+
+   @Test
+   public void classifiesBimorphicCallSites() {
+      Checked checked = Examples.check("""
+            class Main {
+               public static void main(String[] a) {
+                  System.out.println(new A().get());
+               }
+            }
+
+            class A {
+               public int get() { return 1; }
+            }
+
+            class B extends A {
+               public int get() { return 2; }
+            }
+
+            class C extends B {}
+         """);
+      CallSites callSites = CallSites.analyze(checked.symbolTable(), checked.program());
+
+      assertEquals(Map.of(Dispatch.MONOMORPHIC, 0, Dispatch.BIMORPHIC, 1, Dispatch.MEGAMORPHIC, 0), callSites.histogram());
+   }
+}
@@ -0,0 +1,91 @@
+package minijava.lang.optimizer;
+
+import java.util.List;
+import minijava.lang.Examples;
+import minijava.lang.Examples.Checked;
+import minijava.lang.parser.AST.AssignStatement;
+import minijava.lang.parser.AST.ExprNumber;
+import minijava.lang.parser.AST.MethodDecl;
+import minijava.lang.parser.AST.PrintStatement;
+import minijava.lang.parser.AST.Program;
+import minijava.lang.parser.AST.Statement;
+import minijava.lang.parser.AST.StatementBlock;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TestConstantFolder {
+
+   private static final String CONSTANTS = """
+         class Main {
+            public static void main(String[] a) {
+               System.out.println(new A().run(5));
+            }
+         }
+
+         class A {
+            public int run(int x) {
+               int y;
+               y = 2 * 3 + 4 - 1;
+               if (1 < 2 && true)
+                  y = y + x;
+               else
+                  y = 0;
+               while (!true)
+                  y = y + 1;
+               if (false && x < y) {
+                  System.out.println(1);
+               } else {
+                  System.out.println((10 - 3 - 2) * (1 + 1));
+               }
+               return y;
+            }
+         }
+      """;
+
+   @Test
+   public void foldsConstants() {
+      Program program = Examples.check(CONSTANTS).program();
+      int nodes = NodeCounter.count(program);
+      ConstantFolder.Result result = ConstantFolder.fold(program);
+      MethodDecl run = result.program().classDecls().get(0).methodDecls().get(0);
+      List<Statement> statements = run.statements();
+
+      assertEquals(3, statements.size());
+      assertEquals(9, ((ExprNumber) ((AssignStatement) statements.get(0)).expr()).integer().integer().intValue());
+      PrintStatement print = (PrintStatement) ((StatementBlock) statements.get(2)).statements().get(0);
+      assertEquals(10, ((ExprNumber) print.expr()).integer().integer().intValue());
+      assertTrue(result.nodesRemoved() > 0);
+      assertEquals(nodes, NodeCounter.count(program));
+      assertEquals(String.format("10%n14%n"), Examples.run(result.program()));
+   }
+
+   @Test
+   public void keepsShortCircuit() {
+      Program program = Examples.check("""
+            class Main {
+               public static void main(String[] a) {
+                  if (false && new A().fail()) System.out.println(1); else System.out.println(0);
+               }
+            }
+
+            class A {
+               public boolean fail() { return false; }
+            }
+         """).program();
+      Statement main = ConstantFolder.fold(program).program().mainClass().statement();
+
+      assertEquals(0, ((ExprNumber) ((PrintStatement) main).expr()).integer().integer().intValue());
+   }
+
+   @Test
+   public void examples() {
+      for (String name : Examples.NAMES) {
+         Checked checked = Examples.check(Examples.source(name));
+         Program folded = ConstantFolder.fold(checked.program()).program();
+
+         assertEquals(name, Examples.expectedOutput(name), Examples.run(folded));
+      }
+   }
+}
@@ -0,0 +1,149 @@
+package minijava.lang.optimizer;
+
+import java.util.Map;
+import minijava.lang.Examples;
+import minijava.lang.Examples.Checked;
+import minijava.lang.optimizer.EscapeAnalysis.Escape;
+import minijava.lang.parser.AST.Program;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class TestEscapeAnalysis {
+
+   private static final String POINTS = """
+         class Main {
+            public static void main(String[] a) {
+               System.out.println(new Simulation().run(10));
+            }
+         }
+
+         class Point {
+            int x;
+            int y;
+
+            public int set(int a, int b) {
+               x = a;
+               y = b;
+               return 0;
+            }
+
+            public int sum() { return x + y; }
+
+            public int moveX(int d) {
+               x = x + d;
+               return x;
+            }
+         }
+
+         class Simulation {
+            Point kept;
+
+            public int run(int n) {
+               int i;
+               int total;
+               int ignore;
+               Point p;
+               Point q;
+               Point r;
+               i = 0;
+               total = 0;
+               while (i < n) {
+                  p = new Point();
+                  ignore = p.set(i, i * 2);
+                  total = total + p.sum();
+                  i = i + 1;
+               }
+               q = new Point();
+               total = total + this.sum(q);
+               r = new Point();
+               kept = r;
+               return total + new Point().moveX(3);
+            }
+
+            public int sum(Point point) { return point.sum(); }
+         }
+      """;
+
+   @Test
+   public void classifiesAllocations() {
+      Checked checked = Examples.check(POINTS);
+      EscapeAnalysis escapeAnalysis = EscapeAnalysis.analyze(checked.symbolTable(), checked.program());
+
+      assertEquals(
+         Map.of(Escape.NON_ESCAPING, 2, Escape.ARGUMENT_ESCAPING, 2, Escape.GLOBAL_ESCAPING, 1),
+         escapeAnalysis.histogram()
+      );
+   }
+
+   @Test
+   public void replacesNonEscapingObjects() {
+      Checked checked = Examples.check(POINTS);
+      ScalarReplacement.Result result = ScalarReplacement.replace(checked.symbolTable(), checked.program());
+
+      assertEquals(5, result.allocationsBefore());
+      assertEquals(1, result.allocationsRemoved());
+      assertEquals(String.format("138%n"), Examples.run(result.program()));
+      assertEquals(14, Examples.objects(checked.program()));
+      assertEquals(4, Examples.objects(result.program()));
+   }
+
+   /**
+    * Every call inlined on a replaced object starts from default locals, like a new frame.
+    */
+   @Test
+   public void resetsLocalsOfReplacedCalls() {
+      Checked checked = Examples.check("""
+            class Main {
+               public static void main(String[] a) {
+                  System.out.println(new Sums().run());
+               }
+            }
+
+            class P {
+               int v;
+
+               public int add(int k) {
+                  int t;
+                  t = t + k;
+                  v = v + t;
+                  return v;
+               }
+            }
+
+            class Sums {
+               public int run() {
+                  int i;
+                  int x;
+                  int sum;
+                  P p;
+                  i = 0;
+                  sum = 0;
+                  while (i < 4) {
+                     p = new P();
+                     x = p.add(i);
+                     x = p.add(1);
+                     sum = sum + x;
+                     i = i + 1;
+                  }
+                  return sum;
+               }
+            }
+         """);
+      ScalarReplacement.Result result = ScalarReplacement.replace(checked.symbolTable(), checked.program());
+
+      assertEquals(1, result.allocationsRemoved());
+      assertEquals(String.format("10%n"), Examples.run(checked.program()));
+      assertEquals(String.format("10%n"), Examples.run(result.program()));
+   }
+
+   @Test
+   public void examples() {
+      for (String name : Examples.NAMES) {
+         Checked checked = Examples.check(Examples.source(name));
+         Program replaced = ScalarReplacement.replace(checked.symbolTable(), checked.program()).program();
+
+         assertEquals(name, Examples.expectedOutput(name), Examples.run(replaced));
+      }
+   }
+}
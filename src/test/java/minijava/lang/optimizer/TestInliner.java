@@ -0,0 +1,157 @@
+package minijava.lang.optimizer;
+
+import java.util.Map;
+import minijava.lang.Examples;
+import minijava.lang.Examples.Checked;
+import minijava.lang.parser.AST.MethodDecl;
+import minijava.lang.parser.AST.Program;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class TestInliner {
+
+   private static final String CALLS = """
+         class Main {
+            public static void main(String[] a) {
+               System.out.println(new Counter().run(3));
+            }
+         }
+
+         class Counter {
+            int count;
+
+            public int run(int n) {
+               int i;
+               int total;
+               i = 0;
+               total = 0;
+               while (i < n) {
+                  total = this.add(this.get() * 2, this.next(i));
+                  i = this.next(i);
+               }
+               System.out.println(this.get() + this.twice(i) * 10);
+               return this.add(total, i) + 1;
+            }
+
+            public int get() { return count; }
+
+            public int next(int x) { return x + 1; }
+
+            public int twice(int x) { return x + x; }
+
+            public int add(int x, int y) {
+               int sum;
+               sum = x + y;
+               count = count + 1;
+               return sum;
+            }
+         }
+      """;
+
+   private static final String OVERRIDES = """
+         class Main {
+            public static void main(String[] a) {
+               System.out.println(new B().run());
+            }
+         }
+
+         class A {
+            public int run() { return this.value() + this.other(); }
+
+            public int value() { return 1; }
+
+            public int other() { return 2; }
+         }
+
+         class B extends A {
+            public int value() { return 10; }
+         }
+      """;
+
+   @Test
+   public void inlinesCalls() {
+      Checked checked = Examples.check(CALLS);
+      Program program = checked.program();
+      Inliner.Result result = Inliner.inline(checked.symbolTable(), program);
+
+      assertEquals(Map.of("Counter.get", 2, "Counter.next", 2, "Counter.twice", 1, "Counter.add", 1), result.inlined());
+      assertEquals(Examples.run(program), Examples.run(result.program()));
+      assertEquals(String.format("63%n11%n"), Examples.run(result.program()));
+   }
+
+   /**
+    * Every run of an inlined body starts from default locals, like a new frame.
+    */
+   @Test
+   public void resetsLocalsOfInlinedCalls() {
+      Checked checked = Examples.check("""
+            class Main {
+               public static void main(String[] a) {
+                  System.out.println(new Counter().run());
+               }
+            }
+
+            class Counter {
+               public int run() {
+                  int i;
+                  int x;
+                  int sum;
+                  i = 0;
+                  sum = 0;
+                  while (i < 3) {
+                     x = this.inc();
+                     sum = sum + x;
+                     i = i + 1;
+                  }
+                  return sum;
+               }
+
+               public int inc() {
+                  int c;
+                  boolean seen;
+                  if (seen)
+                     c = c + 10;
+                  else
+                     c = c + 1;
+                  seen = true;
+                  return c;
+               }
+            }
+         """);
+      Inliner.Result result = Inliner.inline(checked.symbolTable(), checked.program());
+
+      assertEquals(Map.of("Counter.inc", 1), result.inlined());
+      assertEquals(String.format("3%n"), Examples.run(checked.program()));
+      assertEquals(String.format("3%n"), Examples.run(result.program()));
+   }
+
+   @Test
+   public void keepsOverriddenCalls() {
+      Checked checked = Examples.check(OVERRIDES);
+      Inliner.Result result = Inliner.inline(checked.symbolTable(), checked.program());
+
+      assertEquals(Map.of("A.other", 1), result.inlined());
+      assertEquals(String.format("12%n"), Examples.run(result.program()));
+   }
+
+   @Test
+   public void respectsBudget() {
+      Checked checked = Examples.check(CALLS);
+      Inliner.Result result = Inliner.inline(checked.symbolTable(), checked.program(), 0);
+      MethodDecl run = result.program().classDecls().get(0).methodDecls().get(0);
+
+      assertEquals(0, result.callSites());
+      assertEquals(run.varDecls(), checked.program().classDecls().get(0).methodDecls().get(0).varDecls());
+   }
+
+   @Test
+   public void examples() {
+      for (String name : Examples.NAMES) {
+         Checked checked = Examples.check(Examples.source(name));
+         Program inlined = Inliner.inline(checked.symbolTable(), checked.program()).program();
+
+         assertEquals(name, Examples.expectedOutput(name), Examples.run(inlined));
+      }
+   }
+}
@@ -0,0 +1,87 @@
+package minijava.lang.optimizer;
+
+import minijava.lang.Examples;
+import minijava.lang.parser.AST.Program;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TestLoopInvariantMotion {
+
+   private static final String LOOPS = """
+         class Main {
+            public static void main(String[] a) {
+               System.out.println(new Loops().run(10, 3));
+            }
+         }
+
+         class Loops {
+            int[] missing;
+            int[] numbers;
+
+            public int run(int n, int k) {
+               int i;
+               int j;
+               int total;
+               int[] values;
+               values = new int[n];
+               i = 0;
+               total = 0;
+               while (i < values.length) {
+                  values[i] = i * (k * k + 1);
+                  total = total + values[i] + values.length;
+                  i = i + 1;
+               }
+               i = 0;
+               while (i < n) {
+                  if (i < 0)
+                     total = total + missing.length;
+                  else
+                     total = total + (k - 1);
+                  i = i + 1;
+               }
+               i = 0;
+               while (i < n) {
+                  total = total + this.next(k * 2);
+                  i = i + 1;
+               }
+               i = 0;
+               while (i < n) {
+                  j = 0;
+                  while (j < k) {
+                     total = total + (n * k) + (j * 2);
+                     j = j + 1;
+                  }
+                  i = i + 1;
+               }
+               return total;
+            }
+
+            public int next(int x) {
+               numbers = new int[x];
+               return numbers.length;
+            }
+         }
+      """;
+
+   @Test
+   public void hoistsInvariantExpressions() {
+      Program program = Examples.check(LOOPS).program();
+      LoopInvariantMotion.Result result = LoopInvariantMotion.hoist(program);
+
+      assertEquals(5, result.hoisted());
+      assertEquals(Examples.run(program), Examples.run(result.program()));
+      assertTrue(Examples.instructions(result.program()) < Examples.instructions(program));
+   }
+
+   @Test
+   public void examples() {
+      for (String name : Examples.NAMES) {
+         Program program = Examples.check(Examples.source(name)).program();
+         Program hoisted = LoopInvariantMotion.hoist(program).program();
+
+         assertEquals(name, Examples.expectedOutput(name), Examples.run(hoisted));
+      }
+   }
+}
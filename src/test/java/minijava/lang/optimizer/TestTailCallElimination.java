@@ -0,0 +1,111 @@
+package minijava.lang.optimizer;
+
+import java.util.Map;
+import minijava.lang.Examples;
+import minijava.lang.Examples.Checked;
+import minijava.lang.parser.AST.Program;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class TestTailCallElimination {
+
+   private static final String RECURSION = """
+         class Main {
+            public static void main(String[] a) {
+               {
+                  System.out.println(new Recursion().sum(%1$d));
+                  System.out.println(new Recursion().count(0, %1$d));
+                  System.out.println(new Recursion().fac(10));
+                  System.out.println(new Recursion().gcd(1071, 462));
+                  System.out.println(new Recursion().fib(15));
+               }
+            }
+         }
+
+         class Recursion {
+            public int sum(int n) {
+               int total;
+               if (n < 1)
+                  total = 0;
+               else
+                  total = n + (this.sum(n - 1));
+               return total;
+            }
+
+            public int count(int i, int n) {
+               boolean done;
+               int r;
+               done = !(i < n);
+               if (done)
+                  r = i;
+               else
+                  r = this.count(i + 1, n);
+               return r;
+            }
+
+            public int fac(int n) {
+               int r;
+               if (n < 1)
+                  r = 1;
+               else
+                  r = (this.fac(n - 1)) * n;
+               return r;
+            }
+
+            public int gcd(int a, int b) {
+               int r;
+               if (b < 1)
+                  r = a;
+               else
+                  r = this.gcd(b, this.mod(a, b));
+               return r;
+            }
+
+            public int mod(int a, int b) {
+               while (!(a < b))
+                  a = a - b;
+               return a;
+            }
+
+            public int fib(int n) {
+               int r;
+               if (n < 2)
+                  r = n;
+               else
+                  r = this.fib(n - 1) + this.fib(n - 2);
+               return r;
+            }
+         }
+      """;
+
+   @Test
+   public void eliminatesTailCalls() {
+      Checked checked = Examples.check(String.format(RECURSION, 100));
+      TailCallElimination.Result result = TailCallElimination.eliminate(checked.symbolTable(), checked.program());
+
+      assertEquals(
+         Map.of("Recursion.sum", 1, "Recursion.count", 1, "Recursion.fac", 1, "Recursion.gcd", 1, "Recursion.fib", 1),
+         result.eliminated()
+      );
+      assertEquals(Examples.run(checked.program()), Examples.run(result.program()));
+   }
+
+   @Test
+   public void runsDeepRecursionInConstantStack() {
+      Checked checked = Examples.check(String.format(RECURSION, 1000000));
+      Program program = TailCallElimination.eliminate(checked.symbolTable(), checked.program()).program();
+
+      assertEquals(String.format("1784293664%n1000000%n3628800%n21%n610%n"), Examples.run(program));
+   }
+
+   @Test
+   public void examples() {
+      for (String name : Examples.NAMES) {
+         Checked checked = Examples.check(Examples.source(name));
+         Program program = TailCallElimination.eliminate(checked.symbolTable(), checked.program()).program();
+
+         assertEquals(name, Examples.expectedOutput(name), Examples.run(program));
+      }
+   }
+}
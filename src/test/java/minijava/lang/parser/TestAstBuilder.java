@@ -0,0 +1,135 @@
+package minijava.lang.parser;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import minijava.lang.Examples;
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.ParserRuleContext;
+import org.antlr.v4.runtime.tree.ErrorNode;
+import org.antlr.v4.runtime.tree.ParseTreeListener;
+import org.antlr.v4.runtime.tree.TerminalNode;
+import org.junit.Test;
+import antlr4.MiniJavaLexer;
+import antlr4.MiniJavaParser;
+
+import static minijava.lang.parser.TestRecursiveDescentParser.dump;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TestAstBuilder {
+
+   @Test
+   public void examples() {
+      for (String name : Examples.NAMES) {
+         String source = Examples.source(name);
+
+         assertEquals(
+            name,
+            dump(new MiniJavaVisitorImpl().visit(Parser.parse(source))),
+            dump(Parser.program(source, Parser.Lexer.ANTLR, Parser.Mode.NO_PARSE_TREE))
+         );
+      }
+   }
+
+   @Test
+   public void compilationUnits() {
+      String classes = "class A extends B { public int f() { return 1 + 2 * 3; } } class B { }";
+      String source = "class Main { public static void main(String[] a) { System.out.println(1); } } " + classes;
+
+      for (String input : List.of(source, classes)) {
+         assertEquals(
+            dump(new MiniJavaVisitorImpl().visit(Parser.parseCompilationUnit(input))),
+            dump(Parser.compilationUnit(input, Parser.Lexer.DFA, Parser.Mode.NO_PARSE_TREE))
+         );
+      }
+   }
+
+   @Test
+   public void streamsExamples() throws IOException {
+      for (String name : Examples.NAMES) {
+         String source = Examples.source(name);
+         String expected = dump(new MiniJavaVisitorImpl().visit(Parser.parse(source)));
+
+         for (Parser.Lexer lexer : Parser.Lexer.values()) {
+            assertEquals(name, expected, dump(Parser.program(inputStream(source), lexer, Parser.Mode.STREAMING)));
+         }
+      }
+   }
+
+   @Test
+   public void streamsClassesBeforeTheEndOfTheSource() throws IOException {
+      StringBuilder source = new StringBuilder("class Main { public static void main(String[] a) { System.out.println(1); } }");
+      for (int index = 0; index < 500; index++) {
+         source.append(String.format("class C%d { int x; public int f(int y) { x = y * %d + 1; return x; } }%n", index, index));
+      }
+      byte[] bytes = source.toString().getBytes(StandardCharsets.UTF_8);
+      int[] read = { 0 };
+      InputStream inputStream = new ByteArrayInputStream(bytes) {
+         @Override
+         public synchronized int read(byte[] buffer, int offset, int length) {
+            int count = super.read(buffer, offset, length);
+            read[0] += Math.max(count, 0);
+            return count;
+         }
+      };
+      List<String> classes = new ArrayList<>();
+      List<Integer> readAtFirstClass = new ArrayList<>();
+
+      Parser.streamProgram(inputStream, Parser.Lexer.DFA, (classDecl) -> {
+         if (classes.isEmpty()) {
+            readAtFirstClass.add(read[0]);
+         }
+         classes.add(classDecl.className().toString());
+      });
+
+      assertEquals(500, classes.size());
+      assertEquals("C499", classes.get(499));
+      assertTrue(readAtFirstClass.get(0) < bytes.length / 4);
+   }
+
+   @Test
+   public void streamsAroundSyntaxErrors() throws IOException {
+      String source = "class Main { public static void main(String[] a) { System.out.println(1) } } class A { int x }";
+
+      assertEquals(
+         dump(new MiniJavaVisitorImpl().visit(Parser.parse(source))),
+         dump(Parser.program(inputStream(source), Parser.Lexer.ANTLR, Parser.Mode.STREAMING))
+      );
+   }
+
+   private static InputStream inputStream(String source) {
+      return new ByteArrayInputStream(source.getBytes(StandardCharsets.UTF_8));
+   }
+
+   @Test
+   public void releasesParsedClasses() {
+      List<ParserRuleContext> programs = new ArrayList<>();
+      MiniJavaParser parser = new MiniJavaParser(new CommonTokenStream(new MiniJavaLexer(CharStreams.fromString(
+         Examples.source("LinkedList")))));
+      parser.addParseListener(new ParseTreeListener() {
+         @Override
+         public void exitEveryRule(ParserRuleContext ctx) {
+            if (ctx instanceof MiniJavaParser.ProgramContext) {
+               programs.add(ctx);
+            }
+         }
+
+         @Override
+         public void enterEveryRule(ParserRuleContext ctx) {}
+
+         @Override
+         public void visitTerminal(TerminalNode node) {}
+
+         @Override
+         public void visitErrorNode(ErrorNode node) {}
+      });
+
+      assertEquals(3, AstBuilder.program(parser).classDecls().size());
+      assertEquals(List.of("<EOF>"), programs.get(0).children.stream().map((child) -> child.getText()).toList());
+   }
+}
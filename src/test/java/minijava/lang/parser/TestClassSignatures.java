@@ -0,0 +1,88 @@
+package minijava.lang.parser;
+
+import java.util.List;
+import java.util.Optional;
+import org.junit.Test;
+import minijava.lang.parser.AST.ClassDecl;
+import minijava.lang.parser.AST.ClassType;
+import minijava.lang.parser.AST.Identifier;
+import minijava.lang.parser.AST.Int;
+import minijava.lang.parser.AST.IntArray;
+import minijava.lang.parser.AST.MethodDecl;
+import minijava.lang.parser.AST.MethodParam;
+import minijava.lang.parser.AST.Program;
+import minijava.lang.parser.AST.VarDecl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TestClassSignatures {
+
+   private static ClassDecl summary() {
+      return new ClassDecl(
+         new Identifier("Fac"),
+         Optional.of(new Identifier("Base")),
+         List.of(new VarDecl(new IntArray(), new Identifier("numbers"))),
+         List.of(new MethodDecl(
+            new Int(),
+            new Identifier("ComputeFac"),
+            List.of(new MethodParam(new Int(), new Identifier("num")),
+                    new MethodParam(new ClassType(new Identifier("Fac")), new Identifier("other"))),
+            List.of(),
+            List.of(),
+            null
+         ))
+      );
+   }
+
+   @Test
+   public void encodeAndDecode() {
+      String signature = ClassSignatures.encode(summary());
+
+      assertEquals("""
+         class Fac extends Base
+         field int[] numbers
+         method int ComputeFac int num Fac other
+         """, signature);
+      assertEquals(signature, ClassSignatures.encode(ClassSignatures.decode(signature)));
+   }
+
+   @Test
+   public void loadIntoRootTable() {
+      String program = """
+            class Main {
+               public static void main(String[] a) { System.out.println(1); }
+            }
+
+            class Base { }
+         """;
+      AST.ASTNode ast = new MiniJavaVisitorImpl().visit(Parser.parse(program));
+      SymbolTable<?> symbolTable = new SymbolTableFactory(ast)
+         .newTable()
+         .populate()
+         .load(List.of(summary()))
+         .build();
+
+      assertEquals(2, symbolTable.childTableStream(ClassDecl.class).count());
+      assertEquals(1, symbolTable.findChildrenTable("Fac").size());
+      assertTrue(symbolTable.tableEntryStream()
+         .anyMatch((entry) -> entry.identifier().id().equals("Fac")));
+      assertEquals(1, ((Program) ast).classDecls().size());
+   }
+
+   @Test(expected = IllegalStateException.class)
+   public void duplicateSummary() {
+      String program = """
+            class Main {
+               public static void main(String[] a) { System.out.println(1); }
+            }
+
+            class Fac { }
+         """;
+      AST.ASTNode ast = new MiniJavaVisitorImpl().visit(Parser.parse(program));
+      new SymbolTableFactory(ast)
+         .newTable()
+         .populate()
+         .load(List.of(summary()));
+   }
+}
@@ -0,0 +1,128 @@
+package minijava.lang.parser;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import minijava.lang.Examples;
+import org.antlr.v4.runtime.BaseErrorListener;
+import org.antlr.v4.runtime.CharStream;
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.CommonTokenFactory;
+import org.antlr.v4.runtime.RecognitionException;
+import org.antlr.v4.runtime.Recognizer;
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.TokenSource;
+import org.antlr.v4.runtime.UnbufferedCharStream;
+import org.antlr.v4.runtime.tree.Trees;
+import org.junit.Test;
+import antlr4.MiniJavaLexer;
+import antlr4.MiniJavaParser;
+
+import static org.junit.Assert.assertEquals;
+
+public class TestDfaLexer {
+
+   private static final List<String> INPUTS = List.of(
+      "",
+      "class classes extends extendsx System.out.println System.out.print System.outx Systemx",
+      "123abc 0 007 a1_b2 _x int[] boolean",
+      "// comment\nx",
+      "//\nfoo\nbar",
+      "a // comment at the end",
+      "a //",
+      "#",
+      "a /x b",
+      "a & b && c < d + e - f * g",
+      "é = 1; // héllo 😀\nx",
+      "x\t\r\n  y\n\n   z",
+      "this.length.new!(){}[];,="
+   );
+
+   private static final String ALPHABET = "classextendsSystem.outprintln intlengthreturn09_/{}()[];,=!&<+-*#\n\t ";
+
+   private record Lexed(List<String> tokens, List<String> errors) {}
+
+   private static Lexed lex(String input, Parser.Lexer lexer) {
+      return lex(CharStreams.fromString(input), lexer);
+   }
+
+   private static Lexed lex(CharStream input, Parser.Lexer lexer) {
+      List<String> errors = new ArrayList<>();
+      BaseErrorListener listener = new BaseErrorListener() {
+         @Override
+         public void syntaxError(Recognizer<?, ?> recognizer, Object offendingSymbol, int line,
+                                 int charPositionInLine, String message, RecognitionException e) {
+            errors.add(line + ":" + charPositionInLine + " " + message);
+         }
+      };
+      TokenSource tokenSource = Parser.tokenSource(input, lexer);
+      tokenSource.setTokenFactory(new CommonTokenFactory(true));
+      switch (tokenSource) {
+         case MiniJavaLexer miniJavaLexer -> {
+            miniJavaLexer.removeErrorListeners();
+            miniJavaLexer.addErrorListener(listener);
+         }
+         case DfaLexer dfaLexer -> {
+            dfaLexer.removeErrorListeners();
+            dfaLexer.addErrorListener(listener);
+         }
+         default -> throw new IllegalStateException("Unexpected value: " + tokenSource);
+      }
+
+      List<String> tokens = new ArrayList<>();
+      Token token;
+      do {
+         token = tokenSource.nextToken();
+         tokens.add(token.getType() + " '" + token.getText() + "' " + token.getLine() + ":"
+            + token.getCharPositionInLine() + " " + token.getStartIndex() + "-" + token.getStopIndex()
+            + " " + token.getChannel());
+      } while (token.getType() != Token.EOF);
+      return new Lexed(tokens, errors);
+   }
+
+   private static void assertSameTokens(String input) {
+      Lexed expected = lex(input, Parser.Lexer.ANTLR);
+      assertEquals(input, expected, lex(input, Parser.Lexer.DFA));
+      assertEquals(input, expected, lex(unbuffered(input), Parser.Lexer.DFA));
+   }
+
+   private static CharStream unbuffered(String input) {
+      return new UnbufferedCharStream(new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8)), 2, StandardCharsets.UTF_8);
+   }
+
+   @Test
+   public void matchesMiniJavaLexer() {
+      INPUTS.forEach(TestDfaLexer::assertSameTokens);
+   }
+
+   @Test
+   public void matchesMiniJavaLexerOnRandomInput() {
+      Random random = new Random(444);
+      for (int test = 0; test < 1000; test++) {
+         StringBuilder input = new StringBuilder();
+         int length = random.nextInt(40);
+         for (int index = 0; index < length; index++) {
+            input.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+         }
+         assertSameTokens(input.toString());
+      }
+   }
+
+   @Test
+   public void examples() {
+      for (String name : Examples.NAMES) {
+         String source = Examples.source(name);
+         assertSameTokens(source);
+
+         List<String> ruleNames = Arrays.asList(MiniJavaParser.ruleNames);
+         assertEquals(
+            name,
+            Trees.toStringTree(Parser.parse(source, Parser.Lexer.ANTLR), ruleNames),
+            Trees.toStringTree(Parser.parse(source, Parser.Lexer.DFA), ruleNames)
+         );
+      }
+   }
+}
@@ -0,0 +1,91 @@
+package minijava.lang.parser;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.IntStream;
+import minijava.lang.Examples;
+import minijava.lang.parser.AST.Program;
+import minijava.lang.parser.FlatAst.Kind;
+import minijava.lang.parser.FlatAst.Node;
+import org.junit.Test;
+
+import static minijava.lang.parser.TestRecursiveDescentParser.dump;
+import static org.junit.Assert.assertEquals;
+
+public class TestFlatAst {
+
+   private static final String SOURCE = """
+      class Main {
+         public static void main(String[] a) {
+            System.out.println(new A().f(2));
+         }
+      }
+      class A extends B {
+         int x;
+         public int f(int n) {
+            x = n * 3;
+            return x.length;
+         }
+      }
+      class B { }
+      """;
+
+   private static List<Kind> kinds(FlatAst flatAst) {
+      return IntStream.range(0, flatAst.size()).mapToObj(flatAst::kind).toList();
+   }
+
+   @Test
+   public void encodesInPreorder() {
+      FlatAst flatAst = FlatAst.of(Parser.program(SOURCE, Parser.Lexer.DFA, Parser.Mode.RECURSIVE_DESCENT));
+
+      assertEquals(
+         List.of(
+            Kind.PROGRAM, Kind.MAIN_CLASS, Kind.PRINT, Kind.NEW_OBJECT, Kind.METHOD_CALL, Kind.NUMBER,
+            Kind.CLASS_DECL, Kind.VAR_DECL, Kind.INT, Kind.METHOD_DECL, Kind.INT, Kind.METHOD_PARAM, Kind.INT,
+            Kind.ASSIGN, Kind.ID, Kind.TIMES, Kind.NUMBER, Kind.ID, Kind.LENGTH,
+            Kind.CLASS_DECL
+         ),
+         kinds(flatAst)
+      );
+      Node classDecl = flatAst.root().children().get(1);
+      assertEquals(Optional.of("A"), classDecl.identifier());
+      assertEquals(Optional.of("B"), classDecl.secondIdentifier());
+      assertEquals(List.of(Kind.VAR_DECL, Kind.METHOD_DECL), classDecl.children().stream().map(Node::kind).toList());
+
+      Node call = flatAst.node(3).continuation().get();
+      assertEquals(Optional.of("f"), call.identifier());
+      assertEquals(2, call.operands().get(0).value());
+      assertEquals(Optional.empty(), call.continuation());
+   }
+
+   @Test
+   public void internsIdentifiers() {
+      FlatAst flatAst = FlatAst.of(Parser.program(SOURCE, Parser.Lexer.DFA, Parser.Mode.RECURSIVE_DESCENT));
+
+      int x = flatAst.identifier(7);
+      assertEquals("x", flatAst.name(x));
+      assertEquals(x, flatAst.identifier(13));
+      assertEquals(x, flatAst.identifier(17));
+      assertEquals(-1, flatAst.identifier(2));
+      assertEquals(7, flatAst.names());
+   }
+
+   @Test
+   public void decodesTheSameAst() {
+      for (String name : Examples.NAMES) {
+         Program program = Parser.program(Examples.source(name), Parser.Lexer.DFA, Parser.Mode.RECURSIVE_DESCENT);
+
+         assertEquals(name, dump(program), dump(FlatAst.of(program).toProgram()));
+      }
+   }
+
+   @Test
+   public void encodesLongExpressions() {
+      String source = SOURCE.replace("n * 3", "1" + " + n".repeat(20000));
+      FlatAst flatAst = FlatAst.of(Parser.program(source, Parser.Lexer.DFA, Parser.Mode.RECURSIVE_DESCENT));
+
+      // one operation with a term per operand instead of 3 nodes
+      assertEquals(20 + 20000 - 1, flatAst.size());
+      assertEquals(1, flatAst.toProgram().classDecls().get(0).methodDecls().get(0).statements().size());
+   }
+}
@@ -0,0 +1,115 @@
+package minijava.lang.parser;
+
+import java.util.ArrayList;
+import java.util.List;
+import minijava.lang.Examples;
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.TokenSource;
+import org.junit.Test;
+
+import static minijava.lang.parser.TestRecursiveDescentParser.dump;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class TestParallelParser {
+
+   private static final String MAIN = """
+         class Main {
+            public static void main(String[] a) {
+               { System.out.println(new C0().f(1)); }
+            }
+         }
+      """;
+
+   private static List<String> ranges(String source) {
+      TokenSource tokenSource = Parser.tokenSource(CharStreams.fromString(source), Parser.Lexer.DFA);
+      List<Token> tokens = new ArrayList<>();
+      Token token;
+      do {
+         token = tokenSource.nextToken();
+         tokens.add(token);
+      } while (token.getType() != Token.EOF);
+      return ParallelParser.split(tokens).stream()
+         .map((range) -> String.join(" ", range.stream().map(Token::getText).toList()))
+         .toList();
+   }
+
+   private static String generated(int classes) {
+      StringBuilder source = new StringBuilder(MAIN);
+      for (int index = 0; index < classes; index++) {
+         source.append(String.format("""
+               class C%d extends C%d {
+                  int[] xs;
+                  public int f(int n) { // class C%d { }
+                     xs = new int[n];
+                     { xs[0] = n * %d + this.f(n - 1); }
+                     return xs[0];
+                  }
+               }
+            """, index, index + 1, index, index));
+      }
+      return source.append("class C").append(classes).append(" { }").toString();
+   }
+
+   @Test
+   public void splitsAtTopLevelClasses() {
+      assertEquals(
+         List.of("class A { { } }", "class B extends A { public int f ( ) { { } return 1 ; } }", "class C { }"),
+         ranges("class A { { } } class B extends A { public int f() { {} return 1; } } // class D\nclass C { }")
+      );
+      assertEquals(List.of("x", "class A { class B { } }", "class C"), ranges("x class A { class B { } } class C"));
+      assertEquals(List.of(), ranges(""));
+   }
+
+   @Test
+   public void matchesMiniJavaVisitor() {
+      String source = generated(300);
+
+      assertEquals(
+         dump(new MiniJavaVisitorImpl().visit(Parser.parse(source))),
+         dump(ParallelParser.program(Parser.tokenSource(CharStreams.fromString(source), Parser.Lexer.DFA)))
+      );
+   }
+
+   @Test
+   public void examples() {
+      for (String name : Examples.NAMES) {
+         String source = Examples.source(name);
+
+         assertEquals(
+            name,
+            dump(new MiniJavaVisitorImpl().visit(Parser.parse(source))),
+            dump(Parser.program(source, Parser.Lexer.ANTLR, Parser.Mode.PARALLEL))
+         );
+      }
+   }
+
+   @Test
+   public void compilationUnits() {
+      String classes = generated(3).substring(MAIN.length());
+
+      for (String input : List.of(generated(3), classes, "")) {
+         assertEquals(
+            dump(new MiniJavaVisitorImpl().visit(Parser.parseCompilationUnit(input))),
+            dump(Parser.compilationUnit(input, Parser.Lexer.DFA, Parser.Mode.PARALLEL))
+         );
+      }
+   }
+
+   @Test
+   public void reportsErrorsAtTheirSourceLine() {
+      String source = generated(3).replace("n * 2 + this.f(n - 1);", "n * 2 + this.f(n - 1)");
+
+      try {
+         ParallelParser.program(Parser.tokenSource(CharStreams.fromString(source), Parser.Lexer.ANTLR));
+         fail();
+      } catch (IllegalStateException e) {
+         assertEquals("line 26:41 expected ';' but found '}'", e.getMessage());
+      }
+      assertEquals(
+         dump(new MiniJavaVisitorImpl().visit(Parser.parse(source))),
+         dump(Parser.program(source, Parser.Lexer.ANTLR, Parser.Mode.PARALLEL))
+      );
+   }
+}
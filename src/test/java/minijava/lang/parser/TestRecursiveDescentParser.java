@@ -0,0 +1,197 @@
+package minijava.lang.parser;
+
+import java.lang.reflect.RecordComponent;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.stream.Collectors;
+import minijava.lang.Examples;
+import minijava.lang.parser.AST.Addition;
+import minijava.lang.parser.AST.ClassExpression;
+import minijava.lang.parser.AST.ExprClassMember;
+import minijava.lang.parser.AST.Expression;
+import minijava.lang.parser.AST.LessThan;
+import minijava.lang.parser.AST.Multiplication;
+import minijava.lang.parser.AST.Program;
+import minijava.lang.parser.AST.Subtraction;
+import org.antlr.v4.runtime.CharStreams;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class TestRecursiveDescentParser {
+
+   private static final String PROGRAM = """
+         class Main {
+            public static void main(String[] a) {
+               System.out.println(new Test().run(%s));
+            }
+         }
+
+         class Test extends Base {
+            int x;
+            int[] xs;
+            boolean b;
+            Test t;
+
+            public int run(int n) {
+               int i;
+               Base base;
+               i = %s;
+               xs = new int[n + 1];
+               xs[i - 1] = (this.get(xs, 0)).length;
+               base = new Test();
+               if (%s) t = this; else { }
+               while (!b && i < n) { i = i + 1; }
+               return %s;
+            }
+
+            public int[] get(int[] ys, int j) {
+               return ys;
+            }
+         }
+
+         class Base { }
+      """;
+
+   private static final List<String> EXPRESSIONS = List.of(
+      "1",
+      "10 - 3 - 2",
+      "1 + 2 * 3 - 4 * 5 < 6 && true",
+      "!b && x < 3",
+      "!(b && false) && !!b",
+      "(1 + 2) * (3 - 4)",
+      "xs[i + 1] * xs.length + this.get(xs, i * 2)[0]",
+      "new int[n * 2].length - new Test().run(i - 1, this.run(1 + 2 * 3))",
+      "t.run(xs[xs[0]]) * x - (x)"
+   );
+
+   private static final String[] OPERATORS = { " + ", " - ", " * ", " < ", " && " };
+
+   private static final String[] TERMS = { "x", "1", "this.run(x + 1)", "xs[i]", "xs.length", "(x - 2)", "!b", "true" };
+
+   private static void assertSameAst(String source) {
+      String expected = dump(new MiniJavaVisitorImpl().visit(Parser.parse(source)));
+      for (Parser.Lexer lexer : Parser.Lexer.values()) {
+         assertEquals(source, expected, dump(RecursiveDescentParser.program(
+            Parser.tokenSource(CharStreams.fromString(source), lexer))));
+      }
+   }
+
+   private static String program(String expression) {
+      return String.format(PROGRAM, expression, expression, expression, expression);
+   }
+
+   /**
+    * Structural representation of an AST, the {@link ClassExpression} nodes do not implement equals.
+    */
+   static String dump(Object node) {
+      return switch (node) {
+         case null                  -> "_";
+         case Optional<?> optional  -> optional.map(TestRecursiveDescentParser::dump).orElse("_");
+         case List<?> list          -> list.stream()
+            .map(TestRecursiveDescentParser::dump)
+            .collect(Collectors.joining(", ", "[", "]"));
+         case ExprClassMember member -> "ExprClassMember(" + member.identifier() + ", " + dump(member.memberParams())
+            + ", " + dump(member.expr2()) + ")";
+         case ClassExpression expr  -> node.getClass().getSimpleName() + "(" + expr.identifier() + ", "
+            + dump(expr.expr2()) + ")";
+         case Record record         -> {
+            StringBuilder builder = new StringBuilder(node.getClass().getSimpleName()).append('(');
+            for (RecordComponent component : record.getClass().getRecordComponents()) {
+               try {
+                  builder.append(dump(component.getAccessor().invoke(record))).append(", ");
+               } catch (ReflectiveOperationException e) {
+                  throw new IllegalStateException(e);
+               }
+            }
+            yield builder.append(')').toString();
+         }
+         default                    -> String.valueOf(node);
+      };
+   }
+
+   @Test
+   public void matchesMiniJavaVisitor() {
+      EXPRESSIONS.forEach((expression) -> assertSameAst(program(expression)));
+   }
+
+   @Test
+   public void matchesMiniJavaVisitorOnRandomExpressions() {
+      Random random = new Random(442);
+      for (int test = 0; test < 100; test++) {
+         StringBuilder expression = new StringBuilder(TERMS[random.nextInt(TERMS.length)]);
+         int operators = random.nextInt(6);
+         for (int index = 0; index < operators; index++) {
+            expression.append(OPERATORS[random.nextInt(OPERATORS.length)]).append(TERMS[random.nextInt(TERMS.length)]);
+         }
+         assertSameAst(program(expression.toString()));
+      }
+   }
+
+   @Test
+   public void parsesLongExpressionsIteratively() {
+      String expression = "1" + " + 1".repeat(20000);
+      Program program = RecursiveDescentParser.program(
+         Parser.tokenSource(CharStreams.fromString(program(expression)), Parser.Lexer.DFA));
+
+      assertEquals(2, program.classDecls().size());
+   }
+
+   @Test
+   public void groupsOperatorsByPrecedence() {
+      for (Parser.Mode mode : Parser.Mode.values()) {
+         Program program = Parser.program(program("10 - 3 - 2 * x + 1 < x"), Parser.Lexer.DFA, mode);
+         Expression expression = program.classDecls().get(0).methodDecls().get(0).returnExpr();
+
+         Subtraction subtraction = (Subtraction) expression.next();
+         assertEquals(mode.name(), 2, subtraction.operands().size());
+         assertEquals(mode.name(), 1, ((Multiplication) subtraction.operands().get(1).next()).operands().size());
+         Addition addition = (Addition) subtraction.next();
+         assertEquals(mode.name(), 1, addition.operands().size());
+         assertEquals(mode.name(), null, ((LessThan) addition.next()).next());
+      }
+   }
+
+   @Test
+   public void examples() {
+      for (String name : Examples.NAMES) {
+         assertSameAst(Examples.source(name));
+      }
+   }
+
+   @Test
+   public void compilationUnits() {
+      String classes = "class A extends B { public int f() { return 1; } } class B { }";
+      String source = "class Main { public static void main(String[] a) { System.out.println(1); } } " + classes;
+
+      assertEquals(
+         dump(new MiniJavaVisitorImpl().visit(Parser.parseCompilationUnit(source))),
+         dump(Parser.compilationUnit(source, Parser.Lexer.ANTLR, Parser.Mode.RECURSIVE_DESCENT))
+      );
+      assertEquals(
+         dump(new MiniJavaVisitorImpl().visit(Parser.parseCompilationUnit(classes))),
+         dump(Parser.compilationUnit(classes, Parser.Lexer.DFA, Parser.Mode.RECURSIVE_DESCENT))
+      );
+   }
+
+   @Test(expected = IllegalStateException.class)
+   public void rejectsSyntaxErrors() {
+      RecursiveDescentParser.program(Parser.tokenSource(CharStreams.fromString(program("1 +")), Parser.Lexer.ANTLR));
+   }
+
+   @Test(expected = IllegalStateException.class)
+   public void rejectsTokenRecognitionErrors() {
+      RecursiveDescentParser.program(Parser.tokenSource(CharStreams.fromString(program("x # 1")), Parser.Lexer.DFA));
+   }
+
+   @Test
+   public void fallsBackToMiniJavaParser() {
+      String source = program("x # + 1");
+
+      String expected = dump(new MiniJavaVisitorImpl().visit(Parser.parse(source)));
+
+      assertEquals(expected, dump(Parser.program(source, Parser.Lexer.ANTLR, Parser.Mode.RECURSIVE_DESCENT)));
+      assertEquals(expected, dump(Parser.program(source, Parser.Lexer.DFA, Parser.Mode.RECURSIVE_DESCENT)));
+   }
+}
@@ -0,0 +1,97 @@
+package minijava.lang.parser;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import minijava.lang.Examples;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TestSourceIndex {
+
+   private static final String ALPHABET = "ab1 /{}\n\t\r;é";
+
+   /**
+    * @return The source with {@code _} for every skipped byte and {@code x} for every other
+    */
+   private static String skipped(String source) {
+      SourceIndex index = SourceIndex.scan(source.getBytes(StandardCharsets.UTF_8));
+      StringBuilder skipped = new StringBuilder();
+      for (int offset = 0; offset < source.length(); offset++) {
+         skipped.append(index.isSkipped(offset) ? '_' : 'x');
+      }
+      return skipped.toString();
+   }
+
+   private static void assertSameIndex(String source) {
+      byte[] bytes = source.getBytes(StandardCharsets.UTF_8);
+      SourceIndex expected = SourceIndex.scanScalar(bytes);
+      SourceIndex index = SourceIndex.scan(bytes);
+
+      assertEquals(source, expected.isAscii(), index.isAscii());
+      assertEquals(source, expected.lines(), index.lines());
+      for (int offset = 0; offset <= bytes.length; offset++) {
+         assertEquals(source, expected.line(offset), index.line(offset));
+         assertEquals(source, expected.charPositionInLine(offset), index.charPositionInLine(offset));
+         assertEquals(source, expected.isSkipped(offset), index.isSkipped(offset));
+         assertEquals(source, expected.skip(offset), index.skip(offset));
+      }
+   }
+
+   @Test
+   public void findsLines() {
+      SourceIndex index = SourceIndex.scan("a\nbc\n\nd é = 1;\n".getBytes(StandardCharsets.UTF_8));
+
+      assertEquals(5, index.lines());
+      assertEquals(1, index.line(0));
+      assertEquals(1, index.line(1));
+      assertEquals(2, index.line(2));
+      assertEquals(3, index.line(5));
+      assertEquals(4, index.line(6));
+      assertEquals(5, index.line(16));
+      assertEquals(6, index.lineStart(4));
+      assertEquals(4, index.charPositionInLine(11));
+      assertFalse(index.isAscii());
+   }
+
+   @Test
+   public void findsWhiteSpaceAndComments() {
+      assertEquals("x_x", skipped("a b"));
+      assertEquals("x______x", skipped("a // c\nb"));
+      assertEquals("x_xx", skipped("a //"));
+      assertEquals("x____", skipped("a //\n"));
+      assertEquals("_______xxx", skipped("//\nfoo\nbar"));
+      assertEquals("x_xx_x", skipped("a /x b"));
+      assertEquals("_____", skipped("/// /"));
+      assertEquals("x__x", skipped("x\t\rx"));
+   }
+
+   @Test
+   public void skipsToTheNextToken() {
+      String source = "a" + " ".repeat(200) + "// comment\n" + "\n".repeat(70) + "b   ";
+      SourceIndex index = SourceIndex.scan(source.getBytes(StandardCharsets.UTF_8));
+
+      assertEquals(0, index.skip(0));
+      assertEquals(source.indexOf('b'), index.skip(1));
+      assertEquals(source.length(), index.skip(source.indexOf('b') + 1));
+      assertTrue(index.isAscii());
+   }
+
+   @Test
+   public void matchesScalarScan() {
+      Random random = new Random(446);
+      for (int test = 0; test < 2000; test++) {
+         StringBuilder source = new StringBuilder();
+         int length = random.nextInt(300);
+         for (int index = 0; index < length; index++) {
+            source.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+         }
+         assertSameIndex(source.toString());
+      }
+      for (String name : Examples.NAMES) {
+         assertSameIndex(Examples.source(name));
+      }
+   }
+}
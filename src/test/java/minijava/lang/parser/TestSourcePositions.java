@@ -0,0 +1,84 @@
+package minijava.lang.parser;
+
+import java.util.Optional;
+import minijava.lang.parser.AST.AssignStatement;
+import minijava.lang.parser.AST.ClassDecl;
+import minijava.lang.parser.AST.MethodDecl;
+import minijava.lang.parser.AST.Program;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class TestSourcePositions {
+
+   private static final String SOURCE = """
+      class Main {
+         public static void main(String[] a) {
+            System.out.println(new A().f(1));
+         }
+      }
+      // ünïcödé
+      class A {
+         int x;
+         public int f(int n) {
+            x = n;
+            return x + n;
+         }
+      }
+      """;
+
+   @Test
+   public void packsStartAndLength() {
+      long position = SourcePositions.pack(Integer.MAX_VALUE, 7);
+
+      assertEquals(Integer.MAX_VALUE, SourcePositions.start(position));
+      assertEquals(7, SourcePositions.length(position));
+      assertEquals(0, SourcePositions.start(SourcePositions.pack(0, Integer.MAX_VALUE)));
+      assertEquals(Integer.MAX_VALUE, SourcePositions.length(SourcePositions.pack(0, Integer.MAX_VALUE)));
+   }
+
+   @Test
+   public void locatesNodesInEveryMode() {
+      for (Parser.Lexer lexer : Parser.Lexer.values()) {
+         for (Parser.Mode mode : Parser.Mode.values()) {
+            String name = lexer + " " + mode;
+            SourcePositions positions = new SourcePositions();
+            Program program = Parser.program(SOURCE, lexer, mode, positions);
+            ClassDecl classDecl = program.classDecls().get(0);
+            MethodDecl methodDecl = classDecl.methodDecls().get(0);
+            AssignStatement assign = (AssignStatement) methodDecl.statements().get(0);
+
+            assertEquals(name, Optional.of("line 3:6"), positions.location(program.mainClass().statement()));
+            assertEquals(name, Optional.of("line 7:0"), positions.location(classDecl));
+            assertEquals(name, Optional.of("line 9:3"), positions.location(methodDecl));
+            assertEquals(name, Optional.of("line 10:6"), positions.location(assign));
+            assertEquals(name, Optional.of("line 10:6"), positions.location(assign.varName()));
+            assertEquals(name, Optional.of("line 10:10"), positions.location(assign.expr()));
+            assertEquals(name, Optional.of("line 11:13"), positions.location(methodDecl.returnExpr()));
+            assertEquals(name, Optional.of("line 8:7"), positions.location(classDecl.varDecls().get(0).varName()));
+            assertEquals(name, 5, SourcePositions.length(positions.position(methodDecl.returnExpr()).getAsLong()));
+         }
+      }
+   }
+
+   @Test
+   public void mergesTablesOfParallelParses() {
+      SourcePositions positions = new SourcePositions();
+      Program program = Parser.program(SOURCE, Parser.Lexer.DFA, Parser.Mode.PARALLEL, positions);
+      SourcePositions merged = new SourcePositions();
+      merged.putAll(positions);
+      MethodDecl methodDecl = program.classDecls().get(0).methodDecls().get(0);
+
+      assertEquals(positions.size(), merged.size());
+      assertEquals(Optional.of("line 9:3"), merged.location(methodDecl));
+      assertEquals(Optional.of("line 3:6"), merged.location(program.mainClass().statement()));
+   }
+
+   @Test
+   public void keepsNoPositionsByDefault() {
+      Program program = Parser.program(SOURCE, Parser.Lexer.DFA, Parser.Mode.RECURSIVE_DESCENT);
+
+      assertEquals(Optional.empty(), SourcePositions.NONE.location(program.mainClass()));
+      assertEquals(0, SourcePositions.NONE.size());
+   }
+}
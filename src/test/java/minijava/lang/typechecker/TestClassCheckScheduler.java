@@ -0,0 +1,107 @@
+package minijava.lang.typechecker;
+
+import java.util.List;
+import org.junit.Test;
+import minijava.lang.parser.AST.Program;
+import minijava.lang.parser.MiniJavaVisitorImpl;
+import minijava.lang.parser.Parser;
+import minijava.lang.parser.SymbolTable;
+import minijava.lang.parser.SymbolTableFactory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TestClassCheckScheduler {
+
+   private static Program program(String input) {
+      return (Program) new MiniJavaVisitorImpl().visit(Parser.parse(input));
+   }
+
+   private static SymbolTable<?> symbolTable(Program program) {
+      return new SymbolTableFactory(program)
+         .newTable()
+         .populate()
+         .build();
+   }
+
+   @Test
+   public void checkOrder() {
+      Program program = program("""
+            class Main {
+               public static void main(String[] a) { System.out.println(1); }
+            }
+
+            class D extends C { }
+
+            class C extends A { }
+
+            class B extends A { }
+
+            class A { }
+
+            class E { }
+         """);
+      List<String> order = new ClassCheckScheduler(program, ClassHierarchy.of(symbolTable(program))).checkOrder().stream()
+         .map((classDecl) -> classDecl.className().id())
+         .toList();
+
+      assertEquals(5, order.size());
+      assertTrue(order.indexOf("A") < order.indexOf("B"));
+      assertTrue(order.indexOf("A") < order.indexOf("C"));
+      assertTrue(order.indexOf("C") < order.indexOf("D"));
+   }
+
+   @Test(expected = IllegalStateException.class)
+   public void circularDependency() {
+      Program program = program("""
+            class Main {
+               public static void main(String[] a) { System.out.println(1); }
+            }
+
+            class A extends C { }
+
+            class B extends A { }
+
+            class C extends B { }
+
+            class D { }
+         """);
+      ClassCheckScheduler.visitAndCheck(symbolTable(program), program, 2);
+   }
+
+   @Test
+   public void visitAndCheck() {
+      Program program = program("""
+            class Main {
+               public static void main(String[] a) { System.out.println(1); }
+            }
+
+            class B extends A {
+               public int two() { return 2; }
+            }
+
+            class A {
+               int x;
+               public int one() { return 1; }
+            }
+         """);
+      ClassCheckScheduler.visitAndCheck(symbolTable(program), program, 2);
+   }
+
+   @Test(expected = IllegalStateException.class)
+   public void visitAndCheckFailure() {
+      Program program = program("""
+            class Main {
+               public static void main(String[] a) { System.out.println(1); }
+            }
+
+            class B extends A {
+               int y;
+               int y;
+            }
+
+            class A { }
+         """);
+      ClassCheckScheduler.visitAndCheck(symbolTable(program), program, 2);
+   }
+}
@@ -0,0 +1,88 @@
+package minijava.lang.typechecker;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import org.junit.Test;
+import minijava.lang.parser.AST.ClassDecl;
+import minijava.lang.parser.AST.Identifier;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TestClassHierarchy {
+
+   private static ClassDecl classDecl(String className, String superClass) {
+      return new ClassDecl(
+         new Identifier(className),
+         Optional.ofNullable(superClass).map(Identifier::new),
+         List.of(),
+         List.of()
+      );
+   }
+
+   private static List<String> names(List<ClassDecl> classDecls) {
+      return classDecls.stream()
+         .map((classDecl) -> classDecl.className().id())
+         .toList();
+   }
+
+   @Test
+   public void subclassQueries() {
+      ClassHierarchy classHierarchy = new ClassHierarchy(List.of(
+         classDecl("D", "B"),
+         classDecl("A", null),
+         classDecl("B", "A"),
+         classDecl("C", "A"),
+         classDecl("E", null)
+      ));
+
+      assertTrue(classHierarchy.isSubclass("D", "A"));
+      assertTrue(classHierarchy.isSubclass("D", "B"));
+      assertTrue(classHierarchy.isSubclass("A", "A"));
+      assertFalse(classHierarchy.isSubclass("D", "C"));
+      assertFalse(classHierarchy.isSubclass("A", "D"));
+      assertFalse(classHierarchy.isSubclass("E", "A"));
+
+      assertEquals(2, classHierarchy.depth("D"));
+      assertEquals(0, classHierarchy.depth("E"));
+      assertEquals("B", classHierarchy.superClass("D").get().className().id());
+      assertEquals(List.of("A", "B", "D", "C"), names(classHierarchy.descendants("A")));
+      assertEquals(List.of("B", "C"), names(classHierarchy.subclasses("A")));
+
+      List<String> preorder = names(classHierarchy.preorder());
+      assertEquals(5, preorder.size());
+      assertTrue(preorder.indexOf("B") < preorder.indexOf("D"));
+   }
+
+   @Test(expected = IllegalStateException.class)
+   public void circularDependency() {
+      new ClassHierarchy(List.of(
+         classDecl("A", "C"),
+         classDecl("B", "A"),
+         classDecl("C", "B"),
+         classDecl("D", null)
+      ));
+   }
+
+   @Test(expected = IllegalStateException.class)
+   public void undeclaredSuperClass() {
+      new ClassHierarchy(List.of(
+         classDecl("A", "B")
+      ));
+   }
+
+   @Test
+   public void deepHierarchy() {
+      List<ClassDecl> classDecls = new ArrayList<>();
+      classDecls.add(classDecl("C0", null));
+      for (int depth = 1; depth < 100_000; depth++) {
+         classDecls.add(classDecl("C" + depth, "C" + (depth - 1)));
+      }
+      ClassHierarchy classHierarchy = new ClassHierarchy(classDecls);
+
+      assertEquals(99_999, classHierarchy.depth("C99999"));
+      assertTrue(classHierarchy.isSubclass("C99999", "C0"));
+   }
+}
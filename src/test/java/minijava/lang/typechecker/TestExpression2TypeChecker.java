@@ -2,7 +2,10 @@ package minijava.lang.typechecker;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.Optional;
 import org.junit.Test;
+import minijava.lang.parser.AST.ClassDecl;
+import minijava.lang.parser.AST.ClassType;
 import minijava.lang.parser.AST.IntArray;
 import minijava.lang.parser.AST.Type;
 import minijava.lang.parser.AST.Identifier;
@@ -14,6 +17,11 @@ import static org.junit.Assert.assertFalse;
 
 public class TestExpression2TypeChecker {
 
+   private static final ClassHierarchy CLASS_HIERARCHY = new ClassHierarchy(List.of(
+      new ClassDecl(new Identifier("A"), Optional.empty(), List.of(), List.of()),
+      new ClassDecl(new Identifier("B"), Optional.of(new Identifier("A")), List.of(), List.of())
+   ));
+
    @Test
    public void areMatchingMethodHeaders() {
       List<MethodParam> params = Arrays.asList(
@@ -26,14 +34,25 @@ public class TestExpression2TypeChecker {
         new Int()
       );
 
-      assertTrue(Expression2TypeChecker.areMatchingMethodHeaders(params, types));
+      assertTrue(Expression2TypeChecker.areMatchingMethodHeaders(CLASS_HIERARCHY, params, types));
 
       types = Arrays.asList(
          new Int(),
          new IntArray()
       );
 
-      assertFalse(Expression2TypeChecker.areMatchingMethodHeaders(params, types));
+      assertFalse(Expression2TypeChecker.areMatchingMethodHeaders(CLASS_HIERARCHY, params, types));
+   }
+
+   @Test
+   public void classArgumentsMatchSuperclassParameters() {
+      List<MethodParam> params = List.of(new MethodParam(new ClassType(new Identifier("A")), new Identifier("p")));
+
+      assertTrue(Expression2TypeChecker.areMatchingMethodHeaders(
+         CLASS_HIERARCHY, params, List.of(new ClassType(new Identifier("B")))));
+      assertFalse(Expression2TypeChecker.areMatchingMethodHeaders(
+         CLASS_HIERARCHY, List.of(new MethodParam(new ClassType(new Identifier("B")), new Identifier("p"))),
+         List.of(new ClassType(new Identifier("A")))));
    }
 
 }
@@ -1,7 +1,265 @@
 package minijava.lang.typechecker;
 
 import org.junit.Test;
+import minijava.lang.parser.AST.MethodDecl;
+import minijava.lang.parser.AST.Program;
+import minijava.lang.parser.MiniJavaVisitorImpl;
+import minijava.lang.parser.Parser;
+import minijava.lang.parser.SymbolTable;
+import minijava.lang.parser.SymbolTableFactory;
+
 import static org.junit.Assert.*;
 public class TestTypeChecker {
 
+   private static SymbolTable<?> check(String input) {
+      Program program = (Program) new MiniJavaVisitorImpl().visit(Parser.parse(input));
+      SymbolTable<?> symbolTable = new SymbolTableFactory(program)
+         .newTable()
+         .populate()
+         .build();
+      TypeChecker.visitAndCheck(symbolTable, program);
+      return symbolTable;
+   }
+
+   @Test
+   public void factorial() {
+      check("""
+            class Factorial {
+               public static void main(String[] a) {
+                  System.out.println(new Fac().ComputeFac(10));
+               }
+            }
+
+            class Fac {
+               public int ComputeFac(int num) {
+                  int num_aux;
+                  if (num < 1)
+                     num_aux = 1;
+                  else
+                     num_aux = num * (this.ComputeFac(num - 1));
+                  return num_aux;
+               }
+            }
+         """);
+   }
+
+   @Test
+   public void inheritedMembers() {
+      check("""
+            class Main {
+               public static void main(String[] a) {
+                  System.out.println(new B().init().get().length);
+               }
+            }
+
+            class A {
+               int[] numbers;
+               public int[] get() { return numbers; }
+            }
+
+            class B extends A {
+               public B init() {
+                  numbers = new int[10];
+                  return this;
+               }
+            }
+         """);
+   }
+
+   @Test(expected = IllegalStateException.class)
+   public void unknownMethod() {
+      check("""
+            class Main {
+               public static void main(String[] a) { System.out.println(new A().start()); }
+            }
+
+            class A { }
+         """);
+   }
+
+   @Test(expected = IllegalStateException.class)
+   public void mismatchedArguments() {
+      check("""
+            class Main {
+               public static void main(String[] a) { System.out.println(new A().start(true)); }
+            }
+
+            class A {
+               public int start(int x) { return x; }
+            }
+         """);
+   }
+
+   @Test(expected = IllegalStateException.class)
+   public void mismatchedOverride() {
+      check("""
+            class Main {
+               public static void main(String[] a) { System.out.println(new B().start(1)); }
+            }
+
+            class A {
+               public int start(int x) { return x; }
+            }
+
+            class B extends A {
+               public int start(boolean x) { return 1; }
+            }
+         """);
+   }
+
+   @Test(expected = IllegalStateException.class)
+   public void mismatchedClassParameterOverride() {
+      check("""
+            class Main {
+               public static void main(String[] a) { System.out.println(new B().start(new C())); }
+            }
+
+            class A {
+               public int start(A x) { return 1; }
+            }
+
+            class B extends A {
+               public int start(C x) { return 2; }
+            }
+
+            class C { }
+         """);
+   }
+
+   @Test(expected = IllegalStateException.class)
+   public void mismatchedClassReturnOverride() {
+      check("""
+            class Main {
+               public static void main(String[] a) { System.out.println(new B().start()); }
+            }
+
+            class A {
+               public A start() { return this; }
+            }
+
+            class B extends A {
+               public C start() { return new C(); }
+            }
+
+            class C { }
+         """);
+   }
+
+   @Test
+   public void subclassArgumentsAndCovariantReturns() {
+      check("""
+            class Main {
+               public static void main(String[] a) { System.out.println(new A().count(new B().self())); }
+            }
+
+            class A {
+               public A self() { return this; }
+               public int count(A x) { return 1; }
+            }
+
+            class B extends A {
+               public B self() { return this; }
+               public A parent() {
+                  A a;
+                  a = new B();
+                  return this;
+               }
+            }
+         """);
+   }
+
+   @Test(expected = IllegalStateException.class)
+   public void unrelatedClassAssignment() {
+      check("""
+            class Main {
+               public static void main(String[] a) { System.out.println(new C().start()); }
+            }
+
+            class A { }
+
+            class B { }
+
+            class C {
+               public int start() {
+                  A a;
+                  a = new B();
+                  return 0;
+               }
+            }
+         """);
+   }
+
+   @Test(expected = IllegalStateException.class)
+   public void unrelatedClassReturn() {
+      check("""
+            class Main {
+               public static void main(String[] a) { System.out.println(new C().start()); }
+            }
+
+            class A { }
+
+            class B extends A { }
+
+            class C {
+               public B start() { return new A(); }
+            }
+         """);
+   }
+
+   @Test
+   public void virtualMethodTable() {
+      SymbolTable<?> symbolTable = check("""
+            class Main {
+               public static void main(String[] a) { System.out.println(new C().one()); }
+            }
+
+            class A {
+               public int one() { return 1; }
+               public int two() { return 2; }
+            }
+
+            class B extends A {
+               public int two() { return 22; }
+            }
+
+            class C extends B { }
+         """);
+      VirtualMethodTable virtualMethodTable = VirtualMethodTable.of(symbolTable);
+      MethodDecl two = virtualMethodTable.resolve("C", "two").get();
+
+      assertEquals("B", virtualMethodTable.declaringClass(two).className().id());
+      assertEquals("A", virtualMethodTable.declaringClass(virtualMethodTable.resolve("C", "one").get()).className().id());
+      assertEquals(2, virtualMethodTable.methods("C").size());
+      assertTrue(virtualMethodTable.resolve("A", "three").isEmpty());
+   }
+
+   @Test
+   public void longExpressions() {
+      check("""
+            class Main {
+               public static void main(String[] a) { System.out.println(new A().f(1)); }
+            }
+
+            class A {
+               public int f(int x) {
+                  boolean b;
+                  b = %s;
+                  return %s;
+               }
+            }
+         """.formatted("x < 1" + " && b".repeat(10000), "1" + " + x * 2 - x".repeat(10000)));
+   }
+
+   @Test(expected = IllegalStateException.class)
+   public void chainedComparison() {
+      check("""
+            class Main {
+               public static void main(String[] a) { System.out.println(new A().f(1)); }
+            }
+
+            class A {
+               public boolean f(int x) { return 1 < x < 3; }
+            }
+         """);
+   }
 }
@@ -0,0 +1,78 @@
+class Shapes {
+   public static void main(String[] a) {
+      System.out.println(new Canvas().Start());
+   }
+}
+
+class Shape {
+   int width;
+   int height;
+
+   public Shape Init(int w, int h) {
+      width = w;
+      height = h;
+      return this;
+   }
+
+   public int Area() {
+      return 0;
+   }
+
+   public int Scaled(int factor) {
+      return this.Area() * factor * factor;
+   }
+}
+
+class Rectangle extends Shape {
+   public int Area() {
+      return width * height;
+   }
+}
+
+class Triangle extends Shape {
+   public int Area() {
+      return width * (height - 1) - width;
+   }
+}
+
+class Square extends Rectangle {
+   public Shape InitSide(int side) {
+      return this.Init(side, side);
+   }
+}
+
+class Canvas {
+   public int Start() {
+      Shape shape;
+      int total;
+      int i;
+      int[] sides;
+      total = 0;
+      sides = new int[4];
+      sides[0] = 3;
+      sides[1] = 5;
+      sides[2] = 7;
+      sides[3] = 11;
+      i = 0;
+      while (i < sides.length) {
+         shape = new Rectangle().Init(sides[i], i + 1);
+         System.out.println(shape.Area());
+         total = total + shape.Scaled(2);
+         shape = new Square().InitSide(sides[i]);
+         System.out.println(shape.Area());
+         total = total + shape.Area();
+         shape = new Shape().Init(sides[i], sides[i]);
+         total = total + shape.Area();
+         shape = new Triangle().Init(i, sides[i]);
+         total = total - shape.Scaled(i);
+         i = i + 1;
+      }
+      System.out.println(10 - 3 - 2);
+      System.out.println(1 + 2 * 3 - 4 * 5 * 2 + 100);
+      if (!false && false) System.out.println(1);
+      else System.out.println(0);
+      if (1 + 2 < 4 && 3 < 2 + 2) System.out.println(1);
+      else System.out.println(0);
+      return total;
+   }
+}